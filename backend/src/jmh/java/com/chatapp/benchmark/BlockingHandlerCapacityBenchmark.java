@@ -0,0 +1,81 @@
+package com.chatapp.benchmark;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Connection capacity of blocking handlers. Each of {@code connections} concurrent clients sends
+ * one request whose handler blocks for {@code blockMs}, as a JPA call does while PostgreSQL
+ * answers. {@code platformPool} serves them on 200 platform threads, Tomcat's default maximum and
+ * the bound the socket handlers had on netty's workers; {@code virtualThreads} gives each handler
+ * its own virtual thread, as {@code spring.threads.virtual.enabled} and the socket dispatcher do.
+ * The score is the time to serve every connection once: the pool needs {@code connections / 200}
+ * rounds of {@code blockMs}, virtual threads about one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BlockingHandlerCapacityBenchmark {
+
+  private static final int PLATFORM_THREADS = 200;
+
+  @Param({"200", "2000", "10000"})
+  public int connections;
+
+  @Param({"20"})
+  public int blockMs;
+
+  private ExecutorService platform;
+  private ExecutorService virtual;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    platform = Executors.newFixedThreadPool(PLATFORM_THREADS);
+    virtual = Executors.newVirtualThreadPerTaskExecutor();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    platform.shutdownNow();
+    virtual.shutdownNow();
+  }
+
+  @Benchmark
+  public void platformPool() throws InterruptedException {
+    serveAll(platform);
+  }
+
+  @Benchmark
+  public void virtualThreads() throws InterruptedException {
+    serveAll(virtual);
+  }
+
+  private void serveAll(ExecutorService executor) throws InterruptedException {
+    CountDownLatch served = new CountDownLatch(connections);
+    for (int i = 0; i < connections; i++) {
+      executor.execute(
+          () -> {
+            try {
+              Thread.sleep(blockMs);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            } finally {
+              served.countDown();
+            }
+          });
+    }
+    served.await();
+  }
+}
@@ -0,0 +1,82 @@
+package com.chatapp.benchmark;
+
+import com.chatapp.socket.EncodedPayload;
+import com.corundumstudio.socketio.protocol.JacksonJsonSupport;
+import com.corundumstudio.socketio.protocol.JsonSupport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.PooledByteBufAllocator;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of broadcasting one new_message event to a room, versus room size. Each recipient's
+ * transport encodes {@code [event, payload]} through netty-socketio's JsonSupport into a pooled
+ * buffer. {@code perRecipient} passes the payload map, as before. {@code serializeOnce} encodes it
+ * once into an {@link EncodedPayload} and lets every recipient copy the cached bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BroadcastEncodingBenchmark {
+
+  @Param({"10", "100", "1000"})
+  public int roomSize;
+
+  private final JsonSupport jsonSupport = new JacksonJsonSupport();
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final PooledByteBufAllocator allocator = PooledByteBufAllocator.DEFAULT;
+
+  private Map<String, Object> message;
+
+  @Setup
+  public void setUp() {
+    message =
+        Map.of(
+            "id", "5f0c6a3e-8d1b-4c7e-9a2f-1b3c5d7e9f01",
+            "roomId", "b2d4f6a8-1c3e-4a5b-8d7f-9e0a1b2c3d4e",
+            "userId", "c3e5a7b9-2d4f-4b6c-9e8a-0f1b2c3d4e5f",
+            "userName", "Benchmark User",
+            "userPicture", "https://example.com/avatar.png",
+            "content", "The quick brown fox jumps over the lazy dog",
+            "type", "TEXT",
+            "imageUrl", "",
+            "timestamp", "2024-01-01T12:00:00");
+  }
+
+  @Benchmark
+  public long perRecipient() throws IOException {
+    return fanOut(message);
+  }
+
+  @Benchmark
+  public long serializeOnce() throws IOException {
+    return fanOut(EncodedPayload.encode(objectMapper, message));
+  }
+
+  private long fanOut(Object payload) throws IOException {
+    List<Object> packet = List.of("new_message", payload);
+    long bytes = 0;
+    for (int i = 0; i < roomSize; i++) {
+      ByteBuf buffer = allocator.buffer();
+      try {
+        jsonSupport.writeValue(new ByteBufOutputStream(buffer), packet);
+        bytes += buffer.readableBytes();
+      } finally {
+        buffer.release();
+      }
+    }
+    return bytes;
+  }
+}
@@ -0,0 +1,67 @@
+package com.chatapp.benchmark;
+
+import com.chatapp.config.JwtConfig;
+import com.chatapp.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.SecretKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of authenticating one REST request: the filter validates the token and the controller reads
+ * the user id again. {@code legacy} reproduces the previous JwtUtil (key rebuilt and token parsed on
+ * every call), {@code cached} goes through the current JwtUtil.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtVerificationBenchmark {
+
+  private static final String SECRET =
+      "benchmark-secret-key-for-jwt-signing-must-be-at-least-512-bits-long-for-hmac-sha512";
+
+  private JwtUtil jwtUtil;
+  private String token;
+
+  @Setup
+  public void setUp() throws Exception {
+    JwtConfig jwtConfig = new JwtConfig();
+    jwtConfig.setSecret(SECRET);
+
+    jwtUtil = new JwtUtil();
+    Field field = JwtUtil.class.getDeclaredField("jwtConfig");
+    field.setAccessible(true);
+    field.set(jwtUtil, jwtConfig);
+    jwtUtil.init();
+
+    token = jwtUtil.generateToken("user-id", "user@example.com", "User", null);
+  }
+
+  @Benchmark
+  public String legacy() {
+    // validateToken: parse + isTokenExpired parse, then getUserIdFromToken parse
+    legacyParse(token);
+    legacyParse(token).getExpiration();
+    return legacyParse(token).getSubject();
+  }
+
+  @Benchmark
+  public String cached() {
+    jwtUtil.validateToken(token);
+    return jwtUtil.getUserIdFromToken(token);
+  }
+
+  private static Claims legacyParse(String token) {
+    SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes());
+    return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+  }
+}
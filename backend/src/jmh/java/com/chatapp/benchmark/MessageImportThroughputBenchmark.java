@@ -0,0 +1,143 @@
+package com.chatapp.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Insert throughput of message imports against a running PostgreSQL, in messages per second.
+ * {@code perRowCommit} stores each message in its own transaction, as one createMessage call per
+ * message would; {@code batchedChunks} sends the statements of MessageJdbcWriter as JDBC batches
+ * and commits every {@code chunkSize} messages, as MessageImportService does. Run with {@code
+ * reWriteBatchedInserts} on and off to see what the driver's multi-row rewrite adds. Rows go to a
+ * scratch table with the indexes of {@code messages} but no foreign keys, so {@code jdbcUrl} must
+ * point at a database the benchmark may create and drop that table in.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MessageImportThroughputBenchmark {
+
+  private static final int MESSAGES = 10000;
+
+  private static final String INSERT_SQL =
+      "INSERT INTO bench_import_messages"
+          + " (id, room_id, user_id, content, message_type, image_url, created_at, seq)"
+          + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+  @Param({"jdbc:postgresql://localhost:5432/chatapp"})
+  public String jdbcUrl;
+
+  @Param({"chatuser"})
+  public String username;
+
+  @Param({"chatpass"})
+  public String password;
+
+  @Param({"false", "true"})
+  public boolean reWriteBatchedInserts;
+
+  @Param({"1000"})
+  public int chunkSize;
+
+  private Connection connection;
+  private String roomId;
+  private long seq;
+
+  @Setup(Level.Trial)
+  public void setUp() throws SQLException {
+    String separator = jdbcUrl.contains("?") ? "&" : "?";
+    connection =
+        DriverManager.getConnection(
+            jdbcUrl + separator + "reWriteBatchedInserts=" + reWriteBatchedInserts,
+            username,
+            password);
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(
+          "CREATE TABLE IF NOT EXISTS bench_import_messages ("
+              + " id VARCHAR(36) PRIMARY KEY, room_id VARCHAR(36) NOT NULL,"
+              + " user_id VARCHAR(36) NOT NULL, content TEXT, message_type VARCHAR(20),"
+              + " image_url VARCHAR(500), created_at TIMESTAMP, seq BIGINT)");
+      statement.execute(
+          "CREATE UNIQUE INDEX IF NOT EXISTS idx_bench_import_room_seq"
+              + " ON bench_import_messages(room_id, seq)");
+      statement.execute(
+          "CREATE INDEX IF NOT EXISTS idx_bench_import_room_created"
+              + " ON bench_import_messages(room_id, created_at DESC)");
+    }
+  }
+
+  @Setup(Level.Iteration)
+  public void truncate() throws SQLException {
+    connection.setAutoCommit(true);
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("TRUNCATE bench_import_messages");
+    }
+    roomId = UUID.randomUUID().toString();
+    seq = 0;
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("DROP TABLE IF EXISTS bench_import_messages");
+    }
+    connection.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(MESSAGES)
+  public void perRowCommit() throws SQLException {
+    connection.setAutoCommit(true);
+    try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL)) {
+      for (int i = 0; i < MESSAGES; i++) {
+        bind(ps, i);
+        ps.executeUpdate();
+      }
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(MESSAGES)
+  public void batchedChunks() throws SQLException {
+    connection.setAutoCommit(false);
+    try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL)) {
+      for (int i = 0; i < MESSAGES; i++) {
+        bind(ps, i);
+        ps.addBatch();
+        if ((i + 1) % chunkSize == 0 || i == MESSAGES - 1) {
+          ps.executeBatch();
+          connection.commit();
+        }
+      }
+    }
+  }
+
+  private void bind(PreparedStatement ps, int i) throws SQLException {
+    ps.setString(1, UUID.randomUUID().toString());
+    ps.setString(2, roomId);
+    ps.setString(3, "bench-user");
+    ps.setString(4, "Imported message " + i);
+    ps.setString(5, "TEXT");
+    ps.setString(6, null);
+    ps.setTimestamp(7, Timestamp.valueOf(LocalDateTime.now()));
+    ps.setLong(8, ++seq);
+  }
+}
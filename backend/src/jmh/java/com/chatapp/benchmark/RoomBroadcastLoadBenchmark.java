@@ -0,0 +1,141 @@
+package com.chatapp.benchmark;
+
+import com.chatapp.config.BroadcastBatchConfig;
+import com.chatapp.socket.MessageBroadcastBatcher;
+import com.chatapp.socket.RoomActivityNotifier;
+import com.chatapp.socket.RoomBroadcaster;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Load test of a busy room: several senders publish into one room of {@code roomSize} clients. The
+ * recording broadcaster encodes every frame once per recipient, as netty-socketio does per
+ * transport. {@code batchMs = 0} is the per-message new_message path; positive values use
+ * new_messages batching. Besides the JMH score (messages/s accepted), each trial prints the frames
+ * per second and the p99 publish-to-delivery latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(4)
+public class RoomBroadcastLoadBenchmark {
+
+  private static final String ROOM_ID = "benchmark-room";
+
+  @Param({"0", "5", "20"})
+  public int batchMs;
+
+  @Param({"200"})
+  public int roomSize;
+
+  private MessageBroadcastBatcher batcher;
+  private RecordingBroadcaster broadcaster;
+  private long startNanos;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    broadcaster = new RecordingBroadcaster(roomSize);
+    batcher = new MessageBroadcastBatcher();
+    inject(batcher, "config", new BroadcastBatchConfig());
+    inject(batcher, "roomBroadcaster", broadcaster);
+    // Not started: activity is only accumulated, so frames count message broadcasts alone
+    inject(batcher, "roomActivityNotifier", new RoomActivityNotifier());
+    batcher.start();
+    startNanos = System.nanoTime();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    batcher.stop();
+    double seconds = (System.nanoTime() - startNanos) / 1e9;
+    System.out.printf(
+        "%nbatchMs=%d frames/s=%.0f messages/s=%.0f p99=%.3f ms%n",
+        batchMs,
+        broadcaster.frames.get() / seconds,
+        broadcaster.messages.get() / seconds,
+        broadcaster.latencyPercentile(0.99) / 1e6);
+  }
+
+  @Benchmark
+  public void publish() {
+    Map<String, Object> message =
+        Map.of(
+            "id", "message-id",
+            "roomId", ROOM_ID,
+            "userId", "user-id",
+            "userName", "Benchmark User",
+            "content", "hello from the load test",
+            "type", "TEXT",
+            "timestamp", System.nanoTime());
+    batcher.publish(ROOM_ID, batchMs, message);
+  }
+
+  private static void inject(Object target, String name, Object value) throws Exception {
+    Field field = MessageBroadcastBatcher.class.getDeclaredField(name);
+    field.setAccessible(true);
+    field.set(target, value);
+  }
+
+  /** Stands in for the socket layer: encodes each frame per recipient and records latencies. */
+  static final class RecordingBroadcaster extends RoomBroadcaster {
+    private static final int SAMPLES = 1 << 20;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final int roomSize;
+    private final AtomicLong frames = new AtomicLong();
+    private final AtomicLong messages = new AtomicLong();
+    private final long[] latencies = new long[SAMPLES];
+
+    RecordingBroadcaster(int roomSize) {
+      this.roomSize = roomSize;
+    }
+
+    @Override
+    public void sendToRoom(String roomId, String event, Object data) {
+      for (int i = 0; i < roomSize; i++) {
+        try {
+          objectMapper.writeValueAsBytes(data);
+        } catch (JsonProcessingException e) {
+          throw new IllegalStateException(e);
+        }
+      }
+      frames.incrementAndGet();
+
+      long now = System.nanoTime();
+      Map<?, ?> payload = (Map<?, ?>) data;
+      List<?> delivered =
+          payload.containsKey("messages") ? (List<?>) payload.get("messages") : List.of(payload);
+      for (Object message : delivered) {
+        long sentAt = (Long) ((Map<?, ?>) message).get("timestamp");
+        latencies[(int) (messages.getAndIncrement() % SAMPLES)] = now - sentAt;
+      }
+    }
+
+    long latencyPercentile(double percentile) {
+      int count = (int) Math.min(messages.get(), SAMPLES);
+      if (count == 0) {
+        return 0;
+      }
+      long[] sorted = Arrays.copyOf(latencies, count);
+      Arrays.sort(sorted);
+      return sorted[(int) Math.min(count - 1, Math.ceil(percentile * count) - 1)];
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package com.chatapp.benchmark;
+
+import com.chatapp.search.RoomDirectoryIndex;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Room directory search over synthetic rooms (1M by default; names and descriptions mix English
+ * and Japanese words). {@code linearScan} stands in for the {@code ILIKE '%q%'} sequential scan by
+ * testing every public room's lowercased name and description; {@code indexedSearch} and {@code
+ * autocomplete} use the trigram index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RoomDirectorySearchBenchmark {
+
+  private static final String[] WORDS = {
+    "tokyo", "osaka", "ramen", "coffee", "java", "spring", "gaming", "anime", "music", "travel",
+    "photo", "running", "books", "movies", "design", "startup", "cooking", "hiking", "guitar",
+    "東京", "大阪", "ラーメン", "コーヒー", "旅行", "音楽", "写真", "読書", "映画", "料理"
+  };
+
+  @Param({"1000000"})
+  public int roomCount;
+
+  @Param({"ramen", "コーヒー", "java spring"})
+  public String query;
+
+  private RoomDirectoryIndex index;
+  private final List<String[]> rooms = new ArrayList<>();
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    index = new RoomDirectoryIndex(256);
+    for (int i = 0; i < roomCount; i++) {
+      String name = words(random, 1 + random.nextInt(3)) + " " + i;
+      String description = words(random, 5 + random.nextInt(10));
+      boolean isPrivate = random.nextInt(10) == 0;
+      index.put("room-" + i, name, description, isPrivate);
+      if (!isPrivate) {
+        rooms.add(
+            new String[] {
+              "room-" + i, name.toLowerCase(Locale.ROOT), description.toLowerCase(Locale.ROOT)
+            });
+      }
+    }
+  }
+
+  @Benchmark
+  public List<String> linearScan() {
+    String term = query.toLowerCase(Locale.ROOT);
+    List<String> page = new ArrayList<>(20);
+    for (String[] room : rooms) {
+      if ((room[1].contains(term) || room[2].contains(term)) && page.size() < 20) {
+        page.add(room[0]);
+      }
+    }
+    return page;
+  }
+
+  @Benchmark
+  public RoomDirectoryIndex.Result indexedSearch() {
+    return index.search(query, null, 0, 20);
+  }
+
+  @Benchmark
+  public List<String> autocomplete() {
+    return index.autocomplete(query.substring(0, Math.min(3, query.length())), 10);
+  }
+
+  private static String words(Random random, int count) {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      if (i > 0) {
+        text.append(' ');
+      }
+      text.append(WORDS[random.nextInt(WORDS.length)]);
+    }
+    return text.toString();
+  }
+}
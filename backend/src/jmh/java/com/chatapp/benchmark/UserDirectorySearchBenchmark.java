@@ -0,0 +1,69 @@
+package com.chatapp.benchmark;
+
+import com.chatapp.search.UserDirectoryIndex;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Mention autocomplete over {@code userCount} synthetic users, per keystroke of a typed prefix:
+ * unscoped, and scoped to the members of a room of {@code roomSize} users.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class UserDirectorySearchBenchmark {
+
+  private static final String[] NAMES = {
+    "taro", "hanako", "kenji", "yuki", "sakura", "john", "mary", "alex", "sam", "li", "山田", "佐藤"
+  };
+
+  @Param({"1000000"})
+  public int userCount;
+
+  @Param({"200", "20000"})
+  public int roomSize;
+
+  @Param({"s", "sak", "sakura y"})
+  public String prefix;
+
+  private UserDirectoryIndex index;
+  private Set<String> roomMembers;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    index = new UserDirectoryIndex();
+    for (int i = 0; i < userCount; i++) {
+      String name =
+          NAMES[random.nextInt(NAMES.length)] + " " + NAMES[random.nextInt(NAMES.length)] + i;
+      index.put("user-" + i, name, "user" + i + "@example.com");
+    }
+    roomMembers = new HashSet<>();
+    while (roomMembers.size() < roomSize) {
+      roomMembers.add("user-" + random.nextInt(userCount));
+    }
+  }
+
+  @Benchmark
+  public List<String> global() {
+    return index.search(prefix, 10, null);
+  }
+
+  @Benchmark
+  public List<String> roomScoped() {
+    return index.search(prefix, 10, roomMembers);
+  }
+}
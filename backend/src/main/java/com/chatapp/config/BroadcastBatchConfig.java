@@ -0,0 +1,28 @@
+package com.chatapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "chat.broadcast-batching")
+public class BroadcastBatchConfig {
+
+  private boolean enabled = true; // global switch; rooms opt in via broadcastBatchMs
+  private int maxBatchSize = 100; // a full batch is sent without waiting for the window
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public int getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  public void setMaxBatchSize(int maxBatchSize) {
+    this.maxBatchSize = maxBatchSize;
+  }
+}
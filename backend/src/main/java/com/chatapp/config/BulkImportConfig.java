@@ -0,0 +1,28 @@
+package com.chatapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "chat.bulk-import")
+public class BulkImportConfig {
+
+  private int chunkSize = 1000; // messages inserted and committed per transaction
+  private int maxMessages = 100000; // per request or stream
+
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  public void setChunkSize(int chunkSize) {
+    this.chunkSize = chunkSize;
+  }
+
+  public int getMaxMessages() {
+    return maxMessages;
+  }
+
+  public void setMaxMessages(int maxMessages) {
+    this.maxMessages = maxMessages;
+  }
+}
@@ -0,0 +1,19 @@
+package com.chatapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "chat.grpc")
+public class GrpcConfig {
+
+  private int subscriberBufferSize = 1000; // messages held for a SubscribeRoom client not ready
+
+  public int getSubscriberBufferSize() {
+    return subscriberBufferSize;
+  }
+
+  public void setSubscriberBufferSize(int subscriberBufferSize) {
+    this.subscriberBufferSize = subscriberBufferSize;
+  }
+}
@@ -9,6 +9,9 @@ public class JwtConfig {
 
   private String secret;
   private long expiration = 86400; // 24 hours in seconds
+  private long claimsCacheSize = 10000; // verified tokens kept in memory
+  private boolean statelessAuth = true; // build the principal from claims without a DB lookup
+  private boolean verifyUserExists = true; // stateless mode: reject tokens of deleted users
 
   public String getSecret() {
     return secret;
@@ -25,4 +28,28 @@ public class JwtConfig {
   public void setExpiration(long expiration) {
     this.expiration = expiration;
   }
+
+  public long getClaimsCacheSize() {
+    return claimsCacheSize;
+  }
+
+  public void setClaimsCacheSize(long claimsCacheSize) {
+    this.claimsCacheSize = claimsCacheSize;
+  }
+
+  public boolean isStatelessAuth() {
+    return statelessAuth;
+  }
+
+  public void setStatelessAuth(boolean statelessAuth) {
+    this.statelessAuth = statelessAuth;
+  }
+
+  public boolean isVerifyUserExists() {
+    return verifyUserExists;
+  }
+
+  public void setVerifyUserExists(boolean verifyUserExists) {
+    this.verifyUserExists = verifyUserExists;
+  }
 }
@@ -0,0 +1,108 @@
+package com.chatapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "chat.rate-limit")
+public class RateLimitConfig {
+
+  /** What happens to an event or request that finds its bucket empty. */
+  public enum Overflow {
+    DROP, // rejected: an error event on sockets, 429 over HTTP
+    DELAY, // held up to max-delay-ms for a token, on virtual threads only; dropped otherwise
+    DISCONNECT // the socket is closed; HTTP requests get 429 and the connection is closed
+  }
+
+  private boolean enabled = true;
+  private Overflow overflow = Overflow.DROP;
+  private long maxDelayMs = 500;
+  private Bucket connectionMessages = new Bucket(10, 5); // send_message per socket connection
+  private Bucket roomMessages = new Bucket(100, 50); // send_message per room, all senders
+  private Bucket connectionTyping = new Bucket(5, 2); // typing per socket connection
+  private Bucket http = new Bucket(60, 20); // /api/messages/** and /api/upload/** per user or IP
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public Overflow getOverflow() {
+    return overflow;
+  }
+
+  public void setOverflow(Overflow overflow) {
+    this.overflow = overflow;
+  }
+
+  public long getMaxDelayMs() {
+    return maxDelayMs;
+  }
+
+  public void setMaxDelayMs(long maxDelayMs) {
+    this.maxDelayMs = maxDelayMs;
+  }
+
+  public Bucket getConnectionMessages() {
+    return connectionMessages;
+  }
+
+  public void setConnectionMessages(Bucket connectionMessages) {
+    this.connectionMessages = connectionMessages;
+  }
+
+  public Bucket getRoomMessages() {
+    return roomMessages;
+  }
+
+  public void setRoomMessages(Bucket roomMessages) {
+    this.roomMessages = roomMessages;
+  }
+
+  public Bucket getConnectionTyping() {
+    return connectionTyping;
+  }
+
+  public void setConnectionTyping(Bucket connectionTyping) {
+    this.connectionTyping = connectionTyping;
+  }
+
+  public Bucket getHttp() {
+    return http;
+  }
+
+  public void setHttp(Bucket http) {
+    this.http = http;
+  }
+
+  public static class Bucket {
+    private int burst; // tokens available at once
+    private double perSecond; // refill rate
+
+    public Bucket() {}
+
+    public Bucket(int burst, double perSecond) {
+      this.burst = burst;
+      this.perSecond = perSecond;
+    }
+
+    public int getBurst() {
+      return burst;
+    }
+
+    public void setBurst(int burst) {
+      this.burst = burst;
+    }
+
+    public double getPerSecond() {
+      return perSecond;
+    }
+
+    public void setPerSecond(double perSecond) {
+      this.perSecond = perSecond;
+    }
+  }
+}
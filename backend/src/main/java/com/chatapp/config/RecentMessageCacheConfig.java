@@ -0,0 +1,46 @@
+package com.chatapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "chat.recent-messages")
+public class RecentMessageCacheConfig {
+
+  private boolean enabled = true; // has no effect with chat.cluster.enabled (node-local buffers)
+  private int capacity = 200; // newest messages kept per room
+  private long maxRooms = 10000;
+  private long idleMinutes = 30; // rooms not read or written for this long are evicted
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public void setCapacity(int capacity) {
+    this.capacity = capacity;
+  }
+
+  public long getMaxRooms() {
+    return maxRooms;
+  }
+
+  public void setMaxRooms(long maxRooms) {
+    this.maxRooms = maxRooms;
+  }
+
+  public long getIdleMinutes() {
+    return idleMinutes;
+  }
+
+  public void setIdleMinutes(long idleMinutes) {
+    this.idleMinutes = idleMinutes;
+  }
+}
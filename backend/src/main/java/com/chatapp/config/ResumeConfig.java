@@ -0,0 +1,46 @@
+package com.chatapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "chat.resume")
+public class ResumeConfig {
+
+  private boolean enabled = true;
+  private int capacity = 500; // room events kept for replay per room
+  private int maxRooms = 10000;
+  private int idleMinutes = 10;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public void setCapacity(int capacity) {
+    this.capacity = capacity;
+  }
+
+  public int getMaxRooms() {
+    return maxRooms;
+  }
+
+  public void setMaxRooms(int maxRooms) {
+    this.maxRooms = maxRooms;
+  }
+
+  public int getIdleMinutes() {
+    return idleMinutes;
+  }
+
+  public void setIdleMinutes(int idleMinutes) {
+    this.idleMinutes = idleMinutes;
+  }
+}
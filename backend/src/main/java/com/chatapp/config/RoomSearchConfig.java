@@ -0,0 +1,37 @@
+package com.chatapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "chat.room-search")
+public class RoomSearchConfig {
+
+  private boolean indexed = true; // false keeps the ILIKE queries
+  private int descriptionLength = 256; // leading description characters that are indexed
+  private int maxAutocompleteLimit = 20;
+
+  public boolean isIndexed() {
+    return indexed;
+  }
+
+  public void setIndexed(boolean indexed) {
+    this.indexed = indexed;
+  }
+
+  public int getDescriptionLength() {
+    return descriptionLength;
+  }
+
+  public void setDescriptionLength(int descriptionLength) {
+    this.descriptionLength = descriptionLength;
+  }
+
+  public int getMaxAutocompleteLimit() {
+    return maxAutocompleteLimit;
+  }
+
+  public void setMaxAutocompleteLimit(int maxAutocompleteLimit) {
+    this.maxAutocompleteLimit = maxAutocompleteLimit;
+  }
+}
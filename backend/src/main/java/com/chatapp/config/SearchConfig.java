@@ -0,0 +1,37 @@
+package com.chatapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "chat.search")
+public class SearchConfig {
+
+  private String engine = "ngram"; // ngram (in-memory inverted index) or database (ILIKE scan)
+  private long maxRooms = 1000; // room indexes kept in memory
+  private long idleMinutes = 30; // room indexes not searched or written for this long are evicted
+
+  public String getEngine() {
+    return engine;
+  }
+
+  public void setEngine(String engine) {
+    this.engine = engine;
+  }
+
+  public long getMaxRooms() {
+    return maxRooms;
+  }
+
+  public void setMaxRooms(long maxRooms) {
+    this.maxRooms = maxRooms;
+  }
+
+  public long getIdleMinutes() {
+    return idleMinutes;
+  }
+
+  public void setIdleMinutes(long idleMinutes) {
+    this.idleMinutes = idleMinutes;
+  }
+}
@@ -0,0 +1,37 @@
+package com.chatapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "chat.sequence")
+public class SequenceConfig {
+
+  private int blockSize = 100; // sequence numbers a node reserves per database round trip
+  private int maxRooms = 10000;
+  private int idleMinutes = 30; // unused numbers of idle rooms are handed back after this long
+
+  public int getBlockSize() {
+    return blockSize;
+  }
+
+  public void setBlockSize(int blockSize) {
+    this.blockSize = blockSize;
+  }
+
+  public int getMaxRooms() {
+    return maxRooms;
+  }
+
+  public void setMaxRooms(int maxRooms) {
+    this.maxRooms = maxRooms;
+  }
+
+  public int getIdleMinutes() {
+    return idleMinutes;
+  }
+
+  public void setIdleMinutes(int idleMinutes) {
+    this.idleMinutes = idleMinutes;
+  }
+}
@@ -0,0 +1,28 @@
+package com.chatapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "chat.socket-dispatch")
+public class SocketDispatchConfig {
+
+  private boolean virtualThreads = true; // run socket listeners off the netty event loop
+  private int maxQueuedEvents = 256; // per connection; further events are rejected as busy
+
+  public boolean isVirtualThreads() {
+    return virtualThreads;
+  }
+
+  public void setVirtualThreads(boolean virtualThreads) {
+    this.virtualThreads = virtualThreads;
+  }
+
+  public int getMaxQueuedEvents() {
+    return maxQueuedEvents;
+  }
+
+  public void setMaxQueuedEvents(int maxQueuedEvents) {
+    this.maxQueuedEvents = maxQueuedEvents;
+  }
+}
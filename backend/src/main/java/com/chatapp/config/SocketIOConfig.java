@@ -1,5 +1,6 @@
 package com.chatapp.config;
 
+import com.corundumstudio.socketio.AckMode;
 import com.corundumstudio.socketio.Configuration;
 import com.corundumstudio.socketio.SocketIOServer;
 import org.springframework.beans.factory.annotation.Value;
@@ -34,6 +35,10 @@ public class SocketIOConfig {
     config.setPingTimeout(60000); // 60 seconds
     config.setPingInterval(25000); // 25 seconds
 
+    // Handlers ack after the listener returns (write-behind commits, virtual-thread dispatch),
+    // so netty-socketio must not answer with an empty ack on their behalf
+    config.setAckMode(AckMode.MANUAL);
+
     // Authentication configuration will be added later
 
     return new SocketIOServer(config);
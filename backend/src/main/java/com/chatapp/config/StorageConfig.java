@@ -0,0 +1,47 @@
+package com.chatapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "chat.storage")
+public class StorageConfig {
+
+  private String type = "filesystem"; // BlobStore implementation
+  // Earlier versions wrote uploads here too; their files stay readable under their old names
+  private String directory = System.getProperty("java.io.tmpdir") + "/uploads";
+  private int metadataCacheSize = 10000; // blob metadata kept in memory for downloads
+  private long sendfileMinBytes = 48 * 1024; // smaller downloads are copied, larger use sendfile
+
+  public String getType() {
+    return type;
+  }
+
+  public void setType(String type) {
+    this.type = type;
+  }
+
+  public String getDirectory() {
+    return directory;
+  }
+
+  public void setDirectory(String directory) {
+    this.directory = directory;
+  }
+
+  public int getMetadataCacheSize() {
+    return metadataCacheSize;
+  }
+
+  public void setMetadataCacheSize(int metadataCacheSize) {
+    this.metadataCacheSize = metadataCacheSize;
+  }
+
+  public long getSendfileMinBytes() {
+    return sendfileMinBytes;
+  }
+
+  public void setSendfileMinBytes(long sendfileMinBytes) {
+    this.sendfileMinBytes = sendfileMinBytes;
+  }
+}
@@ -0,0 +1,28 @@
+package com.chatapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "chat.subscriptions")
+public class SubscriptionConfig {
+
+  private int maxRoomsPerConnection = 500;
+  private long activityIntervalMs = 1000; // room_activity goes out at most once per room per tick
+
+  public int getMaxRoomsPerConnection() {
+    return maxRoomsPerConnection;
+  }
+
+  public void setMaxRoomsPerConnection(int maxRoomsPerConnection) {
+    this.maxRoomsPerConnection = maxRoomsPerConnection;
+  }
+
+  public long getActivityIntervalMs() {
+    return activityIntervalMs;
+  }
+
+  public void setActivityIntervalMs(long activityIntervalMs) {
+    this.activityIntervalMs = activityIntervalMs;
+  }
+}
@@ -0,0 +1,37 @@
+package com.chatapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "chat.typing")
+public class TypingConfig {
+
+  private boolean coalesce = true;
+  private long tickMs = 500; // typing changes are batched and emitted at most once per tick
+  private long expireMs = 5000; // a typer is dropped when no typing event arrives for this long
+
+  public boolean isCoalesce() {
+    return coalesce;
+  }
+
+  public void setCoalesce(boolean coalesce) {
+    this.coalesce = coalesce;
+  }
+
+  public long getTickMs() {
+    return tickMs;
+  }
+
+  public void setTickMs(long tickMs) {
+    this.tickMs = tickMs;
+  }
+
+  public long getExpireMs() {
+    return expireMs;
+  }
+
+  public void setExpireMs(long expireMs) {
+    this.expireMs = expireMs;
+  }
+}
@@ -0,0 +1,64 @@
+package com.chatapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "chat.write-behind")
+public class WriteBehindConfig {
+
+  private boolean enabled = true;
+  private int queueCapacity = 10000;
+  private int flushSize = 200;
+  private long flushIntervalMs = 20; // max latency before a partial batch is flushed
+  private int retryAttempts = 5; // per message, after the batch and its first single insert fail
+  private long retryBackoffMs = 100; // doubled on every attempt
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public int getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  public void setQueueCapacity(int queueCapacity) {
+    this.queueCapacity = queueCapacity;
+  }
+
+  public int getFlushSize() {
+    return flushSize;
+  }
+
+  public void setFlushSize(int flushSize) {
+    this.flushSize = flushSize;
+  }
+
+  public long getFlushIntervalMs() {
+    return flushIntervalMs;
+  }
+
+  public void setFlushIntervalMs(long flushIntervalMs) {
+    this.flushIntervalMs = flushIntervalMs;
+  }
+
+  public int getRetryAttempts() {
+    return retryAttempts;
+  }
+
+  public void setRetryAttempts(int retryAttempts) {
+    this.retryAttempts = retryAttempts;
+  }
+
+  public long getRetryBackoffMs() {
+    return retryBackoffMs;
+  }
+
+  public void setRetryBackoffMs(long retryBackoffMs) {
+    this.retryBackoffMs = retryBackoffMs;
+  }
+}
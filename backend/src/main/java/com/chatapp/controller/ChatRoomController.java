@@ -5,9 +5,12 @@ import com.chatapp.entity.RoomMember;
 import com.chatapp.entity.User;
 import com.chatapp.security.JwtUtil;
 import com.chatapp.service.ChatRoomService;
+import com.chatapp.service.PresenceService;
+import com.chatapp.service.ReadCursorService;
 import com.chatapp.service.UserService;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -21,10 +24,15 @@ import org.springframework.web.bind.annotation.*;
 @CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"})
 public class ChatRoomController {
 
+  // Longer windows would make batched rooms feel laggy
+  private static final int MAX_BROADCAST_BATCH_MS = 100;
+
   @Autowired private ChatRoomService chatRoomService;
 
   @Autowired private UserService userService;
 
+  @Autowired private PresenceService presenceService;
+
   @Autowired private JwtUtil jwtUtil;
 
   @GetMapping("/public")
@@ -109,6 +117,11 @@ public class ChatRoomController {
       return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
     }
 
+    Integer batchMs = request.getBroadcastBatchMs();
+    if (batchMs != null && (batchMs < 0 || batchMs > MAX_BROADCAST_BATCH_MS)) {
+      return ResponseEntity.badRequest().build();
+    }
+
     return chatRoomService
         .findById(id)
         .map(
@@ -127,6 +140,9 @@ public class ChatRoomController {
               if (request.getIsPrivate() != null) {
                 room.setIsPrivate(request.getIsPrivate());
               }
+              if (request.getBroadcastBatchMs() != null) {
+                room.setBroadcastBatchMs(request.getBroadcastBatchMs());
+              }
 
               ChatRoom updatedRoom = chatRoomService.updateRoom(room);
               return ResponseEntity.ok(updatedRoom);
@@ -206,6 +222,52 @@ public class ChatRoomController {
     return ResponseEntity.ok(members);
   }
 
+  /** Ids of the room's members that are currently connected, answered from memory. */
+  @GetMapping("/{id}/online")
+  public ResponseEntity<Set<String>> getOnlineMembers(
+      @PathVariable String id, @RequestHeader("Authorization") String token) {
+    String userId = getUserIdFromToken(token);
+    if (userId == null) {
+      return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    }
+
+    // Members skip the room lookup; others get the same access rules as the member list
+    if (!chatRoomService.isUserMemberOfRoom(userId, id)) {
+      ChatRoom room = chatRoomService.findById(id).orElse(null);
+      if (room == null) {
+        return ResponseEntity.notFound().build();
+      }
+      if (room.getIsPrivate()) {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+      }
+    }
+
+    return ResponseEntity.ok(presenceService.getOnlineUserIds(id));
+  }
+
+  /** Moves the caller's read cursor to {@code seq}, or past every message when it is omitted. */
+  @PutMapping("/{id}/read")
+  public ResponseEntity<Void> markRead(
+      @PathVariable String id,
+      @RequestBody(required = false) MarkReadRequest request,
+      @RequestHeader("Authorization") String token) {
+    String userId = getUserIdFromToken(token);
+    if (userId == null) {
+      return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    }
+
+    Long seq = request != null ? request.getSeq() : null;
+    if (seq != null && seq < 0) {
+      return ResponseEntity.badRequest().build();
+    }
+    if (!chatRoomService.isUserMemberOfRoom(userId, id)) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+
+    chatRoomService.markRead(userId, id, seq != null ? seq : ReadCursorService.LATEST);
+    return ResponseEntity.noContent().build();
+  }
+
   @GetMapping("/search")
   public ResponseEntity<Page<ChatRoom>> searchPublicRooms(
       @RequestParam String q, Pageable pageable) {
@@ -213,6 +275,15 @@ public class ChatRoomController {
     return ResponseEntity.ok(rooms);
   }
 
+  @GetMapping("/autocomplete")
+  public ResponseEntity<List<ChatRoom>> autocompleteRooms(
+      @RequestParam String q, @RequestParam(defaultValue = "10") int limit) {
+    if (limit < 1) {
+      return ResponseEntity.badRequest().build();
+    }
+    return ResponseEntity.ok(chatRoomService.autocompleteRooms(q, limit));
+  }
+
   @DeleteMapping("/{id}")
   public ResponseEntity<Void> deleteRoom(
       @PathVariable String id, @RequestHeader("Authorization") String token) {
@@ -284,6 +355,7 @@ public class ChatRoomController {
     private String name;
     private String description;
     private Boolean isPrivate;
+    private Integer broadcastBatchMs;
 
     public String getName() {
       return name;
@@ -308,5 +380,25 @@ public class ChatRoomController {
     public void setIsPrivate(Boolean isPrivate) {
       this.isPrivate = isPrivate;
     }
+
+    public Integer getBroadcastBatchMs() {
+      return broadcastBatchMs;
+    }
+
+    public void setBroadcastBatchMs(Integer broadcastBatchMs) {
+      this.broadcastBatchMs = broadcastBatchMs;
+    }
+  }
+
+  public static class MarkReadRequest {
+    private Long seq;
+
+    public Long getSeq() {
+      return seq;
+    }
+
+    public void setSeq(Long seq) {
+      this.seq = seq;
+    }
   }
 }
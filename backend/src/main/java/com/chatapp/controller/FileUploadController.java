@@ -1,45 +1,36 @@
 package com.chatapp.controller;
 
 import com.chatapp.security.JwtUtil;
+import com.chatapp.storage.BlobResponseWriter;
+import com.chatapp.storage.BlobStore;
+import com.chatapp.storage.StoredBlob;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
 import java.util.Map;
-import java.util.UUID;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 @RestController
-@RequestMapping("/api/upload")
+@RequestMapping("/api")
 @CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"})
 public class FileUploadController {
 
+  // Public (see SecurityConfig) so that <img> tags can load files without a token
+  private static final String FILE_URL_PREFIX = "/api/files/";
+
   @Autowired private JwtUtil jwtUtil;
 
-  private final Path uploadLocation;
+  @Autowired private BlobStore blobStore;
 
-  public FileUploadController() {
-    try {
-      // Docker環境では/tmp/uploadsを使用（権限問題を回避）
-      String uploadDir = System.getProperty("java.io.tmpdir") + "/uploads";
-      uploadLocation = Paths.get(uploadDir);
-      Files.createDirectories(uploadLocation);
-    } catch (IOException e) {
-      throw new RuntimeException("Could not create upload directory", e);
-    }
-  }
+  @Autowired private BlobResponseWriter blobResponseWriter;
 
-  @PostMapping("/image")
+  @PostMapping("/upload/image")
   public ResponseEntity<Map<String, String>> uploadImage(
       @RequestParam("file") MultipartFile file, @RequestHeader("Authorization") String token) {
     String userId = getUserIdFromToken(token);
@@ -72,27 +63,16 @@ public class FileUploadController {
           .body(Map.of("error", "Unsupported image format. Allowed: JPEG, PNG, GIF, WebP"));
     }
 
-    try {
-      // Generate unique filename
+    try (InputStream content = file.getInputStream()) {
+      // Named by content hash: re-uploads of the same image share one file and one URL
+      StoredBlob blob = blobStore.put(content, contentType, userId);
       String originalFilename = file.getOriginalFilename();
-      String extension = "";
-      if (originalFilename != null && originalFilename.contains(".")) {
-        extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-      }
-      String filename = UUID.randomUUID().toString() + extension;
-
-      // Save file
-      Path targetLocation = uploadLocation.resolve(filename);
-      Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-
-      // Return file URL
-      String fileUrl = "/api/files/" + filename;
       return ResponseEntity.ok(
           Map.of(
-              "url", fileUrl,
-              "filename", filename,
+              "url", FILE_URL_PREFIX + blob.getId(),
+              "filename", blob.getId(),
               "originalName", originalFilename != null ? originalFilename : "",
-              "size", String.valueOf(file.getSize()),
+              "size", String.valueOf(blob.getSize()),
               "contentType", contentType));
 
     } catch (IOException e) {
@@ -101,34 +81,32 @@ public class FileUploadController {
     }
   }
 
-  @GetMapping("/files/{filename}")
-  public ResponseEntity<Resource> getFile(@PathVariable String filename) {
+  @GetMapping({"/upload/files/{filename}", "/files/{filename}"})
+  public void getFile(
+      @PathVariable String filename, HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    StoredBlob blob = blobStore.find(filename).orElse(null);
+    if (blob == null) {
+      response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+      return;
+    }
+
     try {
-      Path filePath = uploadLocation.resolve(filename).normalize();
-      Resource resource = new UrlResource(filePath.toUri());
-
-      if (resource.exists() && resource.isReadable()) {
-        // Determine content type
-        String contentType = Files.probeContentType(filePath);
-        if (contentType == null) {
-          contentType = "application/octet-stream";
-        }
-
-        return ResponseEntity.ok()
-            .contentType(MediaType.parseMediaType(contentType))
-            .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
-            .body(resource);
-      } else {
-        return ResponseEntity.notFound().build();
+      blobResponseWriter.write(blob, request, response);
+    } catch (NoSuchFileException e) {
+      // Deleted since the lookup
+      if (!response.isCommitted()) {
+        response.reset();
+        response.setStatus(HttpServletResponse.SC_NOT_FOUND);
       }
-    } catch (MalformedURLException e) {
-      return ResponseEntity.badRequest().build();
-    } catch (IOException e) {
-      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
     }
   }
 
-  @DeleteMapping("/files/{filename}")
+  /**
+   * Deletes the caller's upload of a file. Identical uploads share one blob, which stays available
+   * to the other uploaders until the last of them deletes it.
+   */
+  @DeleteMapping("/upload/files/{filename}")
   public ResponseEntity<Map<String, String>> deleteFile(
       @PathVariable String filename, @RequestHeader("Authorization") String token) {
     String userId = getUserIdFromToken(token);
@@ -137,10 +115,7 @@ public class FileUploadController {
     }
 
     try {
-      Path filePath = uploadLocation.resolve(filename).normalize();
-
-      if (Files.exists(filePath)) {
-        Files.delete(filePath);
+      if (blobStore.delete(filename, userId)) {
         return ResponseEntity.ok(Map.of("message", "File deleted successfully"));
       } else {
         return ResponseEntity.notFound().build();
@@ -1,9 +1,18 @@
 package com.chatapp.controller;
 
+import com.chatapp.dto.CursorSlice;
+import com.chatapp.dto.MessageCursor;
+import com.chatapp.dto.MessageSearchHit;
 import com.chatapp.entity.Message;
 import com.chatapp.security.JwtUtil;
 import com.chatapp.service.ChatRoomService;
+import com.chatapp.service.MessageImportService;
 import com.chatapp.service.MessageService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -12,6 +21,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -20,10 +30,17 @@ import org.springframework.web.bind.annotation.*;
 @CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"})
 public class MessageController {
 
+  private static final int MAX_HISTORY_LIMIT = 100;
+  private static final int MAX_RANGE_LIMIT = 500;
+
   @Autowired private MessageService messageService;
 
   @Autowired private ChatRoomService chatRoomService;
 
+  @Autowired private MessageImportService messageImportService;
+
+  @Autowired private ObjectMapper objectMapper;
+
   @Autowired private JwtUtil jwtUtil;
 
   @GetMapping("/room/{roomId}")
@@ -45,6 +62,36 @@ public class MessageController {
     return ResponseEntity.ok(messages);
   }
 
+  @GetMapping(value = "/room/{roomId}", params = "limit")
+  public ResponseEntity<CursorSlice<Message>> getMessageHistory(
+      @PathVariable String roomId,
+      @RequestParam(required = false) String before,
+      @RequestParam int limit,
+      @RequestHeader("Authorization") String token) {
+    String userId = getUserIdFromToken(token);
+    if (userId == null) {
+      return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    }
+
+    // Check if user has access to the room
+    if (!chatRoomService.isUserMemberOfRoom(userId, roomId)) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+
+    MessageCursor cursor = null;
+    if (before != null && !before.isEmpty()) {
+      try {
+        cursor = MessageCursor.decode(before);
+      } catch (IllegalArgumentException e) {
+        return ResponseEntity.badRequest().build();
+      }
+    }
+
+    int windowSize = Math.max(1, Math.min(limit, MAX_HISTORY_LIMIT));
+    CursorSlice<Message> messages = messageService.findHistory(roomId, cursor, windowSize);
+    return ResponseEntity.ok(messages);
+  }
+
   @GetMapping("/room/{roomId}/recent")
   public ResponseEntity<List<Message>> getRecentMessages(
       @PathVariable String roomId,
@@ -64,8 +111,35 @@ public class MessageController {
     return ResponseEntity.ok(messages);
   }
 
+  /** Messages with {@code afterSeq < seq <= toSeq}, oldest first, for filling a detected gap. */
+  @GetMapping("/room/{roomId}/range")
+  public ResponseEntity<CursorSlice<Message>> getMessagesBySeqRange(
+      @PathVariable String roomId,
+      @RequestParam long afterSeq,
+      @RequestParam(required = false) Long toSeq,
+      @RequestParam(defaultValue = "" + MAX_RANGE_LIMIT) int limit,
+      @RequestHeader("Authorization") String token) {
+    String userId = getUserIdFromToken(token);
+    if (userId == null) {
+      return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    }
+
+    long upTo = toSeq != null ? toSeq : Long.MAX_VALUE;
+    if (afterSeq < 0 || upTo < afterSeq) {
+      return ResponseEntity.badRequest().build();
+    }
+
+    // Check if user has access to the room
+    if (!chatRoomService.isUserMemberOfRoom(userId, roomId)) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+
+    int windowSize = Math.max(1, Math.min(limit, MAX_RANGE_LIMIT));
+    return ResponseEntity.ok(messageService.findBySeqRange(roomId, afterSeq, upTo, windowSize));
+  }
+
   @GetMapping("/room/{roomId}/search")
-  public ResponseEntity<Page<Message>> searchMessages(
+  public ResponseEntity<Page<MessageSearchHit>> searchMessages(
       @PathVariable String roomId,
       @RequestParam String q,
       Pageable pageable,
@@ -80,8 +154,8 @@ public class MessageController {
       return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
     }
 
-    Page<Message> messages = messageService.searchMessages(roomId, q, pageable);
-    return ResponseEntity.ok(messages);
+    Page<MessageSearchHit> hits = messageService.searchMessages(roomId, q, pageable);
+    return ResponseEntity.ok(hits);
   }
 
   @GetMapping("/room/{roomId}/date-range")
@@ -171,6 +245,48 @@ public class MessageController {
     return ResponseEntity.ok(stats);
   }
 
+  @PostMapping(value = "/room/{roomId}/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<Map<String, Object>> importMessages(
+      @PathVariable String roomId,
+      @RequestParam(defaultValue = "false") boolean broadcast,
+      @RequestHeader("Authorization") String token,
+      InputStream body)
+      throws IOException {
+    String userId = getUserIdFromToken(token);
+    if (userId == null) {
+      return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    }
+
+    // Membership is checked once for the whole import
+    if (!chatRoomService.isUserMemberOfRoom(userId, roomId)) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+
+    MessageImportService.Batch batch = messageImportService.begin(userId, roomId, broadcast);
+    int line = 0;
+    try (MappingIterator<BulkMessageRequest> lines =
+        objectMapper.readerFor(BulkMessageRequest.class).readValues(body)) {
+      while (lines.hasNextValue()) {
+        line++;
+        batch.add(lines.nextValue().toMessage());
+      }
+    } catch (JsonProcessingException e) {
+      int errorLine = e.getLocation() != null ? e.getLocation().getLineNr() : line;
+      return importError(e.getOriginalMessage(), errorLine, batch);
+    } catch (IllegalArgumentException e) {
+      return importError(e.getMessage(), line, batch);
+    }
+
+    return ResponseEntity.ok(Map.of("imported", batch.finish()));
+  }
+
+  private static ResponseEntity<Map<String, Object>> importError(
+      String message, int line, MessageImportService.Batch batch) {
+    // Chunks committed before the failing line stay imported
+    return ResponseEntity.badRequest()
+        .body(Map.of("message", message, "line", line, "imported", batch.getImported()));
+  }
+
   @DeleteMapping("/{id}")
   public ResponseEntity<Void> deleteMessage(
       @PathVariable String id, @RequestHeader("Authorization") String token) {
@@ -209,4 +325,52 @@ public class MessageController {
 
     return jwtUtil.getUserIdFromToken(jwtToken);
   }
+
+  public static class BulkMessageRequest {
+    private String content;
+    private String type;
+    private String imageUrl;
+    private LocalDateTime createdAt;
+
+    Message toMessage() {
+      Message message = new Message();
+      message.setContent(content);
+      message.setMessageType(type != null ? Message.MessageType.valueOf(type) : null);
+      message.setImageUrl(imageUrl);
+      message.setCreatedAt(createdAt);
+      return message;
+    }
+
+    public String getContent() {
+      return content;
+    }
+
+    public void setContent(String content) {
+      this.content = content;
+    }
+
+    public String getType() {
+      return type;
+    }
+
+    public void setType(String type) {
+      this.type = type;
+    }
+
+    public String getImageUrl() {
+      return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+      this.imageUrl = imageUrl;
+    }
+
+    public LocalDateTime getCreatedAt() {
+      return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+      this.createdAt = createdAt;
+    }
+  }
 }
@@ -1,10 +1,13 @@
 package com.chatapp.controller;
 
 import com.chatapp.entity.User;
+import com.chatapp.security.JwtUtil;
+import com.chatapp.service.ChatRoomService;
 import com.chatapp.service.UserService;
 import java.util.List;
 import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -15,6 +18,10 @@ public class UserController {
 
   @Autowired private UserService userService;
 
+  @Autowired private ChatRoomService chatRoomService;
+
+  @Autowired private JwtUtil jwtUtil;
+
   @GetMapping("/{id}")
   public ResponseEntity<User> getUserById(@PathVariable String id) {
     return userService
@@ -38,8 +45,25 @@ public class UserController {
   }
 
   @GetMapping("/search")
-  public ResponseEntity<List<User>> searchUsers(@RequestParam String q) {
-    List<User> users = userService.searchUsers(q);
+  public ResponseEntity<List<User>> searchUsers(
+      @RequestParam String q,
+      @RequestParam(defaultValue = "20") int limit,
+      @RequestParam(required = false) String roomId,
+      @RequestHeader(value = "Authorization", required = false) String token) {
+    if (limit < 1) {
+      return ResponseEntity.badRequest().build();
+    }
+    // Only members may list who is in a room
+    if (roomId != null) {
+      String userId = getUserIdFromToken(token);
+      if (userId == null) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+      }
+      if (!chatRoomService.isUserMemberOfRoom(userId, roomId)) {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+      }
+    }
+    List<User> users = userService.searchUsers(q, limit, roomId);
     return ResponseEntity.ok(users);
   }
 
@@ -79,4 +103,17 @@ public class UserController {
       return ResponseEntity.notFound().build();
     }
   }
+
+  private String getUserIdFromToken(String token) {
+    if (token == null || !token.startsWith("Bearer ")) {
+      return null;
+    }
+
+    String jwtToken = token.substring(7);
+    if (!jwtUtil.validateToken(jwtToken)) {
+      return null;
+    }
+
+    return jwtUtil.getUserIdFromToken(jwtToken);
+  }
 }
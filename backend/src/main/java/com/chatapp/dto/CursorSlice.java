@@ -0,0 +1,33 @@
+package com.chatapp.dto;
+
+import java.util.List;
+
+/** A window of results with an opaque cursor for the next window; no total count is computed. */
+public class CursorSlice<T> {
+
+  private final List<T> content;
+  private final String nextCursor;
+  private final boolean hasNext;
+
+  public CursorSlice(List<T> content, String nextCursor, boolean hasNext) {
+    this.content = content;
+    this.nextCursor = nextCursor;
+    this.hasNext = hasNext;
+  }
+
+  public List<T> getContent() {
+    return content;
+  }
+
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  public boolean isHasNext() {
+    return hasNext;
+  }
+
+  public int getNumberOfElements() {
+    return content.size();
+  }
+}
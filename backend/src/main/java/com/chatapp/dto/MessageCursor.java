@@ -0,0 +1,57 @@
+package com.chatapp.dto;
+
+import com.chatapp.entity.Message;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in a room's history: the (createdAt, id) pair of the last message a client has
+ * seen. Encoded as URL-safe Base64 so clients treat it as opaque.
+ */
+public class MessageCursor {
+
+  private static final char SEPARATOR = '|';
+
+  private final LocalDateTime createdAt;
+  private final String id;
+
+  public MessageCursor(LocalDateTime createdAt, String id) {
+    this.createdAt = createdAt;
+    this.id = id;
+  }
+
+  public static MessageCursor of(Message message) {
+    return new MessageCursor(message.getCreatedAt(), message.getId());
+  }
+
+  public static MessageCursor decode(String cursor) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int separator = raw.indexOf(SEPARATOR);
+      if (separator <= 0 || separator == raw.length() - 1) {
+        throw new IllegalArgumentException("Malformed cursor");
+      }
+      return new MessageCursor(
+          LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException("Malformed cursor", e);
+    }
+  }
+
+  public String encode() {
+    String raw = createdAt.toString() + SEPARATOR + id;
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public LocalDateTime getCreatedAt() {
+    return createdAt;
+  }
+
+  public String getId() {
+    return id;
+  }
+}
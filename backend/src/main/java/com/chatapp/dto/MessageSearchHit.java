@@ -0,0 +1,53 @@
+package com.chatapp.dto;
+
+import com.chatapp.entity.Message;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import java.util.List;
+
+/**
+ * A message matched by a search, serialized as the message itself plus its relevance score and the
+ * character ranges of {@code content} that matched the query.
+ */
+public class MessageSearchHit {
+
+  @JsonUnwrapped private final Message message;
+  private final double score;
+  private final List<Highlight> highlights;
+
+  public MessageSearchHit(Message message, double score, List<Highlight> highlights) {
+    this.message = message;
+    this.score = score;
+    this.highlights = highlights;
+  }
+
+  public Message getMessage() {
+    return message;
+  }
+
+  public double getScore() {
+    return score;
+  }
+
+  public List<Highlight> getHighlights() {
+    return highlights;
+  }
+
+  /** Half-open range {@code [start, end)} of UTF-16 offsets into the message content. */
+  public static class Highlight {
+    private final int start;
+    private final int end;
+
+    public Highlight(int start, int end) {
+      this.start = start;
+      this.end = end;
+    }
+
+    public int getStart() {
+      return start;
+    }
+
+    public int getEnd() {
+      return end;
+    }
+  }
+}
@@ -2,6 +2,7 @@ package com.chatapp.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -32,6 +33,28 @@ public class ChatRoom {
   @Column(name = "is_private")
   private Boolean isPrivate = false;
 
+  // Window in ms for batching new_message broadcasts into new_messages frames; null/0 = off
+  @Column(name = "broadcast_batch_ms")
+  private Integer broadcastBatchMs;
+
+  // Sequence number of the room's newest message; advanced by RoomSequenceAllocator only
+  @Column(name = "last_seq", updatable = false, columnDefinition = "BIGINT DEFAULT 0")
+  private Long lastSeq = 0L;
+
+  // Highest sequence number handed to a node so far; may run ahead of lastSeq
+  @JsonIgnore
+  @Column(name = "reserved_seq", updatable = false, columnDefinition = "BIGINT DEFAULT 0")
+  private Long reservedSeq = 0L;
+
+  // Set for the rooms listed to a member: their read cursor and the messages past it
+  @Transient
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private Long lastReadSeq;
+
+  @Transient
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private Long unreadCount;
+
   @CreationTimestamp
   @Column(name = "created_at")
   private LocalDateTime createdAt;
@@ -102,6 +125,46 @@ public class ChatRoom {
     this.isPrivate = isPrivate;
   }
 
+  public Integer getBroadcastBatchMs() {
+    return broadcastBatchMs;
+  }
+
+  public void setBroadcastBatchMs(Integer broadcastBatchMs) {
+    this.broadcastBatchMs = broadcastBatchMs;
+  }
+
+  public Long getLastSeq() {
+    return lastSeq;
+  }
+
+  public void setLastSeq(Long lastSeq) {
+    this.lastSeq = lastSeq;
+  }
+
+  public Long getReservedSeq() {
+    return reservedSeq;
+  }
+
+  public void setReservedSeq(Long reservedSeq) {
+    this.reservedSeq = reservedSeq;
+  }
+
+  public Long getLastReadSeq() {
+    return lastReadSeq;
+  }
+
+  public void setLastReadSeq(Long lastReadSeq) {
+    this.lastReadSeq = lastReadSeq;
+  }
+
+  public Long getUnreadCount() {
+    return unreadCount;
+  }
+
+  public void setUnreadCount(Long unreadCount) {
+    this.unreadCount = unreadCount;
+  }
+
   public LocalDateTime getCreatedAt() {
     return createdAt;
   }
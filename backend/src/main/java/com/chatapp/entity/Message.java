@@ -34,6 +34,10 @@ public class Message {
   @Column(name = "created_at")
   private LocalDateTime createdAt;
 
+  // Position in the room's message sequence, assigned when the message is inserted
+  @Column(name = "seq")
+  private Long seq;
+
   // Enum for message types
   public enum MessageType {
     TEXT,
@@ -115,4 +119,12 @@ public class Message {
   public void setCreatedAt(LocalDateTime createdAt) {
     this.createdAt = createdAt;
   }
+
+  public Long getSeq() {
+    return seq;
+  }
+
+  public void setSeq(Long seq) {
+    this.seq = seq;
+  }
 }
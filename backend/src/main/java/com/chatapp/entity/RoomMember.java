@@ -25,6 +25,10 @@ public class RoomMember {
   @Column(name = "joined_at")
   private LocalDateTime joinedAt;
 
+  // Highest message seq the member has read; advanced in batches by ReadCursorService only
+  @Column(name = "last_read_seq", updatable = false, columnDefinition = "BIGINT DEFAULT 0")
+  private Long lastReadSeq = 0L;
+
   // Constructors
   public RoomMember() {}
 
@@ -66,4 +70,12 @@ public class RoomMember {
   public void setJoinedAt(LocalDateTime joinedAt) {
     this.joinedAt = joinedAt;
   }
+
+  public Long getLastReadSeq() {
+    return lastReadSeq;
+  }
+
+  public void setLastReadSeq(Long lastReadSeq) {
+    this.lastReadSeq = lastReadSeq;
+  }
 }
@@ -0,0 +1,33 @@
+package com.chatapp.event;
+
+/** Published when a room is created or its name, description or visibility may have changed. */
+public class ChatRoomChangedEvent {
+
+  private final String roomId;
+  private final String name;
+  private final String description;
+  private final boolean isPrivate;
+
+  public ChatRoomChangedEvent(String roomId, String name, String description, boolean isPrivate) {
+    this.roomId = roomId;
+    this.name = name;
+    this.description = description;
+    this.isPrivate = isPrivate;
+  }
+
+  public String getRoomId() {
+    return roomId;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
+  public boolean isPrivate() {
+    return isPrivate;
+  }
+}
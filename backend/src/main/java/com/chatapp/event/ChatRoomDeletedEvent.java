@@ -0,0 +1,15 @@
+package com.chatapp.event;
+
+/** Published once a room has been deleted from the database. */
+public class ChatRoomDeletedEvent {
+
+  private final String roomId;
+
+  public ChatRoomDeletedEvent(String roomId) {
+    this.roomId = roomId;
+  }
+
+  public String getRoomId() {
+    return roomId;
+  }
+}
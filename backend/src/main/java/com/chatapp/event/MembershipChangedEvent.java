@@ -0,0 +1,43 @@
+package com.chatapp.event;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published when users join or leave a room, or when a room and all its memberships are gone.
+ * With clustering enabled it is published again on the other nodes once they hear of the change,
+ * marked {@code remote} there.
+ */
+public class MembershipChangedEvent {
+
+  private final String roomId;
+  private final Collection<String> userIds;
+  private final boolean remote;
+
+  public MembershipChangedEvent(String roomId, Collection<String> userIds, boolean remote) {
+    this.roomId = roomId;
+    this.userIds = userIds;
+    this.remote = remote;
+  }
+
+  public MembershipChangedEvent(String roomId, Collection<String> userIds) {
+    this(roomId, userIds, false);
+  }
+
+  public MembershipChangedEvent(String roomId, String userId) {
+    this(roomId, List.of(userId));
+  }
+
+  public String getRoomId() {
+    return roomId;
+  }
+
+  public Collection<String> getUserIds() {
+    return userIds;
+  }
+
+  /** Whether the change was made on another node; its database writes are already committed. */
+  public boolean isRemote() {
+    return remote;
+  }
+}
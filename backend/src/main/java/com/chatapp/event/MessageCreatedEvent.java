@@ -0,0 +1,21 @@
+package com.chatapp.event;
+
+import com.chatapp.entity.Message;
+
+/** Published once a message has been committed to the database. */
+public class MessageCreatedEvent {
+
+  private final Message message;
+
+  public MessageCreatedEvent(Message message) {
+    this.message = message;
+  }
+
+  public Message getMessage() {
+    return message;
+  }
+
+  public String getRoomId() {
+    return message.getRoom().getId();
+  }
+}
@@ -0,0 +1,21 @@
+package com.chatapp.event;
+
+/** Published once a message has been deleted from the database. */
+public class MessageDeletedEvent {
+
+  private final String messageId;
+  private final String roomId;
+
+  public MessageDeletedEvent(String messageId, String roomId) {
+    this.messageId = messageId;
+    this.roomId = roomId;
+  }
+
+  public String getMessageId() {
+    return messageId;
+  }
+
+  public String getRoomId() {
+    return roomId;
+  }
+}
@@ -0,0 +1,34 @@
+package com.chatapp.event;
+
+import com.chatapp.entity.Message;
+import java.util.List;
+
+/**
+ * Published once a chunk of bulk-imported messages has been committed. {@code live} chunks carry
+ * current messages that should reach connected clients; other chunks are backfilled history.
+ */
+public class MessagesImportedEvent {
+
+  private final String roomId;
+  private final List<Message> messages;
+  private final boolean live;
+
+  public MessagesImportedEvent(String roomId, List<Message> messages, boolean live) {
+    this.roomId = roomId;
+    this.messages = messages;
+    this.live = live;
+  }
+
+  public String getRoomId() {
+    return roomId;
+  }
+
+  /** The committed messages, oldest first. */
+  public List<Message> getMessages() {
+    return messages;
+  }
+
+  public boolean isLive() {
+    return live;
+  }
+}
@@ -0,0 +1,31 @@
+package com.chatapp.event;
+
+/**
+ * Published when a room event sent by another backend node arrives over the cluster relay, after
+ * it has been delivered to this node's sockets. {@code data} is the decoded JSON payload, so maps
+ * and lists rather than the sender's objects.
+ */
+public class RoomEventRelayedEvent {
+
+  private final String roomId;
+  private final String event;
+  private final Object data;
+
+  public RoomEventRelayedEvent(String roomId, String event, Object data) {
+    this.roomId = roomId;
+    this.event = event;
+    this.data = data;
+  }
+
+  public String getRoomId() {
+    return roomId;
+  }
+
+  public String getEvent() {
+    return event;
+  }
+
+  public Object getData() {
+    return data;
+  }
+}
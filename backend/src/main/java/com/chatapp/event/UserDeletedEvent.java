@@ -0,0 +1,15 @@
+package com.chatapp.event;
+
+/** Published once a user has been deleted from the database. */
+public class UserDeletedEvent {
+
+  private final String userId;
+
+  public UserDeletedEvent(String userId) {
+    this.userId = userId;
+  }
+
+  public String getUserId() {
+    return userId;
+  }
+}
@@ -0,0 +1,27 @@
+package com.chatapp.event;
+
+/** Published when a user's display name or picture changes. */
+public class UserProfileUpdatedEvent {
+
+  private final String userId;
+  private final String name;
+  private final String picture;
+
+  public UserProfileUpdatedEvent(String userId, String name, String picture) {
+    this.userId = userId;
+    this.name = name;
+    this.picture = picture;
+  }
+
+  public String getUserId() {
+    return userId;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getPicture() {
+    return picture;
+  }
+}
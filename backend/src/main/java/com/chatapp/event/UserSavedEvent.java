@@ -0,0 +1,24 @@
+package com.chatapp.event;
+
+import com.chatapp.entity.User;
+
+/**
+ * Published when a user is created, updated or saved. Listeners running after commit see the
+ * timestamps generated on flush.
+ */
+public class UserSavedEvent {
+
+  private final User user;
+
+  public UserSavedEvent(User user) {
+    this.user = user;
+  }
+
+  public User getUser() {
+    return user;
+  }
+
+  public String getUserId() {
+    return user.getId();
+  }
+}
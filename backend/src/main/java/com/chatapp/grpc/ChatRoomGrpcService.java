@@ -0,0 +1,168 @@
+package com.chatapp.grpc;
+
+import static com.chatapp.grpc.GrpcCalls.invalidArgument;
+import static com.chatapp.grpc.GrpcCalls.notFound;
+import static com.chatapp.grpc.GrpcCalls.permissionDenied;
+import static com.chatapp.grpc.GrpcCalls.unary;
+
+import com.chatapp.entity.ChatRoom;
+import com.chatapp.entity.User;
+import com.chatapp.grpc.proto.ChatRoomProto;
+import com.chatapp.grpc.proto.ChatRoomServiceGrpc;
+import com.chatapp.grpc.proto.UserProto;
+import com.chatapp.service.ChatRoomService;
+import com.chatapp.service.UserService;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import java.util.UUID;
+import net.devh.boot.grpc.server.service.GrpcService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/** gRPC counterpart of the /api/rooms endpoints, applying the same access rules. */
+@GrpcService
+public class ChatRoomGrpcService extends ChatRoomServiceGrpc.ChatRoomServiceImplBase {
+
+  @Autowired private ChatRoomService chatRoomService;
+
+  @Autowired private UserService userService;
+
+  @Autowired private TransactionTemplate transactionTemplate;
+
+  @Override
+  public void createRoom(
+      ChatRoomProto.CreateRoomRequest request,
+      StreamObserver<ChatRoomProto.ChatRoomResponse> responseObserver) {
+    String userId = GrpcAuthInterceptor.currentUserId();
+    unary(
+        responseObserver,
+        () -> {
+          if (request.getName().isBlank()) {
+            throw invalidArgument("Room name is required");
+          }
+          return transactionTemplate.execute(
+              status -> {
+                User owner =
+                    userService.findById(userId).orElseThrow(() -> notFound("User not found"));
+                if (chatRoomService.existsByName(request.getName())) {
+                  throw Status.ALREADY_EXISTS
+                      .withDescription("Room name already exists")
+                      .asRuntimeException();
+                }
+
+                ChatRoom room = new ChatRoom();
+                room.setId(UUID.randomUUID().toString());
+                room.setName(request.getName());
+                room.setDescription(request.getDescription());
+                room.setOwner(owner);
+                room.setIsPrivate(request.getIsPrivate());
+
+                ChatRoom createdRoom = chatRoomService.createRoom(room);
+
+                // Add owner as member
+                chatRoomService.addUserToRoom(userId, createdRoom.getId());
+                return roomResponse(createdRoom);
+              });
+        });
+  }
+
+  @Override
+  public void getRoom(
+      ChatRoomProto.GetRoomRequest request,
+      StreamObserver<ChatRoomProto.ChatRoomResponse> responseObserver) {
+    String userId = GrpcAuthInterceptor.currentUserId();
+    unary(responseObserver, () -> roomResponse(findAccessibleRoom(userId, request.getRoomId())));
+  }
+
+  @Override
+  public void getUserRooms(
+      ChatRoomProto.GetUserRoomsRequest request,
+      StreamObserver<ChatRoomProto.ChatRoomsResponse> responseObserver) {
+    String userId = GrpcAuthInterceptor.currentUserId();
+    unary(
+        responseObserver,
+        () -> {
+          ChatRoomProto.ChatRoomsResponse.Builder response =
+              ChatRoomProto.ChatRoomsResponse.newBuilder();
+          chatRoomService
+              .findByUserId(userId)
+              .forEach(room -> response.addRooms(GrpcMapper.toProto(room)));
+          return response.build();
+        });
+  }
+
+  @Override
+  public void joinRoom(
+      ChatRoomProto.JoinRoomRequest request,
+      StreamObserver<ChatRoomProto.JoinRoomResponse> responseObserver) {
+    String userId = GrpcAuthInterceptor.currentUserId();
+    unary(
+        responseObserver,
+        () -> {
+          ChatRoom room = findRoom(request.getRoomId());
+          if (room.getIsPrivate()) {
+            throw permissionDenied("Room is private");
+          }
+
+          boolean joined = !chatRoomService.isUserMemberOfRoom(userId, room.getId());
+          if (joined) {
+            chatRoomService.addUserToRoom(userId, room.getId());
+          }
+          return ChatRoomProto.JoinRoomResponse.newBuilder().setJoined(joined).build();
+        });
+  }
+
+  @Override
+  public void leaveRoom(
+      ChatRoomProto.LeaveRoomRequest request,
+      StreamObserver<ChatRoomProto.LeaveRoomResponse> responseObserver) {
+    String userId = GrpcAuthInterceptor.currentUserId();
+    unary(
+        responseObserver,
+        () -> {
+          ChatRoom room = findRoom(request.getRoomId());
+          if (room.getOwner().getId().equals(userId)) {
+            throw Status.FAILED_PRECONDITION
+                .withDescription("Owner cannot leave the room")
+                .asRuntimeException();
+          }
+
+          chatRoomService.removeUserFromRoom(userId, room.getId());
+          return ChatRoomProto.LeaveRoomResponse.getDefaultInstance();
+        });
+  }
+
+  @Override
+  public void getRoomMembers(
+      ChatRoomProto.GetRoomMembersRequest request,
+      StreamObserver<UserProto.UsersResponse> responseObserver) {
+    String userId = GrpcAuthInterceptor.currentUserId();
+    unary(
+        responseObserver,
+        () -> {
+          ChatRoom room = findAccessibleRoom(userId, request.getRoomId());
+          UserProto.UsersResponse.Builder response = UserProto.UsersResponse.newBuilder();
+          userService
+              .findByRoomId(room.getId())
+              .forEach(user -> response.addUsers(GrpcMapper.toProto(user)));
+          return response.build();
+        });
+  }
+
+  private ChatRoom findRoom(String roomId) {
+    return chatRoomService.findById(roomId).orElseThrow(() -> notFound("Room not found"));
+  }
+
+  /** Public rooms are visible to everyone, private rooms to their members only. */
+  private ChatRoom findAccessibleRoom(String userId, String roomId) {
+    ChatRoom room = findRoom(roomId);
+    if (room.getIsPrivate() && !chatRoomService.isUserMemberOfRoom(userId, roomId)) {
+      throw permissionDenied("Access denied");
+    }
+    return room;
+  }
+
+  private static ChatRoomProto.ChatRoomResponse roomResponse(ChatRoom room) {
+    return ChatRoomProto.ChatRoomResponse.newBuilder().setRoom(GrpcMapper.toProto(room)).build();
+  }
+}
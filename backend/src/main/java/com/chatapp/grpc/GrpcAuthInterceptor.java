@@ -0,0 +1,58 @@
+package com.chatapp.grpc;
+
+import com.chatapp.security.JwtUtil;
+import io.grpc.Context;
+import io.grpc.Contexts;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import net.devh.boot.grpc.server.interceptor.GrpcGlobalServerInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Authenticates every gRPC call from the {@code authorization: Bearer <jwt>} metadata entry and
+ * exposes the caller's user id through the gRPC {@link Context}.
+ */
+@GrpcGlobalServerInterceptor
+public class GrpcAuthInterceptor implements ServerInterceptor {
+
+  private static final Metadata.Key<String> AUTHORIZATION =
+      Metadata.Key.of("authorization", Metadata.ASCII_STRING_MARSHALLER);
+
+  private static final Context.Key<String> USER_ID = Context.key("userId");
+
+  @Autowired private JwtUtil jwtUtil;
+
+  /** The authenticated caller; only valid on threads handling a gRPC call. */
+  static String currentUserId() {
+    return USER_ID.get();
+  }
+
+  @Override
+  public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(
+      ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+    String userId = getUserIdFromToken(headers.get(AUTHORIZATION));
+    if (userId == null) {
+      call.close(
+          Status.UNAUTHENTICATED.withDescription("Missing or invalid token"), new Metadata());
+      return new ServerCall.Listener<>() {};
+    }
+    Context context = Context.current().withValue(USER_ID, userId);
+    return Contexts.interceptCall(context, call, headers, next);
+  }
+
+  private String getUserIdFromToken(String token) {
+    if (token == null || !token.startsWith("Bearer ")) {
+      return null;
+    }
+
+    String jwtToken = token.substring(7);
+    if (!jwtUtil.validateToken(jwtToken)) {
+      return null;
+    }
+
+    return jwtUtil.getUserIdFromToken(jwtToken);
+  }
+}
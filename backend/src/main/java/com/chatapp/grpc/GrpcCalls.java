@@ -0,0 +1,44 @@
+package com.chatapp.grpc;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** Completes unary calls, turning thrown {@link StatusRuntimeException}s into call statuses. */
+final class GrpcCalls {
+
+  private static final Logger logger = LoggerFactory.getLogger(GrpcCalls.class);
+
+  private GrpcCalls() {}
+
+  static <T> void unary(StreamObserver<T> responseObserver, Supplier<T> handler) {
+    T response;
+    try {
+      response = handler.get();
+    } catch (StatusRuntimeException e) {
+      responseObserver.onError(e);
+      return;
+    } catch (RuntimeException e) {
+      logger.error("gRPC call failed", e);
+      responseObserver.onError(Status.INTERNAL.withDescription("Internal error").asException());
+      return;
+    }
+    responseObserver.onNext(response);
+    responseObserver.onCompleted();
+  }
+
+  static StatusRuntimeException notFound(String description) {
+    return Status.NOT_FOUND.withDescription(description).asRuntimeException();
+  }
+
+  static StatusRuntimeException permissionDenied(String description) {
+    return Status.PERMISSION_DENIED.withDescription(description).asRuntimeException();
+  }
+
+  static StatusRuntimeException invalidArgument(String description) {
+    return Status.INVALID_ARGUMENT.withDescription(description).asRuntimeException();
+  }
+}
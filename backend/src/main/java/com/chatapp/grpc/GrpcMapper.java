@@ -0,0 +1,82 @@
+package com.chatapp.grpc;
+
+import com.chatapp.entity.ChatRoom;
+import com.chatapp.entity.Message;
+import com.chatapp.entity.User;
+import com.chatapp.grpc.proto.ChatRoomProto;
+import com.chatapp.grpc.proto.MessageProto;
+import com.chatapp.grpc.proto.UserProto;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+
+/** Entity to protobuf conversions. Must run while lazy associations can still be loaded. */
+final class GrpcMapper {
+
+  private GrpcMapper() {}
+
+  static UserProto.User toProto(User user) {
+    return UserProto.User.newBuilder()
+        .setId(user.getId())
+        .setEmail(nullToEmpty(user.getEmail()))
+        .setName(nullToEmpty(user.getName()))
+        .setPicture(nullToEmpty(user.getPicture()))
+        .setCreatedAt(toEpochMillis(user.getCreatedAt()))
+        .build();
+  }
+
+  static ChatRoomProto.ChatRoom toProto(ChatRoom room) {
+    return ChatRoomProto.ChatRoom.newBuilder()
+        .setId(room.getId())
+        .setName(room.getName())
+        .setDescription(nullToEmpty(room.getDescription()))
+        .setOwnerId(room.getOwner().getId())
+        .setIsPrivate(Boolean.TRUE.equals(room.getIsPrivate()))
+        .setCreatedAt(toEpochMillis(room.getCreatedAt()))
+        .setUpdatedAt(toEpochMillis(room.getUpdatedAt()))
+        .build();
+  }
+
+  static MessageProto.Message toProto(Message message) {
+    User author = message.getUser();
+    return MessageProto.Message.newBuilder()
+        .setId(message.getId())
+        .setRoomId(message.getRoom().getId())
+        .setUserId(author.getId())
+        .setUserName(nullToEmpty(author.getName()))
+        .setUserPicture(nullToEmpty(author.getPicture()))
+        .setContent(nullToEmpty(message.getContent()))
+        .setType(MessageProto.MessageType.valueOf(message.getMessageType().name()))
+        .setTimestamp(toEpochMillis(message.getCreatedAt()))
+        .setImageUrl(nullToEmpty(message.getImageUrl()))
+        .setSeq(message.getSeq() != null ? message.getSeq() : 0)
+        .build();
+  }
+
+  /** Converts a message as broadcast to sockets (see SocketIOEventHandler#toMessageData). */
+  static MessageProto.Message toProto(Map<?, ?> data) {
+    Object timestamp = data.get("timestamp");
+    Object seq = data.get("seq");
+    return MessageProto.Message.newBuilder()
+        .setId((String) data.get("id"))
+        .setRoomId((String) data.get("roomId"))
+        .setUserId((String) data.get("userId"))
+        .setUserName(nullToEmpty((String) data.get("userName")))
+        .setUserPicture(nullToEmpty((String) data.get("userPicture")))
+        .setContent(nullToEmpty((String) data.get("content")))
+        .setType(MessageProto.MessageType.valueOf((String) data.get("type")))
+        .setTimestamp(
+            timestamp == null ? 0 : toEpochMillis(LocalDateTime.parse((String) timestamp)))
+        .setImageUrl(nullToEmpty((String) data.get("imageUrl")))
+        .setSeq(seq instanceof Number number ? number.longValue() : 0)
+        .build();
+  }
+
+  private static long toEpochMillis(LocalDateTime time) {
+    return time == null ? 0 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+  }
+
+  private static String nullToEmpty(String value) {
+    return value == null ? "" : value;
+  }
+}
@@ -0,0 +1,217 @@
+package com.chatapp.grpc;
+
+import static com.chatapp.grpc.GrpcCalls.invalidArgument;
+import static com.chatapp.grpc.GrpcCalls.permissionDenied;
+import static com.chatapp.grpc.GrpcCalls.unary;
+
+import com.chatapp.dto.CursorSlice;
+import com.chatapp.dto.MessageCursor;
+import com.chatapp.dto.MessageSearchHit;
+import com.chatapp.entity.Message;
+import com.chatapp.grpc.proto.MessageProto;
+import com.chatapp.grpc.proto.MessageServiceGrpc;
+import com.chatapp.service.ChatRoomService;
+import com.chatapp.service.MessageImportService;
+import com.chatapp.service.MessageService;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import net.devh.boot.grpc.server.service.GrpcService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@GrpcService
+public class MessageGrpcService extends MessageServiceGrpc.MessageServiceImplBase {
+
+  private static final Logger logger = LoggerFactory.getLogger(MessageGrpcService.class);
+
+  private static final int DEFAULT_LIMIT = 50;
+  private static final int MAX_LIMIT = 100;
+
+  @Autowired private MessageService messageService;
+
+  @Autowired private ChatRoomService chatRoomService;
+
+  @Autowired private MessageImportService messageImportService;
+
+  @Autowired private RoomSubscriptions roomSubscriptions;
+
+  @Autowired private TransactionTemplate transactionTemplate;
+
+  @Override
+  public void getMessageHistory(
+      MessageProto.GetMessageHistoryRequest request,
+      StreamObserver<MessageProto.MessageHistoryResponse> responseObserver) {
+    String userId = GrpcAuthInterceptor.currentUserId();
+    unary(
+        responseObserver,
+        () -> {
+          checkMember(userId, request.getRoomId());
+
+          MessageCursor cursor = null;
+          if (!request.getBefore().isEmpty()) {
+            try {
+              cursor = MessageCursor.decode(request.getBefore());
+            } catch (IllegalArgumentException e) {
+              throw invalidArgument("Invalid cursor");
+            }
+          }
+
+          MessageCursor before = cursor;
+          int limit = clampLimit(request.getLimit());
+          // Authors are loaded lazily, so the conversion has to run inside the transaction
+          return transactionTemplate.execute(
+              status -> {
+                CursorSlice<Message> slice =
+                    messageService.findHistory(request.getRoomId(), before, limit);
+                MessageProto.MessageHistoryResponse.Builder response =
+                    MessageProto.MessageHistoryResponse.newBuilder().setHasNext(slice.isHasNext());
+                if (slice.getNextCursor() != null) {
+                  response.setNextCursor(slice.getNextCursor());
+                }
+                slice
+                    .getContent()
+                    .forEach(message -> response.addMessages(GrpcMapper.toProto(message)));
+                return response.build();
+              });
+        });
+  }
+
+  @Override
+  public void searchMessages(
+      MessageProto.SearchMessagesRequest request,
+      StreamObserver<MessageProto.MessageHistoryResponse> responseObserver) {
+    String userId = GrpcAuthInterceptor.currentUserId();
+    unary(
+        responseObserver,
+        () -> {
+          checkMember(userId, request.getRoomId());
+          PageRequest pageable =
+              PageRequest.of(Math.max(0, request.getPage()), clampLimit(request.getSize()));
+
+          return transactionTemplate.execute(
+              status -> {
+                Page<MessageSearchHit> page =
+                    messageService.searchMessages(
+                        request.getRoomId(), request.getQuery(), pageable);
+                MessageProto.MessageHistoryResponse.Builder response =
+                    MessageProto.MessageHistoryResponse.newBuilder().setHasNext(page.hasNext());
+                page.forEach(hit -> response.addMessages(GrpcMapper.toProto(hit.getMessage())));
+                return response.build();
+              });
+        });
+  }
+
+  @Override
+  public void subscribeRoom(
+      MessageProto.SubscribeRoomRequest request,
+      StreamObserver<MessageProto.Message> responseObserver) {
+    String userId = GrpcAuthInterceptor.currentUserId();
+    if (!chatRoomService.isUserMemberOfRoom(userId, request.getRoomId())) {
+      responseObserver.onError(permissionDenied("Access denied"));
+      return;
+    }
+    roomSubscriptions.subscribe(
+        request.getRoomId(),
+        userId,
+        (ServerCallStreamObserver<MessageProto.Message>) responseObserver);
+  }
+
+  @Override
+  public StreamObserver<MessageProto.ImportMessageRequest> importMessages(
+      StreamObserver<MessageProto.ImportMessagesResponse> responseObserver) {
+    String userId = GrpcAuthInterceptor.currentUserId();
+    // Each onNext runs to completion before the next message is requested, so a slow insert
+    // applies backpressure to the client through gRPC flow control
+    return new StreamObserver<>() {
+      private MessageImportService.Batch batch;
+      private String roomId;
+      private boolean failed;
+
+      @Override
+      public void onNext(MessageProto.ImportMessageRequest request) {
+        if (failed) {
+          return;
+        }
+        try {
+          if (batch == null) {
+            checkMember(userId, request.getRoomId());
+            roomId = request.getRoomId();
+            batch = messageImportService.begin(userId, roomId, request.getBroadcast());
+          } else if (!roomId.equals(request.getRoomId())) {
+            throw invalidArgument("All messages of an import must target the same room");
+          }
+          batch.add(toEntity(request));
+        } catch (StatusRuntimeException e) {
+          fail(e);
+        } catch (IllegalArgumentException e) {
+          fail(invalidArgument(e.getMessage()));
+        } catch (RuntimeException e) {
+          logger.error("Message import into room {} failed", roomId, e);
+          fail(Status.INTERNAL.withDescription("Internal error").asRuntimeException());
+        }
+      }
+
+      @Override
+      public void onError(Throwable t) {
+        // Client cancelled; chunks committed so far stay imported
+        failed = true;
+      }
+
+      @Override
+      public void onCompleted() {
+        if (failed) {
+          return;
+        }
+        unary(
+            responseObserver,
+            () ->
+                MessageProto.ImportMessagesResponse.newBuilder()
+                    .setImported(batch == null ? 0 : batch.finish())
+                    .build());
+      }
+
+      private void fail(StatusRuntimeException e) {
+        failed = true;
+        responseObserver.onError(
+            Status.fromThrowable(e)
+                .augmentDescription("imported: " + (batch == null ? 0 : batch.getImported()))
+                .asRuntimeException());
+      }
+    };
+  }
+
+  private static Message toEntity(MessageProto.ImportMessageRequest request) {
+    Message message = new Message();
+    message.setContent(request.getContent());
+    message.setMessageType(
+        request.getType() == MessageProto.MessageType.MESSAGE_TYPE_UNSPECIFIED
+            ? Message.MessageType.TEXT
+            : Message.MessageType.valueOf(request.getType().name()));
+    message.setImageUrl(request.getImageUrl().isEmpty() ? null : request.getImageUrl());
+    if (request.getCreatedAt() > 0) {
+      message.setCreatedAt(
+          LocalDateTime.ofInstant(
+              Instant.ofEpochMilli(request.getCreatedAt()), ZoneId.systemDefault()));
+    }
+    return message;
+  }
+
+  private void checkMember(String userId, String roomId) {
+    if (!chatRoomService.isUserMemberOfRoom(userId, roomId)) {
+      throw permissionDenied("Access denied");
+    }
+  }
+
+  private static int clampLimit(int limit) {
+    return limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+  }
+}
@@ -0,0 +1,211 @@
+package com.chatapp.grpc;
+
+import com.chatapp.config.GrpcConfig;
+import com.chatapp.entity.Message;
+import com.chatapp.event.MembershipChangedEvent;
+import com.chatapp.event.MessageCreatedEvent;
+import com.chatapp.event.MessagesImportedEvent;
+import com.chatapp.event.RoomEventRelayedEvent;
+import com.chatapp.grpc.proto.MessageProto;
+import com.chatapp.repository.RoomMemberRepository;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Open SubscribeRoom streams. New messages are converted once and queued per subscriber; a
+ * subscriber only gets writes while its transport is ready, so a slow reader builds up its own
+ * bounded queue instead of server memory or other subscribers' latency.
+ *
+ * <p>Messages sent through other nodes arrive from the cluster relay as socket payloads. A stream
+ * is closed when its user is removed from the room, wherever the removal happened.
+ */
+@Component
+public class RoomSubscriptions {
+
+  private static final Logger logger = LoggerFactory.getLogger(RoomSubscriptions.class);
+
+  @Autowired private GrpcConfig config;
+
+  @Autowired private RoomMemberRepository roomMemberRepository;
+
+  private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+  void subscribe(
+      String roomId, String userId, ServerCallStreamObserver<MessageProto.Message> observer) {
+    Subscriber subscriber =
+        new Subscriber(roomId, userId, observer, config.getSubscriberBufferSize());
+    observer.setOnCancelHandler(() -> remove(subscriber));
+    observer.setOnReadyHandler(subscriber::drain);
+    subscribers.computeIfAbsent(roomId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onMessageCreated(MessageCreatedEvent event) {
+    publish(event.getRoomId(), event.getMessage());
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onMessagesImported(MessagesImportedEvent event) {
+    if (event.isLive()) {
+      event.getMessages().forEach(message -> publish(event.getRoomId(), message));
+    }
+  }
+
+  int getSubscriberCount(String roomId) {
+    Set<Subscriber> roomSubscribers = subscribers.get(roomId);
+    return roomSubscribers == null ? 0 : roomSubscribers.size();
+  }
+
+  /** Streams the messages other nodes broadcast; those nodes' subscribers got them already. */
+  @EventListener
+  public void onRoomEventRelayed(RoomEventRelayedEvent event) {
+    if (!subscribers.containsKey(event.getRoomId())) {
+      return;
+    }
+    if ("new_message".equals(event.getEvent()) && event.getData() instanceof Map<?, ?> data) {
+      publish(event.getRoomId(), data);
+    } else if ("new_messages".equals(event.getEvent())
+        && event.getData() instanceof Map<?, ?> batch
+        && batch.get("messages") instanceof List<?> messages) {
+      for (Object data : messages) {
+        if (data instanceof Map<?, ?> map) {
+          publish(event.getRoomId(), map);
+        }
+      }
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onMembershipChanged(MembershipChangedEvent event) {
+    Set<Subscriber> roomSubscribers = subscribers.get(event.getRoomId());
+    if (roomSubscribers == null) {
+      return;
+    }
+    for (String userId : event.getUserIds()) {
+      List<Subscriber> streams =
+          roomSubscribers.stream().filter(s -> s.userId.equals(userId)).toList();
+      // Read from the database: the membership cache may not have seen this change yet
+      if (streams.isEmpty()
+          || roomMemberRepository.existsByRoomIdAndUserId(event.getRoomId(), userId)) {
+        continue;
+      }
+      for (Subscriber subscriber : streams) {
+        subscriber.revoke();
+        remove(subscriber);
+      }
+    }
+  }
+
+  private void publish(String roomId, Message entity) {
+    if (subscribers.containsKey(roomId)) {
+      try {
+        publish(roomId, GrpcMapper.toProto(entity));
+      } catch (RuntimeException e) {
+        logger.warn("Cannot stream message {}", entity.getId(), e);
+      }
+    }
+  }
+
+  private void publish(String roomId, Map<?, ?> data) {
+    try {
+      publish(roomId, GrpcMapper.toProto(data));
+    } catch (RuntimeException e) {
+      logger.warn("Cannot stream relayed message {} of room {}", data.get("id"), roomId, e);
+    }
+  }
+
+  private void publish(String roomId, MessageProto.Message message) {
+    Set<Subscriber> roomSubscribers = subscribers.get(roomId);
+    if (roomSubscribers == null) {
+      return;
+    }
+    for (Subscriber subscriber : roomSubscribers) {
+      if (!subscriber.offer(message)) {
+        remove(subscriber);
+      }
+    }
+  }
+
+  private void remove(Subscriber subscriber) {
+    subscribers.computeIfPresent(
+        subscriber.roomId,
+        (roomId, roomSubscribers) -> {
+          roomSubscribers.remove(subscriber);
+          return roomSubscribers.isEmpty() ? null : roomSubscribers;
+        });
+  }
+
+  private static final class Subscriber {
+    private final String roomId;
+    private final String userId;
+    private final ServerCallStreamObserver<MessageProto.Message> observer;
+    private final int capacity;
+    private final Queue<MessageProto.Message> pending = new ArrayDeque<>();
+    private boolean closed;
+
+    Subscriber(
+        String roomId,
+        String userId,
+        ServerCallStreamObserver<MessageProto.Message> observer,
+        int capacity) {
+      this.roomId = roomId;
+      this.userId = userId;
+      this.observer = observer;
+      this.capacity = capacity;
+    }
+
+    /** Queues a message and writes what the transport accepts; false once the stream is gone. */
+    synchronized boolean offer(MessageProto.Message message) {
+      if (closed) {
+        return false;
+      }
+      if (pending.size() >= capacity) {
+        close(Status.RESOURCE_EXHAUSTED.withDescription("Subscriber is too slow"));
+        return false;
+      }
+      pending.add(message);
+      drain();
+      return !closed;
+    }
+
+    synchronized void drain() {
+      try {
+        while (!closed && observer.isReady() && !pending.isEmpty()) {
+          observer.onNext(pending.poll());
+        }
+      } catch (RuntimeException e) {
+        // The call was cancelled concurrently
+        closed = true;
+        pending.clear();
+      }
+    }
+
+    synchronized void revoke() {
+      if (!closed) {
+        close(Status.PERMISSION_DENIED.withDescription("No longer a member of this room"));
+      }
+    }
+
+    private void close(Status status) {
+      closed = true;
+      pending.clear();
+      try {
+        observer.onError(status.asException());
+      } catch (RuntimeException e) {
+        // Already cancelled
+      }
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package com.chatapp.grpc;
+
+import static com.chatapp.grpc.GrpcCalls.notFound;
+import static com.chatapp.grpc.GrpcCalls.permissionDenied;
+import static com.chatapp.grpc.GrpcCalls.unary;
+
+import com.chatapp.entity.ChatRoom;
+import com.chatapp.entity.User;
+import com.chatapp.grpc.proto.UserProto;
+import com.chatapp.grpc.proto.UserServiceGrpc;
+import com.chatapp.service.ChatRoomService;
+import com.chatapp.service.UserService;
+import io.grpc.stub.StreamObserver;
+import net.devh.boot.grpc.server.service.GrpcService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@GrpcService
+public class UserGrpcService extends UserServiceGrpc.UserServiceImplBase {
+
+  @Autowired private UserService userService;
+
+  @Autowired private ChatRoomService chatRoomService;
+
+  @Autowired private TransactionTemplate transactionTemplate;
+
+  @Override
+  public void getUserProfile(
+      UserProto.GetUserProfileRequest request,
+      StreamObserver<UserProto.UserProfileResponse> responseObserver) {
+    String userId =
+        request.getUserId().isEmpty() ? GrpcAuthInterceptor.currentUserId() : request.getUserId();
+    unary(
+        responseObserver,
+        () ->
+            userService
+                .findById(userId)
+                .map(UserGrpcService::profileResponse)
+                .orElseThrow(() -> notFound("User not found")));
+  }
+
+  @Override
+  public void updateUserProfile(
+      UserProto.UpdateUserProfileRequest request,
+      StreamObserver<UserProto.UserProfileResponse> responseObserver) {
+    String userId = GrpcAuthInterceptor.currentUserId();
+    unary(
+        responseObserver,
+        () ->
+            transactionTemplate.execute(
+                status -> {
+                  User user =
+                      userService.findById(userId).orElseThrow(() -> notFound("User not found"));
+                  if (request.hasName()) {
+                    user.setName(request.getName());
+                  }
+                  if (request.hasPicture()) {
+                    user.setPicture(request.getPicture());
+                  }
+                  return profileResponse(userService.updateUser(user));
+                }));
+  }
+
+  @Override
+  public void getUsersByRoom(
+      UserProto.GetUsersByRoomRequest request,
+      StreamObserver<UserProto.UsersResponse> responseObserver) {
+    String userId = GrpcAuthInterceptor.currentUserId();
+    unary(
+        responseObserver,
+        () -> {
+          ChatRoom room =
+              chatRoomService
+                  .findById(request.getRoomId())
+                  .orElseThrow(() -> notFound("Room not found"));
+          if (room.getIsPrivate() && !chatRoomService.isUserMemberOfRoom(userId, room.getId())) {
+            throw permissionDenied("Access denied");
+          }
+          UserProto.UsersResponse.Builder response = UserProto.UsersResponse.newBuilder();
+          userService
+              .findByRoomId(room.getId())
+              .forEach(user -> response.addUsers(GrpcMapper.toProto(user)));
+          return response.build();
+        });
+  }
+
+  private static UserProto.UserProfileResponse profileResponse(User user) {
+    return UserProto.UserProfileResponse.newBuilder().setUser(GrpcMapper.toProto(user)).build();
+  }
+}
@@ -0,0 +1,81 @@
+package com.chatapp.ratelimit;
+
+import com.chatapp.config.RateLimitConfig;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Token-bucket limit on the message and upload APIs, keyed by the authenticated user, or by client
+ * address for anonymous requests. Runs after JWT authentication so users are told apart even
+ * behind a shared address. Requests are held (DELAY) on the request thread when it is a virtual
+ * thread ({@code spring.threads.virtual.enabled}), and rejected with 429 otherwise.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+  private static final String[] LIMITED_PATHS = {"/api/messages/", "/api/upload/"};
+
+  @Autowired private RateLimits rateLimits;
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    if (!rateLimits.isEnabled()) {
+      return true;
+    }
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+    for (String limited : LIMITED_PATHS) {
+      if (path.startsWith(limited)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    long wait = rateLimits.admit(rateLimits.http(), callerKey(request), true);
+    if (wait == TokenBucketLimiter.DENIED) {
+      if (rateLimits.getOverflow() == RateLimitConfig.Overflow.DISCONNECT) {
+        response.setHeader(HttpHeaders.CONNECTION, "close");
+      }
+      response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+      response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Rate limit exceeded");
+      return;
+    }
+    if (wait > 0) {
+      try {
+        TimeUnit.NANOSECONDS.sleep(wait);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+        return;
+      }
+    }
+    filterChain.doFilter(request, response);
+  }
+
+  // User ids and addresses cannot collide, so they share one bucket map
+  private static String callerKey(HttpServletRequest request) {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication != null
+        && authentication.isAuthenticated()
+        && !(authentication instanceof AnonymousAuthenticationToken)) {
+      return authentication.getName();
+    }
+    return request.getRemoteAddr();
+  }
+}
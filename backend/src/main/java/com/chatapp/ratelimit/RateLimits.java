@@ -0,0 +1,123 @@
+package com.chatapp.ratelimit;
+
+import com.chatapp.config.RateLimitConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * The configured inbound limiters, shared by the socket handlers and {@link RateLimitFilter}.
+ * Socket connections and rooms, and HTTP callers, each draw from their own bucket; buckets that
+ * have refilled are swept once a minute so idle keys do not accumulate.
+ */
+@Component
+public class RateLimits {
+
+  @Autowired private RateLimitConfig config;
+
+  @Autowired private MeterRegistry meterRegistry;
+
+  private TokenBucketLimiter<UUID> connectionMessages;
+  private TokenBucketLimiter<String> roomMessages;
+  private TokenBucketLimiter<UUID> connectionTyping;
+  private TokenBucketLimiter<String> http;
+  private Counter rejected;
+  private ScheduledExecutorService sweeper;
+
+  @PostConstruct
+  public void start() {
+    connectionMessages = create(config.getConnectionMessages());
+    roomMessages = create(config.getRoomMessages());
+    connectionTyping = create(config.getConnectionTyping());
+    http = create(config.getHttp());
+    rejected = Counter.builder("chat.rate-limit.rejected").register(meterRegistry);
+    Gauge.builder("chat.rate-limit.buckets", this, RateLimits::getBucketCount)
+        .register(meterRegistry);
+
+    sweeper =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "rate-limit-sweeper");
+              thread.setDaemon(true);
+              return thread;
+            });
+    sweeper.scheduleWithFixedDelay(
+        () -> limiters().forEach(TokenBucketLimiter::evictIdle), 1, 1, TimeUnit.MINUTES);
+  }
+
+  @PreDestroy
+  public void stop() {
+    sweeper.shutdownNow();
+  }
+
+  public boolean isEnabled() {
+    return config.isEnabled();
+  }
+
+  public RateLimitConfig.Overflow getOverflow() {
+    return config.getOverflow();
+  }
+
+  public TokenBucketLimiter<UUID> connectionMessages() {
+    return connectionMessages;
+  }
+
+  public TokenBucketLimiter<String> roomMessages() {
+    return roomMessages;
+  }
+
+  public TokenBucketLimiter<UUID> connectionTyping() {
+    return connectionTyping;
+  }
+
+  public TokenBucketLimiter<String> http() {
+    return http;
+  }
+
+  /**
+   * Takes a token from {@code key}'s bucket. Returns the nanoseconds to hold the event first (0
+   * for none), or {@link TokenBucketLimiter#DENIED}. Only the DELAY policy ever waits, and only
+   * when {@code mayWait} says the event may be held and the calling thread is a virtual thread;
+   * holding a platform thread would stall a pool thread, so there DELAY rejects like DROP.
+   */
+  public <K> long admit(TokenBucketLimiter<K> limiter, K key, boolean mayWait) {
+    long maxWait =
+        mayWait
+                && config.getOverflow() == RateLimitConfig.Overflow.DELAY
+                && Thread.currentThread().isVirtual()
+            ? TimeUnit.MILLISECONDS.toNanos(config.getMaxDelayMs())
+            : 0;
+    long wait = limiter.reserve(key, maxWait);
+    if (wait == TokenBucketLimiter.DENIED) {
+      rejected.increment();
+    }
+    return wait;
+  }
+
+  /** Forgets a closed socket connection's buckets. */
+  public void release(UUID sessionId) {
+    connectionMessages.remove(sessionId);
+    connectionTyping.remove(sessionId);
+  }
+
+  int getBucketCount() {
+    return limiters().stream().mapToInt(TokenBucketLimiter::size).sum();
+  }
+
+  private List<TokenBucketLimiter<?>> limiters() {
+    return List.of(connectionMessages, roomMessages, connectionTyping, http);
+  }
+
+  private static <K> TokenBucketLimiter<K> create(RateLimitConfig.Bucket bucket) {
+    return new TokenBucketLimiter<>(bucket.getBurst(), bucket.getPerSecond());
+  }
+}
@@ -0,0 +1,101 @@
+package com.chatapp.ratelimit;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Keyed token buckets holding up to {@code burst} tokens that refill at {@code perSecond}. Each
+ * bucket is a single long, the time at which it will be full again (the GCRA formulation of a
+ * token bucket), advanced with one compare-and-set per token, so taking a token neither locks nor
+ * allocates once the key's bucket exists. Full buckets carry no state and are dropped by {@link
+ * #evictIdle}.
+ */
+public final class TokenBucketLimiter<K> {
+
+  /** Returned by {@link #reserve} when no token can be had within the allowed wait. */
+  public static final long DENIED = -1;
+
+  private static final VarHandle FULL_AT;
+
+  static {
+    try {
+      FULL_AT = MethodHandles.lookup().findVarHandle(Bucket.class, "fullAt", long.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private final long intervalNanos; // time to refill one token
+  private final long burstNanos; // time to refill an empty bucket
+  private final LongSupplier nanoClock;
+  private final Map<K, Bucket> buckets = new ConcurrentHashMap<>();
+
+  public TokenBucketLimiter(int burst, double perSecond) {
+    this(burst, perSecond, System::nanoTime);
+  }
+
+  /** With {@code nanoClock} standing in for {@link System#nanoTime}, so tests can move time. */
+  TokenBucketLimiter(int burst, double perSecond, LongSupplier nanoClock) {
+    if (burst < 1 || perSecond <= 0) {
+      throw new IllegalArgumentException("burst and perSecond must be positive");
+    }
+    this.intervalNanos = Math.max(1, (long) (1_000_000_000L / perSecond));
+    this.burstNanos = intervalNanos * burst;
+    this.nanoClock = nanoClock;
+  }
+
+  public boolean tryAcquire(K key) {
+    return reserve(key, 0) == 0;
+  }
+
+  /**
+   * Takes a token for {@code key}, borrowing one that refills within {@code maxWaitNanos} if the
+   * bucket is empty. Returns how many nanoseconds the caller must wait before acting on it (0 for
+   * a token available now), or {@link #DENIED} without taking anything.
+   */
+  public long reserve(K key, long maxWaitNanos) {
+    Bucket bucket = buckets.get(key);
+    if (bucket == null) {
+      bucket = buckets.computeIfAbsent(key, k -> new Bucket());
+    }
+    long now = nanoClock.getAsLong();
+    while (true) {
+      long fullAt = bucket.fullAt;
+      long next = Math.max(fullAt, now) + intervalNanos;
+      long wait = next - now - burstNanos;
+      if (wait > maxWaitNanos) {
+        return DENIED;
+      }
+      if (FULL_AT.compareAndSet(bucket, fullAt, next)) {
+        return Math.max(0, wait);
+      }
+    }
+  }
+
+  public void remove(K key) {
+    buckets.remove(key);
+  }
+
+  /**
+   * Drops buckets that have refilled completely; they behave exactly like absent ones. A token
+   * taken concurrently from a bucket being dropped may go uncounted.
+   */
+  public void evictIdle() {
+    long now = nanoClock.getAsLong();
+    buckets
+        .values()
+        .removeIf(bucket -> bucket.fullAt == Long.MIN_VALUE || bucket.fullAt - now <= 0);
+  }
+
+  public int size() {
+    return buckets.size();
+  }
+
+  private static final class Bucket {
+    // Long.MIN_VALUE: full; compared via max(), nanoTime may be negative
+    private volatile long fullAt = Long.MIN_VALUE;
+  }
+}
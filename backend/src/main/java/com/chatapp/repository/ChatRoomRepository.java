@@ -1,11 +1,16 @@
 package com.chatapp.repository;
 
 import com.chatapp.entity.ChatRoom;
+import jakarta.persistence.QueryHint;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -15,9 +20,14 @@ public interface ChatRoomRepository extends JpaRepository<ChatRoom, String> {
   @Query("SELECT cr FROM ChatRoom cr WHERE cr.isPrivate = false")
   Page<ChatRoom> findPublicRooms(Pageable pageable);
 
+  // Rows of (room, the user's lastReadSeq) for every room the user belongs to
   @Query(
-      "SELECT cr FROM ChatRoom cr JOIN RoomMember rm ON cr.id = rm.id.roomId WHERE rm.id.userId = :userId")
-  List<ChatRoom> findByUserId(@Param("userId") String userId);
+      "SELECT cr, rm.lastReadSeq FROM ChatRoom cr JOIN RoomMember rm ON cr.id = rm.id.roomId "
+          + "WHERE rm.id.userId = :userId")
+  List<Object[]> findWithReadCursorByUserId(@Param("userId") String userId);
+
+  @Query("SELECT cr.lastSeq FROM ChatRoom cr WHERE cr.id = :id")
+  Optional<Long> findLastSeqById(@Param("id") String id);
 
   @Query("SELECT cr FROM ChatRoom cr WHERE cr.owner.id = :ownerId")
   List<ChatRoom> findByOwnerId(@Param("ownerId") String ownerId);
@@ -34,5 +44,11 @@ public interface ChatRoomRepository extends JpaRepository<ChatRoom, String> {
   List<ChatRoom> findUserRoomsByNameOrDescriptionContainingIgnoreCase(
       @Param("userId") String userId, @Param("searchTerm") String searchTerm);
 
+  // Rows for building the room search index: (id, name, description, isPrivate), fetched in
+  // chunks; the caller must consume the stream inside a transaction and close it
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+  @Query("SELECT cr.id, cr.name, cr.description, cr.isPrivate FROM ChatRoom cr")
+  Stream<Object[]> streamSearchDocuments();
+
   boolean existsByName(String name);
 }
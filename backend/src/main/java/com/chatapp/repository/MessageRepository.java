@@ -1,12 +1,16 @@
 package com.chatapp.repository;
 
 import com.chatapp.entity.Message;
+import jakarta.persistence.QueryHint;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -16,16 +20,52 @@ public interface MessageRepository extends JpaRepository<Message, String> {
   @Query("SELECT m FROM Message m WHERE m.room.id = :roomId ORDER BY m.createdAt DESC")
   Page<Message> findByRoomIdOrderByCreatedAtDesc(@Param("roomId") String roomId, Pageable pageable);
 
+  @Query("SELECT m FROM Message m WHERE m.room.id = :roomId ORDER BY m.createdAt DESC, m.id DESC")
+  List<Message> findLatestByRoomId(@Param("roomId") String roomId, Pageable pageable);
+
+  // Same as findLatestByRoomId but with author and room loaded, for messages kept beyond the request
+  @Query(
+      "SELECT m FROM Message m JOIN FETCH m.user JOIN FETCH m.room WHERE m.room.id = :roomId "
+          + "ORDER BY m.createdAt DESC, m.id DESC")
+  List<Message> findLatestWithAuthorByRoomId(@Param("roomId") String roomId, Pageable pageable);
+
+  // Keyset page strictly older than (createdAt, id); the leading range predicate lets PostgreSQL
+  // walk idx_messages_room_created instead of filtering the whole room
+  @Query(
+      "SELECT m FROM Message m WHERE m.room.id = :roomId AND m.createdAt <= :createdAt "
+          + "AND (m.createdAt < :createdAt OR m.id < :id) ORDER BY m.createdAt DESC, m.id DESC")
+  List<Message> findByRoomIdBefore(
+      @Param("roomId") String roomId,
+      @Param("createdAt") LocalDateTime createdAt,
+      @Param("id") String id,
+      Pageable pageable);
+
   @Query(
       "SELECT m FROM Message m WHERE m.room.id = :roomId AND m.createdAt > :since ORDER BY m.createdAt ASC")
   List<Message> findByRoomIdAndCreatedAtAfterOrderByCreatedAtAsc(
       @Param("roomId") String roomId, @Param("since") LocalDateTime since);
 
+  // Walks idx_messages_room_seq; messages stored before numbering have no seq and never match
+  @Query(
+      "SELECT m FROM Message m WHERE m.room.id = :roomId AND m.seq > :afterSeq "
+          + "AND m.seq <= :toSeq ORDER BY m.seq ASC")
+  List<Message> findByRoomIdAndSeqRange(
+      @Param("roomId") String roomId,
+      @Param("afterSeq") long afterSeq,
+      @Param("toSeq") long toSeq,
+      Pageable pageable);
+
   @Query(
       "SELECT m FROM Message m WHERE m.room.id = :roomId AND m.content ILIKE %:searchTerm% ORDER BY m.createdAt DESC")
   Page<Message> findByRoomIdAndContentContainingIgnoreCaseOrderByCreatedAtDesc(
       @Param("roomId") String roomId, @Param("searchTerm") String searchTerm, Pageable pageable);
 
+  // Rows for building a search index: (id, content, createdAt), fetched in chunks rather than
+  // materialized, so the caller must consume the stream inside a transaction and close it
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+  @Query("SELECT m.id, m.content, m.createdAt FROM Message m WHERE m.room.id = :roomId")
+  Stream<Object[]> streamSearchDocumentsByRoomId(@Param("roomId") String roomId);
+
   @Query("SELECT m FROM Message m WHERE m.user.id = :userId ORDER BY m.createdAt DESC")
   Page<Message> findByUserIdOrderByCreatedAtDesc(@Param("userId") String userId, Pageable pageable);
 
@@ -17,6 +17,12 @@ public interface RoomMemberRepository extends JpaRepository<RoomMember, RoomMemb
   @Query("SELECT rm FROM RoomMember rm WHERE rm.user.id = :userId")
   List<RoomMember> findByUserId(@Param("userId") String userId);
 
+  @Query("SELECT rm.id.roomId FROM RoomMember rm WHERE rm.id.userId = :userId")
+  List<String> findRoomIdsByUserId(@Param("userId") String userId);
+
+  @Query("SELECT rm.id.userId FROM RoomMember rm WHERE rm.id.roomId = :roomId")
+  List<String> findUserIdsByRoomId(@Param("roomId") String roomId);
+
   @Query("SELECT COUNT(rm) FROM RoomMember rm WHERE rm.room.id = :roomId")
   long countByRoomId(@Param("roomId") String roomId);
 
@@ -1,10 +1,15 @@
 package com.chatapp.repository;
 
 import com.chatapp.entity.User;
+import jakarta.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -17,7 +22,20 @@ public interface UserRepository extends JpaRepository<User, String> {
   List<User> findByRoomId(@Param("roomId") String roomId);
 
   @Query("SELECT u FROM User u WHERE u.name ILIKE %:searchTerm% OR u.email ILIKE %:searchTerm%")
-  List<User> findByNameOrEmailContainingIgnoreCase(@Param("searchTerm") String searchTerm);
+  List<User> findByNameOrEmailContainingIgnoreCase(
+      @Param("searchTerm") String searchTerm, Pageable pageable);
+
+  @Query(
+      "SELECT u FROM User u JOIN u.roomMemberships rm WHERE rm.room.id = :roomId AND "
+          + "(u.name ILIKE %:searchTerm% OR u.email ILIKE %:searchTerm%)")
+  List<User> findRoomMembersByNameOrEmailContainingIgnoreCase(
+      @Param("roomId") String roomId, @Param("searchTerm") String searchTerm, Pageable pageable);
+
+  // Rows for building the user search index: (id, name, email, picture, createdAt, updatedAt),
+  // fetched in chunks; the caller must consume the stream inside a transaction and close it
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+  @Query("SELECT u.id, u.name, u.email, u.picture, u.createdAt, u.updatedAt FROM User u")
+  Stream<Object[]> streamSearchDocuments();
 
   boolean existsByEmail(String email);
 }
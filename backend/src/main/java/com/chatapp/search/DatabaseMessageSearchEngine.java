@@ -0,0 +1,46 @@
+package com.chatapp.search;
+
+import com.chatapp.dto.MessageSearchHit;
+import com.chatapp.repository.MessageRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.AnyNestedCondition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Substring search with {@code ILIKE}, newest first. It needs no memory but scans the room's whole
+ * history on every query; kept as a fallback for {@code chat.search.engine=database}, and used
+ * whenever clustering is enabled since it sees every node's messages.
+ */
+@Component
+@Conditional(DatabaseMessageSearchEngine.Selected.class)
+public class DatabaseMessageSearchEngine implements MessageSearchEngine {
+
+  @Autowired private MessageRepository messageRepository;
+
+  @Override
+  public Page<MessageSearchHit> search(String roomId, String query, Pageable pageable) {
+    return messageRepository
+        .findByRoomIdAndContentContainingIgnoreCaseOrderByCreatedAtDesc(roomId, query, pageable)
+        .map(
+            message ->
+                new MessageSearchHit(
+                    message, 0, SearchHighlighter.highlight(message.getContent(), query)));
+  }
+
+  static class Selected extends AnyNestedCondition {
+
+    Selected() {
+      super(ConfigurationPhase.REGISTER_BEAN);
+    }
+
+    @ConditionalOnProperty(prefix = "chat.search", name = "engine", havingValue = "database")
+    static class DatabaseEngine {}
+
+    @ConditionalOnProperty(prefix = "chat.cluster", name = "enabled", havingValue = "true")
+    static class Clustered {}
+  }
+}
@@ -0,0 +1,15 @@
+package com.chatapp.search;
+
+import com.chatapp.dto.MessageSearchHit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Full-text search over the messages of one room. The implementation is chosen with {@code
+ * chat.search.engine}; callers are responsible for checking that the user may read the room.
+ */
+public interface MessageSearchEngine {
+
+  /** Returns the messages of {@code roomId} matching {@code query}, best match first. */
+  Page<MessageSearchHit> search(String roomId, String query, Pageable pageable);
+}
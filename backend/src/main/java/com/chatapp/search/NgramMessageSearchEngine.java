@@ -0,0 +1,194 @@
+package com.chatapp.search;
+
+import com.chatapp.config.SearchConfig;
+import com.chatapp.dto.MessageSearchHit;
+import com.chatapp.entity.Message;
+import com.chatapp.event.MessageCreatedEvent;
+import com.chatapp.event.MessageDeletedEvent;
+import com.chatapp.event.MessagesImportedEvent;
+import com.chatapp.repository.MessageRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.AllNestedConditions;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * In-memory n-gram index per room. A room's index is built from the database on its first search,
+ * kept current from message events afterwards, and evicted when idle, so memory is bounded by the
+ * rooms actually being searched. Results are ranked by BM25 over the query's n-grams.
+ *
+ * <p>Only this node's message events reach the index, so with clustering enabled {@link
+ * DatabaseMessageSearchEngine} is used instead.
+ */
+@Component
+@Conditional(NgramMessageSearchEngine.Selected.class)
+public class NgramMessageSearchEngine implements MessageSearchEngine {
+
+  private static final Logger logger = LoggerFactory.getLogger(NgramMessageSearchEngine.class);
+
+  @Autowired private SearchConfig config;
+
+  @Autowired private MessageRepository messageRepository;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @Autowired private MeterRegistry meterRegistry;
+
+  private Cache<String, RoomSearchIndex> indexes;
+  // Indexes still being filled from the database; events are applied to them directly so that
+  // nothing committed during the build is lost
+  private final Map<String, RoomSearchIndex> building = new ConcurrentHashMap<>();
+  private TransactionTemplate readOnlyTransaction;
+
+  @PostConstruct
+  public void init() {
+    indexes =
+        Caffeine.newBuilder()
+            .maximumSize(config.getMaxRooms())
+            .expireAfterAccess(Duration.ofMinutes(config.getIdleMinutes()))
+            .build();
+    readOnlyTransaction = new TransactionTemplate(transactionManager);
+    readOnlyTransaction.setReadOnly(true);
+    Gauge.builder("chat.search.rooms", indexes, cache -> cache.estimatedSize())
+        .register(meterRegistry);
+  }
+
+  @Override
+  public Page<MessageSearchHit> search(String roomId, String query, Pageable pageable) {
+    List<String> grams = NgramTokenizer.queryGrams(query);
+    if (grams.isEmpty()) {
+      return Page.empty(pageable);
+    }
+    Page<RoomSearchIndex.Ranked> ranked = indexFor(roomId).search(grams, pageable);
+
+    Map<String, Message> messages =
+        messageRepository
+            .findAllById(ranked.map(hit -> hit.messageId).getContent())
+            .stream()
+            .collect(Collectors.toMap(Message::getId, Function.identity()));
+    List<MessageSearchHit> hits = new ArrayList<>(ranked.getNumberOfElements());
+    for (RoomSearchIndex.Ranked hit : ranked) {
+      Message message = messages.get(hit.messageId);
+      if (message != null) { // deleted after the index was consulted
+        hits.add(
+            new MessageSearchHit(
+                message, hit.score, SearchHighlighter.highlight(message.getContent(), query)));
+      }
+    }
+    return new PageImpl<>(hits, pageable, ranked.getTotalElements());
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onMessageCreated(MessageCreatedEvent event) {
+    Message message = event.getMessage();
+    apply(event.getRoomId(), index -> add(index, message));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onMessageDeleted(MessageDeletedEvent event) {
+    apply(event.getRoomId(), index -> index.remove(event.getMessageId()));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onMessagesImported(MessagesImportedEvent event) {
+    // The index is unordered, so backfilled history is added just like live messages
+    apply(event.getRoomId(), index -> event.getMessages().forEach(message -> add(index, message)));
+  }
+
+  private RoomSearchIndex indexFor(String roomId) {
+    RoomSearchIndex index = indexes.getIfPresent(roomId);
+    if (index != null && !index.needsCompaction()) {
+      return index;
+    }
+    if (index != null) {
+      indexes.asMap().remove(roomId, index);
+    }
+    index = indexes.get(roomId, this::build);
+    building.remove(roomId, index);
+    return index;
+  }
+
+  private RoomSearchIndex build(String roomId) {
+    long start = System.nanoTime();
+    RoomSearchIndex index = new RoomSearchIndex();
+    building.put(roomId, index);
+    try {
+      readOnlyTransaction.executeWithoutResult(
+          status -> {
+            try (Stream<Object[]> rows = messageRepository.streamSearchDocumentsByRoomId(roomId)) {
+              rows.forEach(
+                  row -> index.add((String) row[0], (String) row[1], (LocalDateTime) row[2]));
+            }
+          });
+    } catch (RuntimeException e) {
+      building.remove(roomId, index);
+      throw e;
+    }
+    index.finishBuilding();
+    logger.debug(
+        "Indexed {} messages of room {} in {} ms",
+        index.size(),
+        roomId,
+        (System.nanoTime() - start) / 1_000_000);
+    return index;
+  }
+
+  private void apply(String roomId, Consumer<RoomSearchIndex> change) {
+    RoomSearchIndex index = indexes.getIfPresent(roomId);
+    if (index == null) {
+      index = building.get(roomId);
+    }
+    if (index != null) {
+      change.accept(index);
+    }
+  }
+
+  private static void add(RoomSearchIndex index, Message message) {
+    index.add(message.getId(), message.getContent(), message.getCreatedAt());
+  }
+
+  static class Selected extends AllNestedConditions {
+
+    Selected() {
+      super(ConfigurationPhase.REGISTER_BEAN);
+    }
+
+    @ConditionalOnProperty(
+        prefix = "chat.search",
+        name = "engine",
+        havingValue = "ngram",
+        matchIfMissing = true)
+    static class NgramEngine {}
+
+    @ConditionalOnProperty(
+        prefix = "chat.cluster",
+        name = "enabled",
+        havingValue = "false",
+        matchIfMissing = true)
+    static class SingleNode {}
+  }
+}
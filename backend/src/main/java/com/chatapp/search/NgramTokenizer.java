@@ -0,0 +1,162 @@
+package com.chatapp.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits text into overlapping character n-grams so that Japanese, Chinese and Korean, which do not
+ * separate words with spaces, can be searched without a dictionary. Text is NFKC-normalized (full
+ * and half-width forms fold together) and lowercased first. Each run of letters or digits yields
+ * its bigrams; CJK runs additionally yield unigrams so that one-character queries still match.
+ */
+public final class NgramTokenizer {
+
+  private NgramTokenizer() {}
+
+  /** Grams stored for a document, with repetitions so that callers can count term frequency. */
+  public static List<String> indexGrams(String text) {
+    List<String> grams = new ArrayList<>();
+    forEachRun(
+        normalize(text).text(),
+        (run, cjk) -> {
+          if (cjk || run.length == 1) {
+            for (int codePoint : run) {
+              grams.add(new String(Character.toChars(codePoint)));
+            }
+          }
+          addBigrams(run, grams);
+        });
+    return grams;
+  }
+
+  /** Distinct grams that a document must contain to match {@code query}. */
+  public static List<String> queryGrams(String query) {
+    List<String> grams = new ArrayList<>();
+    forEachRun(
+        normalize(query).text(),
+        (run, cjk) -> {
+          if (run.length == 1) {
+            grams.add(new String(Character.toChars(run[0])));
+          }
+          addBigrams(run, grams);
+        });
+    return grams.stream().distinct().toList();
+  }
+
+  /** Runs of letters or digits in normalized text, as code points; CJK and other scripts split. */
+  static List<int[]> runs(String normalized) {
+    List<int[]> runs = new ArrayList<>();
+    forEachRun(normalized, (run, cjk) -> runs.add(run));
+    return runs;
+  }
+
+  /** Whether {@code prefix} occurs in {@code text} at its start or right after a non-word char. */
+  static boolean startsWord(String text, String prefix) {
+    for (int at = text.indexOf(prefix); at >= 0; at = text.indexOf(prefix, at + 1)) {
+      if (at == 0 || !Character.isLetterOrDigit(text.codePointBefore(at))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Normalizes {@code text} one code point at a time, remembering which source characters produced
+   * every output character so that matches can be mapped back onto the original text.
+   */
+  public static Normalized normalize(String text) {
+    StringBuilder out = new StringBuilder(text.length());
+    int[] starts = new int[text.length()];
+    int[] ends = new int[text.length()];
+    int i = 0;
+    while (i < text.length()) {
+      int codePoint = text.codePointAt(i);
+      int next = i + Character.charCount(codePoint);
+      int from = out.length();
+      if (codePoint < 0x80) {
+        out.append((char) Character.toLowerCase(codePoint));
+      } else {
+        out.append(
+            Normalizer.normalize(text.substring(i, next), Normalizer.Form.NFKC)
+                .toLowerCase(Locale.ROOT));
+      }
+      if (out.length() > starts.length) {
+        starts = Arrays.copyOf(starts, Math.max(out.length(), starts.length * 2));
+        ends = Arrays.copyOf(ends, starts.length);
+      }
+      Arrays.fill(starts, from, out.length(), i);
+      Arrays.fill(ends, from, out.length(), next);
+      i = next;
+    }
+    return new Normalized(out.toString(), starts, ends);
+  }
+
+  private static void addBigrams(int[] run, List<String> grams) {
+    for (int i = 0; i + 1 < run.length; i++) {
+      grams.add(new String(run, i, 2));
+    }
+  }
+
+  private static void forEachRun(String text, RunConsumer consumer) {
+    int[] codePoints = text.codePoints().toArray();
+    int start = 0;
+    while (start < codePoints.length) {
+      if (!Character.isLetterOrDigit(codePoints[start])) {
+        start++;
+        continue;
+      }
+      boolean cjk = isCjk(codePoints[start]);
+      int end = start + 1;
+      while (end < codePoints.length
+          && Character.isLetterOrDigit(codePoints[end])
+          && isCjk(codePoints[end]) == cjk) {
+        end++;
+      }
+      consumer.accept(Arrays.copyOfRange(codePoints, start, end), cjk);
+      start = end;
+    }
+  }
+
+  private static boolean isCjk(int codePoint) {
+    if (codePoint == 0x30FC) {
+      return true; // katakana prolonged sound mark, script COMMON
+    }
+    Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+    return script == Character.UnicodeScript.HAN
+        || script == Character.UnicodeScript.HIRAGANA
+        || script == Character.UnicodeScript.KATAKANA
+        || script == Character.UnicodeScript.HANGUL;
+  }
+
+  private interface RunConsumer {
+    void accept(int[] codePoints, boolean cjk);
+  }
+
+  /** Normalized text plus, for each of its chars, the source range {@code [start, end)}. */
+  public static final class Normalized {
+    private final String text;
+    private final int[] starts;
+    private final int[] ends;
+
+    Normalized(String text, int[] starts, int[] ends) {
+      this.text = text;
+      this.starts = starts;
+      this.ends = ends;
+    }
+
+    public String text() {
+      return text;
+    }
+
+    public int sourceStart(int index) {
+      return starts[index];
+    }
+
+    public int sourceEnd(int index) {
+      return ends[index];
+    }
+  }
+}
@@ -0,0 +1,118 @@
+package com.chatapp.search;
+
+import com.chatapp.config.RoomSearchConfig;
+import com.chatapp.event.ChatRoomChangedEvent;
+import com.chatapp.event.ChatRoomDeletedEvent;
+import com.chatapp.repository.ChatRoomRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps a {@link RoomDirectoryIndex} of all rooms. The index is loaded in the background once the
+ * application is ready and follows room changes from then on; until loading has finished {@link
+ * #isReady()} is false and callers fall back to database queries.
+ */
+@Component
+public class RoomDirectory {
+
+  private static final Logger logger = LoggerFactory.getLogger(RoomDirectory.class);
+
+  @Autowired private RoomSearchConfig config;
+
+  @Autowired private ChatRoomRepository chatRoomRepository;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @Autowired private MeterRegistry meterRegistry;
+
+  private RoomDirectoryIndex index;
+  private volatile boolean ready;
+
+  @PostConstruct
+  public void init() {
+    index = new RoomDirectoryIndex(config.getDescriptionLength());
+    Gauge.builder("chat.rooms.search.indexed", index, RoomDirectoryIndex::size)
+        .register(meterRegistry);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void startLoading() {
+    if (!config.isIndexed()) {
+      return;
+    }
+    Thread loader = new Thread(this::load, "room-directory-loader");
+    loader.setDaemon(true);
+    loader.start();
+  }
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  /** See {@link RoomDirectoryIndex#search}. */
+  public RoomDirectoryIndex.Result search(
+      String query, Set<String> withinRoomIds, int offset, int limit) {
+    return index.search(query, withinRoomIds, offset, limit);
+  }
+
+  public List<String> autocomplete(String prefix, int limit) {
+    return index.autocomplete(prefix, Math.min(limit, config.getMaxAutocompleteLimit()));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onRoomChanged(ChatRoomChangedEvent event) {
+    if (config.isIndexed()) {
+      index.put(event.getRoomId(), event.getName(), event.getDescription(), event.isPrivate());
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onRoomDeleted(ChatRoomDeletedEvent event) {
+    if (config.isIndexed()) {
+      index.remove(event.getRoomId());
+    }
+  }
+
+  private void load() {
+    long start = System.nanoTime();
+    index.beginLoad();
+    try {
+      TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+      transactionTemplate.setReadOnly(true);
+      transactionTemplate.executeWithoutResult(
+          status -> {
+            try (Stream<Object[]> rows = chatRoomRepository.streamSearchDocuments()) {
+              rows.forEach(
+                  row ->
+                      index.putIfAbsent(
+                          (String) row[0],
+                          (String) row[1],
+                          (String) row[2],
+                          Boolean.TRUE.equals(row[3])));
+            }
+          });
+      ready = true;
+      logger.info(
+          "Indexed {} rooms for search in {} ms",
+          index.size(),
+          (System.nanoTime() - start) / 1_000_000);
+    } catch (RuntimeException e) {
+      logger.error("Loading the room search index failed; room search stays on the database", e);
+    } finally {
+      index.endLoad();
+    }
+  }
+}
@@ -0,0 +1,511 @@
+package com.chatapp.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * In-memory index of chat rooms for directory search. Names and the leading part of descriptions
+ * are split into character trigrams (NFKC-normalized and lowercased, see {@link NgramTokenizer});
+ * the words of each name are also kept in a sorted map for prefix autocomplete.
+ *
+ * <p>Query terms of three or more characters must match through trigrams; shorter terms must be
+ * the start of a word in the room name. Results are ranked by where the trigrams matched (name
+ * over description), then by whether the name contains the whole query, then shorter names first.
+ *
+ * <p>Updates append a new document and mark the old one dead, so posting lists stay sorted by
+ * document number; dead documents are compacted away once they outnumber the live ones.
+ */
+public final class RoomDirectoryIndex {
+
+  private static final int NAME = 0;
+  private static final int DESCRIPTION = 1;
+  private static final int MIN_COMPACTION = 1024;
+  // Autocomplete stops collecting candidates after this many per requested suggestion
+  private static final int AUTOCOMPLETE_SCAN_FACTOR = 64;
+
+  private final int descriptionLength;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final Map<String, Integer> docsByRoomId = new HashMap<>();
+  private String[] roomIds = new String[1024];
+  private String[] names = new String[1024]; // normalized
+  private final BitSet privateRooms = new BitSet();
+  private final BitSet dead = new BitSet();
+  private int docCount;
+  private int live;
+
+  // Entries are doc * 2 + field, ascending
+  private final Map<Long, Postings> trigrams = new HashMap<>();
+  // Entries are docs, ascending
+  private final TreeMap<String, Postings> nameWords = new TreeMap<>();
+
+  // Removals seen during a bulk load, which may still deliver the removed rooms; null otherwise
+  private Set<String> removedWhileLoading;
+
+  public RoomDirectoryIndex(int descriptionLength) {
+    this.descriptionLength = descriptionLength;
+  }
+
+  /** Starts a bulk load: rooms removed from now on are not re-added by {@link #putIfAbsent}. */
+  public void beginLoad() {
+    lock.writeLock().lock();
+    try {
+      removedWhileLoading = new HashSet<>();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void endLoad() {
+    lock.writeLock().lock();
+    try {
+      removedWhileLoading = null;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Adds or replaces a room. */
+  public void put(String roomId, String name, String description, boolean isPrivate) {
+    lock.writeLock().lock();
+    try {
+      Integer previous = docsByRoomId.get(roomId);
+      if (previous != null) {
+        kill(previous);
+      }
+      addDoc(roomId, name, description, isPrivate);
+      compactIfNeeded();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Adds a room unless it is already indexed or was removed during the current bulk load. */
+  public void putIfAbsent(String roomId, String name, String description, boolean isPrivate) {
+    lock.writeLock().lock();
+    try {
+      if (!docsByRoomId.containsKey(roomId)
+          && (removedWhileLoading == null || !removedWhileLoading.contains(roomId))) {
+        addDoc(roomId, name, description, isPrivate);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void remove(String roomId) {
+    lock.writeLock().lock();
+    try {
+      if (removedWhileLoading != null) {
+        removedWhileLoading.add(roomId);
+      }
+      Integer doc = docsByRoomId.get(roomId);
+      if (doc != null) {
+        kill(doc);
+        compactIfNeeded();
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return live;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Ranks the rooms matching {@code query} and returns ids {@code [offset, offset + limit)} of the
+   * ranking. With {@code withinRoomIds} null only public rooms are searched; otherwise exactly the
+   * given rooms, public or private.
+   */
+  public Result search(String query, Set<String> withinRoomIds, int offset, int limit) {
+    String normalized = NgramTokenizer.normalize(query).text().strip();
+    List<int[]> runs = NgramTokenizer.runs(normalized);
+    if (runs.isEmpty()) {
+      return Result.EMPTY;
+    }
+
+    lock.readLock().lock();
+    try {
+      List<Postings> grams = new ArrayList<>();
+      List<BitSet> prefixes = new ArrayList<>();
+      for (int[] run : runs) {
+        if (run.length >= 3) {
+          for (int i = 0; i + 3 <= run.length; i++) {
+            Postings postings = trigrams.get(trigram(run, i));
+            if (postings == null) {
+              return Result.EMPTY;
+            }
+            grams.add(postings);
+          }
+        } else {
+          prefixes.add(docsWithNameWordPrefix(new String(run, 0, run.length)));
+        }
+      }
+
+      int criteria = grams.size() + prefixes.size();
+      // Candidates are visited in ascending doc order, so each list is read once front to back
+      List<Cursor> cursors = grams.stream().map(Cursor::new).toList();
+      Candidates candidates = new Candidates();
+      if (!grams.isEmpty()) {
+        Postings shortest = grams.get(0);
+        for (Postings postings : grams) {
+          if (postings.size < shortest.size) {
+            shortest = postings;
+          }
+        }
+        int previous = -1;
+        for (int i = 0; i < shortest.size; i++) {
+          int doc = shortest.entries[i] >> 1;
+          if (doc != previous && visible(doc, withinRoomIds)) {
+            candidates.add(doc, score(doc, cursors, prefixes, criteria, normalized));
+          }
+          previous = doc;
+        }
+      } else {
+        BitSet first = prefixes.get(0);
+        for (int doc = first.nextSetBit(0); doc >= 0; doc = first.nextSetBit(doc + 1)) {
+          if (visible(doc, withinRoomIds)) {
+            candidates.add(doc, score(doc, cursors, prefixes, criteria, normalized));
+          }
+        }
+      }
+      return new Result(top(candidates, offset, limit), candidates.count);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns up to {@code limit} public rooms whose name, or a word of it, starts with {@code
+   * prefix}; names starting with it come first, then shorter names.
+   */
+  public List<String> autocomplete(String prefix, int limit) {
+    String normalized = NgramTokenizer.normalize(prefix).text().strip();
+    List<int[]> runs = NgramTokenizer.runs(normalized);
+    if (runs.isEmpty() || limit <= 0) {
+      return List.of();
+    }
+    String firstWord = new String(runs.get(0), 0, runs.get(0).length);
+
+    lock.readLock().lock();
+    try {
+      int maxCandidates = limit * AUTOCOMPLETE_SCAN_FACTOR;
+      BitSet seen = new BitSet();
+      Candidates candidates = new Candidates();
+      scan:
+      for (Postings postings :
+          nameWords.subMap(firstWord, true, firstWord + Character.MAX_VALUE, false).values()) {
+        for (int i = 0; i < postings.size; i++) {
+          int doc = postings.entries[i];
+          if (seen.get(doc) || !visible(doc, null)) {
+            continue;
+          }
+          seen.set(doc);
+          String name = names[doc];
+          if (NgramTokenizer.startsWord(name, normalized)) {
+            candidates.add(doc, name.startsWith(normalized) ? 1 : 0);
+            if (candidates.count >= maxCandidates) {
+              break scan;
+            }
+          }
+        }
+      }
+      return top(candidates, 0, limit);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private boolean visible(int doc, Set<String> withinRoomIds) {
+    if (dead.get(doc)) {
+      return false;
+    }
+    return withinRoomIds == null ? !privateRooms.get(doc) : withinRoomIds.contains(roomIds[doc]);
+  }
+
+  /** Relevance of a document, or -1 when it does not satisfy every query term. */
+  private double score(
+      int doc, List<Cursor> grams, List<BitSet> prefixes, int criteria, String query) {
+    double matched = 0;
+    for (Cursor cursor : grams) {
+      int fields = cursor.fieldsOf(doc);
+      if (fields == 0) {
+        return -1;
+      }
+      matched += (fields & (1 << NAME)) != 0 ? 2 : 1;
+    }
+    for (BitSet prefix : prefixes) {
+      if (!prefix.get(doc)) {
+        return -1;
+      }
+      matched += 2;
+    }
+
+    double score = matched / criteria;
+    int at = names[doc].indexOf(query);
+    if (at == 0) {
+      score += names[doc].length() == query.length() ? 6 : 5;
+    } else if (at > 0) {
+      score += 4;
+    }
+    return score;
+  }
+
+  /** Ids of the ranking's entries {@code [offset, offset + limit)}, using a bounded heap. */
+  private List<String> top(Candidates candidates, int offset, int limit) {
+    int keep = (int) Math.min((long) offset + limit, candidates.count);
+    if (keep <= offset) {
+      return List.of();
+    }
+    // Worst-ranked candidate at the head, so it can be replaced by better ones
+    PriorityQueue<Integer> heap =
+        new PriorityQueue<>(keep, (a, b) -> rank(candidates, b, a));
+    for (int i = 0; i < candidates.count; i++) {
+      if (heap.size() < keep) {
+        heap.add(i);
+      } else if (rank(candidates, i, heap.peek()) < 0) {
+        heap.poll();
+        heap.add(i);
+      }
+    }
+    List<Integer> ordered = new ArrayList<>(heap);
+    ordered.sort((a, b) -> rank(candidates, a, b));
+    List<String> ids = new ArrayList<>(keep - offset);
+    for (int i = offset; i < keep; i++) {
+      ids.add(roomIds[candidates.docs[ordered.get(i)]]);
+    }
+    return ids;
+  }
+
+  /** Negative when candidate {@code a} ranks before candidate {@code b}. */
+  private int rank(Candidates candidates, int a, int b) {
+    int byScore = Double.compare(candidates.scores[b], candidates.scores[a]);
+    if (byScore != 0) {
+      return byScore;
+    }
+    String nameA = names[candidates.docs[a]];
+    String nameB = names[candidates.docs[b]];
+    int byLength = Integer.compare(nameA.length(), nameB.length());
+    if (byLength != 0) {
+      return byLength;
+    }
+    int byName = nameA.compareTo(nameB);
+    return byName != 0
+        ? byName
+        : roomIds[candidates.docs[a]].compareTo(roomIds[candidates.docs[b]]);
+  }
+
+  private BitSet docsWithNameWordPrefix(String prefix) {
+    BitSet docs = new BitSet();
+    for (Postings postings :
+        nameWords.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+      for (int i = 0; i < postings.size; i++) {
+        docs.set(postings.entries[i]);
+      }
+    }
+    return docs;
+  }
+
+  private void addDoc(String roomId, String name, String description, boolean isPrivate) {
+    int doc = docCount++;
+    if (doc == roomIds.length) {
+      roomIds = Arrays.copyOf(roomIds, doc * 2);
+      names = Arrays.copyOf(names, doc * 2);
+    }
+    String normalizedName = NgramTokenizer.normalize(name == null ? "" : name).text();
+    roomIds[doc] = roomId;
+    names[doc] = normalizedName;
+    privateRooms.set(doc, isPrivate);
+    docsByRoomId.put(roomId, doc);
+    live++;
+
+    String text = description == null ? "" : description;
+    text = text.substring(0, Math.min(text.length(), descriptionLength));
+    addTrigrams(doc * 2 + NAME, normalizedName);
+    addTrigrams(doc * 2 + DESCRIPTION, NgramTokenizer.normalize(text).text());
+
+    Set<String> words = new LinkedHashSet<>();
+    for (int[] run : NgramTokenizer.runs(normalizedName)) {
+      words.add(new String(run, 0, run.length));
+    }
+    words.forEach(word -> nameWords.computeIfAbsent(word, w -> new Postings()).add(doc));
+  }
+
+  private void addTrigrams(int entry, String normalized) {
+    Set<Long> keys = new LinkedHashSet<>();
+    for (int[] run : NgramTokenizer.runs(normalized)) {
+      for (int i = 0; i + 3 <= run.length; i++) {
+        keys.add(trigram(run, i));
+      }
+    }
+    keys.forEach(key -> trigrams.computeIfAbsent(key, k -> new Postings()).add(entry));
+  }
+
+  private void kill(int doc) {
+    dead.set(doc);
+    docsByRoomId.remove(roomIds[doc]);
+    live--;
+  }
+
+  private void compactIfNeeded() {
+    int deadCount = docCount - live;
+    if (deadCount < MIN_COMPACTION || deadCount < live) {
+      return;
+    }
+    int[] remap = new int[docCount];
+    int next = 0;
+    for (int doc = 0; doc < docCount; doc++) {
+      if (dead.get(doc)) {
+        remap[doc] = -1;
+        continue;
+      }
+      remap[doc] = next;
+      roomIds[next] = roomIds[doc];
+      names[next] = names[doc];
+      privateRooms.set(next, privateRooms.get(doc));
+      docsByRoomId.put(roomIds[next], next);
+      next++;
+    }
+    Arrays.fill(roomIds, next, docCount, null);
+    Arrays.fill(names, next, docCount, null);
+    privateRooms.clear(next, docCount);
+    dead.clear();
+    docCount = next;
+
+    compact(
+        trigrams.values().iterator(),
+        entry -> remap[entry >> 1] < 0 ? -1 : remap[entry >> 1] * 2 + (entry & 1));
+    compact(nameWords.values().iterator(), doc -> remap[doc]);
+  }
+
+  private static void compact(
+      Iterator<Postings> lists, IntUnaryOperator remapEntry) {
+    while (lists.hasNext()) {
+      Postings postings = lists.next();
+      int kept = 0;
+      for (int i = 0; i < postings.size; i++) {
+        int entry = remapEntry.applyAsInt(postings.entries[i]);
+        if (entry >= 0) {
+          postings.entries[kept++] = entry;
+        }
+      }
+      postings.size = kept;
+      if (kept == 0) {
+        lists.remove();
+      }
+    }
+  }
+
+  private static long trigram(int[] codePoints, int at) {
+    return ((long) codePoints[at] << 42) | ((long) codePoints[at + 1] << 21) | codePoints[at + 2];
+  }
+
+  /** A page of ranked room ids and the number of rooms that matched. */
+  public static final class Result {
+    static final Result EMPTY = new Result(List.of(), 0);
+
+    private final List<String> roomIds;
+    private final int total;
+
+    Result(List<String> roomIds, int total) {
+      this.roomIds = roomIds;
+      this.total = total;
+    }
+
+    public List<String> getRoomIds() {
+      return roomIds;
+    }
+
+    public int getTotal() {
+      return total;
+    }
+  }
+
+  /** Matching documents and their scores; documents failing a query term are skipped. */
+  private static final class Candidates {
+    private int[] docs = new int[16];
+    private double[] scores = new double[16];
+    private int count;
+
+    void add(int doc, double score) {
+      if (score < 0) {
+        return;
+      }
+      if (count == docs.length) {
+        docs = Arrays.copyOf(docs, count * 2);
+        scores = Arrays.copyOf(scores, count * 2);
+      }
+      docs[count] = doc;
+      scores[count++] = score;
+    }
+  }
+
+  /** Ascending int entries. */
+  private static final class Postings {
+    private int[] entries = new int[2];
+    private int size;
+
+    void add(int entry) {
+      if (size == entries.length) {
+        entries = Arrays.copyOf(entries, size * 2);
+      }
+      entries[size++] = entry;
+    }
+  }
+
+  /** Forward-only reader of a trigram posting list, probed with ascending doc numbers. */
+  private static final class Cursor {
+    private final Postings postings;
+    private int position;
+
+    Cursor(Postings postings) {
+      this.postings = postings;
+    }
+
+    /** Bit set of the fields containing the trigram in {@code doc}; 0 when it does not. */
+    int fieldsOf(int doc) {
+      int[] entries = postings.entries;
+      int size = postings.size;
+      int low = doc * 2;
+      // Gallop to bracket the first entry >= low, then binary search inside the bracket
+      int bound = 1;
+      while (position + bound < size && entries[position + bound] < low) {
+        bound <<= 1;
+      }
+      int at =
+          Arrays.binarySearch(
+              entries, position + (bound >> 1), Math.min(position + bound, size), low);
+      position = at >= 0 ? at : -at - 1;
+
+      int fields = 0;
+      int i = position;
+      if (i < size && entries[i] == low + NAME) {
+        fields |= 1 << NAME;
+        i++;
+      }
+      if (i < size && entries[i] == low + DESCRIPTION) {
+        fields |= 1 << DESCRIPTION;
+      }
+      return fields;
+    }
+  }
+}
@@ -0,0 +1,178 @@
+package com.chatapp.search;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Inverted index of one room's messages: for every n-gram, the documents containing it and how
+ * often. Deleted messages are only marked; once they outnumber the live ones the owner drops the
+ * index and builds a fresh one. All methods are synchronized, as events and searches interleave.
+ */
+final class RoomSearchIndex {
+
+  private static final double K1 = 1.2;
+  private static final double B = 0.75;
+  private static final int COMPACTION_THRESHOLD = 1024;
+
+  private final Map<String, Integer> docsByMessageId = new HashMap<>();
+  private final List<String> messageIds = new ArrayList<>();
+  private final Map<String, Postings> postings = new HashMap<>();
+  private final BitSet deleted = new BitSet();
+  private int[] lengths = new int[64];
+  private long[] timestamps = new long[64];
+  private long totalLength;
+  private int live;
+  // Deletions seen while the index is still being filled from the database, which may yet
+  // return the deleted rows; null once building has finished
+  private Set<String> deletedWhileBuilding = new HashSet<>();
+
+  synchronized void add(String messageId, String content, LocalDateTime createdAt) {
+    if (content == null || docsByMessageId.containsKey(messageId)) {
+      return;
+    }
+    if (deletedWhileBuilding != null && deletedWhileBuilding.contains(messageId)) {
+      return;
+    }
+    List<String> grams = NgramTokenizer.indexGrams(content);
+    if (grams.isEmpty()) {
+      return;
+    }
+
+    int doc = messageIds.size();
+    messageIds.add(messageId);
+    docsByMessageId.put(messageId, doc);
+    if (doc == lengths.length) {
+      lengths = Arrays.copyOf(lengths, doc * 2);
+      timestamps = Arrays.copyOf(timestamps, doc * 2);
+    }
+    lengths[doc] = grams.size();
+    timestamps[doc] = createdAt == null ? 0 : createdAt.toEpochSecond(ZoneOffset.UTC);
+    totalLength += grams.size();
+    live++;
+
+    Map<String, Integer> frequencies = new HashMap<>();
+    grams.forEach(gram -> frequencies.merge(gram, 1, Integer::sum));
+    frequencies.forEach(
+        (gram, frequency) ->
+            postings.computeIfAbsent(gram, g -> new Postings()).add(doc, frequency));
+  }
+
+  synchronized void remove(String messageId) {
+    Integer doc = docsByMessageId.remove(messageId);
+    if (doc == null) {
+      if (deletedWhileBuilding != null) {
+        deletedWhileBuilding.add(messageId);
+      }
+      return;
+    }
+    deleted.set(doc);
+    totalLength -= lengths[doc];
+    live--;
+  }
+
+  synchronized void finishBuilding() {
+    deletedWhileBuilding = null;
+  }
+
+  /** True once deleted documents dominate and rebuilding would reclaim meaningful memory. */
+  synchronized boolean needsCompaction() {
+    int dead = deleted.cardinality();
+    return dead > COMPACTION_THRESHOLD && dead > live;
+  }
+
+  synchronized int size() {
+    return live;
+  }
+
+  /**
+   * Ranks the documents containing every gram with BM25, newest first among equal scores, and
+   * returns the requested page of them.
+   */
+  synchronized Page<Ranked> search(List<String> grams, Pageable pageable) {
+    List<Postings> lists = new ArrayList<>(grams.size());
+    for (String gram : grams) {
+      Postings list = postings.get(gram);
+      if (list == null) {
+        return Page.empty(pageable);
+      }
+      lists.add(list);
+    }
+
+    int docCount = messageIds.size();
+    double averageLength = live == 0 ? 1 : (double) totalLength / live;
+    double[] scores = new double[docCount];
+    int[] matches = new int[docCount];
+    for (Postings list : lists) {
+      double idf = Math.log(1 + (live - list.size + 0.5) / (list.size + 0.5));
+      for (int i = 0; i < list.size; i++) {
+        int doc = list.docs[i];
+        int frequency = list.frequencies[i];
+        double norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+        scores[doc] += idf * frequency * (K1 + 1) / (frequency + norm);
+        matches[doc]++;
+      }
+    }
+
+    // Every match appears in the shortest postings list, so only its documents need checking
+    Postings shortest = lists.stream().min((a, b) -> Integer.compare(a.size, b.size)).get();
+    List<Integer> candidates = new ArrayList<>();
+    for (int i = 0; i < shortest.size; i++) {
+      int doc = shortest.docs[i];
+      if (matches[doc] == lists.size() && !deleted.get(doc)) {
+        candidates.add(doc);
+      }
+    }
+    candidates.sort(
+        (a, b) -> {
+          int byScore = Double.compare(scores[b], scores[a]);
+          return byScore != 0 ? byScore : Long.compare(timestamps[b], timestamps[a]);
+        });
+
+    int from = (int) Math.min(pageable.getOffset(), candidates.size());
+    int to = Math.min(from + pageable.getPageSize(), candidates.size());
+    List<Ranked> page = new ArrayList<>(to - from);
+    for (int doc : candidates.subList(from, to)) {
+      page.add(new Ranked(messageIds.get(doc), scores[doc]));
+    }
+    return new PageImpl<>(page, pageable, candidates.size());
+  }
+
+  /** A matching message id and its relevance. */
+  static final class Ranked {
+    final String messageId;
+    final double score;
+
+    Ranked(String messageId, double score) {
+      this.messageId = messageId;
+      this.score = score;
+    }
+  }
+
+  /** Parallel arrays of document numbers (ascending) and term frequencies. */
+  private static final class Postings {
+    private int[] docs = new int[4];
+    private int[] frequencies = new int[4];
+    private int size;
+
+    void add(int doc, int frequency) {
+      if (size == docs.length) {
+        docs = Arrays.copyOf(docs, size * 2);
+        frequencies = Arrays.copyOf(frequencies, size * 2);
+      }
+      docs[size] = doc;
+      frequencies[size] = frequency;
+      size++;
+    }
+  }
+}
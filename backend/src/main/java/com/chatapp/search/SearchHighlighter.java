@@ -0,0 +1,45 @@
+package com.chatapp.search;
+
+import com.chatapp.dto.MessageSearchHit.Highlight;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Finds where the words of a query occur in a message, ignoring case and character width. */
+public final class SearchHighlighter {
+
+  private SearchHighlighter() {}
+
+  /** Returns the non-overlapping ranges of {@code content} matching a query word, in order. */
+  public static List<Highlight> highlight(String content, String query) {
+    if (content == null || content.isEmpty()) {
+      return List.of();
+    }
+    NgramTokenizer.Normalized text = NgramTokenizer.normalize(content);
+    boolean[] matched = new boolean[text.text().length()];
+    for (String word : NgramTokenizer.normalize(query).text().split("\\s+")) {
+      if (word.isEmpty()) {
+        continue;
+      }
+      for (int at = text.text().indexOf(word); at >= 0; at = text.text().indexOf(word, at + 1)) {
+        for (int i = at; i < at + word.length(); i++) {
+          matched[i] = true;
+        }
+      }
+    }
+
+    List<Highlight> highlights = new ArrayList<>();
+    int i = 0;
+    while (i < matched.length) {
+      if (!matched[i]) {
+        i++;
+        continue;
+      }
+      int start = i;
+      while (i < matched.length && matched[i]) {
+        i++;
+      }
+      highlights.add(new Highlight(text.sourceStart(start), text.sourceEnd(i - 1)));
+    }
+    return highlights;
+  }
+}
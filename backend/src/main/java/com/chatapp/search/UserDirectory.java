@@ -0,0 +1,190 @@
+package com.chatapp.search;
+
+import com.chatapp.config.ClusterConfig;
+import com.chatapp.config.UserSearchConfig;
+import com.chatapp.entity.User;
+import com.chatapp.event.UserDeletedEvent;
+import com.chatapp.event.UserSavedEvent;
+import com.chatapp.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps a {@link UserDirectoryIndex} of all users. The index is loaded in the background once the
+ * application is ready and follows user changes from then on; until loading has finished {@link
+ * #isReady()} is false and callers fall back to database queries.
+ *
+ * <p>The index is node-local: with clustering enabled every committed save or deletion is
+ * announced over Redis, and the other nodes re-read the user from the database and update their
+ * copy.
+ */
+@Component
+public class UserDirectory implements MessageListener {
+
+  private static final Logger logger = LoggerFactory.getLogger(UserDirectory.class);
+
+  // Messages are the announcing node's id and the changed user's id, one per line
+  private static final String CHANGE_CHANNEL = "chat:users:changed";
+
+  @Autowired private UserSearchConfig config;
+
+  @Autowired private ClusterConfig clusterConfig;
+
+  @Autowired private UserRepository userRepository;
+
+  @Autowired private StringRedisTemplate redisTemplate;
+
+  @Autowired(required = false)
+  private RedisMessageListenerContainer listenerContainer;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @Autowired private MeterRegistry meterRegistry;
+
+  private final UserDirectoryIndex index = new UserDirectoryIndex();
+  private volatile boolean ready;
+
+  @PostConstruct
+  public void init() {
+    Gauge.builder("chat.users.search.indexed", index, UserDirectoryIndex::size)
+        .register(meterRegistry);
+    if (listenerContainer != null) {
+      listenerContainer.addMessageListener(this, new ChannelTopic(CHANGE_CHANNEL));
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void startLoading() {
+    if (!config.isIndexed()) {
+      return;
+    }
+    Thread loader = new Thread(this::load, "user-directory-loader");
+    loader.setDaemon(true);
+    loader.start();
+  }
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  /** See {@link UserDirectoryIndex#search}. */
+  public List<User> search(String prefix, int limit, Set<String> withinUserIds) {
+    return index.search(prefix, limit, withinUserIds);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onUserSaved(UserSavedEvent event) {
+    if (config.isIndexed()) {
+      index.put(snapshot(event.getUser()));
+      announce(event.getUserId());
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onUserDeleted(UserDeletedEvent event) {
+    if (config.isIndexed()) {
+      index.remove(event.getUserId());
+      announce(event.getUserId());
+    }
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String[] lines = new String(message.getBody(), StandardCharsets.UTF_8).split("\n");
+    if (!config.isIndexed() || lines.length < 2 || lines[0].equals(clusterConfig.getNodeId())) {
+      return;
+    }
+    String userId = lines[1];
+    userRepository
+        .findById(userId)
+        .ifPresentOrElse(user -> index.put(snapshot(user)), () -> index.remove(userId));
+  }
+
+  private void announce(String userId) {
+    if (!clusterConfig.isEnabled()) {
+      return;
+    }
+    try {
+      redisTemplate.convertAndSend(CHANGE_CHANNEL, clusterConfig.getNodeId() + "\n" + userId);
+    } catch (RuntimeException e) {
+      logger.warn("Failed to announce change of user {}", userId, e);
+    }
+  }
+
+  // Detached copy of the display fields, so the index holds no managed entities
+  private static User snapshot(User user) {
+    return snapshot(
+        user.getId(),
+        user.getName(),
+        user.getEmail(),
+        user.getPicture(),
+        user.getCreatedAt(),
+        user.getUpdatedAt());
+  }
+
+  private static User snapshot(
+      String id,
+      String name,
+      String email,
+      String picture,
+      LocalDateTime createdAt,
+      LocalDateTime updatedAt) {
+    User user = new User(id, email, name, picture, null);
+    user.setCreatedAt(createdAt);
+    user.setUpdatedAt(updatedAt);
+    return user;
+  }
+
+  private void load() {
+    long start = System.nanoTime();
+    index.beginLoad();
+    try {
+      TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+      transactionTemplate.setReadOnly(true);
+      transactionTemplate.executeWithoutResult(
+          status -> {
+            try (Stream<Object[]> rows = userRepository.streamSearchDocuments()) {
+              rows.forEach(
+                  row ->
+                      index.putIfAbsent(
+                          snapshot(
+                              (String) row[0],
+                              (String) row[1],
+                              (String) row[2],
+                              (String) row[3],
+                              (LocalDateTime) row[4],
+                              (LocalDateTime) row[5])));
+            }
+          });
+      ready = true;
+      logger.info(
+          "Indexed {} users for search in {} ms",
+          index.size(),
+          (System.nanoTime() - start) / 1_000_000);
+    } catch (RuntimeException e) {
+      logger.error("Loading the user search index failed; user search stays on the database", e);
+    } finally {
+      index.endLoad();
+    }
+  }
+}
@@ -0,0 +1,236 @@
+package com.chatapp.search;
+
+import com.chatapp.entity.User;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefix index of users for mention autocomplete. Each user is filed in a sorted map under their
+ * normalized full name, every word of the name and their email address, so the users matching a
+ * prefix sit in one contiguous key range. Lookups scan that range only until enough candidates
+ * are found; lookups scoped to a small set of users (a room's members) test those users directly.
+ *
+ * <p>Each entry keeps the user's display fields, so searches are answered without the database.
+ * The indexed users are shared snapshots and must not be modified.
+ */
+public final class UserDirectoryIndex {
+
+  // Candidates collected per requested result before ranking
+  private static final int SCAN_FACTOR = 16;
+  // Scoped lookups over at most this many users test each of them instead of scanning keys
+  private static final int DIRECT_SCOPE_LIMIT = 4096;
+
+  private static final Comparator<Scored> RANKING =
+      Comparator.comparingInt((Scored scored) -> -scored.score)
+          .thenComparingInt(scored -> scored.entry.name.length())
+          .thenComparing(scored -> scored.entry.name)
+          .thenComparing(scored -> scored.entry.user.getId());
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<String, Entry> users = new HashMap<>();
+  private final TreeMap<String, List<Entry>> keys = new TreeMap<>();
+
+  // Removals seen during a bulk load, which may still deliver the removed users; null otherwise
+  private Set<String> removedWhileLoading;
+
+  /** Starts a bulk load: users removed from now on are not re-added by {@link #putIfAbsent}. */
+  public void beginLoad() {
+    lock.writeLock().lock();
+    try {
+      removedWhileLoading = new HashSet<>();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void endLoad() {
+    lock.writeLock().lock();
+    try {
+      removedWhileLoading = null;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Adds or replaces a user. */
+  public void put(User user) {
+    lock.writeLock().lock();
+    try {
+      unfile(users.remove(user.getId()));
+      file(new Entry(user));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Adds a user unless already indexed or removed during the current bulk load. */
+  public void putIfAbsent(User user) {
+    lock.writeLock().lock();
+    try {
+      if (!users.containsKey(user.getId())
+          && (removedWhileLoading == null || !removedWhileLoading.contains(user.getId()))) {
+        file(new Entry(user));
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void remove(String userId) {
+    lock.writeLock().lock();
+    try {
+      if (removedWhileLoading != null) {
+        removedWhileLoading.add(userId);
+      }
+      unfile(users.remove(userId));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return users.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns up to {@code limit} users whose name, a word of the name, or email starts with
+   * {@code prefix}, restricted to {@code withinUserIds} unless it is null. Full-name matches rank
+   * first, then word matches, then email matches; shorter names first among equals.
+   */
+  public List<User> search(String prefix, int limit, Set<String> withinUserIds) {
+    String normalized = NgramTokenizer.normalize(prefix).text().strip();
+    if (normalized.isEmpty() || limit <= 0) {
+      return List.of();
+    }
+
+    lock.readLock().lock();
+    try {
+      List<Scored> candidates = new ArrayList<>();
+      if (withinUserIds != null && withinUserIds.size() <= DIRECT_SCOPE_LIMIT) {
+        for (String userId : withinUserIds) {
+          Entry entry = users.get(userId);
+          int score = entry == null ? 0 : entry.score(normalized);
+          if (score > 0) {
+            candidates.add(new Scored(entry, score));
+          }
+        }
+      } else {
+        int maxCandidates = limit * SCAN_FACTOR;
+        Set<Entry> seen = new HashSet<>();
+        scan:
+        for (List<Entry> entries :
+            keys.subMap(normalized, true, normalized + Character.MAX_VALUE, false).values()) {
+          for (Entry entry : entries) {
+            if ((withinUserIds != null && !withinUserIds.contains(entry.user.getId()))
+                || !seen.add(entry)) {
+              continue;
+            }
+            int score = entry.score(normalized);
+            if (score > 0) {
+              candidates.add(new Scored(entry, score));
+              if (candidates.size() >= maxCandidates) {
+                break scan;
+              }
+            }
+          }
+        }
+      }
+
+      candidates.sort(RANKING);
+      List<User> found = new ArrayList<>(Math.min(limit, candidates.size()));
+      for (Scored scored : candidates.subList(0, Math.min(limit, candidates.size()))) {
+        found.add(scored.entry.user);
+      }
+      return found;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void file(Entry entry) {
+    users.put(entry.user.getId(), entry);
+    for (String key : entry.keys()) {
+      keys.computeIfAbsent(key, k -> new ArrayList<>(1)).add(entry);
+    }
+  }
+
+  private void unfile(Entry entry) {
+    if (entry == null) {
+      return;
+    }
+    for (String key : entry.keys()) {
+      List<Entry> entries = keys.get(key);
+      if (entries != null) {
+        entries.remove(entry);
+        if (entries.isEmpty()) {
+          keys.remove(key);
+        }
+      }
+    }
+  }
+
+  private static final class Entry {
+    private final User user;
+    private final String name; // normalized
+    private final String email; // normalized
+
+    Entry(User user) {
+      this.user = user;
+      this.name = normalize(user.getName());
+      this.email = normalize(user.getEmail());
+    }
+
+    private static String normalize(String text) {
+      return NgramTokenizer.normalize(text == null ? "" : text).text().strip();
+    }
+
+    Set<String> keys() {
+      Set<String> keys = new LinkedHashSet<>();
+      if (!name.isEmpty()) {
+        keys.add(name);
+      }
+      for (int[] run : NgramTokenizer.runs(name)) {
+        keys.add(new String(run, 0, run.length));
+      }
+      if (!email.isEmpty()) {
+        keys.add(email);
+      }
+      return keys;
+    }
+
+    /** 4: the name is the prefix, 3: name starts with it, 2: a name word, 1: the email; or 0. */
+    int score(String prefix) {
+      if (name.startsWith(prefix)) {
+        return name.length() == prefix.length() ? 4 : 3;
+      }
+      if (NgramTokenizer.startsWord(name, prefix)) {
+        return 2;
+      }
+      return email.startsWith(prefix) ? 1 : 0;
+    }
+  }
+
+  private static final class Scored {
+    private final Entry entry;
+    private final int score;
+
+    Scored(Entry entry, int score) {
+      this.entry = entry;
+      this.score = score;
+    }
+  }
+}
@@ -1,5 +1,7 @@
 package com.chatapp.security;
 
+import com.chatapp.config.JwtConfig;
+import com.chatapp.service.UserService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,7 +11,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -19,7 +20,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
   @Autowired private JwtUtil jwtUtil;
 
-  @Autowired private UserDetailsService userDetailsService;
+  @Autowired private JwtConfig jwtConfig;
+
+  @Autowired private UserService userService;
 
   @Override
   protected void doFilterInternal(
@@ -42,16 +45,31 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     if (userId != null && SecurityContextHolder.getContext().getAuthentication() == null) {
       if (jwtUtil.validateToken(jwtToken)) {
-        UserDetails userDetails = userDetailsService.loadUserByUsername(userId);
+        UserDetails userDetails = loadUserDetails(userId);
 
-        UsernamePasswordAuthenticationToken authToken =
-            new UsernamePasswordAuthenticationToken(
-                userDetails, null, userDetails.getAuthorities());
+        if (userDetails != null) {
+          UsernamePasswordAuthenticationToken authToken =
+              new UsernamePasswordAuthenticationToken(
+                  userDetails, null, userDetails.getAuthorities());
 
-        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-        SecurityContextHolder.getContext().setAuthentication(authToken);
+          authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+          SecurityContextHolder.getContext().setAuthentication(authToken);
+        }
       }
     }
     filterChain.doFilter(request, response);
   }
+
+  private UserDetails loadUserDetails(String userId) {
+    if (!jwtConfig.isStatelessAuth()) {
+      return userService.loadUserByUsername(userId);
+    }
+
+    // Stateless mode: the verified token already identifies the user
+    if (jwtConfig.isVerifyUserExists() && !userService.existsById(userId)) {
+      logger.warn("JWT Token refers to a user that no longer exists");
+      return null;
+    }
+    return UserService.buildUserDetails(userId);
+  }
 }
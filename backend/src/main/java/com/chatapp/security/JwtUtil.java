@@ -1,11 +1,20 @@
 package com.chatapp.security;
 
 import com.chatapp.config.JwtConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import javax.crypto.SecretKey;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -15,8 +24,21 @@ public class JwtUtil {
 
   @Autowired private JwtConfig jwtConfig;
 
-  private SecretKey getSigningKey() {
-    return Keys.hmacShaKeyFor(jwtConfig.getSecret().getBytes());
+  private SecretKey signingKey;
+  private JwtParser jwtParser;
+
+  // Verified claims keyed by token digest; entries expire together with the token itself
+  private Cache<String, Claims> claimsCache;
+
+  @PostConstruct
+  public void init() {
+    signingKey = Keys.hmacShaKeyFor(jwtConfig.getSecret().getBytes());
+    jwtParser = Jwts.parser().verifyWith(signingKey).build();
+    claimsCache =
+        Caffeine.newBuilder()
+            .maximumSize(jwtConfig.getClaimsCacheSize())
+            .expireAfter(new TokenExpiry())
+            .build();
   }
 
   public String generateToken(String userId, String email, String name, String picture) {
@@ -37,7 +59,7 @@ public class JwtUtil {
         .setSubject(subject)
         .setIssuedAt(now)
         .setExpiration(expiryDate)
-        .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+        .signWith(signingKey, SignatureAlgorithm.HS512)
         .compact();
   }
 
@@ -61,8 +83,21 @@ public class JwtUtil {
     return getClaimsFromToken(token).getExpiration();
   }
 
-  private Claims getClaimsFromToken(String token) {
-    return Jwts.parser().setSigningKey(getSigningKey()).build().parseClaimsJws(token).getBody();
+  /**
+   * Returns the verified claims of a token. The HS512 signature is checked at most once per token;
+   * later calls for the same token are served from the claims cache until the token expires.
+   */
+  public Claims getClaimsFromToken(String token) {
+    if (token == null || token.isEmpty()) {
+      throw new IllegalArgumentException("JWT token must not be empty");
+    }
+    String digest = digest(token);
+    Claims claims = claimsCache.getIfPresent(digest);
+    if (claims == null) {
+      claims = jwtParser.parseSignedClaims(token).getPayload();
+      claimsCache.put(digest, claims);
+    }
+    return claims;
   }
 
   public Boolean isTokenExpired(String token) {
@@ -76,10 +111,44 @@ public class JwtUtil {
 
   public Boolean validateToken(String token) {
     try {
-      Jwts.parser().setSigningKey(getSigningKey()).build().parseClaimsJws(token);
-      return !isTokenExpired(token);
+      Date expiration = getClaimsFromToken(token).getExpiration();
+      return expiration == null || !expiration.before(new Date());
     } catch (JwtException | IllegalArgumentException e) {
       return false;
     }
   }
+
+  private static String digest(String token) {
+    try {
+      MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+      byte[] hash = sha256.digest(token.getBytes(StandardCharsets.UTF_8));
+      return Base64.getEncoder().encodeToString(hash);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+
+  private static class TokenExpiry implements Expiry<String, Claims> {
+    @Override
+    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+      Date expiration = claims.getExpiration();
+      if (expiration == null) {
+        return Long.MAX_VALUE;
+      }
+      long millisLeft = expiration.getTime() - System.currentTimeMillis();
+      return TimeUnit.MILLISECONDS.toNanos(Math.max(millisLeft, 0));
+    }
+
+    @Override
+    public long expireAfterUpdate(
+        String key, Claims claims, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+
+    @Override
+    public long expireAfterRead(
+        String key, Claims claims, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
 }
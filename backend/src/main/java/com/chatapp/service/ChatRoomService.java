@@ -3,12 +3,26 @@ package com.chatapp.service;
 import com.chatapp.entity.ChatRoom;
 import com.chatapp.entity.RoomMember;
 import com.chatapp.entity.RoomMemberId;
+import com.chatapp.event.ChatRoomChangedEvent;
+import com.chatapp.event.ChatRoomDeletedEvent;
+import com.chatapp.event.MembershipChangedEvent;
 import com.chatapp.repository.ChatRoomRepository;
 import com.chatapp.repository.RoomMemberRepository;
+import com.chatapp.search.RoomDirectory;
+import com.chatapp.search.RoomDirectoryIndex;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,20 +35,48 @@ public class ChatRoomService {
 
   @Autowired private RoomMemberRepository roomMemberRepository;
 
+  @Autowired private MembershipCache membershipCache;
+
+  @Autowired private RoomDirectory roomDirectory;
+
+  @Autowired private ReadCursorService readCursorService;
+
+  @Autowired private ApplicationEventPublisher eventPublisher;
+
   public ChatRoom createRoom(ChatRoom room) {
-    return chatRoomRepository.save(room);
+    ChatRoom saved = chatRoomRepository.save(room);
+    publishRoomChanged(saved);
+    return saved;
   }
 
   public ChatRoom updateRoom(ChatRoom room) {
-    return chatRoomRepository.save(room);
+    ChatRoom saved = chatRoomRepository.save(room);
+    publishRoomChanged(saved);
+    return saved;
   }
 
   public Optional<ChatRoom> findById(String id) {
     return chatRoomRepository.findById(id);
   }
 
+  /** The user's rooms, each with the user's read cursor and unread count, in one query. */
   public List<ChatRoom> findByUserId(String userId) {
-    return chatRoomRepository.findByUserId(userId);
+    List<Object[]> rows = chatRoomRepository.findWithReadCursorByUserId(userId);
+    List<ChatRoom> rooms = new ArrayList<>(rows.size());
+    for (Object[] row : rows) {
+      ChatRoom room = (ChatRoom) row[0];
+      long lastSeq = room.getLastSeq() != null ? room.getLastSeq() : 0;
+      long lastReadSeq = row[1] != null ? (Long) row[1] : 0;
+      // Cursor updates still waiting for the next flush count as read already
+      lastReadSeq =
+          Math.min(
+              lastSeq,
+              Math.max(lastReadSeq, readCursorService.getPendingSeq(room.getId(), userId)));
+      room.setLastReadSeq(lastReadSeq);
+      room.setUnreadCount(Math.max(0, lastSeq - lastReadSeq));
+      rooms.add(room);
+    }
+    return rooms;
   }
 
   public List<ChatRoom> findByOwnerId(String ownerId) {
@@ -45,14 +87,36 @@ public class ChatRoomService {
     return chatRoomRepository.findPublicRooms(pageable);
   }
 
+  /** Public rooms matching the search term, most relevant first once the index is loaded. */
   public Page<ChatRoom> searchPublicRooms(String searchTerm, Pageable pageable) {
-    return chatRoomRepository.findPublicRoomsByNameOrDescriptionContainingIgnoreCase(
-        searchTerm, pageable);
+    if (!roomDirectory.isReady()) {
+      return chatRoomRepository.findPublicRoomsByNameOrDescriptionContainingIgnoreCase(
+          searchTerm, pageable);
+    }
+    RoomDirectoryIndex.Result result =
+        roomDirectory.search(
+            searchTerm, null, (int) pageable.getOffset(), pageable.getPageSize());
+    return new PageImpl<>(findAllInOrder(result.getRoomIds()), pageable, result.getTotal());
   }
 
   public List<ChatRoom> searchUserRooms(String userId, String searchTerm) {
-    return chatRoomRepository.findUserRoomsByNameOrDescriptionContainingIgnoreCase(
-        userId, searchTerm);
+    if (!roomDirectory.isReady()) {
+      return chatRoomRepository.findUserRoomsByNameOrDescriptionContainingIgnoreCase(
+          userId, searchTerm);
+    }
+    Set<String> roomIds = membershipCache.getRoomIds(userId);
+    return findAllInOrder(
+        roomDirectory.search(searchTerm, roomIds, 0, roomIds.size()).getRoomIds());
+  }
+
+  /** Public rooms whose name or a word of it starts with {@code prefix}, for autocomplete. */
+  public List<ChatRoom> autocompleteRooms(String prefix, int limit) {
+    if (!roomDirectory.isReady()) {
+      return chatRoomRepository
+          .findPublicRoomsByNameOrDescriptionContainingIgnoreCase(prefix, PageRequest.of(0, limit))
+          .getContent();
+    }
+    return findAllInOrder(roomDirectory.autocomplete(prefix, limit));
   }
 
   public boolean existsByName(String name) {
@@ -60,7 +124,10 @@ public class ChatRoomService {
   }
 
   public void deleteRoom(String id) {
+    List<String> memberIds = roomMemberRepository.findUserIdsByRoomId(id);
     chatRoomRepository.deleteById(id);
+    eventPublisher.publishEvent(new MembershipChangedEvent(id, memberIds));
+    eventPublisher.publishEvent(new ChatRoomDeletedEvent(id));
   }
 
   public long getRoomCount() {
@@ -69,8 +136,7 @@ public class ChatRoomService {
 
   // Room membership methods
   public boolean isUserMemberOfRoom(String userId, String roomId) {
-    RoomMemberId id = new RoomMemberId(roomId, userId);
-    return roomMemberRepository.existsById(id);
+    return membershipCache.isMember(userId, roomId);
   }
 
   public void addUserToRoom(String userId, String roomId) {
@@ -78,13 +144,39 @@ public class ChatRoomService {
       // Create RoomMember with composite key only
       RoomMember roomMember = new RoomMember();
       roomMember.setId(new RoomMemberId(roomId, userId));
+      // New members start with the existing history read
+      roomMember.setLastReadSeq(chatRoomRepository.findLastSeqById(roomId).orElse(0L));
       roomMemberRepository.save(roomMember);
+      eventPublisher.publishEvent(new MembershipChangedEvent(roomId, userId));
     }
   }
 
   public void removeUserFromRoom(String userId, String roomId) {
     RoomMemberId id = new RoomMemberId(roomId, userId);
     roomMemberRepository.deleteById(id);
+    eventPublisher.publishEvent(new MembershipChangedEvent(roomId, userId));
+  }
+
+  /** Moves the user's read cursor in the room forward; written to the database in batches. */
+  public void markRead(String userId, String roomId, long seq) {
+    readCursorService.markRead(roomId, userId, seq);
+  }
+
+  private void publishRoomChanged(ChatRoom room) {
+    eventPublisher.publishEvent(
+        new ChatRoomChangedEvent(
+            room.getId(),
+            room.getName(),
+            room.getDescription(),
+            Boolean.TRUE.equals(room.getIsPrivate())));
+  }
+
+  // Rooms deleted since the index was consulted are skipped
+  private List<ChatRoom> findAllInOrder(List<String> roomIds) {
+    Map<String, ChatRoom> rooms =
+        chatRoomRepository.findAllById(roomIds).stream()
+            .collect(Collectors.toMap(ChatRoom::getId, Function.identity()));
+    return roomIds.stream().map(rooms::get).filter(Objects::nonNull).toList();
   }
 
   public List<RoomMember> getRoomMembers(String roomId) {
@@ -0,0 +1,206 @@
+package com.chatapp.service;
+
+import com.chatapp.config.ClusterConfig;
+import com.chatapp.event.MembershipChangedEvent;
+import com.chatapp.repository.RoomMemberRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Two-level cache of the rooms each user belongs to. The local layer answers membership checks
+ * without I/O; with clustering enabled a Redis set per user is shared between nodes, and changes
+ * are broadcast so every node drops its local copy. The member ids of each room are cached
+ * locally as well, for lookups scoped to a room.
+ *
+ * <p>Each user also has a version counter in Redis that is bumped before the shared set is
+ * dropped. A node only publishes a set it loaded from the database if the version is still the
+ * one it read before the load, so a slow reload racing a removal cannot bring the old
+ * membership back for other nodes.
+ *
+ * <p>Other nodes republish each announced change as a remote {@link MembershipChangedEvent}, so
+ * node-local state such as socket subscriptions and room streams follows it too.
+ */
+@Component
+public class MembershipCache implements MessageListener {
+
+  private static final Logger logger = LoggerFactory.getLogger(MembershipCache.class);
+
+  // Hash tags keep a user's set and version in one slot for the conditional store
+  private static final String KEY_PREFIX = "chat:members:user:{";
+  private static final String VERSION_PREFIX = "chat:members:version:{";
+  private static final String INVALIDATION_CHANNEL = "chat:members:invalidate";
+  // Stored in every shared set so that "no rooms" can be told apart from "not cached"
+  private static final String LOADED_MARKER = "";
+  // Invalidation messages are this prefix followed by the room id, the announcing node's id and
+  // the changed user ids, one per line
+  private static final String ROOM_PREFIX = "room:";
+  private static final Duration SHARED_TTL = Duration.ofMinutes(10);
+  // Outlives any shared set, so a version is never reset while a stale load may still be running
+  private static final Duration VERSION_TTL = Duration.ofDays(1);
+
+  // KEYS: set, version; ARGV: expected version, ttl ms, members...
+  private static final RedisScript<Long> STORE_IF_UNCHANGED =
+      new DefaultRedisScript<>(
+          "if (redis.call('GET', KEYS[2]) or '0') ~= ARGV[1] then return 0 end "
+              + "redis.call('DEL', KEYS[1]) "
+              + "redis.call('SADD', KEYS[1], unpack(ARGV, 3)) "
+              + "redis.call('PEXPIRE', KEYS[1], ARGV[2]) "
+              + "return 1",
+          Long.class);
+
+  @Autowired private ClusterConfig clusterConfig;
+
+  @Autowired private RoomMemberRepository roomMemberRepository;
+
+  @Autowired private StringRedisTemplate redisTemplate;
+
+  @Autowired private ApplicationEventPublisher eventPublisher;
+
+  @Autowired(required = false)
+  private RedisMessageListenerContainer listenerContainer;
+
+  private final Cache<String, Set<String>> localRooms =
+      Caffeine.newBuilder().maximumSize(100000).expireAfterAccess(Duration.ofMinutes(30)).build();
+
+  private final Cache<String, Set<String>> localMembers =
+      Caffeine.newBuilder().maximumSize(10000).expireAfterAccess(Duration.ofMinutes(30)).build();
+
+  @PostConstruct
+  public void subscribe() {
+    if (listenerContainer != null) {
+      listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+  }
+
+  public boolean isMember(String userId, String roomId) {
+    return getRoomIds(userId).contains(roomId);
+  }
+
+  public Set<String> getRoomIds(String userId) {
+    return localRooms.get(userId, this::loadRoomIds);
+  }
+
+  public Set<String> getMemberIds(String roomId) {
+    return localMembers.get(
+        roomId, id -> Set.copyOf(roomMemberRepository.findUserIdsByRoomId(id)));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onMembershipChanged(MembershipChangedEvent event) {
+    localMembers.invalidate(event.getRoomId());
+    localRooms.invalidateAll(event.getUserIds());
+    if (!clusterConfig.isEnabled() || event.isRemote()) {
+      return;
+    }
+    for (String userId : event.getUserIds()) {
+      try {
+        redisTemplate.opsForValue().increment(versionKey(userId));
+        redisTemplate.expire(versionKey(userId), VERSION_TTL);
+        redisTemplate.delete(roomsKey(userId));
+      } catch (RuntimeException e) {
+        logger.warn("Failed to invalidate shared membership of user {}", userId, e);
+      }
+    }
+    // Announced once the shared sets are gone, so other nodes reload the new membership
+    List<String> lines = new ArrayList<>(event.getUserIds().size() + 2);
+    lines.add(event.getRoomId());
+    lines.add(clusterConfig.getNodeId());
+    lines.addAll(event.getUserIds());
+    try {
+      redisTemplate.convertAndSend(INVALIDATION_CHANNEL, ROOM_PREFIX + String.join("\n", lines));
+    } catch (RuntimeException e) {
+      logger.warn("Failed to announce membership change of room {}", event.getRoomId(), e);
+    }
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String body = new String(message.getBody(), StandardCharsets.UTF_8);
+    if (!body.startsWith(ROOM_PREFIX)) {
+      localRooms.invalidate(body); // a single user id, as older nodes announced them
+      return;
+    }
+    List<String> lines = List.of(body.substring(ROOM_PREFIX.length()).split("\n"));
+    String roomId = lines.get(0);
+    localMembers.invalidate(roomId);
+    if (lines.size() < 3 || clusterConfig.getNodeId().equals(lines.get(1))) {
+      return; // nothing more to apply, or this node's own announcement
+    }
+    List<String> userIds = lines.subList(2, lines.size());
+    localRooms.invalidateAll(userIds);
+    eventPublisher.publishEvent(new MembershipChangedEvent(roomId, List.copyOf(userIds), true));
+  }
+
+  private Set<String> loadRoomIds(String userId) {
+    if (!clusterConfig.isEnabled()) {
+      return Set.copyOf(roomMemberRepository.findRoomIdsByUserId(userId));
+    }
+
+    // Read before the database, so a removal committed during the load changes it
+    String version = null;
+    try {
+      version = redisTemplate.opsForValue().get(versionKey(userId));
+      Set<String> shared = redisTemplate.opsForSet().members(roomsKey(userId));
+      if (shared != null && shared.contains(LOADED_MARKER)) {
+        Set<String> roomIds = new HashSet<>(shared);
+        roomIds.remove(LOADED_MARKER);
+        return Set.copyOf(roomIds);
+      }
+    } catch (RuntimeException e) {
+      logger.warn("Shared membership lookup failed for user {}", userId, e);
+      return Set.copyOf(roomMemberRepository.findRoomIdsByUserId(userId));
+    }
+
+    Set<String> roomIds = Set.copyOf(roomMemberRepository.findRoomIdsByUserId(userId));
+    storeShared(userId, roomIds, version == null ? "0" : version);
+    return roomIds;
+  }
+
+  private void storeShared(String userId, Set<String> roomIds, String version) {
+    List<String> args = new ArrayList<>(roomIds.size() + 3);
+    args.add(version);
+    args.add(String.valueOf(SHARED_TTL.toMillis()));
+    args.add(LOADED_MARKER);
+    args.addAll(roomIds);
+    try {
+      Long stored =
+          redisTemplate.execute(
+              STORE_IF_UNCHANGED,
+              List.of(roomsKey(userId), versionKey(userId)),
+              args.toArray());
+      if (stored == null || stored == 0) {
+        logger.debug("Membership of user {} changed during load; not shared", userId);
+      }
+    } catch (RuntimeException e) {
+      logger.warn("Failed to share membership of user {}", userId, e);
+    }
+  }
+
+  private static String roomsKey(String userId) {
+    return KEY_PREFIX + userId + "}";
+  }
+
+  private static String versionKey(String userId) {
+    return VERSION_PREFIX + userId + "}";
+  }
+}
@@ -0,0 +1,133 @@
+package com.chatapp.service;
+
+import com.chatapp.config.BulkImportConfig;
+import com.chatapp.entity.ChatRoom;
+import com.chatapp.entity.Message;
+import com.chatapp.entity.User;
+import com.chatapp.event.MessagesImportedEvent;
+import com.chatapp.repository.ChatRoomRepository;
+import com.chatapp.repository.UserRepository;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Bulk ingestion of messages into one room for bots and history imports. Callers check the
+ * author's membership once, then stream messages into a {@link Batch}, which inserts them with JDBC
+ * batches and commits every {@code chunkSize} messages.
+ */
+@Service
+public class MessageImportService {
+
+  @Autowired private BulkImportConfig config;
+
+  @Autowired private ChatRoomRepository chatRoomRepository;
+
+  @Autowired private UserRepository userRepository;
+
+  @Autowired private MessageJdbcWriter messageJdbcWriter;
+
+  @Autowired private TransactionTemplate transactionTemplate;
+
+  @Autowired private ApplicationEventPublisher eventPublisher;
+
+  /**
+   * Starts an import by {@code userId} into {@code roomId}. With {@code live} the messages are
+   * stamped with the current time and broadcast to the room; otherwise supplied timestamps are
+   * kept and the messages are stored silently as history.
+   */
+  public Batch begin(String userId, String roomId, boolean live) {
+    ChatRoom room =
+        chatRoomRepository
+            .findById(roomId)
+            .orElseThrow(() -> new IllegalArgumentException("Room not found"));
+    User author =
+        userRepository
+            .findById(userId)
+            .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    return new Batch(room, author, live);
+  }
+
+  public class Batch {
+    private final ChatRoom room;
+    private final User author;
+    private final boolean live;
+    private final List<Message> pending = new ArrayList<>();
+    private int imported;
+
+    Batch(ChatRoom room, User author, boolean live) {
+      this.room = room;
+      this.author = author;
+      this.live = live;
+    }
+
+    /**
+     * Adds a message carrying content, type, imageUrl and optionally a past createdAt. Throws
+     * IllegalArgumentException for invalid messages; chunks added before stay committed.
+     */
+    public void add(Message message) {
+      if (imported + pending.size() >= config.getMaxMessages()) {
+        throw new IllegalArgumentException(
+            "Too many messages, at most " + config.getMaxMessages() + " per import");
+      }
+      if (message.getMessageType() == null) {
+        message.setMessageType(Message.MessageType.TEXT);
+      }
+      boolean hasImage =
+          message.getMessageType() == Message.MessageType.IMAGE
+              && message.getImageUrl() != null
+              && !message.getImageUrl().isEmpty();
+      if (!hasImage && (message.getContent() == null || message.getContent().isBlank())) {
+        throw new IllegalArgumentException("Message content is required");
+      }
+
+      LocalDateTime now = LocalDateTime.now();
+      if (!live && message.getCreatedAt() != null && message.getCreatedAt().isAfter(now)) {
+        // History sorts by createdAt; a future timestamp would pin the message to the top
+        throw new IllegalArgumentException("createdAt must not be in the future");
+      }
+
+      message.setId(UUID.randomUUID().toString());
+      message.setRoom(room);
+      message.setUser(author);
+      if (live || message.getCreatedAt() == null) {
+        message.setCreatedAt(now);
+      }
+      pending.add(message);
+
+      if (pending.size() >= config.getChunkSize()) {
+        flush();
+      }
+    }
+
+    /** Commits the remaining messages and returns how many were imported in total. */
+    public int finish() {
+      flush();
+      return imported;
+    }
+
+    public int getImported() {
+      return imported;
+    }
+
+    private void flush() {
+      if (pending.isEmpty()) {
+        return;
+      }
+      List<Message> chunk = List.copyOf(pending);
+      pending.clear();
+      transactionTemplate.executeWithoutResult(
+          status -> {
+            messageJdbcWriter.insertAll(chunk);
+            // Delivered to listeners after commit
+            eventPublisher.publishEvent(new MessagesImportedEvent(room.getId(), chunk, live));
+          });
+      imported += chunk.size();
+    }
+  }
+}
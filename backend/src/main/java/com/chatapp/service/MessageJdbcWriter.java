@@ -0,0 +1,52 @@
+package com.chatapp.service;
+
+import com.chatapp.entity.Message;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Plain JDBC inserts for fully built messages (id, room, user and createdAt assigned), bypassing
+ * the persistence context. With {@code reWriteBatchedInserts} the PostgreSQL driver sends a batch
+ * as multi-row INSERT statements. Messages without a seq are numbered here; inserts advance the
+ * rooms' last_seq and must run inside a transaction.
+ */
+@Component
+public class MessageJdbcWriter {
+
+  private static final String INSERT_SQL =
+      "INSERT INTO messages"
+          + " (id, room_id, user_id, content, message_type, image_url, created_at, seq)"
+          + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private RoomSequenceAllocator sequenceAllocator;
+
+  public void insertAll(List<Message> messages) {
+    sequenceAllocator.assign(messages);
+    jdbcTemplate.batchUpdate(INSERT_SQL, messages, messages.size(), MessageJdbcWriter::bindMessage);
+    sequenceAllocator.advance(messages);
+  }
+
+  public void insert(Message message) {
+    sequenceAllocator.assign(List.of(message));
+    jdbcTemplate.update(INSERT_SQL, ps -> bindMessage(ps, message));
+    sequenceAllocator.advance(List.of(message));
+  }
+
+  private static void bindMessage(PreparedStatement ps, Message message) throws SQLException {
+    ps.setString(1, message.getId());
+    ps.setString(2, message.getRoom().getId());
+    ps.setString(3, message.getUser().getId());
+    ps.setString(4, message.getContent());
+    ps.setString(5, message.getMessageType().name());
+    ps.setString(6, message.getImageUrl());
+    ps.setTimestamp(7, Timestamp.valueOf(message.getCreatedAt()));
+    ps.setLong(8, message.getSeq());
+  }
+}
@@ -0,0 +1,224 @@
+package com.chatapp.service;
+
+import com.chatapp.config.WriteBehindConfig;
+import com.chatapp.entity.Message;
+import com.chatapp.event.MessageCreatedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Write-behind queue for chat messages. Callers enqueue fully built messages (id and createdAt
+ * already assigned) and get notified once the batch containing the message has been committed, so
+ * only messages that are durable in PostgreSQL are ever acknowledged to clients. Messages are
+ * numbered once they are admitted, so a full queue does not leave a gap in the room's sequence.
+ * Enqueueing never waits for the queue, so it is safe on an event loop. Rows that fail to insert
+ * are retried with exponential backoff, which rides out a short database outage; only messages
+ * still failing after that, or rejected as invalid, are reported as lost. Their numbers stay
+ * unused: they were broadcast already, so handing them out again would confuse clients.
+ */
+@Component
+public class MessagePersistencePipeline {
+
+  private static final Logger logger = LoggerFactory.getLogger(MessagePersistencePipeline.class);
+
+  @Autowired private WriteBehindConfig config;
+
+  @Autowired private MessageJdbcWriter messageJdbcWriter;
+
+  @Autowired private RoomSequenceAllocator sequenceAllocator;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @Autowired private ApplicationEventPublisher eventPublisher;
+
+  private BlockingQueue<PendingMessage> queue;
+  // Free queue slots, taken before a message is numbered and returned when it leaves the queue
+  private Semaphore slots;
+  private TransactionTemplate transactionTemplate;
+  private Thread flusher;
+  private volatile boolean running;
+
+  @PostConstruct
+  public void start() {
+    queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+    slots = new Semaphore(config.getQueueCapacity());
+    transactionTemplate = new TransactionTemplate(transactionManager);
+    running = true;
+    flusher = new Thread(this::runFlushLoop, "message-write-behind");
+    flusher.setDaemon(true);
+    flusher.start();
+  }
+
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    running = false;
+    flusher.interrupt();
+    flusher.join(TimeUnit.SECONDS.toMillis(10));
+  }
+
+  public boolean isEnabled() {
+    return config.isEnabled();
+  }
+
+  /**
+   * Numbers a message and appends it to the write-behind queue without waiting for space. Returns
+   * false, without taking a sequence number, when the queue is full; the caller is expected to
+   * reject the message in that case.
+   */
+  public boolean enqueue(Message message, Consumer<Boolean> onPersisted) {
+    if (!running || !slots.tryAcquire()) {
+      return false;
+    }
+    try {
+      sequenceAllocator.assign(List.of(message));
+    } catch (RuntimeException e) {
+      slots.release();
+      throw e;
+    }
+    // Cannot fail: only holders of a slot add to the queue
+    queue.add(new PendingMessage(message, onPersisted));
+    return true;
+  }
+
+  public int getQueueSize() {
+    return queue.size();
+  }
+
+  private void runFlushLoop() {
+    List<PendingMessage> batch = new ArrayList<>(config.getFlushSize());
+    long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(config.getFlushIntervalMs());
+
+    while (running || !queue.isEmpty()) {
+      try {
+        PendingMessage first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        slots.release();
+        batch.add(first);
+
+        // Keep collecting until the batch is full or the oldest message hits the latency budget
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < config.getFlushSize()) {
+          slots.release(queue.drainTo(batch, config.getFlushSize() - batch.size()));
+          long remaining = deadline - System.nanoTime();
+          if (batch.size() >= config.getFlushSize() || remaining <= 0) {
+            break;
+          }
+          PendingMessage next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+          if (next == null) {
+            break;
+          }
+          slots.release();
+          batch.add(next);
+        }
+      } catch (InterruptedException e) {
+        // Shutdown requested: drain whatever is left and flush it below
+        slots.release(queue.drainTo(batch));
+      }
+
+      if (!batch.isEmpty()) {
+        flush(batch);
+        batch.clear();
+      }
+    }
+  }
+
+  private void flush(List<PendingMessage> batch) {
+    try {
+      List<Message> messages =
+          batch.stream().map(pending -> pending.message).collect(Collectors.toList());
+      transactionTemplate.executeWithoutResult(status -> messageJdbcWriter.insertAll(messages));
+      batch.forEach(pending -> notify(pending, true));
+    } catch (RuntimeException e) {
+      logger.warn("Batch insert of {} messages failed, retrying individually", batch.size(), e);
+      retry(batch);
+    }
+  }
+
+  // Inserts rows one by one, so a bad row cannot fail the others, backing off between rounds
+  private void retry(List<PendingMessage> batch) {
+    List<PendingMessage> failed = new ArrayList<>(batch);
+    long backoffMs = config.getRetryBackoffMs();
+    for (int attempt = 0; !failed.isEmpty(); attempt++) {
+      boolean lastAttempt = attempt >= config.getRetryAttempts();
+      List<PendingMessage> retry = new ArrayList<>();
+      for (PendingMessage pending : failed) {
+        try {
+          transactionTemplate.executeWithoutResult(
+              status -> messageJdbcWriter.insert(pending.message));
+          notify(pending, true);
+        } catch (DataIntegrityViolationException e) {
+          // The row itself is invalid; inserting it again cannot succeed
+          logger.error("Rejected message {}", pending.message.getId(), e);
+          notify(pending, false);
+        } catch (RuntimeException e) {
+          if (lastAttempt) {
+            logger.error("Failed to persist message {}", pending.message.getId(), e);
+            notify(pending, false);
+          } else {
+            retry.add(pending);
+          }
+        }
+      }
+      failed = retry;
+      if (!failed.isEmpty() && !backOff(backoffMs)) {
+        // Shutting down: report the rest as lost rather than stall the shutdown
+        failed.forEach(pending -> notify(pending, false));
+        return;
+      }
+      backoffMs *= 2;
+    }
+  }
+
+  private static boolean backOff(long millis) {
+    try {
+      TimeUnit.MILLISECONDS.sleep(millis);
+      return true;
+    } catch (InterruptedException e) {
+      // Only stop() interrupts the flusher, and the flush loop already checks running
+      return false;
+    }
+  }
+
+  private void notify(PendingMessage pending, boolean persisted) {
+    if (persisted) {
+      try {
+        eventPublisher.publishEvent(new MessageCreatedEvent(pending.message));
+      } catch (RuntimeException e) {
+        logger.warn("Message listener failed for message {}", pending.message.getId(), e);
+      }
+    }
+    try {
+      pending.onPersisted.accept(persisted);
+    } catch (RuntimeException e) {
+      logger.warn("Persistence callback failed for message {}", pending.message.getId(), e);
+    }
+  }
+
+  private static class PendingMessage {
+    private final Message message;
+    private final Consumer<Boolean> onPersisted;
+
+    PendingMessage(Message message, Consumer<Boolean> onPersisted) {
+      this.message = message;
+      this.onPersisted = onPersisted;
+    }
+  }
+}
@@ -1,12 +1,21 @@
 package com.chatapp.service;
 
+import com.chatapp.dto.CursorSlice;
+import com.chatapp.dto.MessageCursor;
+import com.chatapp.dto.MessageSearchHit;
 import com.chatapp.entity.Message;
+import com.chatapp.event.MessageCreatedEvent;
+import com.chatapp.event.MessageDeletedEvent;
 import com.chatapp.repository.MessageRepository;
+import com.chatapp.search.MessageSearchEngine;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,8 +26,20 @@ public class MessageService {
 
   @Autowired private MessageRepository messageRepository;
 
+  @Autowired private RecentMessageCache recentMessageCache;
+
+  @Autowired private MessageSearchEngine messageSearchEngine;
+
+  @Autowired private RoomSequenceAllocator sequenceAllocator;
+
+  @Autowired private ApplicationEventPublisher eventPublisher;
+
   public Message createMessage(Message message) {
-    return messageRepository.save(message);
+    sequenceAllocator.assign(List.of(message));
+    Message saved = messageRepository.save(message);
+    sequenceAllocator.advance(List.of(saved));
+    eventPublisher.publishEvent(new MessageCreatedEvent(saved));
+    return saved;
   }
 
   public Optional<Message> findById(String id) {
@@ -29,13 +50,74 @@ public class MessageService {
     return messageRepository.findByRoomIdOrderByCreatedAtDesc(roomId, pageable);
   }
 
+  /** Returns up to {@code limit} messages older than {@code before}, newest first. */
+  public CursorSlice<Message> findHistory(String roomId, MessageCursor before, int limit) {
+    // Fetch one extra row to learn whether another window exists without counting
+    List<Message> messages =
+        findInRecentMessages(roomId, () -> recentMessageCache.findBefore(roomId, before, limit + 1))
+            .orElseGet(
+                () -> {
+                  Pageable window = PageRequest.of(0, limit + 1);
+                  return before == null
+                      ? messageRepository.findLatestByRoomId(roomId, window)
+                      : messageRepository.findByRoomIdBefore(
+                          roomId, before.getCreatedAt(), before.getId(), window);
+                });
+
+    boolean hasNext = messages.size() > limit;
+    if (hasNext) {
+      messages = messages.subList(0, limit);
+    }
+    String nextCursor = hasNext ? MessageCursor.of(messages.get(limit - 1)).encode() : null;
+    return new CursorSlice<>(messages, nextCursor, hasNext);
+  }
+
+  /**
+   * Returns up to {@code limit} messages with {@code afterSeq < seq <= toSeq}, oldest first; the
+   * next cursor is the seq to pass as {@code afterSeq} for the rest of the range.
+   */
+  public CursorSlice<Message> findBySeqRange(String roomId, long afterSeq, long toSeq, int limit) {
+    List<Message> messages =
+        messageRepository.findByRoomIdAndSeqRange(
+            roomId, afterSeq, toSeq, PageRequest.of(0, limit + 1));
+    boolean hasNext = messages.size() > limit;
+    if (hasNext) {
+      messages = messages.subList(0, limit);
+    }
+    String nextCursor = hasNext ? String.valueOf(messages.get(limit - 1).getSeq()) : null;
+    return new CursorSlice<>(messages, nextCursor, hasNext);
+  }
+
   public List<Message> findRecentMessages(String roomId, LocalDateTime since) {
-    return messageRepository.findByRoomIdAndCreatedAtAfterOrderByCreatedAtAsc(roomId, since);
+    return findInRecentMessages(roomId, () -> recentMessageCache.findSince(roomId, since))
+        .orElseGet(
+            () ->
+                messageRepository.findByRoomIdAndCreatedAtAfterOrderByCreatedAtAsc(roomId, since));
+  }
+
+  /**
+   * Answers a history read from the room's in-memory tail. On a miss the tail is seeded from the
+   * database once and the lookup retried; empty means the window reaches beyond the tail.
+   */
+  private Optional<List<Message>> findInRecentMessages(
+      String roomId, Supplier<Optional<List<Message>>> lookup) {
+    if (!recentMessageCache.isEnabled()) {
+      return Optional.empty();
+    }
+    Optional<List<Message>> cached = lookup.get();
+    if (cached.isEmpty() && !recentMessageCache.isSeeded(roomId)) {
+      int capacity = recentMessageCache.getCapacity();
+      List<Message> newest =
+          messageRepository.findLatestWithAuthorByRoomId(roomId, PageRequest.of(0, capacity));
+      recentMessageCache.seed(roomId, newest, newest.size() < capacity);
+      cached = lookup.get();
+    }
+    return cached;
   }
 
-  public Page<Message> searchMessages(String roomId, String searchTerm, Pageable pageable) {
-    return messageRepository.findByRoomIdAndContentContainingIgnoreCaseOrderByCreatedAtDesc(
-        roomId, searchTerm, pageable);
+  public Page<MessageSearchHit> searchMessages(
+      String roomId, String searchTerm, Pageable pageable) {
+    return messageSearchEngine.search(roomId, searchTerm, pageable);
   }
 
   public Page<Message> findByUserId(String userId, Pageable pageable) {
@@ -57,7 +139,14 @@ public class MessageService {
   }
 
   public void deleteMessage(String id) {
-    messageRepository.deleteById(id);
+    messageRepository
+        .findById(id)
+        .ifPresent(
+            message -> {
+              messageRepository.delete(message);
+              eventPublisher.publishEvent(
+                  new MessageDeletedEvent(message.getId(), message.getRoom().getId()));
+            });
   }
 
   public long getTotalMessageCount() {
@@ -0,0 +1,318 @@
+package com.chatapp.service;
+
+import com.chatapp.config.ClusterConfig;
+import com.chatapp.config.PresenceConfig;
+import com.chatapp.event.MembershipChangedEvent;
+import com.chatapp.repository.RoomMemberRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Who is online. Socket sessions are registered per user in a lock-striped map, so a user may
+ * have any number of tabs open and connects of different users rarely contend. Each room keeps
+ * the set of its members online on this node, updated when a user's first session connects or
+ * last session ends and when memberships change, so listing a room's online members is a memory
+ * read. With clustering enabled every node publishes its online users to Redis on a heartbeat
+ * under a TTL; the users of a node that stops heartbeating drop out once the TTL passes.
+ */
+@Component
+public class PresenceService {
+
+  private static final Logger logger = LoggerFactory.getLogger(PresenceService.class);
+
+  private static final String NODES_KEY = "chat:presence:nodes";
+  private static final String NODE_KEY_PREFIX = "chat:presence:node:";
+  private static final String SEPARATOR = ",";
+
+  @Autowired private PresenceConfig config;
+
+  @Autowired private ClusterConfig clusterConfig;
+
+  @Autowired private MembershipCache membershipCache;
+
+  @Autowired private RoomMemberRepository roomMemberRepository;
+
+  @Autowired private StringRedisTemplate redisTemplate;
+
+  @Autowired private MeterRegistry meterRegistry;
+
+  private Stripe[] stripes;
+  private final Map<String, Set<String>> roomOnline = new ConcurrentHashMap<>();
+
+  // Users online on other nodes as of the last heartbeat that reached Redis
+  private volatile Set<String> remoteOnline = Set.of();
+  private volatile long remoteRefreshedAt;
+  private ScheduledExecutorService heartbeat;
+
+  @PostConstruct
+  public void start() {
+    stripes = new Stripe[config.getStripes()];
+    for (int i = 0; i < stripes.length; i++) {
+      stripes[i] = new Stripe();
+    }
+    Gauge.builder("chat.presence.users", this, PresenceService::getLocalUserCount)
+        .register(meterRegistry);
+    Gauge.builder("chat.presence.sessions", this, PresenceService::getLocalSessionCount)
+        .register(meterRegistry);
+
+    if (clusterConfig.isEnabled()) {
+      heartbeat =
+          Executors.newSingleThreadScheduledExecutor(
+              runnable -> {
+                Thread thread = new Thread(runnable, "presence-heartbeat");
+                thread.setDaemon(true);
+                return thread;
+              });
+      heartbeat.scheduleWithFixedDelay(
+          this::heartbeat, 0, config.getHeartbeatIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (heartbeat == null) {
+      return;
+    }
+    heartbeat.shutdownNow();
+    try {
+      redisTemplate.opsForZSet().remove(NODES_KEY, clusterConfig.getNodeId());
+      redisTemplate.delete(NODE_KEY_PREFIX + clusterConfig.getNodeId());
+    } catch (RuntimeException e) {
+      logger.warn("Failed to withdraw presence of node {}", clusterConfig.getNodeId(), e);
+    }
+  }
+
+  /** Registers a socket session; returns true if it is the user's first one on this node. */
+  public boolean connect(String userId, UUID sessionId) {
+    // Cached and usually warm; looked up outside the stripe lock in case it is not
+    Set<String> roomIds = membershipCache.getRoomIds(userId);
+    Stripe stripe = stripeFor(userId);
+    synchronized (stripe) {
+      Presence presence = stripe.users.get(userId);
+      if (presence != null) {
+        presence.sessionIds.add(sessionId);
+        return false;
+      }
+      presence = new Presence();
+      presence.sessionIds.add(sessionId);
+      stripe.users.put(userId, presence);
+      for (String roomId : roomIds) {
+        enterRoom(presence, roomId, userId);
+      }
+      return true;
+    }
+  }
+
+  /** Removes a socket session; returns true if it was the user's last one on this node. */
+  public boolean disconnect(String userId, UUID sessionId) {
+    Stripe stripe = stripeFor(userId);
+    synchronized (stripe) {
+      Presence presence = stripe.users.get(userId);
+      if (presence == null || !presence.sessionIds.remove(sessionId)) {
+        return false;
+      }
+      if (!presence.sessionIds.isEmpty()) {
+        return false;
+      }
+      stripe.users.remove(userId);
+      for (String roomId : presence.roomIds) {
+        leaveRoom(roomId, userId);
+      }
+      return true;
+    }
+  }
+
+  /** The user's socket sessions on this node. */
+  public List<UUID> getSessionIds(String userId) {
+    Stripe stripe = stripeFor(userId);
+    synchronized (stripe) {
+      Presence presence = stripe.users.get(userId);
+      return presence == null ? List.of() : new ArrayList<>(presence.sessionIds);
+    }
+  }
+
+  /** Whether the user has a session on any node. */
+  public boolean isOnline(String userId) {
+    Stripe stripe = stripeFor(userId);
+    synchronized (stripe) {
+      if (stripe.users.containsKey(userId)) {
+        return true;
+      }
+    }
+    return currentRemoteOnline().contains(userId);
+  }
+
+  /** Members of the room with a session on any node. */
+  public Set<String> getOnlineUserIds(String roomId) {
+    Set<String> online = new LinkedHashSet<>(roomOnline.getOrDefault(roomId, Set.of()));
+    Set<String> remote = currentRemoteOnline();
+    if (!remote.isEmpty()) {
+      for (String userId : membershipCache.getMemberIds(roomId)) {
+        if (remote.contains(userId)) {
+          online.add(userId);
+        }
+      }
+    }
+    return online;
+  }
+
+  /** Keeps the room sets of online users in line with joins, leaves and room deletions. */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onMembershipChanged(MembershipChangedEvent event) {
+    String roomId = event.getRoomId();
+    for (String userId : event.getUserIds()) {
+      if (getSessionIds(userId).isEmpty()) {
+        continue; // offline users pick up their rooms when they connect
+      }
+      // Read from the database: the membership cache may not have seen this change yet
+      boolean member = roomMemberRepository.existsByRoomIdAndUserId(roomId, userId);
+      Stripe stripe = stripeFor(userId);
+      synchronized (stripe) {
+        Presence presence = stripe.users.get(userId);
+        if (presence == null) {
+          continue;
+        }
+        if (member) {
+          enterRoom(presence, roomId, userId);
+        } else if (presence.roomIds.remove(roomId)) {
+          leaveRoom(roomId, userId);
+        }
+      }
+    }
+  }
+
+  int getLocalUserCount() {
+    int count = 0;
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        count += stripe.users.size();
+      }
+    }
+    return count;
+  }
+
+  int getLocalSessionCount() {
+    int count = 0;
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        for (Presence presence : stripe.users.values()) {
+          count += presence.sessionIds.size();
+        }
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Publishes this node's online users under a TTL and reads those of every other live node. Nodes
+   * are tracked in a sorted set scored by their last heartbeat, so dead nodes are pruned by score.
+   */
+  void heartbeat() {
+    long now = System.currentTimeMillis();
+    long ttlMillis = TimeUnit.SECONDS.toMillis(config.getTtlSeconds());
+    String nodeId = clusterConfig.getNodeId();
+    try {
+      redisTemplate
+          .opsForValue()
+          .set(
+              NODE_KEY_PREFIX + nodeId,
+              String.join(SEPARATOR, localUserIds()),
+              Duration.ofSeconds(config.getTtlSeconds()));
+      redisTemplate.opsForZSet().add(NODES_KEY, nodeId, now);
+      redisTemplate.opsForZSet().removeRangeByScore(NODES_KEY, 0, now - ttlMillis);
+
+      Set<String> nodeIds = redisTemplate.opsForZSet().range(NODES_KEY, 0, -1);
+      List<String> keys = new ArrayList<>();
+      for (String otherNodeId : nodeIds != null ? nodeIds : Set.<String>of()) {
+        if (!otherNodeId.equals(nodeId)) {
+          keys.add(NODE_KEY_PREFIX + otherNodeId);
+        }
+      }
+      Set<String> remote = new HashSet<>();
+      List<String> values = keys.isEmpty() ? List.of() : redisTemplate.opsForValue().multiGet(keys);
+      for (String value : values != null ? values : List.<String>of()) {
+        if (value != null && !value.isEmpty()) {
+          remote.addAll(List.of(value.split(SEPARATOR)));
+        }
+      }
+      remoteOnline = Set.copyOf(remote);
+      remoteRefreshedAt = now;
+    } catch (RuntimeException e) {
+      logger.warn("Presence heartbeat of node {} failed", nodeId, e);
+    }
+  }
+
+  // Remote presence older than the TTL may list users of nodes that died meanwhile
+  private Set<String> currentRemoteOnline() {
+    long ttlMillis = TimeUnit.SECONDS.toMillis(config.getTtlSeconds());
+    return System.currentTimeMillis() - remoteRefreshedAt > ttlMillis ? Set.of() : remoteOnline;
+  }
+
+  private List<String> localUserIds() {
+    List<String> userIds = new ArrayList<>();
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        userIds.addAll(stripe.users.keySet());
+      }
+    }
+    return userIds;
+  }
+
+  private void enterRoom(Presence presence, String roomId, String userId) {
+    if (presence.roomIds.add(roomId)) {
+      // Added inside compute so a concurrent leaveRoom cannot drop the set in between
+      roomOnline.compute(
+          roomId,
+          (id, userIds) -> {
+            Set<String> online = userIds != null ? userIds : ConcurrentHashMap.newKeySet();
+            online.add(userId);
+            return online;
+          });
+    }
+  }
+
+  private void leaveRoom(String roomId, String userId) {
+    roomOnline.computeIfPresent(
+        roomId,
+        (id, userIds) -> {
+          userIds.remove(userId);
+          return userIds.isEmpty() ? null : userIds;
+        });
+  }
+
+  private Stripe stripeFor(String userId) {
+    int hash = userId.hashCode();
+    return stripes[Math.floorMod(hash ^ (hash >>> 16), stripes.length)];
+  }
+
+  private static final class Stripe {
+    private final Map<String, Presence> users = new HashMap<>();
+  }
+
+  /** A user's sessions on this node and the rooms they are listed as online in. */
+  private static final class Presence {
+    private final Set<UUID> sessionIds = new LinkedHashSet<>(2);
+    private final Set<String> roomIds = new HashSet<>();
+  }
+}
@@ -0,0 +1,107 @@
+package com.chatapp.service;
+
+import com.chatapp.config.ReadCursorConfig;
+import com.chatapp.entity.RoomMemberId;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Read cursors of room members. Clients report the newest message seq they have seen; reports are
+ * merged in memory, keeping the highest per member, and written to {@code room_members} as one
+ * JDBC batch per flush interval, so marking every incoming message as read costs no write per
+ * message. Cursors never move backwards and never past the room's newest message.
+ */
+@Component
+public class ReadCursorService {
+
+  private static final Logger logger = LoggerFactory.getLogger(ReadCursorService.class);
+
+  /** Marks everything the room holds at flush time as read. */
+  public static final long LATEST = Long.MAX_VALUE;
+
+  private static final String FLUSH_SQL =
+      "UPDATE room_members SET last_read_seq = GREATEST(last_read_seq, LEAST(?,"
+          + " (SELECT cr.last_seq FROM chat_rooms cr WHERE cr.id = room_members.room_id)))"
+          + " WHERE room_id = ? AND user_id = ?";
+
+  @Autowired private ReadCursorConfig config;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private MeterRegistry meterRegistry;
+
+  private final Map<RoomMemberId, Long> pending = new ConcurrentHashMap<>();
+  private ScheduledExecutorService flusher;
+
+  @PostConstruct
+  public void start() {
+    flusher =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "read-cursor-flusher");
+              thread.setDaemon(true);
+              return thread;
+            });
+    long interval = config.getFlushIntervalMs();
+    flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    Gauge.builder("chat.read-cursors.pending", pending, Map::size).register(meterRegistry);
+  }
+
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    flusher.shutdown();
+    flusher.awaitTermination(5, TimeUnit.SECONDS);
+    flush();
+  }
+
+  /** Records that the user has read the room up to {@code seq} (or {@link #LATEST}). */
+  public void markRead(String roomId, String userId, long seq) {
+    if (seq > 0) {
+      pending.merge(new RoomMemberId(roomId, userId), seq, Math::max);
+    }
+  }
+
+  /** The user's cursor in the room that is not yet written to the database, or 0. */
+  public long getPendingSeq(String roomId, String userId) {
+    return pending.getOrDefault(new RoomMemberId(roomId, userId), 0L);
+  }
+
+  synchronized void flush() {
+    if (pending.isEmpty()) {
+      return;
+    }
+    List<Map.Entry<RoomMemberId, Long>> batch = new ArrayList<>(pending.size());
+    pending.forEach((id, seq) -> batch.add(Map.entry(id, seq)));
+    try {
+      jdbcTemplate.batchUpdate(
+          FLUSH_SQL,
+          batch,
+          batch.size(),
+          (ps, entry) -> {
+            ps.setLong(1, entry.getValue());
+            ps.setString(2, entry.getKey().getRoomId());
+            ps.setString(3, entry.getKey().getUserId());
+          });
+    } catch (RuntimeException e) {
+      logger.warn("Failed to flush {} read cursors, retrying next interval", batch.size(), e);
+      return;
+    }
+    // Only after the write, so readers overlaying pending cursors never see one go backwards;
+    // cursors advanced since the snapshot stay pending
+    batch.forEach(entry -> pending.remove(entry.getKey(), entry.getValue()));
+  }
+}
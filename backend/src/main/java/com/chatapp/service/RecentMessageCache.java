@@ -0,0 +1,311 @@
+package com.chatapp.service;
+
+import com.chatapp.config.ClusterConfig;
+import com.chatapp.config.RecentMessageCacheConfig;
+import com.chatapp.dto.MessageCursor;
+import com.chatapp.entity.Message;
+import com.chatapp.entity.User;
+import com.chatapp.event.MessageCreatedEvent;
+import com.chatapp.event.MessageDeletedEvent;
+import com.chatapp.event.MessagesImportedEvent;
+import com.chatapp.event.UserProfileUpdatedEvent;
+import com.chatapp.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Per-room ring buffers holding the newest messages of active rooms. History reads are answered
+ * from memory when the requested window lies entirely inside the buffer; idle rooms are evicted so
+ * memory stays bounded by {@code maxRooms * capacity} messages. Messages are cached with their
+ * complete author, so a page served from memory serializes exactly like one read from the
+ * database even when the message came from a socket session that only knows the sender's name.
+ *
+ * <p>The buffers only see messages stored through this node, so with clustering enabled the
+ * cache is bypassed and history is always read from the database.
+ */
+@Component
+public class RecentMessageCache {
+
+  static final Comparator<Message> NEWEST_FIRST =
+      Comparator.comparing(Message::getCreatedAt)
+          .thenComparing(Message::getId)
+          .reversed();
+
+  @Autowired private RecentMessageCacheConfig config;
+
+  @Autowired private ClusterConfig clusterConfig;
+
+  @Autowired private MeterRegistry meterRegistry;
+
+  @Autowired private UserRepository userRepository;
+
+  private Cache<String, RoomTail> tails;
+  private Cache<String, User> authors;
+  private Counter hits;
+  private Counter misses;
+
+  @PostConstruct
+  public void init() {
+    tails =
+        Caffeine.newBuilder()
+            .maximumSize(config.getMaxRooms())
+            .expireAfterAccess(Duration.ofMinutes(config.getIdleMinutes()))
+            .build();
+    authors =
+        Caffeine.newBuilder()
+            .maximumSize(10000)
+            .expireAfterAccess(Duration.ofMinutes(config.getIdleMinutes()))
+            .build();
+    hits =
+        Counter.builder("chat.messages.recent.cache").tag("result", "hit").register(meterRegistry);
+    misses =
+        Counter.builder("chat.messages.recent.cache").tag("result", "miss").register(meterRegistry);
+    Gauge.builder("chat.messages.recent.rooms", tails, cache -> cache.estimatedSize())
+        .register(meterRegistry);
+  }
+
+  public boolean isEnabled() {
+    return config.isEnabled() && !clusterConfig.isEnabled();
+  }
+
+  public int getCapacity() {
+    return config.getCapacity();
+  }
+
+  /**
+   * Returns up to {@code count} messages older than {@code before} (or the newest ones when {@code
+   * before} is null), newest first, if the buffer can answer the request exactly.
+   */
+  public Optional<List<Message>> findBefore(String roomId, MessageCursor before, int count) {
+    RoomTail tail = tails.getIfPresent(roomId);
+    Optional<List<Message>> result =
+        tail == null ? Optional.empty() : tail.findBefore(before, count);
+    record(result.isPresent());
+    return result;
+  }
+
+  /** Returns all messages newer than {@code since}, oldest first, if the buffer covers them. */
+  public Optional<List<Message>> findSince(String roomId, LocalDateTime since) {
+    RoomTail tail = tails.getIfPresent(roomId);
+    Optional<List<Message>> result = tail == null ? Optional.empty() : tail.findSince(since);
+    record(result.isPresent());
+    return result;
+  }
+
+  public boolean isSeeded(String roomId) {
+    RoomTail tail = tails.getIfPresent(roomId);
+    return tail != null && tail.isSeeded();
+  }
+
+  /**
+   * Fills a room's buffer from the database. {@code newest} must be the newest messages of the
+   * room; {@code complete} tells whether they are the room's entire history.
+   */
+  public void seed(String roomId, List<Message> newest, boolean complete) {
+    tails.get(roomId, id -> new RoomTail(config.getCapacity())).seed(newest, complete);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onMessageCreated(MessageCreatedEvent event) {
+    if (isEnabled()) {
+      tails
+          .get(event.getRoomId(), id -> new RoomTail(config.getCapacity()))
+          .append(withAuthor(event.getMessage()));
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onMessageDeleted(MessageDeletedEvent event) {
+    RoomTail tail = tails.getIfPresent(event.getRoomId());
+    if (tail != null) {
+      tail.remove(event.getMessageId());
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onMessagesImported(MessagesImportedEvent event) {
+    if (isEnabled() && event.isLive()) {
+      RoomTail tail = tails.get(event.getRoomId(), id -> new RoomTail(config.getCapacity()));
+      event.getMessages().forEach(message -> tail.append(withAuthor(message)));
+    } else {
+      // Backfilled history may land anywhere in the timeline; reseed on the next read
+      evictRoom(event.getRoomId());
+    }
+  }
+
+  // Cached pages embed authors; renames are rare, so reseed the rooms the user wrote in
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onUserProfileUpdated(UserProfileUpdatedEvent event) {
+    authors.invalidate(event.getUserId());
+    tails.asMap().values().removeIf(tail -> tail.hasAuthor(event.getUserId()));
+  }
+
+  public void evictRoom(String roomId) {
+    tails.invalidate(roomId);
+  }
+
+  /**
+   * Returns the message with its complete author: socket messages carry a detached user built
+   * from the session (no email or timestamps) and saved entities may hold an uninitialized proxy,
+   * neither of which serializes like the fetch-joined author of a seeded message.
+   */
+  private Message withAuthor(Message message) {
+    User author = message.getUser();
+    if (author == null || (Hibernate.isInitialized(author) && author.getEmail() != null)) {
+      return message;
+    }
+    User complete = authors.get(author.getId(), id -> userRepository.findById(id).orElse(null));
+    if (complete == null) {
+      return message;
+    }
+    Message copy =
+        new Message(
+            message.getId(),
+            message.getRoom(),
+            complete,
+            message.getContent(),
+            message.getMessageType(),
+            message.getImageUrl());
+    copy.setCreatedAt(message.getCreatedAt());
+    copy.setSeq(message.getSeq());
+    return copy;
+  }
+
+  private void record(boolean hit) {
+    (hit ? hits : misses).increment();
+  }
+
+  /**
+   * Fixed-size ring of a room's newest messages. Appends may arrive slightly out of createdAt
+   * order, so reads sort a snapshot (nearly sorted input, effectively linear).
+   */
+  static final class RoomTail {
+    private final Message[] ring;
+    private int head; // next write position
+    private int size;
+    private boolean seeded; // the buffer is contiguous with the database
+    private boolean complete; // the buffer holds the room's entire history
+
+    RoomTail(int capacity) {
+      this.ring = new Message[capacity];
+    }
+
+    synchronized boolean isSeeded() {
+      return seeded;
+    }
+
+    synchronized void append(Message message) {
+      if (size == ring.length) {
+        complete = false; // the oldest message falls out of the buffer
+      } else {
+        size++;
+      }
+      ring[head] = message;
+      head = (head + 1) % ring.length;
+    }
+
+    synchronized boolean hasAuthor(String userId) {
+      for (int i = 0; i < size; i++) {
+        User author = ring[Math.floorMod(head - 1 - i, ring.length)].getUser();
+        if (author != null && userId.equals(author.getId())) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    synchronized void remove(String messageId) {
+      List<Message> remaining = new ArrayList<>(snapshot());
+      if (remaining.removeIf(message -> message.getId().equals(messageId))) {
+        refill(remaining);
+      }
+    }
+
+    synchronized void seed(List<Message> newest, boolean complete) {
+      // Keep anything appended while the database was read, then trim to capacity
+      Map<String, Message> merged = new LinkedHashMap<>();
+      newest.forEach(message -> merged.put(message.getId(), message));
+      snapshot().forEach(message -> merged.put(message.getId(), message));
+
+      List<Message> ordered = new ArrayList<>(merged.values());
+      ordered.sort(NEWEST_FIRST);
+      this.complete = complete && ordered.size() <= ring.length;
+      refill(ordered.subList(0, Math.min(ordered.size(), ring.length)));
+      this.seeded = true;
+    }
+
+    synchronized Optional<List<Message>> findBefore(MessageCursor before, int count) {
+      if (!seeded) {
+        return Optional.empty();
+      }
+      List<Message> older = new ArrayList<>(count);
+      for (Message message : snapshot()) {
+        if (before == null || isOlder(message, before)) {
+          older.add(message);
+          if (older.size() == count) {
+            return Optional.of(older);
+          }
+        }
+      }
+      return complete ? Optional.of(older) : Optional.empty();
+    }
+
+    synchronized Optional<List<Message>> findSince(LocalDateTime since) {
+      if (!seeded || size == 0) {
+        return seeded && complete ? Optional.of(List.of()) : Optional.empty();
+      }
+      List<Message> newestFirst = snapshot();
+      Message oldest = newestFirst.get(newestFirst.size() - 1);
+      if (!complete && oldest.getCreatedAt().isAfter(since)) {
+        return Optional.empty(); // messages between since and the buffer may be missing
+      }
+      List<Message> newer = new ArrayList<>();
+      for (int i = newestFirst.size() - 1; i >= 0; i--) {
+        if (newestFirst.get(i).getCreatedAt().isAfter(since)) {
+          newer.add(newestFirst.get(i));
+        }
+      }
+      return Optional.of(newer);
+    }
+
+    private List<Message> snapshot() {
+      List<Message> messages = new ArrayList<>(size);
+      for (int i = 1; i <= size; i++) {
+        messages.add(ring[Math.floorMod(head - i, ring.length)]);
+      }
+      messages.sort(NEWEST_FIRST);
+      return messages;
+    }
+
+    private void refill(List<Message> newestFirst) {
+      Arrays.fill(ring, null);
+      size = newestFirst.size();
+      for (int i = 0; i < size; i++) {
+        ring[size - 1 - i] = newestFirst.get(i);
+      }
+      head = size % ring.length;
+    }
+
+    private static boolean isOlder(Message message, MessageCursor cursor) {
+      int byTime = message.getCreatedAt().compareTo(cursor.getCreatedAt());
+      return byTime < 0 || (byTime == 0 && message.getId().compareTo(cursor.getId()) < 0);
+    }
+  }
+}
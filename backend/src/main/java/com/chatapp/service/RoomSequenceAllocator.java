@@ -0,0 +1,228 @@
+package com.chatapp.service;
+
+import com.chatapp.config.SequenceConfig;
+import com.chatapp.entity.Message;
+import com.chatapp.event.ChatRoomDeletedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Per-room message sequence numbers. Each node reserves blocks of numbers from the room's {@code
+ * chat_rooms.reserved_seq} counter and hands them out with a compare-and-set, so the database is
+ * only involved once per block and nodes never hand out the same number. A room's numbers are dense
+ * while one node allocates them; the unused rest of a block is handed back when the room goes idle
+ * or the node shuts down, unless another node has reserved past it in the meantime.
+ *
+ * <p>Separately, {@code chat_rooms.last_seq} tracks the newest persisted message, advanced in the
+ * transaction inserting it, for unread counts.
+ */
+@Component
+public class RoomSequenceAllocator {
+
+  private static final Logger logger = LoggerFactory.getLogger(RoomSequenceAllocator.class);
+
+  // Rooms numbered before reservations existed have last_seq set but reserved_seq still 0
+  private static final String RESERVE_SQL =
+      "UPDATE chat_rooms SET reserved_seq = GREATEST(reserved_seq, last_seq) + ? WHERE id = ?";
+
+  private static final String RESERVED_SQL = "SELECT reserved_seq FROM chat_rooms WHERE id = ?";
+
+  private static final String RELEASE_SQL =
+      "UPDATE chat_rooms SET reserved_seq = ? WHERE id = ? AND reserved_seq = ?";
+
+  private static final String ADVANCE_SQL =
+      "UPDATE chat_rooms SET last_seq = GREATEST(last_seq, ?) WHERE id = ?";
+
+  // Returned by a room's sequence once it has been released
+  private static final long RETIRED = -1;
+
+  @Autowired private SequenceConfig config;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @Autowired private MeterRegistry meterRegistry;
+
+  private Cache<String, RoomSequence> rooms;
+  private TransactionTemplate reserveTransaction;
+
+  @PostConstruct
+  public void init() {
+    rooms =
+        Caffeine.newBuilder()
+            .maximumSize(config.getMaxRooms())
+            .expireAfterAccess(Duration.ofMinutes(config.getIdleMinutes()))
+            .<String, RoomSequence>removalListener(
+                (roomId, sequence, cause) -> {
+                  if (sequence != null && cause.wasEvicted()) {
+                    sequence.release();
+                  }
+                })
+            .build();
+    // Reservations commit on their own: a rolled-back insert must not hand a block out again
+    reserveTransaction = new TransactionTemplate(transactionManager);
+    reserveTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    Gauge.builder("chat.sequence.rooms", rooms, cache -> cache.estimatedSize())
+        .register(meterRegistry);
+  }
+
+  @PreDestroy
+  public void releaseAll() {
+    rooms.asMap().values().forEach(RoomSequence::release);
+  }
+
+  /** Returns the room's next sequence number. */
+  public long next(String roomId) {
+    while (true) {
+      RoomSequence sequence = rooms.get(roomId, RoomSequence::new);
+      long seq = sequence.next();
+      if (seq != RETIRED) {
+        return seq;
+      }
+      // Evicted and released while in use: continue on a fresh entry
+      rooms.asMap().remove(roomId, sequence);
+    }
+  }
+
+  /**
+   * Hands back a number taken for a message that was neither stored nor shown to anyone, so the
+   * next message gets it instead. Returns false, leaving a gap, once a later number is out.
+   */
+  public boolean giveBack(String roomId, long seq) {
+    RoomSequence sequence = rooms.getIfPresent(roomId);
+    return sequence != null && sequence.giveBack(seq);
+  }
+
+  /** Numbers the messages that have no seq yet, in list order per room. */
+  public void assign(List<Message> messages) {
+    for (Message message : messages) {
+      if (message.getSeq() == null) {
+        message.setSeq(next(message.getRoom().getId()));
+      }
+    }
+  }
+
+  /** Advances each room's last_seq to its newest message; must run in the inserting transaction. */
+  public void advance(List<Message> messages) {
+    // Rooms in id order, so concurrent writers lock counter rows in the same order
+    Map<String, Long> newest = new TreeMap<>();
+    for (Message message : messages) {
+      newest.merge(message.getRoom().getId(), message.getSeq(), Math::max);
+    }
+    newest.forEach((roomId, seq) -> jdbcTemplate.update(ADVANCE_SQL, seq, roomId));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onChatRoomDeleted(ChatRoomDeletedEvent event) {
+    rooms.invalidate(event.getRoomId());
+  }
+
+  private Block reserve(String roomId) {
+    int size = config.getBlockSize();
+    Long reserved =
+        reserveTransaction.execute(
+            status -> {
+              if (jdbcTemplate.update(RESERVE_SQL, size, roomId) == 0) {
+                throw new IllegalArgumentException("Room not found: " + roomId);
+              }
+              return jdbcTemplate.queryForObject(RESERVED_SQL, Long.class, roomId);
+            });
+    return new Block(reserved - size + 1, reserved);
+  }
+
+  /** A range of reserved numbers; {@code next} runs past {@code last} once it is used up. */
+  private static final class Block {
+    private final AtomicLong next;
+    private final long last;
+
+    Block(long first, long last) {
+      this.next = new AtomicLong(first);
+      this.last = last;
+    }
+  }
+
+  private final class RoomSequence {
+    private final String roomId;
+    // Not a monitor: waiting on a reservation's round trip must not pin virtual threads
+    private final ReentrantLock refill = new ReentrantLock();
+    private volatile Block block;
+    // Set under refill once released; a block reserved after that would never be handed back
+    private boolean retired;
+
+    RoomSequence(String roomId) {
+      this.roomId = roomId;
+    }
+
+    long next() {
+      while (true) {
+        Block current = block;
+        if (current != null) {
+          long seq = current.next.getAndIncrement();
+          if (seq <= current.last) {
+            return seq;
+          }
+        }
+        // Block used up: one thread reserves the next, the others retry on it
+        refill.lock();
+        try {
+          if (retired) {
+            return RETIRED;
+          }
+          if (block == current) {
+            block = reserve(roomId);
+          }
+        } finally {
+          refill.unlock();
+        }
+      }
+    }
+
+    boolean giveBack(long seq) {
+      Block current = block;
+      return current != null && seq <= current.last && current.next.compareAndSet(seq + 1, seq);
+    }
+
+    void release() {
+      refill.lock();
+      try {
+        retired = true;
+        Block current = block;
+        if (current == null) {
+          return;
+        }
+        // Claims every remaining number at once; later next() calls see the block as used up
+        long firstUnused = current.next.getAndAdd(Integer.MAX_VALUE);
+        if (firstUnused > current.last) {
+          return;
+        }
+        try {
+          jdbcTemplate.update(RELEASE_SQL, firstUnused - 1, roomId, current.last);
+        } catch (RuntimeException e) {
+          logger.warn("Failed to release sequence numbers of room {}", roomId, e);
+        }
+      } finally {
+        refill.unlock();
+      }
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package com.chatapp.service;
+
+import com.chatapp.config.ClusterConfig;
+import com.chatapp.event.UserDeletedEvent;
+import com.chatapp.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Positive-only cache of user ids known to exist, consulted by stateless JWT authentication.
+ * Deleted users are dropped once the deletion commits; with clustering enabled the deletion is
+ * announced over Redis so that every node drops its copy. The expiry only bounds memory and the
+ * damage of a missed announcement.
+ */
+@Component
+public class UserExistenceCache implements MessageListener {
+
+  private static final Logger logger = LoggerFactory.getLogger(UserExistenceCache.class);
+
+  private static final String INVALIDATION_CHANNEL = "chat:users:deleted";
+
+  @Autowired private ClusterConfig clusterConfig;
+
+  @Autowired private UserRepository userRepository;
+
+  @Autowired private StringRedisTemplate redisTemplate;
+
+  @Autowired(required = false)
+  private RedisMessageListenerContainer listenerContainer;
+
+  private final Cache<String, Boolean> existingUsers =
+      Caffeine.newBuilder().maximumSize(10000).expireAfterWrite(Duration.ofMinutes(5)).build();
+
+  @PostConstruct
+  public void subscribe() {
+    if (listenerContainer != null) {
+      listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+  }
+
+  public boolean exists(String userId) {
+    if (existingUsers.getIfPresent(userId) != null) {
+      return true;
+    }
+    boolean exists = userRepository.existsById(userId);
+    if (exists) {
+      existingUsers.put(userId, Boolean.TRUE);
+    }
+    return exists;
+  }
+
+  public void invalidate(String userId) {
+    existingUsers.invalidate(userId);
+  }
+
+  // Again after commit: a lookup racing the deletion may have re-cached the user
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onUserDeleted(UserDeletedEvent event) {
+    existingUsers.invalidate(event.getUserId());
+    if (clusterConfig.isEnabled()) {
+      try {
+        redisTemplate.convertAndSend(INVALIDATION_CHANNEL, event.getUserId());
+      } catch (RuntimeException e) {
+        logger.warn("Failed to announce deletion of user {}", event.getUserId(), e);
+      }
+    }
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    existingUsers.invalidate(new String(message.getBody(), StandardCharsets.UTF_8));
+  }
+}
@@ -1,16 +1,25 @@
 package com.chatapp.service;
 
+import com.chatapp.config.UserSearchConfig;
 import com.chatapp.entity.User;
+import com.chatapp.event.UserDeletedEvent;
+import com.chatapp.event.UserProfileUpdatedEvent;
+import com.chatapp.event.UserSavedEvent;
 import com.chatapp.repository.UserRepository;
+import com.chatapp.search.UserDirectory;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
@@ -19,6 +28,16 @@ public class UserService implements UserDetailsService {
 
   @Autowired private UserRepository userRepository;
 
+  @Autowired private ApplicationEventPublisher eventPublisher;
+
+  @Autowired private UserDirectory userDirectory;
+
+  @Autowired private MembershipCache membershipCache;
+
+  @Autowired private UserSearchConfig userSearchConfig;
+
+  @Autowired private UserExistenceCache userExistenceCache;
+
   @Override
   public UserDetails loadUserByUsername(String userId) throws UsernameNotFoundException {
     User user =
@@ -26,8 +45,13 @@ public class UserService implements UserDetailsService {
             .findById(userId)
             .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + userId));
 
+    return buildUserDetails(user.getId());
+  }
+
+  /** Builds the principal for an authenticated user id without touching the database. */
+  public static UserDetails buildUserDetails(String userId) {
     return org.springframework.security.core.userdetails.User.builder()
-        .username(user.getId())
+        .username(userId)
         .password("") // パスワードは使用しない（JWT認証のため）
         .authorities(Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")))
         .accountExpired(false)
@@ -38,31 +62,57 @@ public class UserService implements UserDetailsService {
   }
 
   public User createUser(User user) {
-    return userRepository.save(user);
+    return save(user);
   }
 
   public User updateUser(User user) {
-    return userRepository.save(user);
+    User updated = userRepository.save(user);
+    eventPublisher.publishEvent(
+        new UserProfileUpdatedEvent(updated.getId(), updated.getName(), updated.getPicture()));
+    eventPublisher.publishEvent(new UserSavedEvent(updated));
+    return updated;
   }
 
   public Optional<User> findById(String id) {
     return userRepository.findById(id);
   }
 
+  @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+  public boolean existsById(String id) {
+    return userExistenceCache.exists(id);
+  }
+
   public Optional<User> findByEmail(String email) {
     return userRepository.findByEmail(email);
   }
 
   public User save(User user) {
-    return userRepository.save(user);
+    User saved = userRepository.save(user);
+    eventPublisher.publishEvent(new UserSavedEvent(saved));
+    return saved;
   }
 
   public List<User> findByRoomId(String roomId) {
     return userRepository.findByRoomId(roomId);
   }
 
-  public List<User> searchUsers(String searchTerm) {
-    return userRepository.findByNameOrEmailContainingIgnoreCase(searchTerm);
+  /**
+   * Users whose name, a word of the name, or email starts with {@code prefix}, best match first;
+   * restricted to the members of {@code roomId} unless it is null.
+   */
+  public List<User> searchUsers(String prefix, int limit, String roomId) {
+    if (prefix.isBlank()) {
+      return List.of();
+    }
+    int bounded = Math.min(limit, userSearchConfig.getMaxLimit());
+    if (!userDirectory.isReady()) {
+      Pageable page = PageRequest.of(0, bounded);
+      return roomId == null
+          ? userRepository.findByNameOrEmailContainingIgnoreCase(prefix, page)
+          : userRepository.findRoomMembersByNameOrEmailContainingIgnoreCase(roomId, prefix, page);
+    }
+    return userDirectory.search(
+        prefix, bounded, roomId == null ? null : membershipCache.getMemberIds(roomId));
   }
 
   public List<User> getAllUsers() {
@@ -75,6 +125,8 @@ public class UserService implements UserDetailsService {
 
   public void deleteUser(String id) {
     userRepository.deleteById(id);
+    userExistenceCache.invalidate(id);
+    eventPublisher.publishEvent(new UserDeletedEvent(id));
   }
 
   public long getUserCount() {
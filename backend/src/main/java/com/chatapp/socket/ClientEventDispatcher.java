@@ -0,0 +1,144 @@
+package com.chatapp.socket;
+
+import com.chatapp.config.SocketDispatchConfig;
+import com.corundumstudio.socketio.SocketIOClient;
+import com.corundumstudio.socketio.listener.ConnectListener;
+import com.corundumstudio.socketio.listener.DataListener;
+import com.corundumstudio.socketio.listener.DisconnectListener;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves socket listeners off netty's event loop. The handlers block on JPA and Redis; run inline,
+ * one slow query stalls heartbeats and every other client sharing the loop. When enabled each
+ * connection gets a serial queue drained on virtual threads: events of one client still run one
+ * at a time in arrival order, while different clients proceed independently and a blocked
+ * handler only parks its own virtual thread.
+ */
+@Component
+public class ClientEventDispatcher {
+
+  private static final Logger logger = LoggerFactory.getLogger(ClientEventDispatcher.class);
+
+  @Autowired private SocketDispatchConfig config;
+
+  @Autowired private MeterRegistry meterRegistry;
+
+  private final Map<UUID, ClientQueue> queues = new ConcurrentHashMap<>();
+  private final AtomicInteger queued = new AtomicInteger();
+  private ExecutorService executor;
+
+  @PostConstruct
+  public void start() {
+    if (config.isVirtualThreads()) {
+      executor =
+          Executors.newThreadPerTaskExecutor(
+              Thread.ofVirtual().name("socket-handler-", 0).factory());
+    }
+    Gauge.builder("chat.socket.dispatch.queued", queued, AtomicInteger::get)
+        .register(meterRegistry);
+  }
+
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    if (executor != null) {
+      executor.shutdown();
+      executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+  }
+
+  public ConnectListener dispatchConnect(ConnectListener listener) {
+    if (executor == null) {
+      return listener;
+    }
+    return client -> submit(client, () -> listener.onConnect(client), true);
+  }
+
+  /** The queue is dropped once the disconnect listener has run after every earlier event. */
+  public DisconnectListener dispatchDisconnect(DisconnectListener listener) {
+    if (executor == null) {
+      return listener;
+    }
+    return client ->
+        submit(
+            client,
+            () -> {
+              try {
+                listener.onDisconnect(client);
+              } finally {
+                queues.remove(client.getSessionId());
+              }
+            },
+            true);
+  }
+
+  public <T> DataListener<T> dispatch(DataListener<T> listener) {
+    if (executor == null) {
+      return listener;
+    }
+    return (client, data, ackSender) ->
+        submit(client, () -> listener.onData(client, data, ackSender), false);
+  }
+
+  // Lifecycle events bypass the limit: skipping them would leak or never register the client
+  private void submit(SocketIOClient client, Task task, boolean lifecycle) {
+    ClientQueue queue = queues.computeIfAbsent(client.getSessionId(), id -> new ClientQueue());
+    if (!lifecycle && queue.size.get() >= config.getMaxQueuedEvents()) {
+      client.sendEvent("error", Map.of("message", "Server is busy, please retry"));
+      return;
+    }
+    queue.size.incrementAndGet();
+    queued.incrementAndGet();
+    queue.tasks.add(task);
+    if (queue.running.compareAndSet(false, true)) {
+      executor.execute(() -> drain(queue));
+    }
+  }
+
+  private void drain(ClientQueue queue) {
+    while (true) {
+      Task task;
+      while ((task = queue.tasks.poll()) != null) {
+        queue.size.decrementAndGet();
+        queued.decrementAndGet();
+        try {
+          task.run();
+        } catch (Exception e) {
+          logger.error("Socket event handler failed", e);
+        }
+      }
+      queue.running.set(false);
+      // A task added after the last poll but before the flag was cleared is still ours to run
+      if (queue.tasks.isEmpty() || !queue.running.compareAndSet(false, true)) {
+        return;
+      }
+    }
+  }
+
+  @FunctionalInterface
+  private interface Task {
+    void run() throws Exception;
+  }
+
+  private static final class ClientQueue {
+    private final Queue<Task> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean running = new AtomicBoolean();
+  }
+}
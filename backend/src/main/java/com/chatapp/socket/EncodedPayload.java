@@ -0,0 +1,67 @@
+package com.chatapp.socket;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import java.io.IOException;
+
+/**
+ * Event payload that has already been encoded to JSON. netty-socketio encodes the packet once per
+ * recipient transport; with this payload each encode copies the cached UTF-8 bytes instead of
+ * walking and serializing the object graph again.
+ */
+public final class EncodedPayload implements JsonSerializable {
+
+  private final SerializedString json;
+
+  private EncodedPayload(String json) {
+    this.json = new SerializedString(json);
+    this.json.asUnquotedUTF8(); // cache the bytes before the payload is shared across threads
+  }
+
+  public static EncodedPayload encode(ObjectMapper objectMapper, Object data) {
+    if (data instanceof EncodedPayload) {
+      return (EncodedPayload) data;
+    }
+    try {
+      return new EncodedPayload(objectMapper.writeValueAsString(data));
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Event payload is not serializable", e);
+    }
+  }
+
+  public String toJson() {
+    return json.getValue();
+  }
+
+  @Override
+  public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+    gen.writeRawValue(json);
+  }
+
+  @Override
+  public void serializeWithType(
+      JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer)
+      throws IOException {
+    serialize(gen, serializers);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof EncodedPayload && toJson().equals(((EncodedPayload) o).toJson());
+  }
+
+  @Override
+  public int hashCode() {
+    return toJson().hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return toJson();
+  }
+}
@@ -0,0 +1,115 @@
+package com.chatapp.socket;
+
+import com.chatapp.config.BroadcastBatchConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Broadcast path for chat messages. Rooms without a batch window send every message as its own
+ * {@code new_message} event; rooms that opted in collect the messages arriving within the window
+ * and deliver them as one {@code new_messages} frame, so busy rooms pay the per-frame cost once per
+ * window instead of once per message.
+ */
+@Component
+public class MessageBroadcastBatcher {
+
+  private static final Logger logger = LoggerFactory.getLogger(MessageBroadcastBatcher.class);
+
+  static final String SINGLE_EVENT = "new_message";
+  static final String BATCH_EVENT = "new_messages";
+
+  @Autowired private BroadcastBatchConfig config;
+
+  @Autowired private RoomBroadcaster roomBroadcaster;
+
+  @Autowired private RoomActivityNotifier roomActivityNotifier;
+
+  private final Map<String, PendingBatch> pending = new ConcurrentHashMap<>();
+  private ScheduledExecutorService scheduler;
+
+  @PostConstruct
+  public void start() {
+    scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "broadcast-batcher");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  @PreDestroy
+  public void stop() {
+    scheduler.shutdown();
+    pending.keySet().forEach(this::flush);
+  }
+
+  /**
+   * Broadcasts a message to a room, batching it when {@code batchMs} is positive. Messages of one
+   * room are delivered in the order they were published. Connections subscribed to the room
+   * without focusing it only hear about the message through {@link RoomActivityNotifier}.
+   */
+  public void publish(String roomId, Integer batchMs, Map<String, Object> message) {
+    roomActivityNotifier.record(roomId, message);
+    if (!config.isEnabled() || batchMs == null || batchMs <= 0) {
+      // Batching may just have been switched off; don't overtake messages still waiting
+      flush(roomId);
+      roomBroadcaster.sendToRoom(roomId, SINGLE_EVENT, message);
+      return;
+    }
+
+    boolean full;
+    while (true) {
+      PendingBatch batch = pending.computeIfAbsent(roomId, id -> new PendingBatch());
+      synchronized (batch) {
+        if (batch.closed) {
+          continue; // flushed concurrently, start a new batch
+        }
+        batch.messages.add(message);
+        if (batch.messages.size() == 1) {
+          scheduler.schedule(() -> flush(roomId), batchMs, TimeUnit.MILLISECONDS);
+        }
+        full = batch.messages.size() >= config.getMaxBatchSize();
+        break;
+      }
+    }
+    if (full) {
+      // Flushes run on the single scheduler thread, which keeps batches of a room in order
+      scheduler.execute(() -> flush(roomId));
+    }
+  }
+
+  private void flush(String roomId) {
+    PendingBatch batch = pending.remove(roomId);
+    if (batch == null) {
+      return;
+    }
+    List<Map<String, Object>> messages;
+    synchronized (batch) {
+      batch.closed = true;
+      messages = batch.messages;
+    }
+    try {
+      roomBroadcaster.sendToRoom(
+          roomId, BATCH_EVENT, Map.of("roomId", roomId, "messages", messages));
+    } catch (RuntimeException e) {
+      logger.warn("Failed to broadcast {} batched messages to room {}", messages.size(), roomId, e);
+    }
+  }
+
+  private static final class PendingBatch {
+    private final List<Map<String, Object>> messages = new ArrayList<>();
+    private boolean closed;
+  }
+}
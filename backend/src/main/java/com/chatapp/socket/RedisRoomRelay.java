@@ -0,0 +1,146 @@
+package com.chatapp.socket;
+
+import com.chatapp.config.ClusterConfig;
+import com.chatapp.event.RoomEventRelayedEvent;
+import com.corundumstudio.socketio.SocketIOServer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Relays room events between backend nodes through Redis pub/sub. Rooms are hashed onto a fixed
+ * number of channels so a busy room does not force every node to decode traffic on one channel.
+ * Events from other nodes are sent to local sockets and then published as a {@link
+ * RoomEventRelayedEvent}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "chat.cluster", name = "enabled", havingValue = "true")
+public class RedisRoomRelay implements MessageListener {
+
+  private static final Logger logger = LoggerFactory.getLogger(RedisRoomRelay.class);
+
+  @Autowired private ClusterConfig clusterConfig;
+
+  @Autowired private StringRedisTemplate redisTemplate;
+
+  @Autowired private RedisMessageListenerContainer listenerContainer;
+
+  @Autowired private SocketIOServer socketIOServer;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Autowired private RoomEventLog roomEventLog;
+
+  @Autowired private ApplicationEventPublisher eventPublisher;
+
+  @PostConstruct
+  public void subscribe() {
+    List<ChannelTopic> topics =
+        IntStream.range(0, clusterConfig.getShards())
+            .mapToObj(shard -> new ChannelTopic(clusterConfig.getChannelPrefix() + shard))
+            .collect(Collectors.toList());
+    listenerContainer.addMessageListener(this, topics);
+  }
+
+  public void publish(String roomId, String event, Object data) {
+    RoomEvent roomEvent = new RoomEvent(clusterConfig.getNodeId(), roomId, event, data);
+    try {
+      redisTemplate.convertAndSend(channelFor(roomId), objectMapper.writeValueAsString(roomEvent));
+    } catch (JsonProcessingException e) {
+      logger.error("Failed to serialize {} event for room {}", event, roomId, e);
+    } catch (RuntimeException e) {
+      // Local delivery already happened; remote nodes miss this event
+      logger.warn("Failed to publish {} event for room {}", event, roomId, e);
+    }
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    try {
+      RoomEvent roomEvent = objectMapper.readValue(message.getBody(), RoomEvent.class);
+      if (clusterConfig.getNodeId().equals(roomEvent.getNodeId())) {
+        return; // already delivered locally by the publishing node
+      }
+      EncodedPayload payload = EncodedPayload.encode(objectMapper, roomEvent.getData());
+      roomEventLog.record(
+          roomEvent.getRoomId(), roomEvent.getEvent(), roomEvent.getData(), payload);
+      socketIOServer
+          .getRoomOperations(roomEvent.getRoomId())
+          .sendEvent(roomEvent.getEvent(), payload);
+      // For node-local state that follows room traffic, such as gRPC room streams
+      eventPublisher.publishEvent(
+          new RoomEventRelayedEvent(
+              roomEvent.getRoomId(), roomEvent.getEvent(), roomEvent.getData()));
+    } catch (IOException e) {
+      logger.warn("Dropping malformed room event", e);
+    }
+  }
+
+  String channelFor(String roomId) {
+    return clusterConfig.getChannelPrefix()
+        + Math.floorMod(roomId.hashCode(), clusterConfig.getShards());
+  }
+
+  public static class RoomEvent {
+    private String nodeId;
+    private String roomId;
+    private String event;
+    private Object data;
+
+    public RoomEvent() {}
+
+    public RoomEvent(String nodeId, String roomId, String event, Object data) {
+      this.nodeId = nodeId;
+      this.roomId = roomId;
+      this.event = event;
+      this.data = data;
+    }
+
+    public String getNodeId() {
+      return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+      this.nodeId = nodeId;
+    }
+
+    public String getRoomId() {
+      return roomId;
+    }
+
+    public void setRoomId(String roomId) {
+      this.roomId = roomId;
+    }
+
+    public String getEvent() {
+      return event;
+    }
+
+    public void setEvent(String event) {
+      this.event = event;
+    }
+
+    public Object getData() {
+      return data;
+    }
+
+    public void setData(Object data) {
+      this.data = data;
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package com.chatapp.socket;
+
+import com.chatapp.config.SubscriptionConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Activity notifications for connections subscribed to a room they are not looking at. Instead of
+ * full message payloads these connections get one small {@code room_activity} event per room and
+ * interval, carrying how many messages arrived and the newest seq, which is all a sidebar needs to
+ * update its unread badge and ordering.
+ */
+@Component
+public class RoomActivityNotifier {
+
+  private static final Logger logger = LoggerFactory.getLogger(RoomActivityNotifier.class);
+
+  static final String EVENT = "room_activity";
+
+  @Autowired private SubscriptionConfig config;
+
+  @Autowired private RoomBroadcaster roomBroadcaster;
+
+  private final Map<String, Activity> pending = new ConcurrentHashMap<>();
+  private ScheduledExecutorService ticker;
+
+  @PostConstruct
+  public void start() {
+    ticker =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "room-activity");
+              thread.setDaemon(true);
+              return thread;
+            });
+    ticker.scheduleAtFixedRate(
+        this::tick,
+        config.getActivityIntervalMs(),
+        config.getActivityIntervalMs(),
+        TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void stop() {
+    ticker.shutdownNow();
+  }
+
+  /** Records a message broadcast to {@code roomId}; it is announced on the next tick. */
+  public void record(String roomId, Map<String, Object> message) {
+    pending.compute(
+        roomId,
+        (id, activity) -> {
+          Activity current = activity != null ? activity : new Activity();
+          current.add(message);
+          return current;
+        });
+  }
+
+  void tick() {
+    for (String roomId : pending.keySet()) {
+      Activity activity = pending.remove(roomId);
+      if (activity == null) {
+        continue;
+      }
+      try {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("roomId", roomId);
+        data.put("count", activity.count);
+        data.put("lastSeq", activity.lastSeq);
+        data.put("lastUserId", activity.lastUserId);
+        data.put("lastTimestamp", activity.lastTimestamp);
+        roomBroadcaster.sendToRoom(SocketSubscriptions.activityRoom(roomId), EVENT, data);
+      } catch (RuntimeException e) {
+        logger.warn("Failed to emit activity for room {}", roomId, e);
+      }
+    }
+  }
+
+  // Mutated only inside pending.compute, so the map's bin lock guards it
+  private static final class Activity {
+    private int count;
+    private long lastSeq;
+    private Object lastUserId;
+    private Object lastTimestamp;
+
+    void add(Map<String, Object> message) {
+      count++;
+      if (message.get("seq") instanceof Number seq && seq.longValue() >= lastSeq) {
+        lastSeq = seq.longValue();
+        lastUserId = message.get("userId");
+        lastTimestamp = message.get("timestamp");
+      }
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package com.chatapp.socket;
+
+import com.corundumstudio.socketio.SocketIOClient;
+import com.corundumstudio.socketio.SocketIOServer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Single entry point for room broadcasts. Delivers to clients attached to this node and, when
+ * clustering is enabled, forwards the event to the other nodes through {@link RedisRoomRelay}. The
+ * payload is encoded once and the same bytes are reused for every recipient, the relay and the
+ * {@link RoomEventLog} that replays missed events to resuming clients.
+ */
+@Component
+public class RoomBroadcaster {
+
+  @Autowired private SocketIOServer socketIOServer;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Autowired private RoomEventLog roomEventLog;
+
+  @Autowired(required = false)
+  private RedisRoomRelay redisRoomRelay;
+
+  public void sendToRoom(String roomId, String event, Object data) {
+    EncodedPayload payload = EncodedPayload.encode(objectMapper, data);
+    roomEventLog.record(roomId, event, data, payload);
+    socketIOServer.getRoomOperations(roomId).sendEvent(event, payload);
+    relay(roomId, event, payload);
+  }
+
+  public void sendToRoomExcept(
+      String roomId, String event, Object data, SocketIOClient excludedClient) {
+    EncodedPayload payload = EncodedPayload.encode(objectMapper, data);
+    roomEventLog.record(roomId, event, data, payload);
+    socketIOServer.getRoomOperations(roomId).sendEvent(event, excludedClient, payload);
+    // The excluded client lives on this node, so remote nodes deliver to everyone
+    relay(roomId, event, payload);
+  }
+
+  private void relay(String roomId, String event, Object data) {
+    if (redisRoomRelay != null) {
+      redisRoomRelay.publish(roomId, event, data);
+    }
+  }
+}
@@ -0,0 +1,163 @@
+package com.chatapp.socket;
+
+import com.chatapp.config.ResumeConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded per-room log of the room events a reconnecting client needs to catch up: messages and
+ * membership changes. Every node records what is broadcast to a room, whether it originated locally
+ * or arrived through the cluster relay, so a client can resume on any node. Positions are message
+ * seqs; a membership event is replayed to clients that had seen the newest message before it.
+ */
+@Component
+public class RoomEventLog {
+
+  private static final Set<String> REPLAYED_EVENTS =
+      Set.of(
+          MessageBroadcastBatcher.SINGLE_EVENT,
+          MessageBroadcastBatcher.BATCH_EVENT,
+          "user_joined",
+          "user_left");
+
+  @Autowired private ResumeConfig config;
+
+  @Autowired private MeterRegistry meterRegistry;
+
+  private Cache<String, RoomLog> logs;
+
+  @PostConstruct
+  public void init() {
+    logs =
+        Caffeine.newBuilder()
+            .maximumSize(config.getMaxRooms())
+            .expireAfterAccess(Duration.ofMinutes(config.getIdleMinutes()))
+            .build();
+    Gauge.builder("chat.resume.rooms", logs, cache -> cache.estimatedSize())
+        .register(meterRegistry);
+  }
+
+  /** Records a room broadcast; events that are not replayed on resume are ignored. */
+  public void record(String roomId, String event, Object data, EncodedPayload payload) {
+    if (!config.isEnabled() || !REPLAYED_EVENTS.contains(event)) {
+      return;
+    }
+    long[] seqs = messageSeqs(data);
+    logs.get(roomId, id -> new RoomLog(config.getCapacity()))
+        .append(new Entry(event, payload, seqs[0], seqs[1]));
+  }
+
+  /**
+   * Returns the events a client that has seen every message up to {@code lastSeq} missed, oldest
+   * first, or empty when the log no longer reaches back that far.
+   */
+  public Optional<List<Entry>> replay(String roomId, long lastSeq) {
+    RoomLog log = logs.getIfPresent(roomId);
+    return log == null ? Optional.empty() : log.since(lastSeq);
+  }
+
+  // {lowest, highest} seq of the messages carried by a new_message / new_messages payload, or
+  // {0, 0} for other events; relayed payloads arrive as plain maps too
+  private static long[] messageSeqs(Object data) {
+    long min = Long.MAX_VALUE;
+    long max = 0;
+    if (data instanceof Map<?, ?> map) {
+      Object messages = map.get("messages");
+      List<?> items = messages instanceof List<?> list ? list : List.of(map);
+      for (Object item : items) {
+        if (item instanceof Map<?, ?> message && message.get("seq") instanceof Number seq) {
+          min = Math.min(min, seq.longValue());
+          max = Math.max(max, seq.longValue());
+        }
+      }
+    }
+    return max == 0 ? new long[] {0, 0} : new long[] {min, max};
+  }
+
+  /** A logged broadcast, ready to be sent again. */
+  public static final class Entry {
+    private final String event;
+    private final EncodedPayload payload;
+    private final long minSeq; // 0 for events without messages
+    private long maxSeq; // for events without messages: the newest message seq before them
+
+    Entry(String event, EncodedPayload payload, long minSeq, long maxSeq) {
+      this.event = event;
+      this.payload = payload;
+      this.minSeq = minSeq;
+      this.maxSeq = maxSeq;
+    }
+
+    public String getEvent() {
+      return event;
+    }
+
+    public EncodedPayload getPayload() {
+      return payload;
+    }
+
+    boolean hasMessages() {
+      return minSeq > 0;
+    }
+  }
+
+  /** Ring of a room's newest events. */
+  static final class RoomLog {
+    private final Entry[] ring;
+    private int head; // next write position
+    private int size;
+    private long coveredFrom = -1; // every message with a greater seq is in the ring; -1: unknown
+    private long newestSeq;
+
+    RoomLog(int capacity) {
+      this.ring = new Entry[capacity];
+    }
+
+    synchronized void append(Entry entry) {
+      if (entry.hasMessages()) {
+        if (coveredFrom < 0) {
+          coveredFrom = entry.minSeq - 1; // recording starts with this message
+        }
+        newestSeq = Math.max(newestSeq, entry.maxSeq);
+      } else {
+        entry.maxSeq = newestSeq;
+      }
+      if (size == ring.length) {
+        Entry evicted = ring[head];
+        if (evicted.hasMessages()) {
+          coveredFrom = Math.max(coveredFrom, evicted.maxSeq);
+        }
+      } else {
+        size++;
+      }
+      ring[head] = entry;
+      head = (head + 1) % ring.length;
+    }
+
+    synchronized Optional<List<Entry>> since(long lastSeq) {
+      if (coveredFrom < 0 || lastSeq < coveredFrom) {
+        return Optional.empty();
+      }
+      List<Entry> missed = new ArrayList<>();
+      for (int i = size; i >= 1; i--) {
+        Entry entry = ring[Math.floorMod(head - i, ring.length)];
+        // A batch straddling lastSeq is sent whole; clients drop the seqs they already have
+        if (entry.hasMessages() ? entry.maxSeq > lastSeq : entry.maxSeq >= lastSeq) {
+          missed.add(entry);
+        }
+      }
+      return Optional.of(missed);
+    }
+  }
+}
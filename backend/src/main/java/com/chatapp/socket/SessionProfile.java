@@ -0,0 +1,41 @@
+package com.chatapp.socket;
+
+import com.chatapp.entity.User;
+
+/**
+ * Sender details attached to a socket connection at handshake, so per-event handlers never have to
+ * look the user up. Immutable; a profile update replaces the whole instance.
+ */
+public class SessionProfile {
+
+  private final String userId;
+  private final String name;
+  private final String picture;
+
+  public SessionProfile(String userId, String name, String picture) {
+    this.userId = userId;
+    this.name = name;
+    this.picture = picture;
+  }
+
+  public String getUserId() {
+    return userId;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getPicture() {
+    return picture;
+  }
+
+  /** Detached user carrying only what message payloads need; never persisted through JPA. */
+  public User toUser() {
+    User user = new User();
+    user.setId(userId);
+    user.setName(name);
+    user.setPicture(picture);
+    return user;
+  }
+}
@@ -0,0 +1,53 @@
+package com.chatapp.socket;
+
+import com.chatapp.config.JwtConfig;
+import com.chatapp.event.UserProfileUpdatedEvent;
+import com.chatapp.security.JwtUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Builds session profiles from verified token claims. Profiles updated after a token was issued are
+ * remembered for the token lifetime, so reconnecting with an older token still shows the new name.
+ */
+@Component
+public class SessionProfileRegistry {
+
+  @Autowired private JwtUtil jwtUtil;
+
+  @Autowired private JwtConfig jwtConfig;
+
+  private Cache<String, SessionProfile> updatedProfiles;
+
+  @PostConstruct
+  public void init() {
+    updatedProfiles =
+        Caffeine.newBuilder()
+            .maximumSize(100000)
+            .expireAfterWrite(Duration.ofSeconds(jwtConfig.getExpiration()))
+            .build();
+  }
+
+  public SessionProfile fromToken(String token) {
+    Claims claims = jwtUtil.getClaimsFromToken(token);
+    SessionProfile updated = updatedProfiles.getIfPresent(claims.getSubject());
+    if (updated != null) {
+      return updated;
+    }
+    return new SessionProfile(
+        claims.getSubject(), (String) claims.get("name"), (String) claims.get("picture"));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onUserProfileUpdated(UserProfileUpdatedEvent event) {
+    updatedProfiles.put(
+        event.getUserId(),
+        new SessionProfile(event.getUserId(), event.getName(), event.getPicture()));
+  }
+}
@@ -1,51 +1,97 @@
 package com.chatapp.socket;
 
+import com.chatapp.config.RateLimitConfig;
 import com.chatapp.entity.ChatRoom;
 import com.chatapp.entity.Message;
 import com.chatapp.entity.User;
+import com.chatapp.event.MembershipChangedEvent;
+import com.chatapp.event.MessagesImportedEvent;
+import com.chatapp.event.UserProfileUpdatedEvent;
+import com.chatapp.ratelimit.RateLimits;
+import com.chatapp.ratelimit.TokenBucketLimiter;
+import com.chatapp.repository.RoomMemberRepository;
 import com.chatapp.security.JwtUtil;
 import com.chatapp.service.ChatRoomService;
+import com.chatapp.service.MessagePersistencePipeline;
 import com.chatapp.service.MessageService;
-import com.chatapp.service.UserService;
+import com.chatapp.service.PresenceService;
+import com.chatapp.service.ReadCursorService;
+import com.chatapp.service.RoomSequenceAllocator;
+import com.corundumstudio.socketio.AckRequest;
 import com.corundumstudio.socketio.SocketIOClient;
 import com.corundumstudio.socketio.SocketIOServer;
 import com.corundumstudio.socketio.listener.ConnectListener;
 import com.corundumstudio.socketio.listener.DataListener;
 import com.corundumstudio.socketio.listener.DisconnectListener;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 @Component
 public class SocketIOEventHandler {
 
   private static final Logger logger = LoggerFactory.getLogger(SocketIOEventHandler.class);
 
+  private static final String PROFILE_KEY = "profile";
+
   @Autowired private SocketIOServer socketIOServer;
 
+  @Autowired private RoomBroadcaster roomBroadcaster;
+
   @Autowired private JwtUtil jwtUtil;
 
-  @Autowired private UserService userService;
+  @Autowired private SessionProfileRegistry sessionProfileRegistry;
 
   @Autowired private ChatRoomService chatRoomService;
 
   @Autowired private MessageService messageService;
 
-  // Store connected clients
-  private final Map<String, SocketIOClient> connectedClients = new ConcurrentHashMap<>();
-  private final Map<String, String> userRooms = new ConcurrentHashMap<>();
+  @Autowired private MessagePersistencePipeline persistencePipeline;
+
+  @Autowired private RoomSequenceAllocator sequenceAllocator;
+
+  @Autowired private TypingCoalescer typingCoalescer;
+
+  @Autowired private MessageBroadcastBatcher messageBroadcastBatcher;
+
+  @Autowired private RoomEventLog roomEventLog;
+
+  @Autowired private SocketSubscriptions socketSubscriptions;
+
+  @Autowired private RoomMemberRepository roomMemberRepository;
+
+  @Autowired private PresenceService presenceService;
+
+  @Autowired private ClientEventDispatcher dispatcher;
+
+  @Autowired private RateLimits rateLimits;
 
   public void addEventListeners() {
-    socketIOServer.addConnectListener(onConnected());
-    socketIOServer.addDisconnectListener(onDisconnected());
-    socketIOServer.addEventListener("join_room", JoinRoomData.class, onJoinRoom());
-    socketIOServer.addEventListener("leave_room", LeaveRoomData.class, onLeaveRoom());
-    socketIOServer.addEventListener("send_message", SendMessageData.class, onSendMessage());
-    socketIOServer.addEventListener("typing", TypingData.class, onTyping());
+    // Listeners block on the database, so they run in per-client order off the event loop
+    socketIOServer.addConnectListener(dispatcher.dispatchConnect(onConnected()));
+    socketIOServer.addDisconnectListener(dispatcher.dispatchDisconnect(onDisconnected()));
+    socketIOServer.addEventListener(
+        "join_room", JoinRoomData.class, dispatcher.dispatch(onJoinRoom()));
+    socketIOServer.addEventListener(
+        "leave_room", LeaveRoomData.class, dispatcher.dispatch(onLeaveRoom()));
+    socketIOServer.addEventListener(
+        "subscribe_rooms", RoomListData.class, dispatcher.dispatch(onSubscribeRooms()));
+    socketIOServer.addEventListener(
+        "unsubscribe_rooms", RoomListData.class, dispatcher.dispatch(onUnsubscribeRooms()));
+    socketIOServer.addEventListener(
+        "send_message", SendMessageData.class, dispatcher.dispatch(onSendMessage()));
+    socketIOServer.addEventListener("typing", TypingData.class, dispatcher.dispatch(onTyping()));
+    socketIOServer.addEventListener(
+        "mark_read", MarkReadData.class, dispatcher.dispatch(onMarkRead()));
   }
 
   private ConnectListener onConnected() {
@@ -58,9 +104,12 @@ public class SocketIOEventHandler {
         return;
       }
 
-      String userId = jwtUtil.getUserIdFromToken(token);
+      SessionProfile profile = sessionProfileRegistry.fromToken(token);
+      String userId = profile.getUserId();
       client.set("userId", userId);
-      connectedClients.put(userId, client);
+      client.set(PROFILE_KEY, profile);
+      presenceService.connect(userId, client.getSessionId());
+      socketSubscriptions.register(client, userId);
 
       logger.info("User {} connected", userId);
 
@@ -71,20 +120,15 @@ public class SocketIOEventHandler {
 
   private DisconnectListener onDisconnected() {
     return client -> {
+      rateLimits.release(client.getSessionId());
       String userId = client.get("userId");
       if (userId != null) {
-        connectedClients.remove(userId);
-
-        // Leave current room if any
-        String currentRoom = userRooms.get(userId);
-        if (currentRoom != null) {
-          client.leaveRoom(currentRoom);
-          userRooms.remove(userId);
-
-          // Notify others in the room
-          socketIOServer
-              .getRoomOperations(currentRoom)
-              .sendEvent("user_left", Map.of("userId", userId));
+        presenceService.disconnect(userId, client.getSessionId());
+
+        // Drop all subscriptions; only the focused room saw the user as present
+        String focusedRoom = socketSubscriptions.unregister(client);
+        if (focusedRoom != null) {
+          leftRoom(focusedRoom, userId);
         }
 
         logger.info("User {} disconnected", userId);
@@ -92,52 +136,57 @@ public class SocketIOEventHandler {
     };
   }
 
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onUserProfileUpdated(UserProfileUpdatedEvent event) {
+    SessionProfile profile =
+        new SessionProfile(event.getUserId(), event.getName(), event.getPicture());
+    for (UUID sessionId : presenceService.getSessionIds(event.getUserId())) {
+      SocketIOClient client = socketIOServer.getClient(sessionId);
+      if (client != null) {
+        client.set(PROFILE_KEY, profile);
+      }
+    }
+  }
+
   private DataListener<JoinRoomData> onJoinRoom() {
     return (client, data, ackSender) -> {
       String userId = client.get("userId");
       String roomId = data.getRoomId();
 
       try {
-        // Verify user has access to room
-        ChatRoom room = chatRoomService.findById(roomId).orElse(null);
-        if (room == null) {
-          client.sendEvent("error", Map.of("message", "Room not found"));
+        // Check if user is member of the room (cached; members imply the room exists)
+        if (!chatRoomService.isUserMemberOfRoom(userId, roomId)) {
+          boolean roomExists = chatRoomService.findById(roomId).isPresent();
+          client.sendEvent(
+              "error", Map.of("message", roomExists ? "Access denied" : "Room not found"));
           return;
         }
 
-        // Check if user is member of the room
-        if (!chatRoomService.isUserMemberOfRoom(userId, roomId)) {
-          client.sendEvent("error", Map.of("message", "Access denied"));
+        // Focus the room; the previously focused one stays subscribed for activity only
+        SocketSubscriptions.FocusChange focus = socketSubscriptions.focus(client, roomId);
+        if (focus == null) {
+          client.sendEvent("error", Map.of("message", "Too many subscribed rooms"));
           return;
         }
-
-        // Leave previous room if any
-        String previousRoom = userRooms.get(userId);
-        if (previousRoom != null && !previousRoom.equals(roomId)) {
-          client.leaveRoom(previousRoom);
-          socketIOServer
-              .getRoomOperations(previousRoom)
-              .sendEvent("user_left", Map.of("userId", userId));
+        if (focus.getPreviousRoomId() != null) {
+          leftRoom(focus.getPreviousRoomId(), userId);
         }
 
-        // Join new room
-        client.joinRoom(roomId);
-        userRooms.put(userId, roomId);
-
-        User user = userService.findById(userId).orElse(null);
-        if (user != null) {
-          // Notify others in the room
-          socketIOServer
-              .getRoomOperations(roomId)
-              .sendEvent(
-                  "user_joined",
-                  Map.of(
-                      "userId", userId,
-                      "userName", user.getName(),
-                      "userPicture", user.getPicture()));
-        }
+        // Notify others in the room
+        SessionProfile profile = client.get(PROFILE_KEY);
+        roomBroadcaster.sendToRoom(
+            roomId,
+            "user_joined",
+            Map.of(
+                "userId", userId,
+                "userName", profile.getName(),
+                "userPicture", profile.getPicture() != null ? profile.getPicture() : ""));
 
-        client.sendEvent("joined_room", Map.of("roomId", roomId));
+        if (data.getLastSeq() == null) {
+          client.sendEvent("joined_room", Map.of("roomId", roomId));
+        } else {
+          resume(client, roomId, data.getLastSeq());
+        }
         logger.info("User {} joined room {}", userId, roomId);
 
       } catch (Exception e) {
@@ -147,66 +196,214 @@ public class SocketIOEventHandler {
     };
   }
 
+  /**
+   * Replays what a reconnecting client missed since {@code lastSeq} from the room's event log.
+   * With {@code resumed: false} the gap exceeds the log and the client fetches it over REST.
+   */
+  private void resume(SocketIOClient client, String roomId, long lastSeq) {
+    Optional<List<RoomEventLog.Entry>> missed = roomEventLog.replay(roomId, lastSeq);
+    client.sendEvent(
+        "joined_room",
+        Map.of(
+            "roomId", roomId,
+            "resumed", missed.isPresent(),
+            "replayed", missed.map(List::size).orElse(0)));
+    // Live events may overtake the replay since the client already joined; clients dedupe by seq
+    for (RoomEventLog.Entry entry : missed.orElse(List.of())) {
+      client.sendEvent(entry.getEvent(), entry.getPayload());
+    }
+  }
+
   private DataListener<LeaveRoomData> onLeaveRoom() {
     return (client, data, ackSender) -> {
       String userId = client.get("userId");
       String roomId = data.getRoomId();
 
-      if (userRooms.get(userId) != null && userRooms.get(userId).equals(roomId)) {
-        client.leaveRoom(roomId);
-        userRooms.remove(userId);
+      if (roomId != null && socketSubscriptions.unsubscribe(client, roomId)) {
+        leftRoom(roomId, userId);
+        logger.info("User {} left room {}", userId, roomId);
+      }
+    };
+  }
 
-        socketIOServer.getRoomOperations(roomId).sendEvent("user_left", Map.of("userId", userId));
+  /**
+   * Subscribes the connection to {@code room_activity} notifications of the listed rooms without
+   * changing its focused room. Rooms the user is not a member of, or beyond the per-connection
+   * limit, are reported back as rejected.
+   */
+  private DataListener<RoomListData> onSubscribeRooms() {
+    return (client, data, ackSender) -> {
+      String userId = client.get("userId");
+      List<String> subscribed = new ArrayList<>();
+      List<String> rejected = new ArrayList<>();
+      for (String roomId : data.getRoomIds() != null ? data.getRoomIds() : List.<String>of()) {
+        if (chatRoomService.isUserMemberOfRoom(userId, roomId)
+            && socketSubscriptions.subscribe(client, roomId)) {
+          subscribed.add(roomId);
+        } else {
+          rejected.add(roomId);
+        }
+      }
+      client.sendEvent("subscribed", Map.of("roomIds", subscribed, "rejected", rejected));
+    };
+  }
 
-        logger.info("User {} left room {}", userId, roomId);
+  private DataListener<RoomListData> onUnsubscribeRooms() {
+    return (client, data, ackSender) -> {
+      String userId = client.get("userId");
+      for (String roomId : data.getRoomIds() != null ? data.getRoomIds() : List.<String>of()) {
+        if (socketSubscriptions.unsubscribe(client, roomId)) {
+          leftRoom(roomId, userId);
+        }
       }
     };
   }
 
+  /** Drops the subscriptions of users removed from a room, wherever they are connected. */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onMembershipChanged(MembershipChangedEvent event) {
+    String roomId = event.getRoomId();
+    if (socketSubscriptions.getSubscriberCount(roomId) == 0) {
+      return;
+    }
+    for (String userId : event.getUserIds()) {
+      List<SocketIOClient> clients = socketSubscriptions.findSubscribers(roomId, userId);
+      if (clients.isEmpty() || roomMemberRepository.existsByRoomIdAndUserId(roomId, userId)) {
+        continue;
+      }
+      for (SocketIOClient client : clients) {
+        if (socketSubscriptions.unsubscribe(client, roomId)) {
+          leftRoom(roomId, userId);
+        }
+        client.sendEvent("unsubscribed", Map.of("roomIds", List.of(roomId)));
+      }
+    }
+  }
+
+  // The user no longer has the room focused: stop their typing and tell the others
+  private void leftRoom(String roomId, String userId) {
+    typingCoalescer.clear(roomId, userId);
+    roomBroadcaster.sendToRoom(roomId, "user_left", Map.of("userId", userId));
+  }
+
+  /**
+   * Takes a token for an inbound event and applies the overflow policy when there is none: drop,
+   * delay (messages only, and only on a virtual thread where sleeping is cheap) or disconnect.
+   * Dropped messages are reported to the sender; dropped typing events are not worth a frame.
+   */
+  private <K> boolean admit(
+      SocketIOClient client, TokenBucketLimiter<K> limiter, K key, boolean message) {
+    if (!rateLimits.isEnabled()) {
+      return true;
+    }
+    long wait = rateLimits.admit(limiter, key, message);
+    if (wait == TokenBucketLimiter.DENIED) {
+      if (rateLimits.getOverflow() == RateLimitConfig.Overflow.DISCONNECT) {
+        String userId = client.get("userId");
+        logger.warn("Disconnecting user {} for exceeding the rate limit", userId);
+        client.disconnect();
+      } else if (message) {
+        client.sendEvent("error", Map.of("message", "Rate limit exceeded"));
+      }
+      return false;
+    }
+    if (wait > 0) {
+      try {
+        TimeUnit.NANOSECONDS.sleep(wait);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // The explicit room of a send_message or typing event, else the connection's focused room
+  private String targetRoom(SocketIOClient client, String roomId) {
+    return roomId != null ? roomId : socketSubscriptions.getFocusedRoom(client);
+  }
+
   private DataListener<SendMessageData> onSendMessage() {
     return (client, data, ackSender) -> {
       String userId = client.get("userId");
-      String currentRoom = userRooms.get(userId);
+      String currentRoom = targetRoom(client, data.getRoomId());
 
       if (currentRoom == null) {
         client.sendEvent("error", Map.of("message", "Not in any room"));
         return;
       }
 
+      // Before any database access; a flooding client only costs a CAS per event
+      if (!admit(client, rateLimits.connectionMessages(), client.getSessionId(), true)
+          || !admit(client, rateLimits.roomMessages(), currentRoom, true)) {
+        return;
+      }
+
+      // Explicit rooms need not be subscribed, and membership may have been revoked over REST
+      if (!chatRoomService.isUserMemberOfRoom(userId, currentRoom)) {
+        client.sendEvent("error", Map.of("message", "Access denied"));
+        return;
+      }
+
       try {
-        User user = userService.findById(userId).orElse(null);
+        SessionProfile profile = client.get(PROFILE_KEY);
         ChatRoom room = chatRoomService.findById(currentRoom).orElse(null);
 
-        if (user == null || room == null) {
-          client.sendEvent("error", Map.of("message", "Invalid user or room"));
+        if (room == null) {
+          client.sendEvent("error", Map.of("message", "Room not found"));
           return;
         }
 
-        // Create and save message
+        // Create message
         Message message = new Message();
         message.setId(UUID.randomUUID().toString());
         message.setRoom(room);
-        message.setUser(user);
+        message.setUser(profile.toUser());
         message.setContent(data.getContent());
         message.setMessageType(Message.MessageType.valueOf(data.getType()));
         message.setImageUrl(data.getImageUrl());
 
-        Message savedMessage = messageService.createMessage(message);
+        // Numbered only once admitted or inserted, so a rejected message leaves no gap
+        Message savedMessage;
+        if (persistencePipeline.isEnabled()) {
+          // Write-behind: admit into the queue (which numbers the message so the broadcast carries
+          // its seq), broadcast, and ack once the batch is committed
+          message.setCreatedAt(LocalDateTime.now());
+          boolean accepted =
+              persistencePipeline.enqueue(
+                  message, persisted -> onMessagePersisted(client, ackSender, message, persisted));
+          if (!accepted) {
+            client.sendEvent("error", Map.of("message", "Server is busy, please retry"));
+            return;
+          }
+          savedMessage = message;
+        } else {
+          Message created;
+          try {
+            created = messageService.createMessage(message);
+          } catch (RuntimeException e) {
+            // Numbered in the rolled-back transaction
+            if (message.getSeq() != null) {
+              sequenceAllocator.giveBack(currentRoom, message.getSeq());
+            }
+            throw e;
+          }
+          // The saved copy's author is a lazy proxy by now; broadcast the session's author instead
+          message.setCreatedAt(created.getCreatedAt());
+          message.setSeq(created.getSeq());
+          savedMessage = message;
+          chatRoomService.markRead(userId, currentRoom, savedMessage.getSeq());
+          if (ackSender.isAckRequested()) {
+            ackSender.sendAckData(
+                Map.of(
+                    "id", savedMessage.getId(), "seq", savedMessage.getSeq(), "persisted", true));
+          }
+        }
 
         // Broadcast message to all users in the room
-        Map<String, Object> messageData =
-            Map.of(
-                "id", savedMessage.getId(),
-                "roomId", currentRoom,
-                "userId", userId,
-                "userName", user.getName(),
-                "userPicture", user.getPicture() != null ? user.getPicture() : "",
-                "content", savedMessage.getContent(),
-                "type", savedMessage.getMessageType().toString(),
-                "imageUrl", savedMessage.getImageUrl() != null ? savedMessage.getImageUrl() : "",
-                "timestamp", savedMessage.getCreatedAt().toString());
-
-        socketIOServer.getRoomOperations(currentRoom).sendEvent("new_message", messageData);
+        messageBroadcastBatcher.publish(
+            currentRoom, room.getBroadcastBatchMs(), toMessageData(savedMessage));
+        typingCoalescer.clear(currentRoom, userId);
 
         logger.info("Message sent by user {} in room {}", userId, currentRoom);
 
@@ -217,32 +414,96 @@ public class SocketIOEventHandler {
     };
   }
 
+  private void onMessagePersisted(
+      SocketIOClient client, AckRequest ackSender, Message message, boolean persisted) {
+    if (ackSender.isAckRequested()) {
+      ackSender.sendAckData(
+          Map.of("id", message.getId(), "seq", message.getSeq(), "persisted", persisted));
+    }
+    if (persisted) {
+      // Senders have read their own messages
+      chatRoomService.markRead(
+          message.getUser().getId(), message.getRoom().getId(), message.getSeq());
+    } else {
+      client.sendEvent(
+          "error", Map.of("message", "Failed to send message", "messageId", message.getId()));
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onMessagesImported(MessagesImportedEvent event) {
+    if (!event.isLive()) {
+      return;
+    }
+    for (Message message : event.getMessages()) {
+      messageBroadcastBatcher.publish(
+          event.getRoomId(), message.getRoom().getBroadcastBatchMs(), toMessageData(message));
+    }
+  }
+
+  private static Map<String, Object> toMessageData(Message message) {
+    User author = message.getUser();
+    return Map.of(
+        "id", message.getId(),
+        "roomId", message.getRoom().getId(),
+        "userId", author.getId(),
+        "userName", author.getName() != null ? author.getName() : "",
+        "userPicture", author.getPicture() != null ? author.getPicture() : "",
+        "content", message.getContent() != null ? message.getContent() : "",
+        "type", message.getMessageType().toString(),
+        "imageUrl", message.getImageUrl() != null ? message.getImageUrl() : "",
+        "timestamp", message.getCreatedAt().toString(),
+        "seq", message.getSeq());
+  }
+
   private DataListener<TypingData> onTyping() {
     return (client, data, ackSender) -> {
       String userId = client.get("userId");
-      String currentRoom = userRooms.get(userId);
-
-      if (currentRoom != null) {
-        User user = userService.findById(userId).orElse(null);
-        if (user != null) {
-          // Broadcast typing status to others in the room (excluding sender)
-          socketIOServer
-              .getRoomOperations(currentRoom)
-              .sendEvent(
-                  "user_typing",
-                  Map.of(
-                      "userId", userId,
-                      "userName", user.getName(),
-                      "typing", data.isTyping()),
-                  client);
-        }
+      String currentRoom = targetRoom(client, data.getRoomId());
+      if (!admit(client, rateLimits.connectionTyping(), client.getSessionId(), false)) {
+        return;
+      }
+
+      // Subscriptions are dropped when membership is revoked, so they double as the access check
+      if (currentRoom == null || !socketSubscriptions.isSubscribed(client, currentRoom)) {
+        return;
       }
+
+      SessionProfile profile = client.get(PROFILE_KEY);
+      if (typingCoalescer.isEnabled()) {
+        // Only records state; changes go out batched as users_typing on the next tick
+        typingCoalescer.update(currentRoom, userId, profile.getName(), data.isTyping());
+      } else {
+        // Broadcast typing status to others in the room (excluding sender)
+        roomBroadcaster.sendToRoomExcept(
+            currentRoom,
+            "user_typing",
+            Map.of(
+                "userId", userId,
+                "userName", profile.getName(),
+                "typing", data.isTyping()),
+            client);
+      }
+    };
+  }
+
+  private DataListener<MarkReadData> onMarkRead() {
+    return (client, data, ackSender) -> {
+      String userId = client.get("userId");
+      String roomId = data.getRoomId();
+      if (roomId == null || !chatRoomService.isUserMemberOfRoom(userId, roomId)) {
+        return;
+      }
+      // Coalesced in memory; without a seq everything the room holds so far counts as read
+      chatRoomService.markRead(
+          userId, roomId, data.getSeq() != null ? data.getSeq() : ReadCursorService.LATEST);
     };
   }
 
   // Data classes for socket events
   public static class JoinRoomData {
     private String roomId;
+    private Long lastSeq; // set when resuming after a reconnect
 
     public String getRoomId() {
       return roomId;
@@ -251,6 +512,14 @@ public class SocketIOEventHandler {
     public void setRoomId(String roomId) {
       this.roomId = roomId;
     }
+
+    public Long getLastSeq() {
+      return lastSeq;
+    }
+
+    public void setLastSeq(Long lastSeq) {
+      this.lastSeq = lastSeq;
+    }
   }
 
   public static class LeaveRoomData {
@@ -265,11 +534,32 @@ public class SocketIOEventHandler {
     }
   }
 
+  public static class RoomListData {
+    private List<String> roomIds;
+
+    public List<String> getRoomIds() {
+      return roomIds;
+    }
+
+    public void setRoomIds(List<String> roomIds) {
+      this.roomIds = roomIds;
+    }
+  }
+
   public static class SendMessageData {
+    private String roomId; // optional, defaults to the focused room
     private String content;
     private String type;
     private String imageUrl;
 
+    public String getRoomId() {
+      return roomId;
+    }
+
+    public void setRoomId(String roomId) {
+      this.roomId = roomId;
+    }
+
     public String getContent() {
       return content;
     }
@@ -295,9 +585,39 @@ public class SocketIOEventHandler {
     }
   }
 
+  public static class MarkReadData {
+    private String roomId;
+    private Long seq;
+
+    public String getRoomId() {
+      return roomId;
+    }
+
+    public void setRoomId(String roomId) {
+      this.roomId = roomId;
+    }
+
+    public Long getSeq() {
+      return seq;
+    }
+
+    public void setSeq(Long seq) {
+      this.seq = seq;
+    }
+  }
+
   public static class TypingData {
+    private String roomId; // optional, defaults to the focused room
     private boolean typing;
 
+    public String getRoomId() {
+      return roomId;
+    }
+
+    public void setRoomId(String roomId) {
+      this.roomId = roomId;
+    }
+
     public boolean isTyping() {
       return typing;
     }
@@ -0,0 +1,196 @@
+package com.chatapp.socket;
+
+import com.chatapp.config.SubscriptionConfig;
+import com.corundumstudio.socketio.SocketIOClient;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rooms each socket connection is subscribed to. A connection gets full message payloads for the
+ * one room it focuses and only {@code room_activity} notifications for its other rooms, which is
+ * enough to keep a sidebar's unread badges live. Delivery uses socket.io rooms: the room id for
+ * focused clients and {@link #activityRoom} for the rest. Both directions are indexed here: the
+ * rooms of a connection for cleanup on disconnect, the connections of a room for revocations.
+ */
+@Component
+public class SocketSubscriptions {
+
+  private static final String ACTIVITY_PREFIX = "activity:";
+
+  @Autowired private SubscriptionConfig config;
+
+  private final Map<UUID, Connection> connections = new ConcurrentHashMap<>();
+  private final Map<String, Set<UUID>> subscribers = new ConcurrentHashMap<>();
+
+  /** The socket.io room whose members receive only activity notifications for {@code roomId}. */
+  public static String activityRoom(String roomId) {
+    return ACTIVITY_PREFIX + roomId;
+  }
+
+  public void register(SocketIOClient client, String userId) {
+    connections.put(client.getSessionId(), new Connection(client, userId));
+  }
+
+  /** Drops a connection and all its subscriptions; returns the room it focused, or null. */
+  public String unregister(SocketIOClient client) {
+    Connection connection = connections.remove(client.getSessionId());
+    if (connection == null) {
+      return null;
+    }
+    synchronized (connection) {
+      for (String roomId : connection.rooms) {
+        removeSubscriber(roomId, client.getSessionId());
+      }
+      connection.rooms.clear();
+      String focused = connection.focused;
+      connection.focused = null;
+      return focused;
+    }
+  }
+
+  /** Subscribes to a room's activity; false if the connection is at its room limit. */
+  public boolean subscribe(SocketIOClient client, String roomId) {
+    Connection connection = connections.get(client.getSessionId());
+    if (connection == null) {
+      return false;
+    }
+    synchronized (connection) {
+      if (connection.rooms.contains(roomId)) {
+        return true;
+      }
+      if (connection.rooms.size() >= config.getMaxRoomsPerConnection()) {
+        return false;
+      }
+      connection.rooms.add(roomId);
+      subscribers
+          .computeIfAbsent(roomId, id -> ConcurrentHashMap.newKeySet())
+          .add(client.getSessionId());
+      client.joinRoom(activityRoom(roomId));
+      return true;
+    }
+  }
+
+  /**
+   * Makes {@code roomId} the connection's focused room, subscribing to it if needed; the
+   * previously focused room drops back to activity notifications. Returns the previous focus, or
+   * null. Fails like {@link #subscribe} when the room limit is reached.
+   */
+  public FocusChange focus(SocketIOClient client, String roomId) {
+    Connection connection = connections.get(client.getSessionId());
+    if (connection == null || !subscribe(client, roomId)) {
+      return null;
+    }
+    synchronized (connection) {
+      String previous = connection.focused;
+      if (roomId.equals(previous)) {
+        return new FocusChange(null);
+      }
+      if (previous != null) {
+        client.leaveRoom(previous);
+        client.joinRoom(activityRoom(previous));
+      }
+      client.leaveRoom(activityRoom(roomId));
+      client.joinRoom(roomId);
+      connection.focused = roomId;
+      return new FocusChange(previous);
+    }
+  }
+
+  /** Removes a subscription; returns true if it was the focused room. */
+  public boolean unsubscribe(SocketIOClient client, String roomId) {
+    Connection connection = connections.get(client.getSessionId());
+    if (connection == null) {
+      return false;
+    }
+    synchronized (connection) {
+      if (!connection.rooms.remove(roomId)) {
+        return false;
+      }
+      removeSubscriber(roomId, client.getSessionId());
+      client.leaveRoom(activityRoom(roomId));
+      boolean focused = roomId.equals(connection.focused);
+      if (focused) {
+        client.leaveRoom(roomId);
+        connection.focused = null;
+      }
+      return focused;
+    }
+  }
+
+  public boolean isSubscribed(SocketIOClient client, String roomId) {
+    Connection connection = connections.get(client.getSessionId());
+    if (connection == null) {
+      return false;
+    }
+    synchronized (connection) {
+      return connection.rooms.contains(roomId);
+    }
+  }
+
+  public String getFocusedRoom(SocketIOClient client) {
+    Connection connection = connections.get(client.getSessionId());
+    return connection == null ? null : connection.focused;
+  }
+
+  /** Connections of {@code userId} subscribed to {@code roomId}, found via the room's index. */
+  public List<SocketIOClient> findSubscribers(String roomId, String userId) {
+    Set<UUID> sessionIds = subscribers.get(roomId);
+    if (sessionIds == null) {
+      return List.of();
+    }
+    List<SocketIOClient> clients = new ArrayList<>();
+    for (UUID sessionId : sessionIds) {
+      Connection connection = connections.get(sessionId);
+      if (connection != null && connection.userId.equals(userId)) {
+        clients.add(connection.client);
+      }
+    }
+    return clients;
+  }
+
+  public int getSubscriberCount(String roomId) {
+    Set<UUID> sessionIds = subscribers.get(roomId);
+    return sessionIds == null ? 0 : sessionIds.size();
+  }
+
+  private void removeSubscriber(String roomId, UUID sessionId) {
+    subscribers.computeIfPresent(
+        roomId,
+        (id, sessionIds) -> {
+          sessionIds.remove(sessionId);
+          return sessionIds.isEmpty() ? null : sessionIds;
+        });
+  }
+
+  /** Result of {@link #focus}: the room that lost focus, if any. */
+  public static final class FocusChange {
+    private final String previousRoomId;
+
+    FocusChange(String previousRoomId) {
+      this.previousRoomId = previousRoomId;
+    }
+
+    public String getPreviousRoomId() {
+      return previousRoomId;
+    }
+  }
+
+  private static final class Connection {
+    private final SocketIOClient client;
+    private final String userId;
+    private final Set<String> rooms = new LinkedHashSet<>();
+    private volatile String focused;
+
+    Connection(SocketIOClient client, String userId) {
+      this.client = client;
+      this.userId = userId;
+    }
+  }
+}
@@ -0,0 +1,164 @@
+package com.chatapp.socket;
+
+import com.chatapp.config.TypingConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Coalesces typing notifications per room. Incoming {@code typing} events only update in-memory
+ * state; once per tick every room whose typers changed gets a single {@code users_typing} event
+ * listing who started and who stopped. Typers that stop sending events expire on their own, so
+ * clients never have to send an explicit stop.
+ */
+@Component
+public class TypingCoalescer {
+
+  private static final Logger logger = LoggerFactory.getLogger(TypingCoalescer.class);
+
+  static final String EVENT = "users_typing";
+
+  @Autowired private TypingConfig config;
+
+  @Autowired private RoomBroadcaster roomBroadcaster;
+
+  private final Map<String, RoomTyping> rooms = new ConcurrentHashMap<>();
+  private ScheduledExecutorService ticker;
+
+  @PostConstruct
+  public void start() {
+    ticker =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "typing-coalescer");
+              thread.setDaemon(true);
+              return thread;
+            });
+    ticker.scheduleAtFixedRate(
+        this::tick, config.getTickMs(), config.getTickMs(), TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void stop() {
+    ticker.shutdownNow();
+  }
+
+  public boolean isEnabled() {
+    return config.isCoalesce();
+  }
+
+  public void update(String roomId, String userId, String userName, boolean typing) {
+    if (typing) {
+      rooms.computeIfAbsent(roomId, id -> new RoomTyping()).touch(userId, userName);
+    } else {
+      clear(roomId, userId);
+    }
+  }
+
+  /** Marks a user as no longer typing, e.g. after sending a message or leaving the room. */
+  public void clear(String roomId, String userId) {
+    RoomTyping room = rooms.get(roomId);
+    if (room != null) {
+      room.stop(userId);
+    }
+  }
+
+  void tick() {
+    long now = System.currentTimeMillis();
+    for (Map.Entry<String, RoomTyping> entry : rooms.entrySet()) {
+      String roomId = entry.getKey();
+      RoomTyping room = entry.getValue();
+      try {
+        Map<String, Object> change = room.drain(now, config.getExpireMs());
+        if (change != null) {
+          change.put("roomId", roomId);
+          roomBroadcaster.sendToRoom(roomId, EVENT, change);
+        }
+        // Drop idle rooms; a concurrent touch re-creates the entry
+        rooms.computeIfPresent(roomId, (id, current) -> current.isEmpty() ? null : current);
+      } catch (RuntimeException e) {
+        logger.warn("Failed to emit typing state for room {}", roomId, e);
+      }
+    }
+  }
+
+  /** Typing state of one room; {@code announced} tracks what the room has already been told. */
+  private static final class RoomTyping {
+    private final Map<String, Typer> typers = new LinkedHashMap<>();
+
+    synchronized void touch(String userId, String userName) {
+      Typer typer = typers.computeIfAbsent(userId, id -> new Typer());
+      typer.userName = userName;
+      typer.lastSeen = System.currentTimeMillis();
+      typer.typing = true;
+    }
+
+    synchronized void stop(String userId) {
+      Typer typer = typers.get(userId);
+      if (typer != null) {
+        typer.typing = false;
+      }
+    }
+
+    synchronized boolean isEmpty() {
+      return typers.isEmpty();
+    }
+
+    /** Returns the changes since the previous tick, or null if nothing visible changed. */
+    synchronized Map<String, Object> drain(long now, long expireMs) {
+      List<Map<String, String>> started = new ArrayList<>();
+      List<String> stopped = new ArrayList<>();
+
+      Iterator<Map.Entry<String, Typer>> it = typers.entrySet().iterator();
+      while (it.hasNext()) {
+        Map.Entry<String, Typer> entry = it.next();
+        Typer typer = entry.getValue();
+        if (typer.typing && now - typer.lastSeen > expireMs) {
+          typer.typing = false;
+        }
+        if (typer.typing) {
+          if (!typer.announced) {
+            typer.announced = true;
+            started.add(
+                Map.of(
+                    "userId", entry.getKey(),
+                    "userName", typer.userName != null ? typer.userName : ""));
+          }
+        } else {
+          // Users that started and stopped within one tick are never announced
+          if (typer.announced) {
+            stopped.add(entry.getKey());
+          }
+          it.remove();
+        }
+      }
+
+      if (started.isEmpty() && stopped.isEmpty()) {
+        return null;
+      }
+      Map<String, Object> change = new LinkedHashMap<>();
+      change.put("started", started);
+      change.put("stopped", stopped);
+      return change;
+    }
+  }
+
+  private static final class Typer {
+    private String userName;
+    private long lastSeen;
+    private boolean typing;
+    private boolean announced;
+  }
+}
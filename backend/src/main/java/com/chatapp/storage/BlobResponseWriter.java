@@ -0,0 +1,156 @@
+package com.chatapp.storage;
+
+import com.chatapp.config.StorageConfig;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Writes blobs to HTTP responses. Answers conditional requests from the blob's ETag and
+ * Last-Modified without touching its content, serves single byte ranges, and marks
+ * content-addressed blobs as immutable so browsers never ask for them again. Blobs in local files
+ * are sent with Tomcat's sendfile support when the container offers it (the kernel copies the file
+ * to the socket after the handler returns), otherwise through {@link FileChannel#transferTo}.
+ */
+@Component
+public class BlobResponseWriter {
+
+  // Request attributes of Tomcat's sendfile support (see Tomcat's DefaultServlet)
+  private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+  private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+  private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+  private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+  private static final String IMMUTABLE =
+      CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable().getHeaderValue();
+  private static final String REVALIDATE = CacheControl.noCache().cachePublic().getHeaderValue();
+
+  @Autowired private BlobStore blobStore;
+
+  @Autowired private StorageConfig config;
+
+  /**
+   * Writes {@code blob} (or the requested range of it) to the response. Sends 304/412 when the
+   * request's preconditions say so and 416 for a range outside the blob.
+   */
+  public void write(StoredBlob blob, HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    response.setHeader(HttpHeaders.CACHE_CONTROL, blob.isImmutable() ? IMMUTABLE : REVALIDATE);
+    response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+    // Also sets the ETag and Last-Modified headers
+    if (new ServletWebRequest(request, response)
+        .checkNotModified(blob.getEtag(), blob.getCreatedAt().toEpochMilli())) {
+      return;
+    }
+
+    long length = blob.getSize();
+    long start = 0;
+    long end = length - 1;
+    HttpRange range = requestedRange(blob, request);
+    if (range != null) {
+      // Checked here: HttpRange does not reject a first position past the end for every form
+      try {
+        start = range.getRangeStart(length);
+        end = Math.min(range.getRangeEnd(length), length - 1);
+      } catch (IllegalArgumentException e) {
+        start = length;
+      }
+      if (start >= length || start > end) {
+        response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+        return;
+      }
+      response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+      response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+    }
+
+    long count = end - start + 1;
+    response.setContentType(blob.getContentType());
+    response.setContentLengthLong(count);
+    response.setHeader(
+        HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + blob.getId() + "\"");
+    if (count <= 0 || "HEAD".equals(request.getMethod())) {
+      return;
+    }
+
+    Optional<Path> file = blobStore.localFile(blob.getId());
+    if (file.isEmpty()) {
+      try (InputStream content = blobStore.open(blob.getId())) {
+        StreamUtils.copyRange(content, response.getOutputStream(), start, end);
+      }
+    } else if (count >= config.getSendfileMinBytes()
+        && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+      request.setAttribute(SENDFILE_FILENAME, file.get().toString());
+      request.setAttribute(SENDFILE_START, start);
+      request.setAttribute(SENDFILE_END, end + 1);
+    } else {
+      transfer(file.get(), start, count, response);
+    }
+  }
+
+  private static void transfer(Path file, long start, long count, HttpServletResponse response)
+      throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+      long position = start;
+      long remaining = count;
+      while (remaining > 0) {
+        long sent = channel.transferTo(position, remaining, out);
+        if (sent <= 0) {
+          break; // the file is shorter than its metadata says
+        }
+        position += sent;
+        remaining -= sent;
+      }
+    }
+  }
+
+  /**
+   * Returns the single range to serve, or null for the whole blob. Multiple ranges are answered
+   * with the whole blob, as are malformed headers and ranges whose If-Range no longer matches.
+   */
+  private static HttpRange requestedRange(StoredBlob blob, HttpServletRequest request) {
+    String header = request.getHeader(HttpHeaders.RANGE);
+    if (header == null || blob.getSize() == 0 || !ifRangeMatches(blob, request)) {
+      return null;
+    }
+    try {
+      List<HttpRange> ranges = HttpRange.parseRanges(header);
+      return ranges.size() == 1 ? ranges.get(0) : null;
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static boolean ifRangeMatches(StoredBlob blob, HttpServletRequest request) {
+    String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+    if (ifRange == null) {
+      return true;
+    }
+    if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+      return ifRange.equals(blob.getEtag()); // weak tags never match
+    }
+    try {
+      long since = request.getDateHeader(HttpHeaders.IF_RANGE);
+      return since / 1000 == blob.getCreatedAt().getEpochSecond();
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package com.chatapp.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Content-addressed storage for uploaded files. A blob's id is derived from the SHA-256 of its
+ * bytes, so storing the same content twice yields the same id and a single stored copy, and URLs
+ * built from the id never change. The store records which owners uploaded each blob; an owner's
+ * delete only drops their own reference, and the blob goes once nobody references it.
+ */
+public interface BlobStore {
+
+  /**
+   * Streams {@code content} into the store on behalf of {@code ownerId} and returns the blob
+   * holding it, which may be one stored earlier. The stream is read to the end but not closed.
+   */
+  StoredBlob put(InputStream content, String contentType, String ownerId) throws IOException;
+
+  Optional<StoredBlob> find(String id) throws IOException;
+
+  /** Opens a blob's content; the caller closes the stream. */
+  InputStream open(String id) throws IOException;
+
+  /**
+   * Returns the local file holding a blob, if this store keeps blobs on the local filesystem, so
+   * that it can be handed to the container or the kernel instead of being copied through a stream.
+   */
+  Optional<Path> localFile(String id);
+
+  /**
+   * Drops {@code ownerId}'s reference to a blob and deletes the blob if that was the last one;
+   * returns false if the owner held no reference to it.
+   */
+  boolean delete(String id, String ownerId) throws IOException;
+}
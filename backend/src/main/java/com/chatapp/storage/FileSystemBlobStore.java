@@ -0,0 +1,276 @@
+package com.chatapp.storage;
+
+import com.chatapp.config.StorageConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link BlobStore} on the local filesystem. Uploads are hashed while they are written to a temp
+ * file and then renamed to {@code blobs/<first two hex digits>/<sha256>}; the rename is atomic, so
+ * readers never see a partial blob and concurrent uploads of the same content leave one identical
+ * file. The content type sits next to the blob in a small metadata file, and each uploader holds
+ * a reference as an empty file under {@code <sha256>.refs/}; the blob is unlinked with the last
+ * reference. Publishing a blob and dropping a reference happen under a per-digest lock, so a
+ * re-upload cannot lose its blob to a concurrent delete on this node. Files written by earlier
+ * versions under random names in the root directory, and blobs stored before references were kept,
+ * are still served but have no owner who could delete them. Metadata of recently served blobs is
+ * cached, so repeated downloads touch the disk only to send the content.
+ */
+@Component
+@ConditionalOnProperty(
+    prefix = "chat.storage",
+    name = "type",
+    havingValue = "filesystem",
+    matchIfMissing = true)
+public class FileSystemBlobStore implements BlobStore {
+
+  private static final Pattern BLOB_ID = Pattern.compile("([0-9a-f]{64})(\\.[a-z0-9]{1,8})?");
+  private static final Pattern LEGACY_NAME = Pattern.compile("[A-Za-z0-9._-]+");
+  private static final String METADATA_SUFFIX = ".meta";
+  private static final String REFERENCES_SUFFIX = ".refs";
+  private static final int LOCK_STRIPES = 64;
+  private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+  private static final Map<String, String> EXTENSIONS =
+      Map.of(
+          "image/jpeg", ".jpg",
+          "image/png", ".png",
+          "image/gif", ".gif",
+          "image/webp", ".webp");
+
+  private static final Map<String, String> CONTENT_TYPES =
+      Map.of(
+          ".jpg", "image/jpeg",
+          ".jpeg", "image/jpeg",
+          ".png", "image/png",
+          ".gif", "image/gif",
+          ".webp", "image/webp");
+
+  @Autowired private StorageConfig config;
+
+  private Path root;
+  private Path blobs;
+  private Path temp;
+  private Cache<String, StoredBlob> metadata;
+  // Not monitors: holders wait on disk I/O, which must not pin virtual threads
+  private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+  @PostConstruct
+  public void init() throws IOException {
+    for (int i = 0; i < locks.length; i++) {
+      locks[i] = new ReentrantLock();
+    }
+    metadata = Caffeine.newBuilder().maximumSize(config.getMetadataCacheSize()).build();
+    root = Paths.get(config.getDirectory()).toAbsolutePath().normalize();
+    blobs = root.resolve("blobs");
+    // Same filesystem as the blobs, so the final rename is a plain atomic rename
+    temp = root.resolve("tmp");
+    Files.createDirectories(blobs);
+    Files.createDirectories(temp);
+  }
+
+  @Override
+  public StoredBlob put(InputStream content, String contentType, String ownerId)
+      throws IOException {
+    Path upload = Files.createTempFile(temp, "upload-", ".part");
+    try {
+      MessageDigest sha256 = newDigest();
+      long size;
+      try (OutputStream out = new DigestOutputStream(Files.newOutputStream(upload), sha256)) {
+        size = content.transferTo(out);
+      }
+      String digest = HexFormat.of().formatHex(sha256.digest());
+
+      Path target = blobPath(digest);
+      ReentrantLock lock = lockFor(digest);
+      lock.lock();
+      try {
+        if (Files.notExists(target)) {
+          Files.createDirectories(target.getParent());
+          // Metadata first: a blob that is visible always has its content type
+          writeMetadata(digest, contentType);
+          Files.move(upload, target, StandardCopyOption.ATOMIC_MOVE);
+        }
+        // Otherwise a duplicate: the temp file is dropped and the existing blob reused
+        addReference(digest, ownerId);
+      } finally {
+        lock.unlock();
+      }
+      String id = digest + EXTENSIONS.getOrDefault(contentType, "");
+      StoredBlob blob =
+          new StoredBlob(id, size, readContentType(digest, id), lastModified(target), true);
+      metadata.put(id, blob);
+      return blob;
+    } finally {
+      Files.deleteIfExists(upload);
+    }
+  }
+
+  @Override
+  public Optional<StoredBlob> find(String id) throws IOException {
+    StoredBlob cached = metadata.getIfPresent(id);
+    if (cached != null) {
+      return Optional.of(cached);
+    }
+    Path path = resolve(id);
+    if (path == null || !Files.isRegularFile(path)) {
+      return Optional.empty();
+    }
+    Matcher matcher = BLOB_ID.matcher(id);
+    boolean contentAddressed = matcher.matches();
+    String contentType =
+        contentAddressed ? readContentType(matcher.group(1), id) : contentTypeOf(id);
+    StoredBlob blob =
+        new StoredBlob(id, Files.size(path), contentType, lastModified(path), contentAddressed);
+    metadata.put(id, blob);
+    return Optional.of(blob);
+  }
+
+  @Override
+  public InputStream open(String id) throws IOException {
+    Path path = resolve(id);
+    if (path == null) {
+      throw new NoSuchFileException(id);
+    }
+    return Files.newInputStream(path);
+  }
+
+  @Override
+  public Optional<Path> localFile(String id) {
+    return Optional.ofNullable(resolve(id));
+  }
+
+  @Override
+  public boolean delete(String id, String ownerId) throws IOException {
+    Matcher matcher = BLOB_ID.matcher(id);
+    if (!matcher.matches()) {
+      return false; // legacy files have no uploaders on record
+    }
+    String digest = matcher.group(1);
+    ReentrantLock lock = lockFor(digest);
+    lock.lock();
+    try {
+      Path references = referencesPath(digest);
+      if (!Files.deleteIfExists(references.resolve(referenceName(ownerId)))) {
+        return false;
+      }
+      try (Stream<Path> remaining = Files.list(references)) {
+        if (remaining.findAny().isPresent()) {
+          return true; // still shared with other uploaders
+        }
+      }
+      Files.deleteIfExists(blobPath(digest));
+      Files.deleteIfExists(metadataPath(digest));
+      Files.deleteIfExists(references);
+    } finally {
+      lock.unlock();
+    }
+    // The same bytes may also be cached under another extension
+    for (String extension : EXTENSIONS.values()) {
+      metadata.invalidate(digest + extension);
+    }
+    metadata.invalidate(digest);
+    return true;
+  }
+
+  // Blob ids map to the digest path, legacy names to the root; anything else is rejected
+  private Path resolve(String id) {
+    Matcher matcher = BLOB_ID.matcher(id);
+    if (matcher.matches()) {
+      return blobPath(matcher.group(1));
+    }
+    if (LEGACY_NAME.matcher(id).matches() && !id.startsWith(".")) {
+      return root.resolve(id);
+    }
+    return null;
+  }
+
+  private Path blobPath(String digest) {
+    return blobs.resolve(digest.substring(0, 2)).resolve(digest);
+  }
+
+  private Path metadataPath(String digest) {
+    return blobs.resolve(digest.substring(0, 2)).resolve(digest + METADATA_SUFFIX);
+  }
+
+  private Path referencesPath(String digest) {
+    return blobs.resolve(digest.substring(0, 2)).resolve(digest + REFERENCES_SUFFIX);
+  }
+
+  private void addReference(String digest, String ownerId) throws IOException {
+    Path references = Files.createDirectories(referencesPath(digest));
+    // Left as is if this owner uploaded the content before: one reference covers every upload
+    Files.write(references.resolve(referenceName(ownerId)), new byte[0]);
+  }
+
+  // Owner ids are hashed so that any id makes a safe file name
+  private static String referenceName(String ownerId) {
+    return HexFormat.of().formatHex(newDigest().digest(ownerId.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private ReentrantLock lockFor(String digest) {
+    return locks[Integer.parseInt(digest.substring(0, 2), 16) % locks.length];
+  }
+
+  private void writeMetadata(String digest, String contentType) throws IOException {
+    Path metadata = metadataPath(digest);
+    Path written = Files.createTempFile(temp, "meta-", ".part");
+    try {
+      Files.writeString(written, contentType != null ? contentType : "", StandardCharsets.UTF_8);
+      Files.move(written, metadata, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(written);
+    }
+  }
+
+  private String readContentType(String digest, String id) throws IOException {
+    try {
+      String stored = Files.readString(metadataPath(digest), StandardCharsets.UTF_8).strip();
+      return stored.isEmpty() ? contentTypeOf(id) : stored;
+    } catch (NoSuchFileException e) {
+      return contentTypeOf(id);
+    }
+  }
+
+  private static String contentTypeOf(String name) {
+    int dot = name.lastIndexOf('.');
+    String extension = dot < 0 ? "" : name.substring(dot).toLowerCase();
+    return CONTENT_TYPES.getOrDefault(extension, DEFAULT_CONTENT_TYPE);
+  }
+
+  private static Instant lastModified(Path path) throws IOException {
+    return Files.getLastModifiedTime(path).toInstant();
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package com.chatapp.storage;
+
+import java.time.Instant;
+
+/** Metadata of a stored blob. */
+public class StoredBlob {
+
+  private final String id;
+  private final long size;
+  private final String contentType;
+  private final Instant createdAt;
+  private final boolean immutable; // the id is derived from the content
+
+  public StoredBlob(
+      String id, long size, String contentType, Instant createdAt, boolean immutable) {
+    this.id = id;
+    this.size = size;
+    this.contentType = contentType;
+    this.createdAt = createdAt;
+    this.immutable = immutable;
+  }
+
+  /**
+   * Hex SHA-256 of the content plus a file extension, usable as a file name in URLs. Files
+   * uploaded before blobs were content-addressed keep their old names and are not immutable.
+   */
+  public String getId() {
+    return id;
+  }
+
+  public long getSize() {
+    return size;
+  }
+
+  public String getContentType() {
+    return contentType;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public boolean isImmutable() {
+    return immutable;
+  }
+
+  /** Strong entity tag: the id itself for content-addressed blobs, else size and mtime. */
+  public String getEtag() {
+    if (immutable) {
+      return "\"" + id + "\"";
+    }
+    return "\"" + Long.toHexString(size) + "-" + Long.toHexString(createdAt.toEpochMilli()) + "\"";
+  }
+}
@@ -0,0 +1,25 @@
+package com.chatapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.corundumstudio.socketio.AckMode;
+import com.corundumstudio.socketio.SocketIOServer;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class SocketIOConfigTest {
+
+  @Test
+  void socketIOServer_ShouldLeaveAcksToHandlers() {
+    SocketIOConfig socketIOConfig = new SocketIOConfig();
+    ReflectionTestUtils.setField(socketIOConfig, "hostname", "localhost");
+    ReflectionTestUtils.setField(socketIOConfig, "port", 0);
+    ReflectionTestUtils.setField(socketIOConfig, "allowedOrigins", "http://localhost:3000");
+
+    // Built but never started
+    SocketIOServer server = socketIOConfig.socketIOServer();
+
+    // AUTO_SUCCESS_ONLY would send an empty ack before the write-behind batch commits
+    assertThat(server.getConfiguration().getAckMode()).isEqualTo(AckMode.MANUAL);
+  }
+}
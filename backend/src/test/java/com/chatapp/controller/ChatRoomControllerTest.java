@@ -10,11 +10,14 @@ import com.chatapp.entity.RoomMember;
 import com.chatapp.entity.User;
 import com.chatapp.security.JwtUtil;
 import com.chatapp.service.ChatRoomService;
+import com.chatapp.service.PresenceService;
+import com.chatapp.service.ReadCursorService;
 import com.chatapp.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -41,6 +44,8 @@ class ChatRoomControllerTest {
 
   @MockBean private UserService userService;
 
+  @MockBean private PresenceService presenceService;
+
   @MockBean private JwtUtil jwtUtil;
 
   private User testUser;
@@ -111,6 +116,24 @@ class ChatRoomControllerTest {
     verify(chatRoomService).findByUserId("test-user-id");
   }
 
+  @Test
+  void getMyRooms_ShouldIncludeUnreadCounts() throws Exception {
+    // Given
+    mockValidToken();
+    testRoom.setLastSeq(120L);
+    testRoom.setLastReadSeq(115L);
+    testRoom.setUnreadCount(5L);
+    when(chatRoomService.findByUserId("test-user-id")).thenReturn(List.of(testRoom));
+
+    // When & Then
+    mockMvc
+        .perform(get("/api/rooms/my").header("Authorization", "Bearer valid-token"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].lastSeq").value(120))
+        .andExpect(jsonPath("$[0].lastReadSeq").value(115))
+        .andExpect(jsonPath("$[0].unreadCount").value(5));
+  }
+
   @Test
   void getMyRooms_InvalidToken_ShouldReturnUnauthorized() throws Exception {
     // Given
@@ -250,6 +273,24 @@ class ChatRoomControllerTest {
     verify(chatRoomService).updateRoom(any(ChatRoom.class));
   }
 
+  @Test
+  void updateRoom_BroadcastBatchTooLong_ShouldReturnBadRequest() throws Exception {
+    // Given
+    mockValidToken();
+    updateRoomRequest.setBroadcastBatchMs(5000);
+
+    // When & Then
+    mockMvc
+        .perform(
+            put("/api/rooms/test-room-id")
+                .header("Authorization", "Bearer valid-token")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updateRoomRequest)))
+        .andExpect(status().isBadRequest());
+
+    verify(chatRoomService, never()).updateRoom(any(ChatRoom.class));
+  }
+
   @Test
   void updateRoom_NotOwner_ShouldReturnForbidden() throws Exception {
     // Given
@@ -390,6 +431,91 @@ class ChatRoomControllerTest {
     verify(chatRoomService, never()).getRoomMembers(anyString());
   }
 
+  @Test
+  void getOnlineMembers_Member_ShouldAnswerFromPresence() throws Exception {
+    // Given
+    mockValidToken();
+    when(chatRoomService.isUserMemberOfRoom("test-user-id", "test-room-id")).thenReturn(true);
+    when(presenceService.getOnlineUserIds("test-room-id")).thenReturn(Set.of("test-user-id"));
+
+    // When & Then
+    mockMvc
+        .perform(
+            get("/api/rooms/test-room-id/online").header("Authorization", "Bearer valid-token"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0]").value("test-user-id"));
+
+    verify(chatRoomService, never()).findById(anyString());
+  }
+
+  @Test
+  void getOnlineMembers_PrivateRoomNoAccess_ShouldReturnForbidden() throws Exception {
+    // Given
+    mockValidToken();
+    testRoom.setIsPrivate(true);
+    when(chatRoomService.findById("test-room-id")).thenReturn(Optional.of(testRoom));
+    when(chatRoomService.isUserMemberOfRoom("test-user-id", "test-room-id")).thenReturn(false);
+
+    // When & Then
+    mockMvc
+        .perform(
+            get("/api/rooms/test-room-id/online").header("Authorization", "Bearer valid-token"))
+        .andExpect(status().isForbidden());
+
+    verify(presenceService, never()).getOnlineUserIds(anyString());
+  }
+
+  @Test
+  void markRead_Member_ShouldRecordCursor() throws Exception {
+    // Given
+    mockValidToken();
+    when(chatRoomService.isUserMemberOfRoom("test-user-id", "test-room-id")).thenReturn(true);
+
+    // When & Then
+    mockMvc
+        .perform(
+            put("/api/rooms/test-room-id/read")
+                .header("Authorization", "Bearer valid-token")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"seq\": 42}"))
+        .andExpect(status().isNoContent());
+
+    verify(chatRoomService).markRead("test-user-id", "test-room-id", 42L);
+  }
+
+  @Test
+  void markRead_WithoutSeq_ShouldMarkEverythingRead() throws Exception {
+    // Given
+    mockValidToken();
+    when(chatRoomService.isUserMemberOfRoom("test-user-id", "test-room-id")).thenReturn(true);
+
+    // When & Then
+    mockMvc
+        .perform(
+            put("/api/rooms/test-room-id/read").header("Authorization", "Bearer valid-token"))
+        .andExpect(status().isNoContent());
+
+    verify(chatRoomService).markRead("test-user-id", "test-room-id", ReadCursorService.LATEST);
+  }
+
+  @Test
+  void markRead_NotMember_ShouldReturnForbidden() throws Exception {
+    // Given
+    mockValidToken();
+    when(chatRoomService.isUserMemberOfRoom("test-user-id", "test-room-id")).thenReturn(false);
+
+    // When & Then
+    mockMvc
+        .perform(
+            put("/api/rooms/test-room-id/read")
+                .header("Authorization", "Bearer valid-token")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"seq\": 42}"))
+        .andExpect(status().isForbidden());
+
+    verify(chatRoomService, never()).markRead(anyString(), anyString(), anyLong());
+  }
+
   @Test
   void searchPublicRooms_ShouldReturnMatchingRooms() throws Exception {
     // Given
@@ -405,6 +531,20 @@ class ChatRoomControllerTest {
     verify(chatRoomService).searchPublicRooms(eq("Test"), any(Pageable.class));
   }
 
+  @Test
+  void autocompleteRooms_ShouldReturnSuggestions() throws Exception {
+    // Given
+    when(chatRoomService.autocompleteRooms("Te", 5)).thenReturn(Arrays.asList(testRoom));
+
+    // When & Then
+    mockMvc
+        .perform(get("/api/rooms/autocomplete").param("q", "Te").param("limit", "5"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].id").value("test-room-id"));
+
+    verify(chatRoomService).autocompleteRooms("Te", 5);
+  }
+
   @Test
   void deleteRoom_Owner_ShouldDeleteRoom() throws Exception {
     // Given
@@ -1,13 +1,22 @@
 package com.chatapp.controller;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.chatapp.security.JwtUtil;
+import com.chatapp.storage.BlobResponseWriter;
+import com.chatapp.storage.BlobStore;
+import com.chatapp.storage.StoredBlob;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,18 +25,40 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.context.ContextConfiguration;
+import com.chatapp.config.StorageConfig;
 import com.chatapp.config.TestSecurityConfig;
 
 @WebMvcTest(FileUploadController.class)
-@ContextConfiguration(classes = {FileUploadController.class, TestSecurityConfig.class})
+@ContextConfiguration(
+    classes = {
+      FileUploadController.class,
+      BlobResponseWriter.class,
+      StorageConfig.class,
+      TestSecurityConfig.class
+    })
 class FileUploadControllerTest {
 
   @Autowired private MockMvc mockMvc;
 
   @MockBean private JwtUtil jwtUtil;
 
+  @MockBean private BlobStore blobStore;
+
+  private static final String DIGEST =
+      "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
   @BeforeEach
-  void setUp() {
+  void setUp() throws Exception {
+    when(blobStore.put(any(InputStream.class), anyString(), anyString()))
+        .thenAnswer(
+            invocation ->
+                new StoredBlob(
+                    DIGEST + "." + invocation.getArgument(1, String.class).substring(6),
+                    18,
+                    invocation.getArgument(1),
+                    Instant.now(),
+                    true));
+
     // Create test upload directory
     try {
       String uploadDir = System.getProperty("java.io.tmpdir") + "/uploads";
@@ -64,6 +95,31 @@ class FileUploadControllerTest {
     verify(jwtUtil).getUserIdFromToken("valid-token");
   }
 
+  @Test
+  void uploadImage_SameContentTwice_ShouldReturnSameUrl() throws Exception {
+    // Given
+    mockValidToken();
+    MockMultipartFile first =
+        new MockMultipartFile("file", "meme.png", "image/png", "test image content".getBytes());
+    MockMultipartFile repost =
+        new MockMultipartFile("file", "repost.png", "image/png", "test image content".getBytes());
+
+    // When & Then
+    for (MockMultipartFile file : new MockMultipartFile[] {first, repost}) {
+      mockMvc
+          .perform(
+              multipart("/api/upload/image")
+                  .file(file)
+                  .header("Authorization", "Bearer valid-token"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.url").value("/api/files/" + DIGEST + ".png"))
+          .andExpect(jsonPath("$.originalName").value(file.getOriginalFilename()));
+    }
+
+    verify(blobStore, times(2))
+        .put(any(InputStream.class), eq("image/png"), eq("test-user-id"));
+  }
+
   @Test
   void uploadImage_ValidPngFile_ShouldUploadSuccessfully() throws Exception {
     // Given
@@ -214,6 +270,91 @@ class FileUploadControllerTest {
     mockMvc.perform(get("/api/upload/files/nonexistent.jpg")).andExpect(status().isNotFound());
   }
 
+  private void mockStoredImage(byte[] content) throws Exception {
+    StoredBlob blob =
+        new StoredBlob(
+            DIGEST + ".png",
+            content.length,
+            "image/png",
+            Instant.parse("2024-01-01T12:00:00Z"),
+            true);
+    when(blobStore.find(DIGEST + ".png")).thenReturn(Optional.of(blob));
+    when(blobStore.open(DIGEST + ".png"))
+        .thenAnswer(invocation -> new ByteArrayInputStream(content));
+  }
+
+  @Test
+  void getFile_StoredBlob_ShouldReturnContentWithCacheHeaders() throws Exception {
+    // Given
+    mockStoredImage("0123456789".getBytes());
+
+    // When & Then
+    mockMvc
+        .perform(get("/api/files/" + DIGEST + ".png"))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType("image/png"))
+        .andExpect(content().bytes("0123456789".getBytes()))
+        .andExpect(header().string("ETag", "\"" + DIGEST + ".png\""))
+        .andExpect(header().exists("Last-Modified"))
+        .andExpect(header().string("Accept-Ranges", "bytes"))
+        .andExpect(header().string("Cache-Control", containsString("immutable")));
+  }
+
+  @Test
+  void getFile_MatchingETag_ShouldReturnNotModified() throws Exception {
+    // Given
+    mockStoredImage("0123456789".getBytes());
+
+    // When & Then
+    mockMvc
+        .perform(
+            get("/api/files/" + DIGEST + ".png")
+                .header("If-None-Match", "\"" + DIGEST + ".png\""))
+        .andExpect(status().isNotModified())
+        .andExpect(content().bytes(new byte[0]));
+
+    verify(blobStore, never()).open(anyString());
+  }
+
+  @Test
+  void getFile_ByteRange_ShouldReturnPartialContent() throws Exception {
+    // Given
+    mockStoredImage("0123456789".getBytes());
+
+    // When & Then
+    mockMvc
+        .perform(get("/api/files/" + DIGEST + ".png").header("Range", "bytes=2-5"))
+        .andExpect(status().isPartialContent())
+        .andExpect(header().string("Content-Range", "bytes 2-5/10"))
+        .andExpect(header().longValue("Content-Length", 4))
+        .andExpect(content().bytes("2345".getBytes()));
+  }
+
+  @Test
+  void getFile_RangeEndPastBlob_ShouldClampToLastByte() throws Exception {
+    // Given
+    mockStoredImage("0123456789".getBytes());
+
+    // When & Then
+    mockMvc
+        .perform(get("/api/files/" + DIGEST + ".png").header("Range", "bytes=7-100"))
+        .andExpect(status().isPartialContent())
+        .andExpect(header().string("Content-Range", "bytes 7-9/10"))
+        .andExpect(content().bytes("789".getBytes()));
+  }
+
+  @Test
+  void getFile_RangeBeyondEnd_ShouldReturnRangeNotSatisfiable() throws Exception {
+    // Given
+    mockStoredImage("0123456789".getBytes());
+
+    // When & Then
+    mockMvc
+        .perform(get("/api/files/" + DIGEST + ".png").header("Range", "bytes=20-"))
+        .andExpect(status().isRequestedRangeNotSatisfiable())
+        .andExpect(header().string("Content-Range", "bytes */10"));
+  }
+
   @Test
   void deleteFile_ValidToken_ShouldDeleteFile() throws Exception {
     // Given
@@ -226,6 +367,22 @@ class FileUploadControllerTest {
 
     verify(jwtUtil).validateToken("valid-token");
     verify(jwtUtil).getUserIdFromToken("valid-token");
+    verify(blobStore).delete("test.jpg", "test-user-id");
+  }
+
+  @Test
+  void deleteFile_OwnUpload_ShouldDropCallersReference() throws Exception {
+    // Given
+    mockValidToken();
+    when(blobStore.delete(DIGEST + ".png", "test-user-id")).thenReturn(true);
+
+    // When & Then
+    mockMvc
+        .perform(
+            delete("/api/upload/files/" + DIGEST + ".png")
+                .header("Authorization", "Bearer valid-token"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.message").value("File deleted successfully"));
   }
 
   @Test
@@ -5,11 +5,14 @@ import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.chatapp.dto.CursorSlice;
+import com.chatapp.dto.MessageCursor;
 import com.chatapp.entity.ChatRoom;
 import com.chatapp.entity.Message;
 import com.chatapp.entity.User;
 import com.chatapp.security.JwtUtil;
 import com.chatapp.service.ChatRoomService;
+import com.chatapp.service.MessageImportService;
 import com.chatapp.service.MessageService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.LocalDateTime;
@@ -24,7 +27,10 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import com.chatapp.dto.MessageSearchHit;
+import com.chatapp.dto.MessageSearchHit.Highlight;
 import com.chatapp.dto.TestPageResponse;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.context.ContextConfiguration;
 import com.chatapp.config.TestSecurityConfig;
@@ -41,6 +47,8 @@ class MessageControllerTest {
 
   @MockBean private ChatRoomService chatRoomService;
 
+  @MockBean private MessageImportService messageImportService;
+
   @MockBean private JwtUtil jwtUtil;
 
   private User testUser;
@@ -123,6 +131,74 @@ class MessageControllerTest {
     verify(messageService, never()).findByRoomId(anyString(), any(Pageable.class));
   }
 
+  @Test
+  void getMessageHistory_WithLimit_ShouldReturnCursorSlice() throws Exception {
+    // Given
+    mockValidToken();
+    when(chatRoomService.isUserMemberOfRoom("test-user-id", "test-room-id")).thenReturn(true);
+    String nextCursor = MessageCursor.of(testMessage).encode();
+    when(messageService.findHistory("test-room-id", null, 20))
+        .thenReturn(new CursorSlice<>(Arrays.asList(testMessage), nextCursor, true));
+
+    // When & Then
+    mockMvc
+        .perform(
+            get("/api/messages/room/test-room-id")
+                .param("limit", "20")
+                .header("Authorization", "Bearer valid-token"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content[0].id").value("test-message-id"))
+        .andExpect(jsonPath("$.nextCursor").value(nextCursor))
+        .andExpect(jsonPath("$.hasNext").value(true))
+        .andExpect(jsonPath("$.totalElements").doesNotExist());
+
+    verify(messageService).findHistory("test-room-id", null, 20);
+    verify(messageService, never()).findByRoomId(anyString(), any(Pageable.class));
+  }
+
+  @Test
+  void getMessageHistory_WithCursor_ShouldQueryOlderMessages() throws Exception {
+    // Given
+    mockValidToken();
+    when(chatRoomService.isUserMemberOfRoom("test-user-id", "test-room-id")).thenReturn(true);
+    when(messageService.findHistory(eq("test-room-id"), any(MessageCursor.class), eq(100)))
+        .thenReturn(new CursorSlice<>(List.of(), null, false));
+
+    // When & Then
+    mockMvc
+        .perform(
+            get("/api/messages/room/test-room-id")
+                .param("before", MessageCursor.of(testMessage).encode())
+                .param("limit", "500")
+                .header("Authorization", "Bearer valid-token"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.hasNext").value(false));
+
+    verify(messageService)
+        .findHistory(
+            eq("test-room-id"),
+            argThat(cursor -> "test-message-id".equals(cursor.getId())),
+            eq(100));
+  }
+
+  @Test
+  void getMessageHistory_MalformedCursor_ShouldReturnBadRequest() throws Exception {
+    // Given
+    mockValidToken();
+    when(chatRoomService.isUserMemberOfRoom("test-user-id", "test-room-id")).thenReturn(true);
+
+    // When & Then
+    mockMvc
+        .perform(
+            get("/api/messages/room/test-room-id")
+                .param("before", "not-a-cursor")
+                .param("limit", "20")
+                .header("Authorization", "Bearer valid-token"))
+        .andExpect(status().isBadRequest());
+
+    verify(messageService, never()).findHistory(anyString(), any(), anyInt());
+  }
+
   @Test
   void getRecentMessages_UserIsMember_ShouldReturnMessages() throws Exception {
     // Given
@@ -145,14 +221,57 @@ class MessageControllerTest {
     verify(messageService).findRecentMessages(eq("test-room-id"), any(LocalDateTime.class));
   }
 
+  @Test
+  void getMessagesBySeqRange_UserIsMember_ShouldReturnRange() throws Exception {
+    // Given
+    mockValidToken();
+    testMessage.setSeq(42L);
+    when(chatRoomService.isUserMemberOfRoom("test-user-id", "test-room-id")).thenReturn(true);
+    when(messageService.findBySeqRange("test-room-id", 41L, 45L, 500))
+        .thenReturn(new CursorSlice<>(List.of(testMessage), null, false));
+
+    // When & Then
+    mockMvc
+        .perform(
+            get("/api/messages/room/test-room-id/range")
+                .param("afterSeq", "41")
+                .param("toSeq", "45")
+                .header("Authorization", "Bearer valid-token"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content[0].seq").value(42))
+        .andExpect(jsonPath("$.hasNext").value(false));
+
+    verify(messageService).findBySeqRange("test-room-id", 41L, 45L, 500);
+  }
+
+  @Test
+  void getMessagesBySeqRange_InvertedRange_ShouldReturnBadRequest() throws Exception {
+    // Given
+    mockValidToken();
+    when(chatRoomService.isUserMemberOfRoom("test-user-id", "test-room-id")).thenReturn(true);
+
+    // When & Then
+    mockMvc
+        .perform(
+            get("/api/messages/room/test-room-id/range")
+                .param("afterSeq", "45")
+                .param("toSeq", "41")
+                .header("Authorization", "Bearer valid-token"))
+        .andExpect(status().isBadRequest());
+
+    verify(messageService, never()).findBySeqRange(anyString(), anyLong(), anyLong(), anyInt());
+  }
+
   @Test
   void searchMessages_UserIsMember_ShouldReturnMatchingMessages() throws Exception {
     // Given
     mockValidToken();
     when(chatRoomService.isUserMemberOfRoom("test-user-id", "test-room-id")).thenReturn(true);
-    Page<Message> messages = new TestPageResponse<>(Arrays.asList(testMessage));
+    MessageSearchHit hit =
+        new MessageSearchHit(testMessage, 1.5, Arrays.asList(new Highlight(0, 4)));
+    Page<MessageSearchHit> hits = new TestPageResponse<>(Arrays.asList(hit));
     when(messageService.searchMessages(eq("test-room-id"), eq("test"), any(Pageable.class)))
-        .thenReturn(messages);
+        .thenReturn(hits);
 
     // When & Then
     mockMvc
@@ -161,7 +280,10 @@ class MessageControllerTest {
                 .param("q", "test")
                 .header("Authorization", "Bearer valid-token"))
         .andExpect(status().isOk())
-        .andExpect(jsonPath("$.content[0].id").value("test-message-id"));
+        .andExpect(jsonPath("$.content[0].id").value("test-message-id"))
+        .andExpect(jsonPath("$.content[0].score").value(1.5))
+        .andExpect(jsonPath("$.content[0].highlights[0].start").value(0))
+        .andExpect(jsonPath("$.content[0].highlights[0].end").value(4));
 
     verify(chatRoomService).isUserMemberOfRoom("test-user-id", "test-room-id");
     verify(messageService).searchMessages(eq("test-room-id"), eq("test"), any(Pageable.class));
@@ -374,4 +496,67 @@ class MessageControllerTest {
     verify(messageService).findById("nonexistent-message");
     verify(messageService, never()).deleteMessage(anyString());
   }
+
+  @Test
+  void importMessages_ValidNdjson_ShouldImportAllLines() throws Exception {
+    // Given
+    mockValidToken();
+    when(chatRoomService.isUserMemberOfRoom("test-user-id", "test-room-id")).thenReturn(true);
+    MessageImportService.Batch batch = mock(MessageImportService.Batch.class);
+    when(messageImportService.begin("test-user-id", "test-room-id", false)).thenReturn(batch);
+    when(batch.finish()).thenReturn(2);
+
+    // When & Then
+    mockMvc
+        .perform(
+            post("/api/messages/room/test-room-id/bulk")
+                .header("Authorization", "Bearer valid-token")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(
+                    "{\"content\":\"first\",\"type\":\"TEXT\"}\n"
+                        + "{\"content\":\"second\",\"createdAt\":\"2024-01-01T12:00:00\"}\n"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.imported").value(2));
+
+    verify(batch, times(2)).add(any(Message.class));
+  }
+
+  @Test
+  void importMessages_InvalidLine_ShouldReturnBadRequestWithLine() throws Exception {
+    // Given
+    mockValidToken();
+    when(chatRoomService.isUserMemberOfRoom("test-user-id", "test-room-id")).thenReturn(true);
+    MessageImportService.Batch batch = mock(MessageImportService.Batch.class);
+    when(messageImportService.begin("test-user-id", "test-room-id", false)).thenReturn(batch);
+
+    // When & Then
+    mockMvc
+        .perform(
+            post("/api/messages/room/test-room-id/bulk")
+                .header("Authorization", "Bearer valid-token")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{\"content\":\"first\"}\n{\"content\":\"second\",\"type\":\"VIDEO\"}\n"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.line").value(2));
+
+    verify(batch, never()).finish();
+  }
+
+  @Test
+  void importMessages_NotMember_ShouldReturnForbidden() throws Exception {
+    // Given
+    mockValidToken();
+    when(chatRoomService.isUserMemberOfRoom("test-user-id", "test-room-id")).thenReturn(false);
+
+    // When & Then
+    mockMvc
+        .perform(
+            post("/api/messages/room/test-room-id/bulk")
+                .header("Authorization", "Bearer valid-token")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{\"content\":\"first\"}\n"))
+        .andExpect(status().isForbidden());
+
+    verify(messageImportService, never()).begin(anyString(), anyString(), anyBoolean());
+  }
 }
@@ -6,6 +6,8 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.chatapp.entity.User;
+import com.chatapp.security.JwtUtil;
+import com.chatapp.service.ChatRoomService;
 import com.chatapp.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.Arrays;
@@ -31,6 +33,10 @@ class UserControllerTest {
 
   @MockBean private UserService userService;
 
+  @MockBean private ChatRoomService chatRoomService;
+
+  @MockBean private JwtUtil jwtUtil;
+
   private User testUser;
 
   @BeforeEach
@@ -42,6 +48,11 @@ class UserControllerTest {
     testUser.setPicture("https://example.com/picture.jpg");
   }
 
+  private void mockValidToken() {
+    when(jwtUtil.validateToken("valid-token")).thenReturn(true);
+    when(jwtUtil.getUserIdFromToken("valid-token")).thenReturn("test-user-id");
+  }
+
   @Test
   void getUserById_ExistingUser_ShouldReturnUser() throws Exception {
     // Given
@@ -118,7 +129,7 @@ class UserControllerTest {
   void searchUsers_ShouldReturnMatchingUsers() throws Exception {
     // Given
     List<User> users = Arrays.asList(testUser);
-    when(userService.searchUsers("Test")).thenReturn(users);
+    when(userService.searchUsers("Test", 20, null)).thenReturn(users);
 
     // When & Then
     mockMvc
@@ -127,7 +138,57 @@ class UserControllerTest {
         .andExpect(jsonPath("$[0].id").value("test-user-id"))
         .andExpect(jsonPath("$[0].name").value("Test User"));
 
-    verify(userService).searchUsers("Test");
+    verify(userService).searchUsers("Test", 20, null);
+  }
+
+  @Test
+  void searchUsers_WithRoomAndLimit_ShouldSearchRoomMembers() throws Exception {
+    // Given
+    mockValidToken();
+    when(chatRoomService.isUserMemberOfRoom("test-user-id", "test-room-id")).thenReturn(true);
+    when(userService.searchUsers("Te", 5, "test-room-id")).thenReturn(Arrays.asList(testUser));
+
+    // When & Then
+    mockMvc
+        .perform(
+            get("/api/users/search")
+                .param("q", "Te")
+                .param("limit", "5")
+                .param("roomId", "test-room-id")
+                .header("Authorization", "Bearer valid-token"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].id").value("test-user-id"));
+
+    verify(userService).searchUsers("Te", 5, "test-room-id");
+  }
+
+  @Test
+  void searchUsers_WithRoom_NonMember_ShouldReturnForbidden() throws Exception {
+    // Given
+    mockValidToken();
+    when(chatRoomService.isUserMemberOfRoom("test-user-id", "other-room-id")).thenReturn(false);
+
+    // When & Then
+    mockMvc
+        .perform(
+            get("/api/users/search")
+                .param("q", "Te")
+                .param("roomId", "other-room-id")
+                .header("Authorization", "Bearer valid-token"))
+        .andExpect(status().isForbidden());
+
+    verify(userService, never()).searchUsers(anyString(), anyInt(), anyString());
+  }
+
+  @Test
+  void searchUsers_WithRoom_NoToken_ShouldReturnUnauthorized() throws Exception {
+    // When & Then
+    mockMvc
+        .perform(get("/api/users/search").param("q", "Te").param("roomId", "test-room-id"))
+        .andExpect(status().isUnauthorized());
+
+    verify(chatRoomService, never()).isUserMemberOfRoom(anyString(), anyString());
+    verify(userService, never()).searchUsers(anyString(), anyInt(), anyString());
   }
 
   @Test
@@ -266,7 +327,7 @@ class UserControllerTest {
   @Test
   void searchUsers_EmptyQuery_ShouldReturnEmptyArray() throws Exception {
     // Given
-    when(userService.searchUsers("")).thenReturn(Arrays.asList());
+    when(userService.searchUsers("", 20, null)).thenReturn(Arrays.asList());
 
     // When & Then
     mockMvc
@@ -275,6 +336,6 @@ class UserControllerTest {
         .andExpect(jsonPath("$").isArray())
         .andExpect(jsonPath("$").isEmpty());
 
-    verify(userService).searchUsers("");
+    verify(userService).searchUsers("", 20, null);
   }
 }
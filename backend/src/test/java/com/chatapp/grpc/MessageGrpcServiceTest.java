@@ -0,0 +1,436 @@
+package com.chatapp.grpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.chatapp.config.GrpcConfig;
+import com.chatapp.dto.CursorSlice;
+import com.chatapp.entity.ChatRoom;
+import com.chatapp.entity.Message;
+import com.chatapp.entity.User;
+import com.chatapp.event.MembershipChangedEvent;
+import com.chatapp.event.MessageCreatedEvent;
+import com.chatapp.event.RoomEventRelayedEvent;
+import com.chatapp.grpc.proto.MessageProto;
+import com.chatapp.grpc.proto.MessageServiceGrpc;
+import com.chatapp.repository.RoomMemberRepository;
+import com.chatapp.security.JwtUtil;
+import com.chatapp.service.ChatRoomService;
+import com.chatapp.service.MessageImportService;
+import com.chatapp.service.MessageService;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.stub.MetadataUtils;
+import io.grpc.stub.StreamObserver;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/** Runs the service behind the auth interceptor on an in-process server. */
+class MessageGrpcServiceTest {
+
+  private static final String USER_ID = "user-1";
+  private static final String ROOM_ID = "room-1";
+  private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+  private static final Metadata.Key<String> AUTHORIZATION =
+      Metadata.Key.of("authorization", Metadata.ASCII_STRING_MARSHALLER);
+
+  private final JwtUtil jwtUtil = mock(JwtUtil.class);
+  private final MessageService messageService = mock(MessageService.class);
+  private final ChatRoomService chatRoomService = mock(ChatRoomService.class);
+  private final MessageImportService messageImportService = mock(MessageImportService.class);
+  private final RoomMemberRepository roomMemberRepository = mock(RoomMemberRepository.class);
+  private final GrpcConfig config = new GrpcConfig();
+
+  private RoomSubscriptions roomSubscriptions;
+  private Server server;
+  private ManagedChannel channel;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    when(jwtUtil.validateToken("valid-token")).thenReturn(true);
+    when(jwtUtil.getUserIdFromToken("valid-token")).thenReturn(USER_ID);
+    when(chatRoomService.isUserMemberOfRoom(USER_ID, ROOM_ID)).thenReturn(true);
+
+    GrpcAuthInterceptor interceptor = new GrpcAuthInterceptor();
+    ReflectionTestUtils.setField(interceptor, "jwtUtil", jwtUtil);
+
+    roomSubscriptions = new RoomSubscriptions();
+    ReflectionTestUtils.setField(roomSubscriptions, "config", config);
+    ReflectionTestUtils.setField(roomSubscriptions, "roomMemberRepository", roomMemberRepository);
+
+    MessageGrpcService service = new MessageGrpcService();
+    ReflectionTestUtils.setField(service, "messageService", messageService);
+    ReflectionTestUtils.setField(service, "chatRoomService", chatRoomService);
+    ReflectionTestUtils.setField(service, "messageImportService", messageImportService);
+    ReflectionTestUtils.setField(service, "roomSubscriptions", roomSubscriptions);
+    ReflectionTestUtils.setField(
+        service,
+        "transactionTemplate",
+        new TransactionTemplate(mock(PlatformTransactionManager.class)));
+
+    String name = InProcessServerBuilder.generateName();
+    server =
+        InProcessServerBuilder.forName(name)
+            .addService(ServerInterceptors.intercept(service, interceptor))
+            .build()
+            .start();
+    channel = InProcessChannelBuilder.forName(name).build();
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    channel.shutdownNow();
+    server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+  }
+
+  private static Metadata bearer(String token) {
+    Metadata headers = new Metadata();
+    headers.put(AUTHORIZATION, "Bearer " + token);
+    return headers;
+  }
+
+  private MessageServiceGrpc.MessageServiceBlockingStub blockingStub(String token) {
+    return MessageServiceGrpc.newBlockingStub(channel)
+        .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(bearer(token)));
+  }
+
+  private MessageServiceGrpc.MessageServiceStub asyncStub() {
+    return MessageServiceGrpc.newStub(channel)
+        .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(bearer("valid-token")));
+  }
+
+  private static MessageProto.GetMessageHistoryRequest historyRequest() {
+    return MessageProto.GetMessageHistoryRequest.newBuilder()
+        .setRoomId(ROOM_ID)
+        .setLimit(2)
+        .build();
+  }
+
+  private static MessageProto.ImportMessageRequest importRequest(String roomId, String content) {
+    return MessageProto.ImportMessageRequest.newBuilder()
+        .setRoomId(roomId)
+        .setContent(content)
+        .build();
+  }
+
+  private static Message message(String id, long seq) {
+    User author = new User();
+    author.setId(USER_ID);
+    author.setName("Alice");
+    ChatRoom room = new ChatRoom();
+    room.setId(ROOM_ID);
+
+    Message message = new Message();
+    message.setId(id);
+    message.setRoom(room);
+    message.setUser(author);
+    message.setContent("hello " + id);
+    message.setMessageType(Message.MessageType.TEXT);
+    message.setCreatedAt(CREATED_AT);
+    message.setSeq(seq);
+    return message;
+  }
+
+  // A message as another node broadcasts it, after the JSON round trip through Redis
+  private static Map<String, Object> relayed(String id, int seq) {
+    return Map.of(
+        "id", id,
+        "roomId", ROOM_ID,
+        "userId", USER_ID,
+        "userName", "Alice",
+        "userPicture", "",
+        "content", "hello " + id,
+        "type", "TEXT",
+        "imageUrl", "",
+        "timestamp", CREATED_AT.toString(),
+        "seq", seq);
+  }
+
+  private Recorder<MessageProto.SubscribeRoomRequest, MessageProto.Message> subscribe(
+      boolean manualFlowControl) throws InterruptedException {
+    Recorder<MessageProto.SubscribeRoomRequest, MessageProto.Message> stream =
+        new Recorder<>(manualFlowControl);
+    asyncStub()
+        .subscribeRoom(
+            MessageProto.SubscribeRoomRequest.newBuilder().setRoomId(ROOM_ID).build(), stream);
+    awaitSubscribers(1);
+    return stream;
+  }
+
+  private void awaitSubscribers(int count) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (roomSubscriptions.getSubscriberCount(ROOM_ID) != count) {
+      assertThat(System.nanoTime()).as("waiting for %d subscribers", count).isLessThan(deadline);
+      Thread.sleep(10);
+    }
+  }
+
+  @Test
+  void call_WithoutToken_ShouldBeUnauthenticated() {
+    MessageServiceGrpc.MessageServiceBlockingStub stub =
+        MessageServiceGrpc.newBlockingStub(channel);
+
+    assertThatThrownBy(() -> stub.getMessageHistory(historyRequest()))
+        .isInstanceOfSatisfying(
+            StatusRuntimeException.class,
+            e -> assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.UNAUTHENTICATED));
+    verifyNoInteractions(chatRoomService, messageService);
+  }
+
+  @Test
+  void call_InvalidToken_ShouldBeUnauthenticated() {
+    assertThatThrownBy(() -> blockingStub("forged-token").getMessageHistory(historyRequest()))
+        .isInstanceOfSatisfying(
+            StatusRuntimeException.class,
+            e -> assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.UNAUTHENTICATED));
+    verify(jwtUtil, never()).getUserIdFromToken(anyString());
+    verifyNoInteractions(chatRoomService, messageService);
+  }
+
+  @Test
+  void getMessageHistory_ShouldReturnMessagesNewestFirst() {
+    when(messageService.findHistory(ROOM_ID, null, 2))
+        .thenReturn(new CursorSlice<>(List.of(message("m-2", 2), message("m-1", 1)), "next", true));
+
+    MessageProto.MessageHistoryResponse response =
+        blockingStub("valid-token").getMessageHistory(historyRequest());
+
+    assertThat(response.getMessagesList())
+        .extracting(MessageProto.Message::getId)
+        .containsExactly("m-2", "m-1");
+    assertThat(response.getMessages(0).getUserName()).isEqualTo("Alice");
+    assertThat(response.getMessages(0).getSeq()).isEqualTo(2);
+    assertThat(response.getNextCursor()).isEqualTo("next");
+    assertThat(response.getHasNext()).isTrue();
+  }
+
+  @Test
+  void getMessageHistory_NotMember_ShouldBePermissionDenied() {
+    when(chatRoomService.isUserMemberOfRoom(USER_ID, ROOM_ID)).thenReturn(false);
+
+    assertThatThrownBy(() -> blockingStub("valid-token").getMessageHistory(historyRequest()))
+        .isInstanceOfSatisfying(
+            StatusRuntimeException.class,
+            e -> assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.PERMISSION_DENIED));
+    verifyNoInteractions(messageService);
+  }
+
+  @Test
+  void importMessages_ShouldAddEachMessageAndReportCount() throws Exception {
+    MessageImportService.Batch batch = mock(MessageImportService.Batch.class);
+    when(messageImportService.begin(USER_ID, ROOM_ID, false)).thenReturn(batch);
+    when(batch.finish()).thenReturn(3);
+    Recorder<MessageProto.ImportMessageRequest, MessageProto.ImportMessagesResponse> response =
+        new Recorder<>(false);
+
+    StreamObserver<MessageProto.ImportMessageRequest> requests =
+        asyncStub().importMessages(response);
+    for (int i = 0; i < 3; i++) {
+      requests.onNext(importRequest(ROOM_ID, "message " + i));
+    }
+    requests.onCompleted();
+
+    assertThat(response.status().isOk()).isTrue();
+    assertThat(response.next().getImported()).isEqualTo(3);
+    ArgumentCaptor<Message> added = ArgumentCaptor.forClass(Message.class);
+    verify(batch, times(3)).add(added.capture());
+    assertThat(added.getAllValues())
+        .extracting(Message::getContent)
+        .containsExactly("message 0", "message 1", "message 2");
+    assertThat(added.getValue().getMessageType()).isEqualTo(Message.MessageType.TEXT);
+  }
+
+  @Test
+  void importMessages_SecondRoom_ShouldFailWithImportedCount() throws Exception {
+    MessageImportService.Batch batch = mock(MessageImportService.Batch.class);
+    when(messageImportService.begin(USER_ID, ROOM_ID, false)).thenReturn(batch);
+    Recorder<MessageProto.ImportMessageRequest, MessageProto.ImportMessagesResponse> response =
+        new Recorder<>(false);
+
+    StreamObserver<MessageProto.ImportMessageRequest> requests =
+        asyncStub().importMessages(response);
+    requests.onNext(importRequest(ROOM_ID, "first"));
+    requests.onNext(importRequest("room-2", "second"));
+    requests.onCompleted();
+
+    Status status = response.status();
+    assertThat(status.getCode()).isEqualTo(Status.Code.INVALID_ARGUMENT);
+    assertThat(status.getDescription()).contains("same room").contains("imported: 0");
+    verify(batch, times(1)).add(any(Message.class));
+    verify(batch, never()).finish();
+  }
+
+  @Test
+  void subscribeRoom_ShouldStreamLocalAndRelayedMessages() throws Exception {
+    Recorder<MessageProto.SubscribeRoomRequest, MessageProto.Message> stream = subscribe(false);
+
+    roomSubscriptions.onMessageCreated(new MessageCreatedEvent(message("m-1", 1)));
+    roomSubscriptions.onRoomEventRelayed(
+        new RoomEventRelayedEvent(
+            ROOM_ID,
+            "new_messages",
+            Map.of("roomId", ROOM_ID, "messages", List.of(relayed("m-2", 2)))));
+
+    assertThat(stream.next().getId()).isEqualTo("m-1");
+    MessageProto.Message fromOtherNode = stream.next();
+    assertThat(fromOtherNode.getId()).isEqualTo("m-2");
+    assertThat(fromOtherNode.getSeq()).isEqualTo(2);
+    assertThat(fromOtherNode.getUserName()).isEqualTo("Alice");
+    assertThat(fromOtherNode.getType()).isEqualTo(MessageProto.MessageType.TEXT);
+    assertThat(fromOtherNode.getTimestamp())
+        .isEqualTo(CREATED_AT.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+  }
+
+  @Test
+  void subscribeRoom_NotMember_ShouldBePermissionDenied() throws Exception {
+    when(chatRoomService.isUserMemberOfRoom(USER_ID, ROOM_ID)).thenReturn(false);
+    Recorder<MessageProto.SubscribeRoomRequest, MessageProto.Message> stream =
+        new Recorder<>(false);
+
+    asyncStub()
+        .subscribeRoom(
+            MessageProto.SubscribeRoomRequest.newBuilder().setRoomId(ROOM_ID).build(), stream);
+
+    assertThat(stream.status().getCode()).isEqualTo(Status.Code.PERMISSION_DENIED);
+    assertThat(roomSubscriptions.getSubscriberCount(ROOM_ID)).isZero();
+  }
+
+  @Test
+  void subscribeRoom_ClientNotReady_ShouldHoldMessagesUntilRequested() throws Exception {
+    Recorder<MessageProto.SubscribeRoomRequest, MessageProto.Message> stream = subscribe(true);
+
+    roomSubscriptions.onMessageCreated(new MessageCreatedEvent(message("m-1", 1)));
+    roomSubscriptions.onMessageCreated(new MessageCreatedEvent(message("m-2", 2)));
+    assertThat(stream.values).isEmpty();
+
+    stream.request(2);
+
+    assertThat(stream.next().getId()).isEqualTo("m-1");
+    assertThat(stream.next().getId()).isEqualTo("m-2");
+  }
+
+  @Test
+  void subscribeRoom_BufferOverflow_ShouldCloseWithResourceExhausted() throws Exception {
+    config.setSubscriberBufferSize(2);
+    Recorder<MessageProto.SubscribeRoomRequest, MessageProto.Message> stream = subscribe(true);
+
+    for (int i = 1; i <= 3; i++) {
+      roomSubscriptions.onMessageCreated(new MessageCreatedEvent(message("m-" + i, i)));
+    }
+
+    assertThat(stream.status().getCode()).isEqualTo(Status.Code.RESOURCE_EXHAUSTED);
+    assertThat(roomSubscriptions.getSubscriberCount(ROOM_ID)).isZero();
+  }
+
+  @Test
+  void subscribeRoom_ClientCancels_ShouldDropSubscriber() throws Exception {
+    Recorder<MessageProto.SubscribeRoomRequest, MessageProto.Message> stream = subscribe(false);
+
+    stream.cancel();
+
+    awaitSubscribers(0);
+    roomSubscriptions.onMessageCreated(new MessageCreatedEvent(message("m-1", 1)));
+    assertThat(stream.status().getCode()).isEqualTo(Status.Code.CANCELLED);
+    assertThat(stream.values).isEmpty();
+  }
+
+  @Test
+  void subscribeRoom_MemberRemoved_ShouldCloseWithPermissionDenied() throws Exception {
+    Recorder<MessageProto.SubscribeRoomRequest, MessageProto.Message> stream = subscribe(false);
+
+    // As republished on this node after the removal was made on another one
+    roomSubscriptions.onMembershipChanged(
+        new MembershipChangedEvent(ROOM_ID, List.of(USER_ID), true));
+
+    assertThat(stream.status().getCode()).isEqualTo(Status.Code.PERMISSION_DENIED);
+    assertThat(roomSubscriptions.getSubscriberCount(ROOM_ID)).isZero();
+  }
+
+  @Test
+  void subscribeRoom_OtherUserRemoved_ShouldKeepStream() throws Exception {
+    Recorder<MessageProto.SubscribeRoomRequest, MessageProto.Message> stream = subscribe(false);
+
+    roomSubscriptions.onMembershipChanged(new MembershipChangedEvent(ROOM_ID, "user-2"));
+    roomSubscriptions.onMessageCreated(new MessageCreatedEvent(message("m-1", 1)));
+
+    assertThat(stream.next().getId()).isEqualTo("m-1");
+    verify(roomMemberRepository, never()).existsByRoomIdAndUserId(anyString(), anyString());
+  }
+
+  /** Records what the server sends; with manual flow control nothing is requested up front. */
+  private static final class Recorder<ReqT, RespT> implements ClientResponseObserver<ReqT, RespT> {
+    private final BlockingQueue<RespT> values = new LinkedBlockingQueue<>();
+    private final CompletableFuture<Status> closed = new CompletableFuture<>();
+    private final boolean manualFlowControl;
+    private ClientCallStreamObserver<ReqT> call;
+
+    Recorder(boolean manualFlowControl) {
+      this.manualFlowControl = manualFlowControl;
+    }
+
+    @Override
+    public void beforeStart(ClientCallStreamObserver<ReqT> requestStream) {
+      call = requestStream;
+      if (manualFlowControl) {
+        requestStream.disableAutoRequestWithInitial(0);
+      }
+    }
+
+    @Override
+    public void onNext(RespT value) {
+      values.add(value);
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      closed.complete(Status.fromThrowable(t));
+    }
+
+    @Override
+    public void onCompleted() {
+      closed.complete(Status.OK);
+    }
+
+    RespT next() throws InterruptedException {
+      RespT value = values.poll(5, TimeUnit.SECONDS);
+      assertThat(value).as("next streamed value").isNotNull();
+      return value;
+    }
+
+    Status status() throws Exception {
+      return closed.get(5, TimeUnit.SECONDS);
+    }
+
+    void request(int count) {
+      call.request(count);
+    }
+
+    void cancel() {
+      call.cancel("client gone", null);
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package com.chatapp.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.chatapp.config.ClusterConfig;
+import com.chatapp.config.ResumeConfig;
+import com.chatapp.socket.EncodedPayload;
+import com.chatapp.socket.RedisRoomRelay;
+import com.chatapp.socket.RoomEventLog;
+import com.corundumstudio.socketio.BroadcastOperations;
+import com.corundumstudio.socketio.SocketIOServer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+/** Verifies that room events published on one node are re-emitted on another through Redis. */
+@Testcontainers(disabledWithoutDocker = true)
+class ClusterBroadcastIntegrationTest {
+
+  @Container
+  static final GenericContainer<?> valkey =
+      new GenericContainer<>(DockerImageName.parse("valkey/valkey:7.2-alpine"))
+          .withExposedPorts(6379);
+
+  private Node nodeA;
+  private Node nodeB;
+
+  @BeforeEach
+  void setUp() {
+    nodeA = new Node("node-a");
+    nodeB = new Node("node-b");
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    nodeA.close();
+    nodeB.close();
+  }
+
+  @Test
+  void publish_ShouldDeliverToOtherNodes() {
+    nodeA.relay.publish("room-1", "new_message", Map.of("content", "hello"));
+
+    verify(nodeB.roomOperations, timeout(5000))
+        .sendEvent(
+            eq("new_message"),
+            eq(EncodedPayload.encode(new ObjectMapper(), Map.of("content", "hello"))));
+  }
+
+  @Test
+  void publish_ShouldNotRedeliverOnPublishingNode() throws Exception {
+    nodeA.relay.publish("room-1", "new_message", Map.of("content", "hello"));
+
+    verify(nodeB.roomOperations, timeout(5000)).sendEvent(eq("new_message"), any());
+    verify(nodeA.roomOperations, never()).sendEvent(anyString(), any());
+  }
+
+  @Test
+  void publish_ShouldRecordRelayedEventsForResume() {
+    Map<String, Object> message = Map.of("id", "message-1", "content", "hello", "seq", 7);
+    nodeA.relay.publish("room-1", "new_message", message);
+
+    verify(nodeB.roomOperations, timeout(5000)).sendEvent(eq("new_message"), any());
+    List<RoomEventLog.Entry> missed = nodeB.eventLog.replay("room-1", 6).orElseThrow();
+    assertThat(missed).hasSize(1);
+    assertThat(missed.get(0).getPayload())
+        .isEqualTo(EncodedPayload.encode(new ObjectMapper(), message));
+    assertThat(nodeB.eventLog.replay("room-1", 7).orElseThrow()).isEmpty();
+  }
+
+  private static class Node {
+    private final LettuceConnectionFactory connectionFactory;
+    private final RedisMessageListenerContainer container;
+    private final BroadcastOperations roomOperations = mock(BroadcastOperations.class);
+    private final RedisRoomRelay relay = new RedisRoomRelay();
+    private final RoomEventLog eventLog = new RoomEventLog();
+
+    Node(String nodeId) {
+      connectionFactory = new LettuceConnectionFactory(valkey.getHost(), valkey.getFirstMappedPort());
+      connectionFactory.afterPropertiesSet();
+      connectionFactory.start();
+
+      container = new RedisMessageListenerContainer();
+      container.setConnectionFactory(connectionFactory);
+      container.afterPropertiesSet();
+
+      ClusterConfig clusterConfig = new ClusterConfig();
+      clusterConfig.setEnabled(true);
+      clusterConfig.setNodeId(nodeId);
+
+      SocketIOServer socketIOServer = mock(SocketIOServer.class);
+      when(socketIOServer.getRoomOperations("room-1")).thenReturn(roomOperations);
+
+      ReflectionTestUtils.setField(relay, "clusterConfig", clusterConfig);
+      ReflectionTestUtils.setField(relay, "redisTemplate", new StringRedisTemplate(connectionFactory));
+      ReflectionTestUtils.setField(relay, "listenerContainer", container);
+      ReflectionTestUtils.setField(relay, "socketIOServer", socketIOServer);
+      ReflectionTestUtils.setField(relay, "objectMapper", new ObjectMapper());
+      ReflectionTestUtils.setField(eventLog, "config", new ResumeConfig());
+      ReflectionTestUtils.setField(eventLog, "meterRegistry", new SimpleMeterRegistry());
+      eventLog.init();
+      ReflectionTestUtils.setField(relay, "roomEventLog", eventLog);
+
+      relay.subscribe();
+      container.start();
+    }
+
+    void close() throws Exception {
+      container.stop();
+      container.destroy();
+      connectionFactory.destroy();
+    }
+  }
+}
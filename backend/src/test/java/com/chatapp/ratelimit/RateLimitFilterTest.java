@@ -0,0 +1,121 @@
+package com.chatapp.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.chatapp.config.RateLimitConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class RateLimitFilterTest {
+
+  private final RateLimitConfig config = new RateLimitConfig();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private RateLimits rateLimits;
+  private RateLimitFilter filter;
+
+  @BeforeEach
+  void setUp() {
+    // One request, then one more per minute: the second request in a test is always over
+    config.setHttp(new RateLimitConfig.Bucket(1, 1.0 / 60));
+
+    rateLimits = new RateLimits();
+    ReflectionTestUtils.setField(rateLimits, "config", config);
+    ReflectionTestUtils.setField(rateLimits, "meterRegistry", meterRegistry);
+    rateLimits.start();
+
+    filter = new RateLimitFilter();
+    ReflectionTestUtils.setField(filter, "rateLimits", rateLimits);
+  }
+
+  @AfterEach
+  void tearDown() {
+    rateLimits.stop();
+  }
+
+  private MockHttpServletResponse request(String path) throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request, response, new MockFilterChain());
+    return response;
+  }
+
+  // One request, then one more every 250 ms: within the default 500 ms delay
+  private void useDelayPolicyWithFastRefill() {
+    rateLimits.stop();
+    config.setOverflow(RateLimitConfig.Overflow.DELAY);
+    config.setHttp(new RateLimitConfig.Bucket(1, 4));
+    rateLimits.start();
+  }
+
+  @Test
+  void doFilter_OverLimit_ShouldRespond429WithRetryAfter() throws Exception {
+    assertThat(request("/api/messages/room-1").getStatus()).isEqualTo(200);
+
+    MockHttpServletResponse response = request("/api/messages/room-1");
+
+    assertThat(response.getStatus()).isEqualTo(429);
+    assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+    assertThat(response.getHeader("Connection")).isNull();
+    assertThat(meterRegistry.counter("chat.rate-limit.rejected").count()).isEqualTo(1);
+  }
+
+  @Test
+  void doFilter_OverLimitWithDisconnectPolicy_ShouldCloseConnection() throws Exception {
+    config.setOverflow(RateLimitConfig.Overflow.DISCONNECT);
+    request("/api/upload/image");
+
+    MockHttpServletResponse response = request("/api/upload/image");
+
+    assertThat(response.getStatus()).isEqualTo(429);
+    assertThat(response.getHeader("Connection")).isEqualTo("close");
+  }
+
+  @Test
+  void doFilter_OverLimitWithDelayPolicyOnVirtualThread_ShouldHoldRequest() throws Exception {
+    useDelayPolicyWithFastRefill();
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      assertThat(executor.submit(() -> request("/api/messages/room-1")).get().getStatus())
+          .isEqualTo(200);
+      assertThat(executor.submit(() -> request("/api/messages/room-1")).get().getStatus())
+          .isEqualTo(200);
+    }
+    assertThat(meterRegistry.counter("chat.rate-limit.rejected").count()).isZero();
+  }
+
+  @Test
+  void doFilter_OverLimitWithDelayPolicyOnPlatformThread_ShouldRespond429() throws Exception {
+    useDelayPolicyWithFastRefill();
+    request("/api/messages/room-1");
+
+    MockHttpServletResponse response = request("/api/messages/room-1");
+
+    assertThat(response.getStatus()).isEqualTo(429);
+    assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+  }
+
+  @Test
+  void doFilter_UnlimitedPath_ShouldPassThrough() throws Exception {
+    request("/api/rooms");
+
+    assertThat(request("/api/rooms").getStatus()).isEqualTo(200);
+    assertThat(rateLimits.http().size()).isZero();
+  }
+
+  @Test
+  void doFilter_Disabled_ShouldPassThrough() throws Exception {
+    config.setEnabled(false);
+    request("/api/messages/room-1");
+
+    assertThat(request("/api/messages/room-1").getStatus()).isEqualTo(200);
+  }
+}
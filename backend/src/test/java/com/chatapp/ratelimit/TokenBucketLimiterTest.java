@@ -0,0 +1,109 @@
+package com.chatapp.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class TokenBucketLimiterTest {
+
+  private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+  // Negative like nanoTime may be; the limiter must only rely on differences
+  private final AtomicLong now = new AtomicLong(-TimeUnit.SECONDS.toNanos(10));
+
+  // Three tokens at once, one more every 100 ms
+  private final TokenBucketLimiter<String> limiter = new TokenBucketLimiter<>(3, 10, now::get);
+
+  @Test
+  void tryAcquire_ShouldAllowBurstThenDeny() {
+    assertThat(limiter.tryAcquire("a")).isTrue();
+    assertThat(limiter.tryAcquire("a")).isTrue();
+    assertThat(limiter.tryAcquire("a")).isTrue();
+
+    assertThat(limiter.tryAcquire("a")).isFalse();
+  }
+
+  @Test
+  void tryAcquire_ShouldRefillOneTokenPerInterval() {
+    for (int i = 0; i < 3; i++) {
+      limiter.tryAcquire("a");
+    }
+
+    now.addAndGet(INTERVAL - 1);
+    assertThat(limiter.tryAcquire("a")).isFalse();
+
+    now.addAndGet(1);
+    assertThat(limiter.tryAcquire("a")).isTrue();
+    assertThat(limiter.tryAcquire("a")).isFalse();
+
+    // Refilling stops at the burst size
+    now.addAndGet(10 * INTERVAL);
+    for (int i = 0; i < 3; i++) {
+      assertThat(limiter.tryAcquire("a")).isTrue();
+    }
+    assertThat(limiter.tryAcquire("a")).isFalse();
+  }
+
+  @Test
+  void tryAcquire_ShouldKeepKeysApart() {
+    for (int i = 0; i < 3; i++) {
+      limiter.tryAcquire("a");
+    }
+
+    assertThat(limiter.tryAcquire("a")).isFalse();
+    assertThat(limiter.tryAcquire("b")).isTrue();
+  }
+
+  @Test
+  void reserve_EmptyBucket_ShouldReturnWaitUntilNextToken() {
+    for (int i = 0; i < 3; i++) {
+      assertThat(limiter.reserve("a", INTERVAL)).isZero();
+    }
+
+    assertThat(limiter.reserve("a", INTERVAL)).isEqualTo(INTERVAL);
+    // The borrowed token is spent: the next one is two intervals out
+    assertThat(limiter.reserve("a", INTERVAL)).isEqualTo(TokenBucketLimiter.DENIED);
+    assertThat(limiter.reserve("a", 2 * INTERVAL)).isEqualTo(2 * INTERVAL);
+  }
+
+  @Test
+  void reserve_Denied_ShouldNotTakeToken() {
+    for (int i = 0; i < 3; i++) {
+      limiter.tryAcquire("a");
+    }
+    for (int i = 0; i < 5; i++) {
+      assertThat(limiter.tryAcquire("a")).isFalse();
+    }
+
+    now.addAndGet(INTERVAL);
+
+    assertThat(limiter.tryAcquire("a")).isTrue();
+  }
+
+  @Test
+  void evictIdle_ShouldDropOnlyRefilledBuckets() {
+    limiter.tryAcquire("a");
+    for (int i = 0; i < 3; i++) {
+      limiter.tryAcquire("b");
+    }
+
+    now.addAndGet(INTERVAL);
+    limiter.evictIdle();
+    assertThat(limiter.size()).isEqualTo(1);
+
+    now.addAndGet(2 * INTERVAL);
+    limiter.evictIdle();
+    assertThat(limiter.size()).isZero();
+  }
+
+  @Test
+  void constructor_NonPositiveLimits_ShouldThrow() {
+    assertThatThrownBy(() -> new TokenBucketLimiter<String>(0, 1))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new TokenBucketLimiter<String>(1, 0))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
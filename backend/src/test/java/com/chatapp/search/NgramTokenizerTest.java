@@ -0,0 +1,71 @@
+package com.chatapp.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class NgramTokenizerTest {
+
+  @Test
+  void indexGrams_Latin_ShouldYieldBigramsPerWord() {
+    assertThat(NgramTokenizer.indexGrams("Hello, World"))
+        .containsExactly("he", "el", "ll", "lo", "wo", "or", "rl", "ld");
+  }
+
+  @Test
+  void indexGrams_Cjk_ShouldAddUnigrams() {
+    assertThat(NgramTokenizer.indexGrams("東京タワー"))
+        .containsExactly("東", "京", "タ", "ワ", "ー", "東京", "京タ", "タワ", "ワー");
+  }
+
+  @Test
+  void indexGrams_MixedScripts_ShouldSplitRuns() {
+    assertThat(NgramTokenizer.indexGrams("Java言語"))
+        .containsExactly("ja", "av", "va", "言", "語", "言語");
+  }
+
+  @Test
+  void indexGrams_ShouldKeepRepetitionsAndSingleLetters() {
+    assertThat(NgramTokenizer.indexGrams("abab a")).containsExactly("ab", "ba", "ab", "a");
+    assertThat(NgramTokenizer.indexGrams("!!! ...")).isEmpty();
+  }
+
+  @Test
+  void indexGrams_ShouldFoldWidthAndCase() {
+    assertThat(NgramTokenizer.indexGrams("ＨＥＬＬＯ"))
+        .isEqualTo(NgramTokenizer.indexGrams("hello"));
+    assertThat(NgramTokenizer.indexGrams("ｶﾀｶﾅ"))
+        .isEqualTo(NgramTokenizer.indexGrams("カタカナ"));
+  }
+
+  @Test
+  void queryGrams_ShouldBeDistinctAndSkipCjkUnigrams() {
+    assertThat(NgramTokenizer.queryGrams("abab")).containsExactly("ab", "ba");
+    assertThat(NgramTokenizer.queryGrams("東京")).containsExactly("東京");
+    // A one-character query still matches through the unigrams of indexed CJK text
+    assertThat(NgramTokenizer.queryGrams("東")).containsExactly("東");
+  }
+
+  @Test
+  void normalize_ShouldMapOutputBackToSource() {
+    // U+334D expands to four katakana under NFKC
+    NgramTokenizer.Normalized normalized = NgramTokenizer.normalize("Ａ㍍b");
+
+    assertThat(normalized.text()).isEqualTo("aメートルb");
+    assertThat(normalized.sourceStart(0)).isZero();
+    assertThat(normalized.sourceEnd(0)).isEqualTo(1);
+    for (int i = 1; i <= 4; i++) {
+      assertThat(normalized.sourceStart(i)).isEqualTo(1);
+      assertThat(normalized.sourceEnd(i)).isEqualTo(2);
+    }
+    assertThat(normalized.sourceStart(5)).isEqualTo(2);
+  }
+
+  @Test
+  void startsWord_ShouldMatchOnlyAtWordStarts() {
+    assertThat(NgramTokenizer.startsWord("hello world", "wor")).isTrue();
+    assertThat(NgramTokenizer.startsWord("hello world", "hel")).isTrue();
+    assertThat(NgramTokenizer.startsWord("password", "word")).isFalse();
+    assertThat(NgramTokenizer.startsWord("pass-word", "word")).isTrue();
+  }
+}
@@ -0,0 +1,119 @@
+package com.chatapp.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class RoomDirectoryIndexTest {
+
+  private RoomDirectoryIndex index;
+
+  @BeforeEach
+  void setUp() {
+    index = new RoomDirectoryIndex(256);
+    index.put("r-java", "Java", null, false);
+    index.put("r-beginners", "Java Beginners", "Start here", false);
+    index.put("r-learning", "Learning java here", null, false);
+    index.put("r-misc", "Misc", "Sometimes we talk about java", false);
+    index.put("r-secret", "Java Secrets", null, true);
+  }
+
+  private List<String> search(String query) {
+    return index.search(query, null, 0, 20).getRoomIds();
+  }
+
+  @Test
+  void search_ShouldRankNameOverDescriptionAndExactOverPartial() {
+    assertThat(search("java")).containsExactly("r-java", "r-beginners", "r-learning", "r-misc");
+    assertThat(search("ＪＡＶＡ")).isEqualTo(search("java"));
+  }
+
+  @Test
+  void search_ShortTerm_ShouldMatchNameWordPrefixes() {
+    // Shorter names first among equal scores; descriptions are not searched for short terms
+    assertThat(search("ja")).containsExactly("r-java", "r-beginners", "r-learning");
+  }
+
+  @Test
+  void search_EveryTermMustMatch() {
+    assertThat(search("java beginners")).containsExactly("r-beginners");
+    assertThat(search("java python")).isEmpty();
+  }
+
+  @Test
+  void search_ShouldPaginateAndCountAllMatches() {
+    RoomDirectoryIndex.Result page = index.search("java", null, 1, 2);
+
+    assertThat(page.getRoomIds()).containsExactly("r-beginners", "r-learning");
+    assertThat(page.getTotal()).isEqualTo(4);
+    assertThat(index.search("java", null, 10, 2).getRoomIds()).isEmpty();
+  }
+
+  @Test
+  void search_PrivateRooms_OnlyWhenScoped() {
+    assertThat(search("secrets")).isEmpty();
+    assertThat(index.search("java", Set.of("r-secret", "r-misc"), 0, 20).getRoomIds())
+        .containsExactly("r-secret", "r-misc");
+  }
+
+  @Test
+  void put_Update_ShouldReplaceOldDocument() {
+    index.put("r-misc", "Kotlin", null, false);
+
+    assertThat(search("misc")).isEmpty();
+    assertThat(search("kotlin")).containsExactly("r-misc");
+    assertThat(search("java")).doesNotContain("r-misc");
+    assertThat(index.size()).isEqualTo(5);
+  }
+
+  @Test
+  void remove_ShouldDropRoom() {
+    index.remove("r-java");
+
+    assertThat(search("java")).containsExactly("r-beginners", "r-learning", "r-misc");
+    assertThat(index.autocomplete("ja", 10)).doesNotContain("r-java");
+    assertThat(index.size()).isEqualTo(4);
+  }
+
+  @Test
+  void putIfAbsent_RemovedDuringLoad_ShouldStayOut() {
+    RoomDirectoryIndex loading = new RoomDirectoryIndex(256);
+    loading.beginLoad();
+    loading.remove("r-1");
+    loading.putIfAbsent("r-1", "General", null, false);
+    loading.putIfAbsent("r-2", "General chat", null, false);
+    loading.putIfAbsent("r-2", "Stale name", null, false);
+    loading.endLoad();
+
+    assertThat(loading.search("general", null, 0, 20).getRoomIds()).containsExactly("r-2");
+    assertThat(loading.search("stale", null, 0, 20).getRoomIds()).isEmpty();
+  }
+
+  @Test
+  void put_ManyUpdates_ShouldCompactAndKeepResults() {
+    for (int i = 0; i < 1100; i++) {
+      index.put("r-misc", i % 2 == 0 ? "Delta" : "Gamma", null, false);
+    }
+
+    assertThat((int) ReflectionTestUtils.getField(index, "docCount")).isLessThan(1100);
+    assertThat(search("gamma")).containsExactly("r-misc");
+    assertThat(search("delta")).isEmpty();
+    assertThat(search("java")).containsExactly("r-java", "r-beginners", "r-learning");
+    assertThat(index.search("secrets", Set.of("r-secret"), 0, 20).getRoomIds())
+        .containsExactly("r-secret");
+  }
+
+  @Test
+  void autocomplete_ShouldPreferNamesStartingWithPrefix() {
+    index.put("r-beta", "Beta", null, false);
+
+    assertThat(index.autocomplete("be", 10)).containsExactly("r-beta", "r-beginners");
+    assertThat(index.autocomplete("be", 1)).containsExactly("r-beta");
+    // Private rooms are never suggested
+    assertThat(index.autocomplete("sec", 10)).isEmpty();
+  }
+}
@@ -0,0 +1,116 @@
+package com.chatapp.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+class RoomSearchIndexTest {
+
+  private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+  private RoomSearchIndex index;
+
+  @BeforeEach
+  void setUp() {
+    index = new RoomSearchIndex();
+  }
+
+  private List<String> search(String query) {
+    return ids(index.search(NgramTokenizer.queryGrams(query), PageRequest.of(0, 20)));
+  }
+
+  private static List<String> ids(Page<RoomSearchIndex.Ranked> page) {
+    return page.getContent().stream().map(ranked -> ranked.messageId).toList();
+  }
+
+  @Test
+  void search_ShouldRequireEveryGram() {
+    index.add("m1", "東京タワーに行きました", T0);
+    index.add("m2", "京都に行きました", T0);
+    index.finishBuilding();
+
+    assertThat(search("東京")).containsExactly("m1");
+    assertThat(search("行き")).containsExactlyInAnyOrder("m1", "m2");
+    assertThat(search("大阪")).isEmpty();
+  }
+
+  @Test
+  void search_ShouldRankByTermFrequency() {
+    index.add("sparse", "apple pie and other desserts", T0.plusMinutes(1));
+    index.add("dense", "apple apple apple", T0);
+    index.add("other", "banana", T0);
+    index.finishBuilding();
+
+    Page<RoomSearchIndex.Ranked> page =
+        index.search(NgramTokenizer.queryGrams("apple"), PageRequest.of(0, 20));
+
+    assertThat(ids(page)).containsExactly("dense", "sparse");
+    assertThat(page.getContent().get(0).score).isGreaterThan(page.getContent().get(1).score);
+  }
+
+  @Test
+  void search_EqualScores_ShouldPutNewestFirstAndPaginate() {
+    for (int i = 1; i <= 5; i++) {
+      index.add("m" + i, "hello", T0.plusMinutes(i));
+    }
+    index.finishBuilding();
+
+    Page<RoomSearchIndex.Ranked> page =
+        index.search(NgramTokenizer.queryGrams("hello"), PageRequest.of(1, 2));
+
+    assertThat(ids(page)).containsExactly("m3", "m2");
+    assertThat(page.getTotalElements()).isEqualTo(5);
+  }
+
+  @Test
+  void remove_ShouldHideMessage() {
+    index.add("m1", "hello there", T0);
+    index.add("m2", "hello again", T0);
+    index.finishBuilding();
+
+    index.remove("m1");
+
+    assertThat(search("hello")).containsExactly("m2");
+    assertThat(index.size()).isEqualTo(1);
+  }
+
+  @Test
+  void add_DeletedWhileBuilding_ShouldStayOut() {
+    // The delete event arrives before the loader reads the row
+    index.remove("m1");
+    index.add("m1", "hello", T0);
+    index.add("m2", "hello", T0);
+    index.finishBuilding();
+
+    assertThat(search("hello")).containsExactly("m2");
+  }
+
+  @Test
+  void add_Duplicate_ShouldBeIgnored() {
+    index.add("m1", "hello", T0);
+    index.add("m1", "hello", T0);
+    index.finishBuilding();
+
+    assertThat(index.size()).isEqualTo(1);
+    assertThat(search("hello")).containsExactly("m1");
+  }
+
+  @Test
+  void needsCompaction_OnlyWhenDeletedDominate() {
+    for (int i = 0; i < 1100; i++) {
+      index.add("m" + i, "hello " + i, T0);
+    }
+    index.finishBuilding();
+    for (int i = 0; i < 1025; i++) {
+      index.remove("m" + i);
+    }
+
+    assertThat(index.needsCompaction()).isTrue();
+    assertThat(index.size()).isEqualTo(75);
+  }
+}
@@ -0,0 +1,126 @@
+package com.chatapp.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.chatapp.entity.User;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class UserDirectoryIndexTest {
+
+  private UserDirectoryIndex index;
+
+  @BeforeEach
+  void setUp() {
+    index = new UserDirectoryIndex();
+    index.put(user("u-carl", "Carl", "anne@example.com"));
+    index.put(user("u-bob", "Bob Annex", "bob@example.com"));
+    index.put(user("u-anna", "Anna Smith", "anna@example.com"));
+    index.put(user("u-ann", "Ann", "ann@example.com"));
+    index.put(user("u-joanna", "Joanna", "jo@example.com"));
+  }
+
+  private static User user(String id, String name, String email) {
+    return new User(id, email, name, "https://example.com/" + id + ".png", null);
+  }
+
+  private static List<String> search(
+      UserDirectoryIndex index, String prefix, int limit, Set<String> withinUserIds) {
+    return index.search(prefix, limit, withinUserIds).stream().map(User::getId).toList();
+  }
+
+  @Test
+  void search_ShouldRankFullNameThenWordThenEmail() {
+    assertThat(search(index, "ann", 10, null))
+        .containsExactly("u-ann", "u-anna", "u-bob", "u-carl");
+  }
+
+  @Test
+  void search_ShouldHonourLimitAndNormalization() {
+    assertThat(search(index, "ＡＮＮ", 2, null)).containsExactly("u-ann", "u-anna");
+    assertThat(search(index, "  ", 10, null)).isEmpty();
+    assertThat(search(index, "ann", 0, null)).isEmpty();
+  }
+
+  @Test
+  void search_Scoped_ShouldOnlyReturnGivenUsers() {
+    assertThat(search(index, "ann", 10, Set.of("u-bob", "u-carl", "u-missing")))
+        .containsExactly("u-bob", "u-carl");
+  }
+
+  @Test
+  void search_LargeScope_ShouldScanKeysWithinScope() {
+    Set<String> scope = new HashSet<>();
+    for (int i = 0; i < 5000; i++) {
+      scope.add("u-other-" + i);
+    }
+    scope.add("u-anna");
+
+    assertThat(search(index, "ann", 10, scope)).containsExactly("u-anna");
+  }
+
+  @Test
+  void search_ShouldReturnIndexedDisplayFields() {
+    User found = index.search("anna", 1, null).get(0);
+
+    assertThat(found.getId()).isEqualTo("u-anna");
+    assertThat(found.getName()).isEqualTo("Anna Smith");
+    assertThat(found.getEmail()).isEqualTo("anna@example.com");
+    assertThat(found.getPicture()).isEqualTo("https://example.com/u-anna.png");
+  }
+
+  @Test
+  void put_Renamed_ShouldReindexName() {
+    index.put(user("u-ann", "Zed", "ann@example.com"));
+
+    assertThat(search(index, "ann", 10, null))
+        .containsExactly("u-anna", "u-bob", "u-ann", "u-carl");
+    assertThat(search(index, "zed", 10, null)).containsExactly("u-ann");
+  }
+
+  @Test
+  void put_EmailChanged_ShouldReindexEmail() {
+    index.put(user("u-carl", "Carl", "carl@example.com"));
+
+    assertThat(search(index, "anne", 10, null)).isEmpty();
+    assertThat(search(index, "carl@", 10, null)).containsExactly("u-carl");
+  }
+
+  @Test
+  void put_Existing_ShouldReplaceEntry() {
+    index.put(user("u-carl", "Carla", "carla@example.com"));
+
+    assertThat(search(index, "ann", 10, null)).doesNotContain("u-carl");
+    assertThat(search(index, "carla", 10, null)).containsExactly("u-carl");
+    assertThat(index.size()).isEqualTo(5);
+  }
+
+  @Test
+  void remove_ShouldDropUser() {
+    index.remove("u-ann");
+
+    assertThat(search(index, "ann", 10, null)).containsExactly("u-anna", "u-bob", "u-carl");
+    assertThat(index.size()).isEqualTo(4);
+  }
+
+  @Test
+  void putIfAbsent_RemovedDuringLoad_ShouldStayOut() {
+    UserDirectoryIndex loading = new UserDirectoryIndex();
+    loading.beginLoad();
+    loading.remove("u-1");
+    loading.putIfAbsent(user("u-1", "Dave", "dave@example.com"));
+    loading.putIfAbsent(user("u-2", "Dana", "dana@example.com"));
+    loading.putIfAbsent(user("u-2", "Stale", "stale@example.com"));
+    loading.endLoad();
+
+    assertThat(search(loading, "da", 10, null)).containsExactly("u-2");
+    assertThat(search(loading, "stale", 10, null)).isEmpty();
+
+    // After loading, re-created users are indexed again
+    loading.putIfAbsent(user("u-1", "Dave", "dave@example.com"));
+    assertThat(search(loading, "dave", 10, null)).containsExactly("u-1");
+  }
+}
@@ -0,0 +1,103 @@
+package com.chatapp.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.chatapp.config.ClusterConfig;
+import com.chatapp.config.UserSearchConfig;
+import com.chatapp.entity.User;
+import com.chatapp.event.UserDeletedEvent;
+import com.chatapp.event.UserSavedEvent;
+import com.chatapp.repository.UserRepository;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class UserDirectoryTest {
+
+  private final UserRepository userRepository = mock(UserRepository.class);
+  private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+  private final ClusterConfig clusterConfig = new ClusterConfig();
+
+  private UserDirectory directory;
+
+  @BeforeEach
+  void setUp() {
+    clusterConfig.setNodeId("node-a");
+
+    directory = new UserDirectory();
+    ReflectionTestUtils.setField(directory, "config", new UserSearchConfig());
+    ReflectionTestUtils.setField(directory, "clusterConfig", clusterConfig);
+    ReflectionTestUtils.setField(directory, "userRepository", userRepository);
+    ReflectionTestUtils.setField(directory, "redisTemplate", redisTemplate);
+  }
+
+  private void receive(String body) {
+    directory.onMessage(
+        new DefaultMessage(
+            "chat:users:changed".getBytes(StandardCharsets.UTF_8),
+            body.getBytes(StandardCharsets.UTF_8)),
+        null);
+  }
+
+  @Test
+  void onUserSaved_ShouldIndexDetachedCopyAndAnnounceInCluster() {
+    clusterConfig.setEnabled(true);
+    User user = new User("user-1", "alice@example.com", "Alice", "alice.png", "hash");
+
+    directory.onUserSaved(new UserSavedEvent(user));
+    user.setName("Changed");
+
+    User found = directory.search("ali", 10, null).get(0);
+    assertThat(found.getName()).isEqualTo("Alice");
+    assertThat(found.getPicture()).isEqualTo("alice.png");
+    assertThat(found.getPasswordHash()).isNull();
+    verify(redisTemplate).convertAndSend("chat:users:changed", "node-a\nuser-1");
+  }
+
+  @Test
+  void onUserDeleted_SingleNode_ShouldNotPublish() {
+    directory.onUserSaved(
+        new UserSavedEvent(new User("user-1", "alice@example.com", "Alice", null, "hash")));
+
+    directory.onUserDeleted(new UserDeletedEvent("user-1"));
+
+    assertThat(directory.search("ali", 10, null)).isEmpty();
+    verify(redisTemplate, never()).convertAndSend(anyString(), anyString());
+  }
+
+  @Test
+  void onMessage_ShouldIndexUserSavedOnAnotherNode() {
+    when(userRepository.findById("user-1"))
+        .thenReturn(Optional.of(new User("user-1", "bob@example.com", "Bob", null, "hash")));
+
+    receive("node-b\nuser-1");
+
+    assertThat(directory.search("bob", 10, null))
+        .extracting(User::getEmail)
+        .containsExactly("bob@example.com");
+  }
+
+  @Test
+  void onMessage_ShouldDropUserDeletedOnAnotherNode() {
+    directory.onUserSaved(
+        new UserSavedEvent(new User("user-1", "bob@example.com", "Bob", null, "hash")));
+    when(userRepository.findById("user-1")).thenReturn(Optional.empty());
+
+    receive("node-b\nuser-1");
+
+    assertThat(directory.search("bob", 10, null)).isEmpty();
+  }
+
+  @Test
+  void onMessage_OwnAnnouncement_ShouldBeIgnored() {
+    receive("node-a\nuser-1");
+
+    verifyNoInteractions(userRepository);
+  }
+}
@@ -0,0 +1,123 @@
+package com.chatapp.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.chatapp.config.JwtConfig;
+import com.chatapp.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class JwtAuthenticationFilterTest {
+
+  private final JwtUtil jwtUtil = mock(JwtUtil.class);
+  private final UserService userService = mock(UserService.class);
+  private final JwtConfig jwtConfig = new JwtConfig();
+
+  private JwtAuthenticationFilter filter;
+
+  @BeforeEach
+  void setUp() {
+    when(jwtUtil.getUserIdFromToken("valid-token")).thenReturn("user-1");
+    when(jwtUtil.validateToken("valid-token")).thenReturn(true);
+    when(jwtUtil.getUserIdFromToken("invalid-token")).thenThrow(new RuntimeException("bad"));
+
+    filter = new JwtAuthenticationFilter();
+    ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+    ReflectionTestUtils.setField(filter, "jwtConfig", jwtConfig);
+    ReflectionTestUtils.setField(filter, "userService", userService);
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  private Authentication authenticate(String token) throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/rooms");
+    request.addHeader("Authorization", "Bearer " + token);
+    MockFilterChain chain = new MockFilterChain();
+
+    filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+    // The request always continues down the chain; security rules decide what to do with it
+    assertThat(chain.getRequest()).isNotNull();
+    return SecurityContextHolder.getContext().getAuthentication();
+  }
+
+  @Test
+  void defaults_ShouldBeStatelessAndVerifyUserExists() {
+    assertThat(jwtConfig.isStatelessAuth()).isTrue();
+    assertThat(jwtConfig.isVerifyUserExists()).isTrue();
+  }
+
+  @Test
+  void stateless_ExistingUser_ShouldAuthenticateWithoutLoadingUser() throws Exception {
+    when(userService.existsById("user-1")).thenReturn(true);
+
+    Authentication authentication = authenticate("valid-token");
+
+    assertThat(authentication).isNotNull();
+    assertThat(authentication.getName()).isEqualTo("user-1");
+    assertThat(authentication.getAuthorities())
+        .extracting("authority")
+        .containsExactly("ROLE_USER");
+    verify(userService, never()).loadUserByUsername(anyString());
+  }
+
+  @Test
+  void stateless_DeletedUser_ShouldNotAuthenticate() throws Exception {
+    when(userService.existsById("user-1")).thenReturn(false);
+
+    assertThat(authenticate("valid-token")).isNull();
+  }
+
+  @Test
+  void stateless_VerificationDisabled_ShouldTrustClaims() throws Exception {
+    jwtConfig.setVerifyUserExists(false);
+
+    assertThat(authenticate("valid-token")).isNotNull();
+    verify(userService, never()).existsById(anyString());
+  }
+
+  @Test
+  void stateful_ExistingUser_ShouldAuthenticateFromLookup() throws Exception {
+    jwtConfig.setStatelessAuth(false);
+    when(userService.loadUserByUsername("user-1"))
+        .thenReturn(UserService.buildUserDetails("user-1"));
+
+    Authentication authentication = authenticate("valid-token");
+
+    assertThat(authentication).isNotNull();
+    assertThat(authentication.getName()).isEqualTo("user-1");
+    verify(userService).loadUserByUsername("user-1");
+    verify(userService, never()).existsById(anyString());
+  }
+
+  @Test
+  void stateful_DeletedUser_ShouldFailLookup() {
+    jwtConfig.setStatelessAuth(false);
+    when(userService.loadUserByUsername("user-1"))
+        .thenThrow(new UsernameNotFoundException("User not found with id: user-1"));
+
+    assertThrows(
+        UsernameNotFoundException.class, () -> authenticate("valid-token"));
+    assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+  }
+
+  @Test
+  void invalidToken_ShouldNotAuthenticate() throws Exception {
+    assertThat(authenticate("invalid-token")).isNull();
+    verify(userService, never()).existsById(anyString());
+  }
+}
@@ -0,0 +1,96 @@
+package com.chatapp.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.chatapp.config.JwtConfig;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class JwtUtilTest {
+
+  private static final String SECRET =
+      "test-secret-key-that-is-long-enough-for-hs512-signatures-0123456789abcdef";
+
+  private final JwtConfig jwtConfig = new JwtConfig();
+
+  private JwtUtil jwtUtil;
+
+  @BeforeEach
+  void setUp() {
+    jwtConfig.setSecret(SECRET);
+    jwtConfig.setExpiration(3600);
+
+    jwtUtil = new JwtUtil();
+    ReflectionTestUtils.setField(jwtUtil, "jwtConfig", jwtConfig);
+    jwtUtil.init();
+  }
+
+  private String token() {
+    return jwtUtil.generateToken("user-1", "test@example.com", "Test", null);
+  }
+
+  @Test
+  void getClaimsFromToken_ShouldReadGeneratedClaims() {
+    String token = token();
+
+    assertThat(jwtUtil.getUserIdFromToken(token)).isEqualTo("user-1");
+    assertThat(jwtUtil.getEmailFromToken(token)).isEqualTo("test@example.com");
+    assertThat(jwtUtil.getNameFromToken(token)).isEqualTo("Test");
+    assertThat(jwtUtil.validateToken(token)).isTrue();
+  }
+
+  @Test
+  void getClaimsFromToken_Repeated_ShouldServeCachedClaims() {
+    String token = token();
+
+    Claims first = jwtUtil.getClaimsFromToken(token);
+
+    assertThat(jwtUtil.getClaimsFromToken(token)).isSameAs(first);
+  }
+
+  @Test
+  void getClaimsFromToken_ForeignSignature_ShouldBeRejected() {
+    JwtConfig otherConfig = new JwtConfig();
+    otherConfig.setSecret(SECRET.toUpperCase());
+    otherConfig.setExpiration(3600);
+    JwtUtil other = new JwtUtil();
+    ReflectionTestUtils.setField(other, "jwtConfig", otherConfig);
+    other.init();
+    jwtUtil.getClaimsFromToken(token());
+
+    // Same claims, but only the signature of this key's tokens is ever cached
+    String forged = other.generateToken("user-1", "test@example.com", "Test", null);
+
+    assertThatThrownBy(() -> jwtUtil.getClaimsFromToken(forged))
+        .isInstanceOf(SignatureException.class);
+    assertThat(jwtUtil.validateToken(forged)).isFalse();
+  }
+
+  @Test
+  void getClaimsFromToken_AfterTokenExpiry_ShouldDropCachedClaims() throws Exception {
+    // Expiry has whole-second precision: two seconds leave at least one before it passes
+    jwtConfig.setExpiration(2);
+    String token = token();
+    assertThat(jwtUtil.getClaimsFromToken(token).getSubject()).isEqualTo("user-1");
+
+    Thread.sleep(2100);
+
+    // Served from the cache this would still return the claims instead of re-verifying
+    assertThatThrownBy(() -> jwtUtil.getClaimsFromToken(token))
+        .isInstanceOf(ExpiredJwtException.class);
+    assertThat(jwtUtil.validateToken(token)).isFalse();
+    assertThat(jwtUtil.isTokenExpired(token)).isTrue();
+  }
+
+  @Test
+  void getClaimsFromToken_Empty_ShouldThrow() {
+    assertThatThrownBy(() -> jwtUtil.getClaimsFromToken(""))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThat(jwtUtil.validateToken(null)).isFalse();
+  }
+}
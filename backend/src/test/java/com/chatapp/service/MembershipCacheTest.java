@@ -0,0 +1,201 @@
+package com.chatapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.chatapp.config.ClusterConfig;
+import com.chatapp.event.MembershipChangedEvent;
+import com.chatapp.repository.RoomMemberRepository;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class MembershipCacheTest {
+
+  private static final String USER_ID = "user-1";
+  private static final String ROOMS_KEY = "chat:members:user:{user-1}";
+  private static final String VERSION_KEY = "chat:members:version:{user-1}";
+
+  private final ClusterConfig clusterConfig = new ClusterConfig();
+  private final RoomMemberRepository roomMemberRepository = mock(RoomMemberRepository.class);
+  private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+  private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+  @SuppressWarnings("unchecked")
+  private final ValueOperations<String, String> valueOps = mock(ValueOperations.class);
+
+  @SuppressWarnings("unchecked")
+  private final SetOperations<String, String> setOps = mock(SetOperations.class);
+
+  private MembershipCache cache;
+
+  @BeforeEach
+  void setUp() {
+    clusterConfig.setNodeId("node-a");
+    when(redisTemplate.opsForValue()).thenReturn(valueOps);
+    when(redisTemplate.opsForSet()).thenReturn(setOps);
+    when(roomMemberRepository.findRoomIdsByUserId(USER_ID)).thenReturn(List.of("room-1"));
+
+    cache = new MembershipCache();
+    ReflectionTestUtils.setField(cache, "clusterConfig", clusterConfig);
+    ReflectionTestUtils.setField(cache, "roomMemberRepository", roomMemberRepository);
+    ReflectionTestUtils.setField(cache, "redisTemplate", redisTemplate);
+    ReflectionTestUtils.setField(cache, "eventPublisher", eventPublisher);
+  }
+
+  @Test
+  void isMember_ShouldLoadOnceAndAnswerLocally() {
+    assertThat(cache.isMember(USER_ID, "room-1")).isTrue();
+    assertThat(cache.isMember(USER_ID, "room-2")).isFalse();
+
+    verify(roomMemberRepository, times(1)).findRoomIdsByUserId(USER_ID);
+    verifyNoInteractions(redisTemplate);
+  }
+
+  @Test
+  void onMembershipChanged_ShouldReloadRoomsAndMembers() {
+    when(roomMemberRepository.findUserIdsByRoomId("room-1")).thenReturn(List.of(USER_ID));
+    cache.isMember(USER_ID, "room-1");
+    cache.getMemberIds("room-1");
+    when(roomMemberRepository.findRoomIdsByUserId(USER_ID)).thenReturn(List.of());
+    when(roomMemberRepository.findUserIdsByRoomId("room-1")).thenReturn(List.of());
+
+    cache.onMembershipChanged(new MembershipChangedEvent("room-1", USER_ID));
+
+    assertThat(cache.isMember(USER_ID, "room-1")).isFalse();
+    assertThat(cache.getMemberIds("room-1")).isEmpty();
+  }
+
+  @Test
+  void onMessage_ShouldDropLocalCopies() {
+    when(roomMemberRepository.findUserIdsByRoomId("room-1")).thenReturn(List.of(USER_ID));
+    cache.getRoomIds(USER_ID);
+    cache.getMemberIds("room-1");
+
+    cache.onMessage(invalidation(USER_ID), null);
+    cache.onMessage(invalidation("room:room-1"), null);
+    cache.getRoomIds(USER_ID);
+    cache.getMemberIds("room-1");
+
+    verify(roomMemberRepository, times(2)).findRoomIdsByUserId(USER_ID);
+    verify(roomMemberRepository, times(2)).findUserIdsByRoomId("room-1");
+  }
+
+  @Test
+  void getRoomIds_Clustered_SharedHit_ShouldSkipDatabase() {
+    clusterConfig.setEnabled(true);
+    when(setOps.members(ROOMS_KEY)).thenReturn(Set.of("", "room-1", "room-2"));
+
+    assertThat(cache.getRoomIds(USER_ID)).containsExactlyInAnyOrder("room-1", "room-2");
+
+    verifyNoInteractions(roomMemberRepository);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void getRoomIds_Clustered_Miss_ShouldShareOnlyIfVersionUnchanged() {
+    clusterConfig.setEnabled(true);
+    when(valueOps.get(VERSION_KEY)).thenReturn("3");
+    when(setOps.members(ROOMS_KEY)).thenReturn(Set.of());
+
+    assertThat(cache.getRoomIds(USER_ID)).containsExactly("room-1");
+
+    // The version is read before the database, and the store is conditional on it
+    ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+    InOrder order = inOrder(valueOps, roomMemberRepository, redisTemplate);
+    order.verify(valueOps).get(VERSION_KEY);
+    order.verify(roomMemberRepository).findRoomIdsByUserId(USER_ID);
+    order
+        .verify(redisTemplate)
+        .execute(
+            any(RedisScript.class), eq(List.of(ROOMS_KEY, VERSION_KEY)), args.capture());
+    assertThat(args.getValue()).containsExactly("3", "600000", "", "room-1");
+    verify(setOps, never()).add(anyString(), any(String[].class));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void getRoomIds_Clustered_NoVersionYet_ShouldExpectZero() {
+    clusterConfig.setEnabled(true);
+
+    cache.getRoomIds(USER_ID);
+
+    ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+    verify(redisTemplate).execute(any(RedisScript.class), anyList(), args.capture());
+    assertThat(args.getValue()[0]).isEqualTo("0");
+  }
+
+  @Test
+  void getRoomIds_Clustered_RedisDown_ShouldFallBackToDatabase() {
+    clusterConfig.setEnabled(true);
+    when(valueOps.get(VERSION_KEY)).thenThrow(new IllegalStateException("down"));
+
+    assertThat(cache.getRoomIds(USER_ID)).containsExactly("room-1");
+  }
+
+  @Test
+  void onMembershipChanged_Clustered_ShouldBumpVersionBeforeDroppingSharedSet() {
+    clusterConfig.setEnabled(true);
+
+    cache.onMembershipChanged(new MembershipChangedEvent("room-1", USER_ID));
+
+    InOrder order = inOrder(valueOps, redisTemplate);
+    order.verify(valueOps).increment(VERSION_KEY);
+    order.verify(redisTemplate).delete(ROOMS_KEY);
+    order
+        .verify(redisTemplate)
+        .convertAndSend("chat:members:invalidate", "room:room-1\nnode-a\nuser-1");
+  }
+
+  @Test
+  void onMembershipChanged_Remote_ShouldOnlyDropLocalCopies() {
+    clusterConfig.setEnabled(true);
+    cache.getRoomIds(USER_ID);
+
+    cache.onMembershipChanged(new MembershipChangedEvent("room-1", List.of(USER_ID), true));
+
+    verify(valueOps, never()).increment(anyString());
+    verify(redisTemplate, never()).convertAndSend(anyString(), anyString());
+  }
+
+  @Test
+  void onMessage_OtherNodesChange_ShouldRepublishAsRemoteEvent() {
+    cache.getRoomIds(USER_ID);
+
+    cache.onMessage(invalidation("room:room-1\nnode-b\nuser-1\nuser-2"), null);
+
+    ArgumentCaptor<MembershipChangedEvent> event =
+        ArgumentCaptor.forClass(MembershipChangedEvent.class);
+    verify(eventPublisher).publishEvent(event.capture());
+    assertThat(event.getValue().getRoomId()).isEqualTo("room-1");
+    assertThat(event.getValue().getUserIds()).containsExactly(USER_ID, "user-2");
+    assertThat(event.getValue().isRemote()).isTrue();
+    cache.getRoomIds(USER_ID);
+    verify(roomMemberRepository, times(2)).findRoomIdsByUserId(USER_ID);
+  }
+
+  @Test
+  void onMessage_OwnChange_ShouldNotRepublish() {
+    cache.onMessage(invalidation("room:room-1\nnode-a\nuser-1"), null);
+
+    verifyNoInteractions(eventPublisher);
+  }
+
+  private static DefaultMessage invalidation(String body) {
+    return new DefaultMessage(
+        "chat:members:invalidate".getBytes(StandardCharsets.UTF_8),
+        body.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,130 @@
+package com.chatapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.chatapp.config.BulkImportConfig;
+import com.chatapp.entity.ChatRoom;
+import com.chatapp.entity.Message;
+import com.chatapp.entity.User;
+import com.chatapp.event.MessagesImportedEvent;
+import com.chatapp.repository.ChatRoomRepository;
+import com.chatapp.repository.UserRepository;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class MessageImportServiceTest {
+
+  private static final String ROOM_ID = "room-1";
+  private static final String USER_ID = "user-1";
+
+  private final BulkImportConfig config = new BulkImportConfig();
+  private final ChatRoomRepository chatRoomRepository = mock(ChatRoomRepository.class);
+  private final UserRepository userRepository = mock(UserRepository.class);
+  private final MessageJdbcWriter writer = mock(MessageJdbcWriter.class);
+  private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+  private MessageImportService service;
+
+  @BeforeEach
+  void setUp() {
+    User author = new User();
+    author.setId(USER_ID);
+    when(chatRoomRepository.findById(ROOM_ID))
+        .thenReturn(Optional.of(new ChatRoom(ROOM_ID, "General", null, author, false)));
+    when(userRepository.findById(USER_ID)).thenReturn(Optional.of(author));
+
+    service = new MessageImportService();
+    ReflectionTestUtils.setField(service, "config", config);
+    ReflectionTestUtils.setField(service, "chatRoomRepository", chatRoomRepository);
+    ReflectionTestUtils.setField(service, "userRepository", userRepository);
+    ReflectionTestUtils.setField(service, "messageJdbcWriter", writer);
+    ReflectionTestUtils.setField(
+        service,
+        "transactionTemplate",
+        new TransactionTemplate(mock(PlatformTransactionManager.class)));
+    ReflectionTestUtils.setField(service, "eventPublisher", eventPublisher);
+  }
+
+  private static Message message(String content, LocalDateTime createdAt) {
+    Message message = new Message();
+    message.setContent(content);
+    message.setCreatedAt(createdAt);
+    return message;
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Message> inserted() {
+    ArgumentCaptor<List<Message>> chunk = ArgumentCaptor.forClass(List.class);
+    verify(writer).insertAll(chunk.capture());
+    return chunk.getValue();
+  }
+
+  @Test
+  void add_History_ShouldKeepPastCreatedAt() {
+    LocalDateTime past = LocalDateTime.of(2024, 1, 1, 12, 0);
+    MessageImportService.Batch batch = service.begin(USER_ID, ROOM_ID, false);
+
+    batch.add(message("old", past));
+
+    assertThat(batch.finish()).isEqualTo(1);
+    Message stored = inserted().get(0);
+    assertThat(stored.getCreatedAt()).isEqualTo(past);
+    assertThat(stored.getMessageType()).isEqualTo(Message.MessageType.TEXT);
+    assertThat(stored.getUser().getId()).isEqualTo(USER_ID);
+    verify(eventPublisher).publishEvent(any(MessagesImportedEvent.class));
+  }
+
+  @Test
+  void add_History_FutureCreatedAt_ShouldReject() {
+    MessageImportService.Batch batch = service.begin(USER_ID, ROOM_ID, false);
+
+    assertThatThrownBy(() -> batch.add(message("later", LocalDateTime.now().plusDays(1))))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("future");
+    assertThat(batch.finish()).isZero();
+    verifyNoInteractions(writer);
+  }
+
+  @Test
+  void add_Live_ShouldStampServerTime() {
+    LocalDateTime before = LocalDateTime.now();
+    MessageImportService.Batch batch = service.begin(USER_ID, ROOM_ID, true);
+
+    // Supplied timestamps, future or not, are ignored for live imports
+    batch.add(message("now", LocalDateTime.now().plusDays(1)));
+    batch.finish();
+
+    assertThat(inserted().get(0).getCreatedAt()).isBetween(before, LocalDateTime.now());
+  }
+
+  @Test
+  void add_ChunkSizeReached_ShouldCommitChunk() {
+    config.setChunkSize(2);
+    MessageImportService.Batch batch = service.begin(USER_ID, ROOM_ID, false);
+
+    batch.add(message("one", null));
+    batch.add(message("two", null));
+
+    assertThat(batch.getImported()).isEqualTo(2);
+    assertThat(inserted()).hasSize(2);
+  }
+
+  @Test
+  void add_BlankContent_ShouldReject() {
+    MessageImportService.Batch batch = service.begin(USER_ID, ROOM_ID, false);
+
+    assertThatThrownBy(() -> batch.add(message(" ", null)))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,241 @@
+package com.chatapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.chatapp.config.WriteBehindConfig;
+import com.chatapp.entity.Message;
+import com.chatapp.event.MessageCreatedEvent;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class MessagePersistencePipelineTest {
+
+  private final WriteBehindConfig config = new WriteBehindConfig();
+  private final MessageJdbcWriter writer = mock(MessageJdbcWriter.class);
+  private final RoomSequenceAllocator sequenceAllocator = mock(RoomSequenceAllocator.class);
+  private final PlatformTransactionManager transactionManager =
+      mock(PlatformTransactionManager.class);
+  private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+  // Outcome reported to each message's callback
+  private final Map<String, Boolean> outcomes = new ConcurrentHashMap<>();
+
+  private MessagePersistencePipeline pipeline;
+
+  @BeforeEach
+  void setUp() {
+    config.setQueueCapacity(100);
+    config.setFlushSize(3);
+    config.setFlushIntervalMs(10_000);
+    config.setRetryAttempts(2);
+    config.setRetryBackoffMs(1);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    if (pipeline != null) {
+      pipeline.stop();
+    }
+  }
+
+  private void start() {
+    pipeline = new MessagePersistencePipeline();
+    ReflectionTestUtils.setField(pipeline, "config", config);
+    ReflectionTestUtils.setField(pipeline, "messageJdbcWriter", writer);
+    ReflectionTestUtils.setField(pipeline, "sequenceAllocator", sequenceAllocator);
+    ReflectionTestUtils.setField(pipeline, "transactionManager", transactionManager);
+    ReflectionTestUtils.setField(pipeline, "eventPublisher", eventPublisher);
+    pipeline.start();
+  }
+
+  private static Message message(String id) {
+    Message message = new Message();
+    message.setId(id);
+    return message;
+  }
+
+  private boolean enqueue(Message message) {
+    Consumer<Boolean> onPersisted = persisted -> outcomes.put(message.getId(), persisted);
+    return pipeline.enqueue(message, onPersisted);
+  }
+
+  @Test
+  void enqueue_FullBatch_ShouldFlushWithoutWaitingForInterval() {
+    start();
+
+    enqueue(message("m1"));
+    enqueue(message("m2"));
+    enqueue(message("m3"));
+
+    verify(writer, timeout(2000)).insertAll(argThat(messages -> messages.size() == 3));
+    await(() -> outcomes.size() == 3);
+    assertThat(outcomes)
+        .containsOnly(Map.entry("m1", true), Map.entry("m2", true), Map.entry("m3", true));
+    verify(eventPublisher, times(3)).publishEvent(any(MessageCreatedEvent.class));
+  }
+
+  @Test
+  void enqueue_PartialBatch_ShouldFlushAfterInterval() {
+    config.setFlushSize(100);
+    config.setFlushIntervalMs(50);
+    start();
+
+    enqueue(message("m1"));
+    enqueue(message("m2"));
+
+    verify(writer, timeout(2000)).insertAll(argThat(messages -> messages.size() == 2));
+    verify(writer, never()).insert(any());
+  }
+
+  @Test
+  void enqueue_MoreThanFlushSize_ShouldSplitIntoBatches() {
+    config.setFlushIntervalMs(50);
+    start();
+
+    for (int i = 0; i < 7; i++) {
+      enqueue(message("m" + i));
+    }
+
+    verify(writer, timeout(2000).atLeast(3)).insertAll(argThat(messages -> messages.size() <= 3));
+    verify(eventPublisher, timeout(2000).times(7)).publishEvent(any(MessageCreatedEvent.class));
+  }
+
+  @Test
+  void flush_BatchFailure_ShouldFallBackToSingleInserts() {
+    Message good = message("good");
+    Message bad = message("bad");
+    doThrow(new DataIntegrityViolationException("batch")).when(writer).insertAll(anyList());
+    doThrow(new DataIntegrityViolationException("row")).when(writer).insert(bad);
+    config.setFlushSize(2);
+    start();
+
+    enqueue(good);
+    enqueue(bad);
+
+    verify(writer, timeout(2000)).insert(good);
+    verify(writer, timeout(2000)).insert(bad);
+    await(() -> outcomes.size() == 2);
+    assertThat(outcomes).containsOnly(Map.entry("good", true), Map.entry("bad", false));
+    // An invalid row is not retried
+    verify(writer, times(1)).insert(bad);
+    verify(eventPublisher, times(1)).publishEvent(any(MessageCreatedEvent.class));
+  }
+
+  @Test
+  void flush_TransientFailure_ShouldRetryAndPersist() {
+    Message message = message("m1");
+    doThrow(new TransientDataAccessResourceException("down")).when(writer).insertAll(anyList());
+    doThrow(new TransientDataAccessResourceException("down"))
+        .doThrow(new TransientDataAccessResourceException("down"))
+        .doNothing()
+        .when(writer)
+        .insert(message);
+    config.setFlushSize(1);
+    start();
+
+    enqueue(message);
+
+    await(() -> outcomes.containsKey("m1"));
+    assertThat(outcomes).containsOnly(Map.entry("m1", true));
+    verify(writer, times(3)).insert(message);
+  }
+
+  @Test
+  void flush_PersistentFailure_ShouldReportLostAfterRetries() {
+    Message message = message("m1");
+    doThrow(new TransientDataAccessResourceException("down")).when(writer).insertAll(anyList());
+    doThrow(new TransientDataAccessResourceException("down")).when(writer).insert(message);
+    config.setFlushSize(1);
+    start();
+
+    enqueue(message);
+
+    await(() -> outcomes.containsKey("m1"));
+    assertThat(outcomes).containsOnly(Map.entry("m1", false));
+    // The first single insert plus two retries
+    verify(writer, times(3)).insert(message);
+    verify(eventPublisher, never()).publishEvent(any(MessageCreatedEvent.class));
+  }
+
+  @Test
+  void enqueue_FullQueue_ShouldRejectWithoutWaiting() throws Exception {
+    CountDownLatch flushing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    doAnswer(
+            invocation -> {
+              flushing.countDown();
+              release.await(5, TimeUnit.SECONDS);
+              return null;
+            })
+        .when(writer)
+        .insertAll(anyList());
+    config.setQueueCapacity(1);
+    config.setFlushSize(1);
+    start();
+
+    // The flusher takes the first message and blocks in the insert; the second fills the queue
+    assertThat(enqueue(message("m1"))).isTrue();
+    assertThat(flushing.await(2, TimeUnit.SECONDS)).isTrue();
+    assertThat(enqueue(message("m2"))).isTrue();
+
+    long started = System.nanoTime();
+    boolean accepted = enqueue(message("m3"));
+    long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+    assertThat(accepted).isFalse();
+    assertThat(elapsedMs).isLessThan(20);
+    assertThat(outcomes).doesNotContainKey("m3");
+    // Rejected before numbering, so the room's sequence has no gap
+    verify(sequenceAllocator, times(2)).assign(anyList());
+    release.countDown();
+    await(() -> outcomes.size() == 2);
+  }
+
+  @Test
+  void enqueue_NumberingFails_ShouldFreeTheSlot() throws Exception {
+    doThrow(new IllegalArgumentException("Room not found"))
+        .doNothing()
+        .when(sequenceAllocator)
+        .assign(anyList());
+    config.setQueueCapacity(1);
+    start();
+
+    assertThatThrownBy(() -> enqueue(message("m1"))).isInstanceOf(IllegalArgumentException.class);
+
+    assertThat(enqueue(message("m2"))).isTrue();
+  }
+
+  @Test
+  void enqueue_AfterStop_ShouldReject() throws Exception {
+    start();
+    pipeline.stop();
+
+    assertThat(enqueue(message("m1"))).isFalse();
+  }
+
+  private static void await(BooleanSupplier condition) {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!condition.getAsBoolean()) {
+      if (System.nanoTime() > deadline) {
+        throw new AssertionError("Condition not met within 5 seconds");
+      }
+      LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+    }
+  }
+}
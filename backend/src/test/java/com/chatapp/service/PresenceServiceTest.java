@@ -0,0 +1,165 @@
+package com.chatapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.chatapp.config.ClusterConfig;
+import com.chatapp.config.PresenceConfig;
+import com.chatapp.event.MembershipChangedEvent;
+import com.chatapp.repository.RoomMemberRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class PresenceServiceTest {
+
+  private static final String USER_ID = "user-1";
+  private static final String ROOM_ID = "room-1";
+  private static final String NODE_ID = "node-a";
+
+  private final PresenceConfig config = new PresenceConfig();
+  private final ClusterConfig clusterConfig = new ClusterConfig();
+  private final MembershipCache membershipCache = mock(MembershipCache.class);
+  private final RoomMemberRepository roomMemberRepository = mock(RoomMemberRepository.class);
+  private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+
+  @SuppressWarnings("unchecked")
+  private final ValueOperations<String, String> valueOps = mock(ValueOperations.class);
+
+  @SuppressWarnings("unchecked")
+  private final ZSetOperations<String, String> zSetOps = mock(ZSetOperations.class);
+
+  private PresenceService presenceService;
+
+  @BeforeEach
+  void setUp() {
+    config.setStripes(4);
+    clusterConfig.setNodeId(NODE_ID);
+    when(membershipCache.getRoomIds(USER_ID)).thenReturn(Set.of(ROOM_ID));
+    when(redisTemplate.opsForValue()).thenReturn(valueOps);
+    when(redisTemplate.opsForZSet()).thenReturn(zSetOps);
+
+    presenceService = new PresenceService();
+    ReflectionTestUtils.setField(presenceService, "config", config);
+    ReflectionTestUtils.setField(presenceService, "clusterConfig", clusterConfig);
+    ReflectionTestUtils.setField(presenceService, "membershipCache", membershipCache);
+    ReflectionTestUtils.setField(presenceService, "roomMemberRepository", roomMemberRepository);
+    ReflectionTestUtils.setField(presenceService, "redisTemplate", redisTemplate);
+    ReflectionTestUtils.setField(presenceService, "meterRegistry", new SimpleMeterRegistry());
+    // Cluster disabled: no heartbeat thread, heartbeat() is driven by the tests
+    presenceService.start();
+  }
+
+  @Test
+  void connect_ShouldReportFirstAndLastSession() {
+    UUID first = UUID.randomUUID();
+    UUID second = UUID.randomUUID();
+
+    assertThat(presenceService.connect(USER_ID, first)).isTrue();
+    assertThat(presenceService.connect(USER_ID, second)).isFalse();
+    assertThat(presenceService.getSessionIds(USER_ID)).containsExactly(first, second);
+    assertThat(presenceService.getLocalSessionCount()).isEqualTo(2);
+
+    assertThat(presenceService.disconnect(USER_ID, first)).isFalse();
+    assertThat(presenceService.isOnline(USER_ID)).isTrue();
+    assertThat(presenceService.disconnect(USER_ID, second)).isTrue();
+    assertThat(presenceService.isOnline(USER_ID)).isFalse();
+    assertThat(presenceService.getLocalUserCount()).isZero();
+  }
+
+  @Test
+  void disconnect_UnknownSession_ShouldBeIgnored() {
+    presenceService.connect(USER_ID, UUID.randomUUID());
+
+    assertThat(presenceService.disconnect(USER_ID, UUID.randomUUID())).isFalse();
+    assertThat(presenceService.disconnect("user-2", UUID.randomUUID())).isFalse();
+    assertThat(presenceService.isOnline(USER_ID)).isTrue();
+  }
+
+  @Test
+  void getOnlineUserIds_ShouldFollowConnectsOfMembers() {
+    UUID sessionId = UUID.randomUUID();
+
+    presenceService.connect(USER_ID, sessionId);
+    assertThat(presenceService.getOnlineUserIds(ROOM_ID)).containsExactly(USER_ID);
+    assertThat(presenceService.getOnlineUserIds("room-2")).isEmpty();
+
+    presenceService.disconnect(USER_ID, sessionId);
+    assertThat(presenceService.getOnlineUserIds(ROOM_ID)).isEmpty();
+  }
+
+  @Test
+  void onMembershipChanged_ShouldListJoinedAndDropLeftRooms() {
+    presenceService.connect(USER_ID, UUID.randomUUID());
+
+    when(roomMemberRepository.existsByRoomIdAndUserId("room-2", USER_ID)).thenReturn(true);
+    presenceService.onMembershipChanged(new MembershipChangedEvent("room-2", USER_ID));
+    assertThat(presenceService.getOnlineUserIds("room-2")).containsExactly(USER_ID);
+
+    when(roomMemberRepository.existsByRoomIdAndUserId("room-2", USER_ID)).thenReturn(false);
+    presenceService.onMembershipChanged(new MembershipChangedEvent("room-2", USER_ID));
+    assertThat(presenceService.getOnlineUserIds("room-2")).isEmpty();
+    assertThat(presenceService.getOnlineUserIds(ROOM_ID)).containsExactly(USER_ID);
+  }
+
+  @Test
+  void onMembershipChanged_OfflineUser_ShouldNotQueryDatabase() {
+    presenceService.onMembershipChanged(new MembershipChangedEvent(ROOM_ID, USER_ID));
+
+    verifyNoInteractions(roomMemberRepository);
+    assertThat(presenceService.getOnlineUserIds(ROOM_ID)).isEmpty();
+  }
+
+  @Test
+  void heartbeat_ShouldPublishLocalUsersAndReadOtherNodes() {
+    presenceService.connect(USER_ID, UUID.randomUUID());
+    when(zSetOps.range("chat:presence:nodes", 0, -1)).thenReturn(Set.of(NODE_ID, "node-b"));
+    when(valueOps.multiGet(List.of("chat:presence:node:node-b")))
+        .thenReturn(List.of("user-2,user-3"));
+    when(membershipCache.getMemberIds(ROOM_ID)).thenReturn(Set.of(USER_ID, "user-2"));
+
+    presenceService.heartbeat();
+
+    verify(valueOps)
+        .set(
+            "chat:presence:node:" + NODE_ID,
+            USER_ID,
+            Duration.ofSeconds(config.getTtlSeconds()));
+    verify(zSetOps).add(eq("chat:presence:nodes"), eq(NODE_ID), anyDouble());
+    verify(zSetOps).removeRangeByScore(eq("chat:presence:nodes"), eq(0.0), anyDouble());
+    assertThat(presenceService.isOnline("user-3")).isTrue();
+    assertThat(presenceService.getOnlineUserIds(ROOM_ID))
+        .containsExactlyInAnyOrder(USER_ID, "user-2");
+  }
+
+  @Test
+  void isOnline_StaleRemotePresence_ShouldBeIgnored() {
+    when(zSetOps.range("chat:presence:nodes", 0, -1)).thenReturn(Set.of("node-b"));
+    when(valueOps.multiGet(List.of("chat:presence:node:node-b"))).thenReturn(List.of("user-2"));
+    presenceService.heartbeat();
+    assertThat(presenceService.isOnline("user-2")).isTrue();
+
+    // As if heartbeats stopped reaching Redis for longer than the TTL
+    ReflectionTestUtils.setField(presenceService, "remoteRefreshedAt", 0L);
+
+    assertThat(presenceService.isOnline("user-2")).isFalse();
+  }
+
+  @Test
+  void heartbeat_RedisDown_ShouldNotThrow() {
+    when(redisTemplate.opsForValue()).thenThrow(new IllegalStateException("connection refused"));
+
+    presenceService.heartbeat();
+
+    assertThat(presenceService.isOnline("user-2")).isFalse();
+  }
+}
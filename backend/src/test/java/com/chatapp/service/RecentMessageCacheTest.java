@@ -0,0 +1,216 @@
+package com.chatapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import com.chatapp.config.ClusterConfig;
+import com.chatapp.config.RecentMessageCacheConfig;
+import com.chatapp.dto.MessageCursor;
+import com.chatapp.entity.ChatRoom;
+import com.chatapp.entity.Message;
+import com.chatapp.entity.User;
+import com.chatapp.event.MessageCreatedEvent;
+import com.chatapp.event.MessageDeletedEvent;
+import com.chatapp.event.UserProfileUpdatedEvent;
+import com.chatapp.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class RecentMessageCacheTest {
+
+  private static final String ROOM_ID = "room-1";
+  private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+  private final RecentMessageCacheConfig config = new RecentMessageCacheConfig();
+  private final ClusterConfig clusterConfig = new ClusterConfig();
+  private final UserRepository userRepository = mock(UserRepository.class);
+  private final ChatRoom room = new ChatRoom(ROOM_ID, "General", null, null, false);
+
+  private RecentMessageCache cache;
+  private User author;
+
+  @BeforeEach
+  void setUp() {
+    config.setCapacity(5);
+    author = new User();
+    author.setId("user-1");
+    author.setEmail("alice@example.com");
+    author.setName("Alice");
+    author.setCreatedAt(T0.minusDays(30));
+
+    cache = new RecentMessageCache();
+    ReflectionTestUtils.setField(cache, "config", config);
+    ReflectionTestUtils.setField(cache, "clusterConfig", clusterConfig);
+    ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+    ReflectionTestUtils.setField(cache, "userRepository", userRepository);
+    cache.init();
+  }
+
+  // Message i was created i minutes after T0
+  private Message message(int i) {
+    Message message =
+        new Message("m" + i, room, author, "hello " + i, Message.MessageType.TEXT, null);
+    message.setCreatedAt(T0.plusMinutes(i));
+    message.setSeq((long) i);
+    return message;
+  }
+
+  // Newest first, as the database returns them
+  private List<Message> newest(int from, int to) {
+    List<Message> messages = new ArrayList<>();
+    for (int i = to; i >= from; i--) {
+      messages.add(message(i));
+    }
+    return messages;
+  }
+
+  private static List<String> ids(List<Message> messages) {
+    return messages.stream().map(Message::getId).toList();
+  }
+
+  @Test
+  void findBefore_Unseeded_ShouldMiss() {
+    assertThat(cache.findBefore(ROOM_ID, null, 3)).isEmpty();
+    assertThat(cache.isSeeded(ROOM_ID)).isFalse();
+  }
+
+  @Test
+  void findBefore_Seeded_ShouldReturnNewestFirst() {
+    cache.seed(ROOM_ID, newest(1, 5), false);
+
+    assertThat(cache.findBefore(ROOM_ID, null, 3).map(RecentMessageCacheTest::ids))
+        .contains(List.of("m5", "m4", "m3"));
+    assertThat(
+            cache
+                .findBefore(ROOM_ID, MessageCursor.of(message(4)), 2)
+                .map(RecentMessageCacheTest::ids))
+        .contains(List.of("m3", "m2"));
+  }
+
+  @Test
+  void findBefore_BeyondIncompleteTail_ShouldMiss() {
+    cache.seed(ROOM_ID, newest(6, 10), false);
+
+    // Only m6..m10 are cached and older messages exist in the database
+    assertThat(cache.findBefore(ROOM_ID, MessageCursor.of(message(8)), 5)).isEmpty();
+  }
+
+  @Test
+  void findBefore_CompleteHistory_ShouldAnswerShortPages() {
+    cache.seed(ROOM_ID, newest(1, 3), true);
+
+    assertThat(
+            cache
+                .findBefore(ROOM_ID, MessageCursor.of(message(2)), 5)
+                .map(RecentMessageCacheTest::ids))
+        .contains(List.of("m1"));
+  }
+
+  @Test
+  void append_BeyondCapacity_ShouldDropOldestAndForgetCompleteness() {
+    cache.seed(ROOM_ID, newest(1, 5), true);
+
+    cache.onMessageCreated(new MessageCreatedEvent(message(6)));
+
+    assertThat(cache.findBefore(ROOM_ID, null, 5).map(RecentMessageCacheTest::ids))
+        .contains(List.of("m6", "m5", "m4", "m3", "m2"));
+    // m1 fell out, so a page reaching past m2 has to go to the database
+    assertThat(cache.findBefore(ROOM_ID, MessageCursor.of(message(3)), 5)).isEmpty();
+  }
+
+  @Test
+  void append_OutOfOrder_ShouldStillReadSorted() {
+    cache.seed(ROOM_ID, newest(1, 2), false);
+
+    cache.onMessageCreated(new MessageCreatedEvent(message(4)));
+    cache.onMessageCreated(new MessageCreatedEvent(message(3)));
+
+    assertThat(cache.findBefore(ROOM_ID, null, 4).map(RecentMessageCacheTest::ids))
+        .contains(List.of("m4", "m3", "m2", "m1"));
+  }
+
+  @Test
+  void findSince_ShouldReturnOldestFirstWhenCovered() {
+    cache.seed(ROOM_ID, newest(3, 7), false);
+
+    assertThat(cache.findSince(ROOM_ID, T0.plusMinutes(5)).map(RecentMessageCacheTest::ids))
+        .contains(List.of("m6", "m7"));
+    // Messages between T0+1 and m3 may exist only in the database
+    assertThat(cache.findSince(ROOM_ID, T0.plusMinutes(1))).isEmpty();
+  }
+
+  @Test
+  void onMessageDeleted_ShouldRemoveFromTail() {
+    cache.seed(ROOM_ID, newest(1, 3), true);
+
+    cache.onMessageDeleted(new MessageDeletedEvent("m2", ROOM_ID));
+
+    assertThat(cache.findBefore(ROOM_ID, null, 5).map(RecentMessageCacheTest::ids))
+        .contains(List.of("m3", "m1"));
+  }
+
+  @Test
+  void seed_ShouldKeepMessagesAppendedDuringTheRead() {
+    cache.onMessageCreated(new MessageCreatedEvent(message(4)));
+
+    cache.seed(ROOM_ID, newest(1, 3), true);
+
+    assertThat(cache.findBefore(ROOM_ID, null, 5).map(RecentMessageCacheTest::ids))
+        .contains(List.of("m4", "m3", "m2", "m1"));
+  }
+
+  @Test
+  void onMessageCreated_SessionAuthor_ShouldCacheCompleteAuthor() {
+    // Socket messages carry a detached user built from the session profile
+    User sessionUser = new User();
+    sessionUser.setId("user-1");
+    sessionUser.setName("Alice");
+    Message fromSocket = message(2);
+    fromSocket.setUser(sessionUser);
+    when(userRepository.findById("user-1")).thenReturn(Optional.of(author));
+    cache.seed(ROOM_ID, newest(1, 1), true);
+
+    cache.onMessageCreated(new MessageCreatedEvent(fromSocket));
+    cache.onMessageCreated(new MessageCreatedEvent(message(3)));
+
+    List<Message> page = cache.findBefore(ROOM_ID, null, 5).orElseThrow();
+    assertThat(ids(page)).containsExactly("m3", "m2", "m1");
+    User cachedAuthor = page.get(1).getUser();
+    assertThat(cachedAuthor.getEmail()).isEqualTo("alice@example.com");
+    assertThat(cachedAuthor.getCreatedAt()).isEqualTo(author.getCreatedAt());
+    assertThat(page.get(1).getSeq()).isEqualTo(2L);
+    assertThat(page.get(1).getCreatedAt()).isEqualTo(fromSocket.getCreatedAt());
+    // Complete authors are used as they are
+    verify(userRepository, times(1)).findById("user-1");
+  }
+
+  @Test
+  void onUserProfileUpdated_ShouldDropOnlyRoomsTheUserWroteIn() {
+    cache.seed(ROOM_ID, newest(1, 3), true);
+    cache.seed("room-2", List.of(), true);
+
+    cache.onUserProfileUpdated(new UserProfileUpdatedEvent("user-1", "Alicia", null));
+
+    assertThat(cache.isSeeded(ROOM_ID)).isFalse();
+    assertThat(cache.isSeeded("room-2")).isTrue();
+  }
+
+  @Test
+  void isEnabled_Clustered_ShouldBypassCache() {
+    clusterConfig.setEnabled(true);
+    cache.seed(ROOM_ID, newest(1, 1), true);
+
+    cache.onMessageCreated(new MessageCreatedEvent(message(2)));
+
+    // Other nodes' messages never reach this node's buffers
+    assertThat(cache.isEnabled()).isFalse();
+    assertThat(cache.findBefore(ROOM_ID, null, 5).map(RecentMessageCacheTest::ids))
+        .contains(List.of("m1"));
+  }
+}
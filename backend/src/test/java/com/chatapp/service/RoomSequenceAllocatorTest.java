@@ -0,0 +1,218 @@
+package com.chatapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.chatapp.config.SequenceConfig;
+import com.chatapp.entity.ChatRoom;
+import com.chatapp.entity.Message;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class RoomSequenceAllocatorTest {
+
+  private static final String ROOM_ID = "room-1";
+  private static final String RESERVE = "reserved_seq = GREATEST";
+  private static final String RELEASE = "SET reserved_seq = ? WHERE";
+  private static final String ADVANCE = "SET last_seq = GREATEST";
+
+  private final SequenceConfig config = new SequenceConfig();
+  private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+  // Stands in for chat_rooms.reserved_seq of ROOM_ID
+  private final AtomicLong reserved = new AtomicLong();
+
+  private RoomSequenceAllocator allocator;
+
+  @BeforeEach
+  void setUp() {
+    config.setBlockSize(3);
+    when(jdbcTemplate.update(contains(RESERVE), anyInt(), eq(ROOM_ID)))
+        .thenAnswer(
+            invocation -> {
+              reserved.addAndGet(invocation.<Integer>getArgument(1));
+              return 1;
+            });
+    when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq(ROOM_ID)))
+        .thenAnswer(invocation -> reserved.get());
+
+    allocator = new RoomSequenceAllocator();
+    ReflectionTestUtils.setField(allocator, "config", config);
+    ReflectionTestUtils.setField(allocator, "jdbcTemplate", jdbcTemplate);
+    ReflectionTestUtils.setField(
+        allocator, "transactionManager", mock(PlatformTransactionManager.class));
+    ReflectionTestUtils.setField(allocator, "meterRegistry", new SimpleMeterRegistry());
+    allocator.init();
+  }
+
+  private static Message message(String roomId, Long seq) {
+    ChatRoom room = new ChatRoom();
+    room.setId(roomId);
+    Message message = new Message();
+    message.setRoom(room);
+    message.setSeq(seq);
+    return message;
+  }
+
+  @Test
+  void next_ShouldNumberDenselyWithOneReservationPerBlock() {
+    List<Long> seqs = new ArrayList<>();
+    for (int i = 0; i < 7; i++) {
+      seqs.add(allocator.next(ROOM_ID));
+    }
+
+    assertThat(seqs).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L);
+    verify(jdbcTemplate, times(3)).update(contains(RESERVE), eq(3), eq(ROOM_ID));
+  }
+
+  @Test
+  void next_Concurrent_ShouldNeverRepeatNumbers() throws Exception {
+    int threads = 8;
+    int perThread = 500;
+    Set<Long> seqs = ConcurrentHashMap.newKeySet();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int i = 0; i < perThread; i++) {
+                    seqs.add(allocator.next(ROOM_ID));
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(seqs)
+        .isEqualTo(
+            LongStream.rangeClosed(1, threads * perThread).boxed().collect(Collectors.toSet()));
+  }
+
+  @Test
+  void next_UnknownRoom_ShouldThrow() {
+    assertThatThrownBy(() -> allocator.next("missing"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("missing");
+  }
+
+  @Test
+  void releaseAll_ShouldHandBackUnusedTail() {
+    allocator.next(ROOM_ID);
+
+    allocator.releaseAll();
+
+    verify(jdbcTemplate).update(contains(RELEASE), eq(1L), eq(ROOM_ID), eq(3L));
+  }
+
+  @Test
+  void releaseAll_UsedUpBlock_ShouldNotUpdate() {
+    for (int i = 0; i < 3; i++) {
+      allocator.next(ROOM_ID);
+    }
+
+    allocator.releaseAll();
+
+    verify(jdbcTemplate, never()).update(contains(RELEASE), any(Object[].class));
+  }
+
+  @Test
+  void next_AfterRelease_ShouldReserveNewBlock() {
+    allocator.next(ROOM_ID);
+    allocator.releaseAll();
+
+    // The mock ignores the release, as when another node has reserved past the block
+    assertThat(allocator.next(ROOM_ID)).isEqualTo(4L);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void next_OnReleasedEntry_ShouldNotReserveABlockThatIsNeverHandedBack() {
+    allocator.next(ROOM_ID);
+    Cache<String, Object> rooms =
+        (Cache<String, Object>) ReflectionTestUtils.getField(allocator, "rooms");
+    Object evicted = rooms.getIfPresent(ROOM_ID);
+    // As the removal listener does for an entry evicted while another thread still uses it
+    ReflectionTestUtils.invokeMethod(evicted, "release");
+
+    Long seq = ReflectionTestUtils.invokeMethod(evicted, "next");
+
+    assertThat(seq).isEqualTo(-1L);
+    verify(jdbcTemplate, times(1)).update(contains(RESERVE), anyInt(), eq(ROOM_ID));
+    assertThat(allocator.next(ROOM_ID)).isEqualTo(4L);
+    assertThat(rooms.getIfPresent(ROOM_ID)).isNotSameAs(evicted);
+  }
+
+  @Test
+  void giveBack_LatestNumber_ShouldBeHandedOutAgain() {
+    allocator.next(ROOM_ID);
+    long unused = allocator.next(ROOM_ID);
+
+    assertThat(allocator.giveBack(ROOM_ID, unused)).isTrue();
+
+    assertThat(allocator.next(ROOM_ID)).isEqualTo(unused);
+    assertThat(allocator.next(ROOM_ID)).isEqualTo(3L);
+  }
+
+  @Test
+  void giveBack_AfterLaterNumber_ShouldLeaveGap() {
+    long unused = allocator.next(ROOM_ID);
+    allocator.next(ROOM_ID);
+
+    assertThat(allocator.giveBack(ROOM_ID, unused)).isFalse();
+
+    assertThat(allocator.next(ROOM_ID)).isEqualTo(3L);
+  }
+
+  @Test
+  void giveBack_AfterRelease_ShouldRefuse() {
+    long unused = allocator.next(ROOM_ID);
+    allocator.releaseAll();
+
+    assertThat(allocator.giveBack(ROOM_ID, unused)).isFalse();
+  }
+
+  @Test
+  void assign_ShouldOnlyNumberMessagesWithoutSeq() {
+    Message numbered = message(ROOM_ID, 99L);
+    Message first = message(ROOM_ID, null);
+    Message second = message(ROOM_ID, null);
+
+    allocator.assign(List.of(first, numbered, second));
+
+    assertThat(first.getSeq()).isEqualTo(1L);
+    assertThat(numbered.getSeq()).isEqualTo(99L);
+    assertThat(second.getSeq()).isEqualTo(2L);
+  }
+
+  @Test
+  void advance_ShouldMoveEachRoomToItsNewestMessage() {
+    allocator.advance(
+        List.of(message("room-b", 3L), message("room-a", 5L), message("room-a", 4L)));
+
+    verify(jdbcTemplate).update(contains(ADVANCE), eq(5L), eq("room-a"));
+    verify(jdbcTemplate).update(contains(ADVANCE), eq(3L), eq("room-b"));
+    verifyNoMoreInteractions(jdbcTemplate);
+  }
+}
@@ -0,0 +1,80 @@
+package com.chatapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.chatapp.config.ClusterConfig;
+import com.chatapp.event.UserDeletedEvent;
+import com.chatapp.repository.UserRepository;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class UserExistenceCacheTest {
+
+  private final UserRepository userRepository = mock(UserRepository.class);
+  private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+  private final ClusterConfig clusterConfig = new ClusterConfig();
+
+  private UserExistenceCache cache;
+
+  @BeforeEach
+  void setUp() {
+    cache = new UserExistenceCache();
+    ReflectionTestUtils.setField(cache, "clusterConfig", clusterConfig);
+    ReflectionTestUtils.setField(cache, "userRepository", userRepository);
+    ReflectionTestUtils.setField(cache, "redisTemplate", redisTemplate);
+  }
+
+  @Test
+  void exists_ShouldCacheExistingUsersOnly() {
+    when(userRepository.existsById("user-1")).thenReturn(true);
+    when(userRepository.existsById("ghost")).thenReturn(false);
+
+    assertThat(cache.exists("user-1")).isTrue();
+    assertThat(cache.exists("user-1")).isTrue();
+    assertThat(cache.exists("ghost")).isFalse();
+    assertThat(cache.exists("ghost")).isFalse();
+
+    verify(userRepository, times(1)).existsById("user-1");
+    verify(userRepository, times(2)).existsById("ghost");
+  }
+
+  @Test
+  void onUserDeleted_ShouldDropEntryAndAnnounceInCluster() {
+    clusterConfig.setEnabled(true);
+    when(userRepository.existsById("user-1")).thenReturn(true, false);
+    cache.exists("user-1");
+
+    cache.onUserDeleted(new UserDeletedEvent("user-1"));
+
+    assertThat(cache.exists("user-1")).isFalse();
+    verify(redisTemplate).convertAndSend("chat:users:deleted", "user-1");
+  }
+
+  @Test
+  void onUserDeleted_SingleNode_ShouldNotPublish() {
+    cache.onUserDeleted(new UserDeletedEvent("user-1"));
+
+    verify(redisTemplate, never()).convertAndSend(anyString(), anyString());
+  }
+
+  @Test
+  void onMessage_ShouldDropEntryDeletedOnAnotherNode() {
+    when(userRepository.existsById("user-1")).thenReturn(true, false);
+    cache.exists("user-1");
+
+    cache.onMessage(
+        new DefaultMessage(
+            "chat:users:deleted".getBytes(StandardCharsets.UTF_8),
+            "user-1".getBytes(StandardCharsets.UTF_8)),
+        null);
+
+    assertThat(cache.exists("user-1")).isFalse();
+    verify(userRepository, times(2)).existsById("user-1");
+  }
+}
@@ -0,0 +1,179 @@
+package com.chatapp.socket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.chatapp.config.SocketDispatchConfig;
+import com.corundumstudio.socketio.SocketIOClient;
+import com.corundumstudio.socketio.listener.ConnectListener;
+import com.corundumstudio.socketio.listener.DataListener;
+import com.corundumstudio.socketio.listener.DisconnectListener;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class ClientEventDispatcherTest {
+
+  private final SocketDispatchConfig config = new SocketDispatchConfig();
+  private final List<String> handled = new CopyOnWriteArrayList<>();
+
+  private ClientEventDispatcher dispatcher;
+
+  @BeforeEach
+  void setUp() {
+    dispatcher = new ClientEventDispatcher();
+    ReflectionTestUtils.setField(dispatcher, "config", config);
+    ReflectionTestUtils.setField(dispatcher, "meterRegistry", new SimpleMeterRegistry());
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    dispatcher.stop();
+  }
+
+  private static SocketIOClient client() {
+    SocketIOClient client = mock(SocketIOClient.class);
+    when(client.getSessionId()).thenReturn(UUID.randomUUID());
+    return client;
+  }
+
+  private DisconnectListener disconnect(CountDownLatch done) {
+    return dispatcher.dispatchDisconnect(
+        client -> {
+          handled.add("disconnect");
+          done.countDown();
+        });
+  }
+
+  @Test
+  void dispatch_Disabled_ShouldReturnListenersUnchanged() {
+    config.setVirtualThreads(false);
+    dispatcher.start();
+    ConnectListener connect = client -> {};
+    DataListener<String> data = (client, message, ackSender) -> {};
+
+    assertThat(dispatcher.dispatchConnect(connect)).isSameAs(connect);
+    assertThat(dispatcher.dispatch(data)).isSameAs(data);
+  }
+
+  @Test
+  void dispatch_ShouldRunOneClientsEventsInArrivalOrder() throws Exception {
+    dispatcher.start();
+    SocketIOClient client = client();
+    CountDownLatch done = new CountDownLatch(1);
+    DataListener<String> data =
+        dispatcher.dispatch(
+            (c, message, ackSender) -> {
+              // Uneven handler times must not let later events overtake earlier ones
+              if (message.hashCode() % 3 == 0) {
+                Thread.sleep(1);
+              }
+              handled.add(message);
+            });
+
+    dispatcher.dispatchConnect(c -> handled.add("connect")).onConnect(client);
+    for (int i = 0; i < 100; i++) {
+      data.onData(client, "event-" + i, null);
+    }
+    disconnect(done).onDisconnect(client);
+
+    assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+    List<String> expected = new ArrayList<>();
+    expected.add("connect");
+    IntStream.range(0, 100).forEach(i -> expected.add("event-" + i));
+    expected.add("disconnect");
+    assertThat(handled).containsExactlyElementsOf(expected);
+  }
+
+  @Test
+  void dispatch_BlockedHandler_ShouldNotHoldUpOtherClients() throws Exception {
+    dispatcher.start();
+    SocketIOClient slow = client();
+    SocketIOClient fast = client();
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch fastDone = new CountDownLatch(1);
+    DataListener<String> data =
+        dispatcher.dispatch(
+            (c, message, ackSender) -> {
+              if (c == slow) {
+                release.await();
+              }
+              handled.add(message);
+              if (c == fast) {
+                fastDone.countDown();
+              }
+            });
+
+    data.onData(slow, "slow", null);
+    data.onData(fast, "fast", null);
+
+    assertThat(fastDone.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(handled).containsExactly("fast");
+    release.countDown();
+  }
+
+  @Test
+  void dispatch_QueueFull_ShouldRejectDataButNotLifecycleEvents() throws Exception {
+    config.setMaxQueuedEvents(2);
+    dispatcher.start();
+    SocketIOClient client = client();
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(1);
+    DataListener<String> data =
+        dispatcher.dispatch(
+            (c, message, ackSender) -> {
+              if (message.equals("event-0")) {
+                started.countDown();
+                release.await();
+              }
+              handled.add(message);
+            });
+
+    data.onData(client, "event-0", null);
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    // event-0 is running; two more fill the queue
+    data.onData(client, "event-1", null);
+    data.onData(client, "event-2", null);
+    data.onData(client, "event-3", null);
+    disconnect(done).onDisconnect(client);
+    release.countDown();
+
+    assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(handled).containsExactly("event-0", "event-1", "event-2", "disconnect");
+    verify(client).sendEvent(eq("error"), eq(Map.of("message", "Server is busy, please retry")));
+  }
+
+  @Test
+  void dispatch_FailingHandler_ShouldKeepDraining() throws Exception {
+    dispatcher.start();
+    SocketIOClient client = client();
+    CountDownLatch done = new CountDownLatch(1);
+    DataListener<String> data =
+        dispatcher.dispatch(
+            (c, message, ackSender) -> {
+              if (message.equals("boom")) {
+                throw new IllegalStateException(message);
+              }
+              handled.add(message);
+            });
+
+    data.onData(client, "boom", null);
+    data.onData(client, "after", null);
+    disconnect(done).onDisconnect(client);
+
+    assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(handled).containsExactly("after", "disconnect");
+  }
+}
@@ -0,0 +1,63 @@
+package com.chatapp.socket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class EncodedPayloadTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private static Map<String, Object> message() {
+    Map<String, Object> message = new LinkedHashMap<>();
+    message.put("id", "m1");
+    message.put("content", "こんにちは \"world\"");
+    message.put("seq", 42);
+    return message;
+  }
+
+  @Test
+  void encode_ShouldSerializeLikeTheObject() throws Exception {
+    EncodedPayload payload = EncodedPayload.encode(objectMapper, message());
+
+    assertThat(payload.toJson()).isEqualTo(objectMapper.writeValueAsString(message()));
+    assertThat(objectMapper.writeValueAsString(payload)).isEqualTo(payload.toJson());
+  }
+
+  @Test
+  void encode_Nested_ShouldEmbedRawJson() throws Exception {
+    EncodedPayload payload = EncodedPayload.encode(objectMapper, message());
+
+    String frame = objectMapper.writeValueAsString(List.of("new_message", payload));
+
+    assertThat(frame)
+        .isEqualTo(objectMapper.writeValueAsString(List.of("new_message", message())));
+  }
+
+  @Test
+  void encode_AlreadyEncoded_ShouldReturnSameInstance() {
+    EncodedPayload payload = EncodedPayload.encode(objectMapper, message());
+
+    assertThat(EncodedPayload.encode(objectMapper, payload)).isSameAs(payload);
+  }
+
+  @Test
+  void encode_Unserializable_ShouldThrow() {
+    assertThatThrownBy(() -> EncodedPayload.encode(objectMapper, new Object()))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void equals_ShouldCompareJson() {
+    EncodedPayload first = EncodedPayload.encode(objectMapper, message());
+    EncodedPayload second = EncodedPayload.encode(objectMapper, message());
+
+    assertThat(first).isEqualTo(second).hasSameHashCodeAs(second);
+    assertThat(first).isNotEqualTo(EncodedPayload.encode(objectMapper, Map.of("id", "m2")));
+  }
+}
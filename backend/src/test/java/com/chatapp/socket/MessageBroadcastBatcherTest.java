@@ -0,0 +1,125 @@
+package com.chatapp.socket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.chatapp.config.BroadcastBatchConfig;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class MessageBroadcastBatcherTest {
+
+  private static final String ROOM_ID = "room-1";
+  private static final String SINGLE = MessageBroadcastBatcher.SINGLE_EVENT;
+
+  private final BroadcastBatchConfig config = new BroadcastBatchConfig();
+  private final RoomBroadcaster roomBroadcaster = mock(RoomBroadcaster.class);
+  private final RoomActivityNotifier roomActivityNotifier = mock(RoomActivityNotifier.class);
+
+  private MessageBroadcastBatcher batcher;
+
+  @BeforeEach
+  void setUp() {
+    batcher = new MessageBroadcastBatcher();
+    ReflectionTestUtils.setField(batcher, "config", config);
+    ReflectionTestUtils.setField(batcher, "roomBroadcaster", roomBroadcaster);
+    ReflectionTestUtils.setField(batcher, "roomActivityNotifier", roomActivityNotifier);
+    batcher.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    batcher.stop();
+  }
+
+  private static Map<String, Object> message(int i) {
+    return Map.of("id", "m" + i);
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Map<String, Object>> batches(int count) {
+    ArgumentCaptor<Object> frame = ArgumentCaptor.forClass(Object.class);
+    verify(roomBroadcaster, timeout(2000).times(count))
+        .sendToRoom(eq(ROOM_ID), eq(MessageBroadcastBatcher.BATCH_EVENT), frame.capture());
+    return frame.getAllValues().stream().map(value -> (Map<String, Object>) value).toList();
+  }
+
+  @Test
+  void publish_NoWindow_ShouldSendEachMessageRightAway() {
+    batcher.publish(ROOM_ID, null, message(1));
+    batcher.publish(ROOM_ID, 0, message(2));
+
+    InOrder order = inOrder(roomBroadcaster);
+    order.verify(roomBroadcaster).sendToRoom(ROOM_ID, SINGLE, message(1));
+    order.verify(roomBroadcaster).sendToRoom(ROOM_ID, SINGLE, message(2));
+    verify(roomActivityNotifier, times(2)).record(eq(ROOM_ID), anyMap());
+  }
+
+  @Test
+  void publish_WithinWindow_ShouldSendOneFrame() {
+    batcher.publish(ROOM_ID, 50, message(1));
+    batcher.publish(ROOM_ID, 50, message(2));
+    batcher.publish(ROOM_ID, 50, message(3));
+
+    List<Map<String, Object>> frames = batches(1);
+    assertThat(frames.get(0))
+        .containsEntry("roomId", ROOM_ID)
+        .containsEntry("messages", List.of(message(1), message(2), message(3)));
+    verify(roomBroadcaster, never()).sendToRoom(anyString(), eq(SINGLE), any());
+  }
+
+  @Test
+  void publish_FullBatch_ShouldNotWaitForWindow() {
+    config.setMaxBatchSize(2);
+
+    batcher.publish(ROOM_ID, 60_000, message(1));
+    batcher.publish(ROOM_ID, 60_000, message(2));
+
+    assertThat(batches(1).get(0)).containsEntry("messages", List.of(message(1), message(2)));
+    // The next message opens a new batch
+    batcher.publish(ROOM_ID, 60_000, message(3));
+    batcher.publish(ROOM_ID, 60_000, message(4));
+    assertThat(batches(2).get(1)).containsEntry("messages", List.of(message(3), message(4)));
+  }
+
+  @Test
+  void publish_WindowRemoved_ShouldFlushPendingBatchFirst() {
+    batcher.publish(ROOM_ID, 60_000, message(1));
+
+    batcher.publish(ROOM_ID, null, message(2));
+
+    InOrder order = inOrder(roomBroadcaster);
+    order
+        .verify(roomBroadcaster)
+        .sendToRoom(
+            ROOM_ID,
+            MessageBroadcastBatcher.BATCH_EVENT,
+            Map.of("roomId", ROOM_ID, "messages", List.of(message(1))));
+    order.verify(roomBroadcaster).sendToRoom(ROOM_ID, SINGLE, message(2));
+  }
+
+  @Test
+  void publish_Disabled_ShouldIgnoreRoomWindow() {
+    config.setEnabled(false);
+
+    batcher.publish(ROOM_ID, 50, message(1));
+
+    verify(roomBroadcaster).sendToRoom(ROOM_ID, SINGLE, message(1));
+  }
+
+  @Test
+  void stop_ShouldFlushPendingBatches() {
+    batcher.publish(ROOM_ID, 60_000, message(1));
+
+    batcher.stop();
+
+    assertThat(batches(1).get(0)).containsEntry("messages", List.of(message(1)));
+  }
+}
@@ -0,0 +1,130 @@
+package com.chatapp.socket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.chatapp.config.ResumeConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class RoomEventLogTest {
+
+  private static final String ROOM_ID = "room-1";
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final ResumeConfig config = new ResumeConfig();
+
+  private RoomEventLog eventLog;
+
+  @BeforeEach
+  void setUp() {
+    eventLog = new RoomEventLog();
+    ReflectionTestUtils.setField(eventLog, "config", config);
+    ReflectionTestUtils.setField(eventLog, "meterRegistry", new SimpleMeterRegistry());
+    eventLog.init();
+  }
+
+  private EncodedPayload record(String event, Object data) {
+    EncodedPayload payload = EncodedPayload.encode(objectMapper, data);
+    eventLog.record(ROOM_ID, event, data, payload);
+    return payload;
+  }
+
+  private EncodedPayload message(long seq) {
+    return record("new_message", Map.of("id", "m" + seq, "seq", seq));
+  }
+
+  private EncodedPayload batch(long... seqs) {
+    List<Map<String, Object>> messages =
+        Arrays.stream(seqs)
+            .mapToObj(seq -> Map.<String, Object>of("id", "m" + seq, "seq", seq))
+            .toList();
+    return record("new_messages", Map.of("roomId", ROOM_ID, "messages", messages));
+  }
+
+  private List<EncodedPayload> replayed(long lastSeq) {
+    return eventLog.replay(ROOM_ID, lastSeq).orElseThrow().stream()
+        .map(RoomEventLog.Entry::getPayload)
+        .toList();
+  }
+
+  @Test
+  void replay_UnknownRoom_ShouldBeEmpty() {
+    assertThat(eventLog.replay(ROOM_ID, 0)).isEmpty();
+  }
+
+  @Test
+  void replay_ShouldReturnMessagesAfterLastSeqOldestFirst() {
+    EncodedPayload first = message(1);
+    EncodedPayload second = message(2);
+    EncodedPayload third = message(3);
+
+    assertThat(replayed(0)).containsExactly(first, second, third);
+    assertThat(replayed(1)).containsExactly(second, third);
+    assertThat(replayed(3)).isEmpty();
+  }
+
+  @Test
+  void replay_BeforeRecordingStarted_ShouldBeEmpty() {
+    EncodedPayload fifth = message(5);
+
+    assertThat(eventLog.replay(ROOM_ID, 3)).isEmpty();
+    assertThat(replayed(4)).containsExactly(fifth);
+  }
+
+  @Test
+  void replay_BatchStraddlingLastSeq_ShouldBeSentWhole() {
+    EncodedPayload first = message(1);
+    EncodedPayload straddling = batch(2, 3, 4);
+
+    assertThat(replayed(0)).containsExactly(first, straddling);
+    assertThat(replayed(3)).containsExactly(straddling);
+    assertThat(replayed(4)).isEmpty();
+  }
+
+  @Test
+  void replay_MembershipEvent_ShouldFollowTheMessageBeforeIt() {
+    message(1);
+    EncodedPayload second = message(2);
+    EncodedPayload joined = record("user_joined", Map.of("userId", "u2", "roomId", ROOM_ID));
+    EncodedPayload third = message(3);
+
+    assertThat(replayed(1)).containsExactly(second, joined, third);
+    assertThat(replayed(2)).containsExactly(joined, third);
+    assertThat(replayed(3)).isEmpty();
+  }
+
+  @Test
+  void replay_EvictedMessages_ShouldOnlyCoverWhatIsLeft() {
+    config.setCapacity(2);
+    setUp();
+    message(1);
+    EncodedPayload second = message(2);
+    EncodedPayload third = message(3);
+
+    assertThat(eventLog.replay(ROOM_ID, 0)).isEmpty();
+    assertThat(replayed(1)).containsExactly(second, third);
+  }
+
+  @Test
+  void record_UnreplayedEvent_ShouldBeIgnored() {
+    EncodedPayload first = message(1);
+    record("typing", Map.of("userId", "u2", "roomId", ROOM_ID));
+
+    assertThat(replayed(0)).containsExactly(first);
+  }
+
+  @Test
+  void record_Disabled_ShouldKeepNothing() {
+    config.setEnabled(false);
+
+    message(1);
+
+    assertThat(eventLog.replay(ROOM_ID, 0)).isEmpty();
+  }
+}
@@ -0,0 +1,298 @@
+package com.chatapp.socket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.chatapp.config.RateLimitConfig;
+import com.chatapp.config.WriteBehindConfig;
+import com.chatapp.entity.ChatRoom;
+import com.chatapp.entity.Message;
+import com.chatapp.entity.User;
+import com.chatapp.ratelimit.RateLimits;
+import com.chatapp.ratelimit.TokenBucketLimiter;
+import com.chatapp.service.ChatRoomService;
+import com.chatapp.service.MessageJdbcWriter;
+import com.chatapp.service.MessagePersistencePipeline;
+import com.chatapp.service.MessageService;
+import com.chatapp.service.RoomSequenceAllocator;
+import com.corundumstudio.socketio.AckRequest;
+import com.corundumstudio.socketio.SocketIOClient;
+import com.corundumstudio.socketio.listener.DataListener;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.hibernate.LazyInitializationException;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class SocketIOEventHandlerTest {
+
+  private static final String USER_ID = "user-1";
+  private static final String ROOM_ID = "room-1";
+
+  private final ChatRoomService chatRoomService = mock(ChatRoomService.class);
+  private final MessageService messageService = mock(MessageService.class);
+  private final RoomSequenceAllocator sequenceAllocator = mock(RoomSequenceAllocator.class);
+  private final MessageBroadcastBatcher messageBroadcastBatcher =
+      mock(MessageBroadcastBatcher.class);
+  private final TypingCoalescer typingCoalescer = mock(TypingCoalescer.class);
+  private final SocketSubscriptions socketSubscriptions = mock(SocketSubscriptions.class);
+  private final RateLimits rateLimits = mock(RateLimits.class);
+  private final MessageJdbcWriter writer = mock(MessageJdbcWriter.class);
+
+  private final SocketIOClient client = mock(SocketIOClient.class);
+  private final AckRequest ackSender = mock(AckRequest.class);
+
+  private final WriteBehindConfig writeBehindConfig = new WriteBehindConfig();
+  private MessagePersistencePipeline pipeline;
+  private SocketIOEventHandler handler;
+
+  @BeforeEach
+  void setUp() {
+    writeBehindConfig.setFlushSize(1);
+    writeBehindConfig.setRetryAttempts(1);
+    writeBehindConfig.setRetryBackoffMs(1);
+
+    ChatRoom room = new ChatRoom(ROOM_ID, "General", null, null, false);
+    when(chatRoomService.isUserMemberOfRoom(USER_ID, ROOM_ID)).thenReturn(true);
+    when(chatRoomService.findById(ROOM_ID)).thenReturn(Optional.of(room));
+    doAnswer(
+            invocation -> {
+              invocation.<List<Message>>getArgument(0).forEach(message -> message.setSeq(42L));
+              return null;
+            })
+        .when(sequenceAllocator)
+        .assign(anyList());
+    when(socketSubscriptions.getFocusedRoom(client)).thenReturn(ROOM_ID);
+
+    when(client.get("userId")).thenReturn(USER_ID);
+    when(client.get("profile")).thenReturn(new SessionProfile(USER_ID, "Alice", null));
+    when(client.getSessionId()).thenReturn(UUID.randomUUID());
+    when(ackSender.isAckRequested()).thenReturn(true);
+
+    handler = new SocketIOEventHandler();
+    ReflectionTestUtils.setField(handler, "chatRoomService", chatRoomService);
+    ReflectionTestUtils.setField(handler, "messageService", messageService);
+    ReflectionTestUtils.setField(handler, "sequenceAllocator", sequenceAllocator);
+    ReflectionTestUtils.setField(handler, "messageBroadcastBatcher", messageBroadcastBatcher);
+    ReflectionTestUtils.setField(handler, "typingCoalescer", typingCoalescer);
+    ReflectionTestUtils.setField(handler, "socketSubscriptions", socketSubscriptions);
+    ReflectionTestUtils.setField(handler, "rateLimits", rateLimits);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    if (pipeline != null) {
+      pipeline.stop();
+    }
+  }
+
+  private void startPipeline() {
+    pipeline = new MessagePersistencePipeline();
+    ReflectionTestUtils.setField(pipeline, "config", writeBehindConfig);
+    ReflectionTestUtils.setField(pipeline, "messageJdbcWriter", writer);
+    ReflectionTestUtils.setField(pipeline, "sequenceAllocator", sequenceAllocator);
+    ReflectionTestUtils.setField(
+        pipeline, "transactionManager", mock(PlatformTransactionManager.class));
+    ReflectionTestUtils.setField(
+        pipeline, "eventPublisher", mock(ApplicationEventPublisher.class));
+    pipeline.start();
+    ReflectionTestUtils.setField(handler, "persistencePipeline", pipeline);
+  }
+
+  private void sendMessage(String content) throws Exception {
+    SocketIOEventHandler.SendMessageData data = new SocketIOEventHandler.SendMessageData();
+    data.setContent(content);
+    data.setType("TEXT");
+    DataListener<SocketIOEventHandler.SendMessageData> listener =
+        ReflectionTestUtils.invokeMethod(handler, "onSendMessage");
+    listener.onData(client, data, ackSender);
+  }
+
+  private void typing(boolean typing) throws Exception {
+    SocketIOEventHandler.TypingData data = new SocketIOEventHandler.TypingData();
+    data.setTyping(typing);
+    DataListener<SocketIOEventHandler.TypingData> listener =
+        ReflectionTestUtils.invokeMethod(handler, "onTyping");
+    listener.onData(client, data, ackSender);
+  }
+
+  private void exhaustRateLimit(RateLimitConfig.Overflow overflow) {
+    when(rateLimits.isEnabled()).thenReturn(true);
+    when(rateLimits.getOverflow()).thenReturn(overflow);
+    when(rateLimits.admit(any(), any(), anyBoolean())).thenReturn(TokenBucketLimiter.DENIED);
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<String, Object> capturedAck() {
+    ArgumentCaptor<Map<String, Object>> ack = ArgumentCaptor.forClass(Map.class);
+    verify(ackSender, timeout(2000)).sendAckData(ack.capture());
+    return ack.getValue();
+  }
+
+  @Test
+  void sendMessage_WriteBehind_ShouldAckOnlyAfterBatchCommits() throws Exception {
+    // Given: the flush blocks until released
+    CountDownLatch flushing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    doAnswer(
+            invocation -> {
+              flushing.countDown();
+              release.await(5, TimeUnit.SECONDS);
+              return null;
+            })
+        .when(writer)
+        .insertAll(anyList());
+    startPipeline();
+
+    // When
+    sendMessage("hello");
+
+    // Then: broadcast right away, but no ack while the batch is in flight
+    verify(messageBroadcastBatcher).publish(eq(ROOM_ID), any(), anyMap());
+    assertThat(flushing.await(2, TimeUnit.SECONDS)).isTrue();
+    verify(ackSender, never()).sendAckData(anyMap());
+
+    release.countDown();
+    Map<String, Object> ack = capturedAck();
+    assertThat(ack).containsEntry("persisted", true).containsEntry("seq", 42L);
+    InOrder order = inOrder(writer, ackSender);
+    order.verify(writer).insertAll(anyList());
+    order.verify(ackSender).sendAckData(anyMap());
+    verify(chatRoomService, timeout(2000)).markRead(USER_ID, ROOM_ID, 42L);
+    verify(client, never()).sendEvent(eq("error"), any());
+  }
+
+  @Test
+  void sendMessage_WriteBehindLost_ShouldNackAndReportError() throws Exception {
+    // Given: the database stays down through every retry
+    doThrow(new TransientDataAccessResourceException("down")).when(writer).insertAll(anyList());
+    doThrow(new TransientDataAccessResourceException("down")).when(writer).insert(any());
+    startPipeline();
+
+    // When
+    sendMessage("hello");
+
+    // Then
+    assertThat(capturedAck()).containsEntry("persisted", false);
+    verify(client, timeout(2000)).sendEvent(eq("error"), anyMap());
+    verify(chatRoomService, never()).markRead(anyString(), anyString(), anyLong());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void sendMessage_WithoutWriteBehind_ShouldBroadcastSessionAuthor() throws Exception {
+    // Given: the saved copy's author is a proxy whose session is already closed
+    MessagePersistencePipeline disabled = mock(MessagePersistencePipeline.class);
+    ReflectionTestUtils.setField(handler, "persistencePipeline", disabled);
+    User detachedAuthor = mock(User.class);
+    when(detachedAuthor.getName()).thenThrow(new LazyInitializationException("no session"));
+    LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+    when(messageService.createMessage(any()))
+        .thenAnswer(
+            invocation -> {
+              Message saved = new Message();
+              saved.setId(invocation.<Message>getArgument(0).getId());
+              saved.setUser(detachedAuthor);
+              saved.setSeq(42L);
+              saved.setCreatedAt(createdAt);
+              return saved;
+            });
+
+    // When
+    sendMessage("hello");
+
+    // Then
+    ArgumentCaptor<Map<String, Object>> broadcast = ArgumentCaptor.forClass(Map.class);
+    verify(messageBroadcastBatcher).publish(eq(ROOM_ID), any(), broadcast.capture());
+    assertThat(broadcast.getValue())
+        .containsEntry("userId", USER_ID)
+        .containsEntry("userName", "Alice")
+        .containsEntry("content", "hello")
+        .containsEntry("seq", 42L)
+        .containsEntry("timestamp", createdAt.toString());
+    assertThat(capturedAck()).containsEntry("persisted", true).containsEntry("seq", 42L);
+    verify(chatRoomService).markRead(USER_ID, ROOM_ID, 42L);
+    verify(client, never()).sendEvent(eq("error"), any());
+    verify(disabled, never()).enqueue(any(), any());
+  }
+
+  @Test
+  void sendMessage_WriteBehindQueueFull_ShouldNotTakeSeq() throws Exception {
+    MessagePersistencePipeline full = mock(MessagePersistencePipeline.class);
+    when(full.isEnabled()).thenReturn(true);
+    ReflectionTestUtils.setField(handler, "persistencePipeline", full);
+
+    sendMessage("hello");
+
+    verify(client).sendEvent("error", Map.of("message", "Server is busy, please retry"));
+    verifyNoInteractions(sequenceAllocator);
+    verify(messageBroadcastBatcher, never()).publish(anyString(), any(), anyMap());
+  }
+
+  @Test
+  void sendMessage_WithoutWriteBehindInsertFails_ShouldGiveSeqBack() throws Exception {
+    MessagePersistencePipeline disabled = mock(MessagePersistencePipeline.class);
+    ReflectionTestUtils.setField(handler, "persistencePipeline", disabled);
+    when(messageService.createMessage(any()))
+        .thenAnswer(
+            invocation -> {
+              // Numbered inside the transaction, which then rolls back
+              invocation.<Message>getArgument(0).setSeq(42L);
+              throw new IllegalStateException("insert failed");
+            });
+
+    sendMessage("hello");
+
+    verify(sequenceAllocator).giveBack(ROOM_ID, 42L);
+    verify(client).sendEvent("error", Map.of("message", "Failed to send message"));
+    verify(messageBroadcastBatcher, never()).publish(anyString(), any(), anyMap());
+  }
+
+  @Test
+  void sendMessage_RateLimited_ShouldReportErrorBeforeAnyDatabaseAccess() throws Exception {
+    exhaustRateLimit(RateLimitConfig.Overflow.DROP);
+
+    sendMessage("hello");
+
+    verify(client).sendEvent("error", Map.of("message", "Rate limit exceeded"));
+    verify(client, never()).disconnect();
+    verifyNoInteractions(chatRoomService, messageService, sequenceAllocator);
+    verify(messageBroadcastBatcher, never()).publish(anyString(), any(), anyMap());
+  }
+
+  @Test
+  void sendMessage_RateLimitedWithDisconnectPolicy_ShouldDisconnect() throws Exception {
+    exhaustRateLimit(RateLimitConfig.Overflow.DISCONNECT);
+
+    sendMessage("hello");
+
+    verify(client).disconnect();
+    verify(client, never()).sendEvent(eq("error"), any());
+    verifyNoInteractions(messageService);
+  }
+
+  @Test
+  void typing_RateLimited_ShouldDropSilently() throws Exception {
+    exhaustRateLimit(RateLimitConfig.Overflow.DROP);
+    when(typingCoalescer.isEnabled()).thenReturn(true);
+    when(socketSubscriptions.isSubscribed(client, ROOM_ID)).thenReturn(true);
+
+    typing(true);
+
+    verify(typingCoalescer, never()).update(anyString(), anyString(), any(), anyBoolean());
+    verify(client, never()).sendEvent(anyString(), any());
+  }
+}
@@ -0,0 +1,130 @@
+package com.chatapp.socket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.chatapp.config.TypingConfig;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class TypingCoalescerTest {
+
+  private static final String ROOM_ID = "room-1";
+
+  private final TypingConfig config = new TypingConfig();
+  private final RoomBroadcaster roomBroadcaster = mock(RoomBroadcaster.class);
+
+  private TypingCoalescer coalescer;
+
+  @BeforeEach
+  void setUp() {
+    config.setExpireMs(5000);
+
+    // Not started: the tests drive the ticks themselves
+    coalescer = new TypingCoalescer();
+    ReflectionTestUtils.setField(coalescer, "config", config);
+    ReflectionTestUtils.setField(coalescer, "roomBroadcaster", roomBroadcaster);
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<String, Object> emitted() {
+    ArgumentCaptor<Object> change = ArgumentCaptor.forClass(Object.class);
+    verify(roomBroadcaster).sendToRoom(eq(ROOM_ID), eq(TypingCoalescer.EVENT), change.capture());
+    clearInvocations(roomBroadcaster);
+    return (Map<String, Object>) change.getValue();
+  }
+
+  @Test
+  void tick_ShouldEmitOneEventForAllTypersInRoom() {
+    coalescer.update(ROOM_ID, "user-1", "Alice", true);
+    coalescer.update(ROOM_ID, "user-2", "Bob", true);
+    coalescer.update(ROOM_ID, "user-1", "Alice", true);
+
+    coalescer.tick();
+
+    Map<String, Object> change = emitted();
+    assertThat(change).containsEntry("roomId", ROOM_ID).containsEntry("stopped", List.of());
+    assertThat(change.get("started"))
+        .isEqualTo(
+            List.of(
+                Map.of("userId", "user-1", "userName", "Alice"),
+                Map.of("userId", "user-2", "userName", "Bob")));
+  }
+
+  @Test
+  void tick_NoChange_ShouldStayQuiet() {
+    coalescer.update(ROOM_ID, "user-1", "Alice", true);
+    coalescer.tick();
+    clearInvocations(roomBroadcaster);
+
+    // Still typing: already announced
+    coalescer.update(ROOM_ID, "user-1", "Alice", true);
+    coalescer.tick();
+
+    verify(roomBroadcaster, never()).sendToRoom(anyString(), anyString(), any());
+  }
+
+  @Test
+  void clear_AnnouncedTyper_ShouldEmitStopped() {
+    coalescer.update(ROOM_ID, "user-1", "Alice", true);
+    coalescer.tick();
+    clearInvocations(roomBroadcaster);
+
+    coalescer.clear(ROOM_ID, "user-1");
+    coalescer.tick();
+
+    Map<String, Object> change = emitted();
+    assertThat(change)
+        .containsEntry("started", List.of())
+        .containsEntry("stopped", List.of("user-1"));
+  }
+
+  @Test
+  void startAndStopWithinOneTick_ShouldNeverBeAnnounced() {
+    coalescer.update(ROOM_ID, "user-1", "Alice", true);
+    coalescer.update(ROOM_ID, "user-1", "Alice", false);
+
+    coalescer.tick();
+
+    verify(roomBroadcaster, never()).sendToRoom(anyString(), anyString(), any());
+  }
+
+  @Test
+  void tick_SilentTyper_ShouldExpire() throws Exception {
+    config.setExpireMs(10);
+    coalescer.update(ROOM_ID, "user-1", "Alice", true);
+    coalescer.tick();
+    clearInvocations(roomBroadcaster);
+
+    Thread.sleep(50);
+    coalescer.tick();
+
+    assertThat(emitted()).containsEntry("stopped", List.of("user-1"));
+  }
+
+  @Test
+  void tick_ShouldDropIdleRooms() {
+    coalescer.update(ROOM_ID, "user-1", "Alice", true);
+    coalescer.tick();
+    coalescer.clear(ROOM_ID, "user-1");
+    coalescer.tick();
+
+    Map<?, ?> rooms = (Map<?, ?>) ReflectionTestUtils.getField(coalescer, "rooms");
+    assertThat(rooms).isEmpty();
+  }
+
+  @Test
+  void tick_MissingUserName_ShouldSendEmptyName() {
+    coalescer.update(ROOM_ID, "user-1", null, true);
+
+    coalescer.tick();
+
+    assertThat(emitted().get("started"))
+        .isEqualTo(List.of(Map.of("userId", "user-1", "userName", "")));
+  }
+}
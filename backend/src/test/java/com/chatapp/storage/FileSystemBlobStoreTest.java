@@ -0,0 +1,118 @@
+package com.chatapp.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.chatapp.config.StorageConfig;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class FileSystemBlobStoreTest {
+
+  @TempDir Path directory;
+
+  private FileSystemBlobStore store;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    StorageConfig config = new StorageConfig();
+    config.setDirectory(directory.toString());
+
+    store = new FileSystemBlobStore();
+    ReflectionTestUtils.setField(store, "config", config);
+    store.init();
+  }
+
+  private StoredBlob put(String content, String ownerId) throws Exception {
+    byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+    return store.put(new ByteArrayInputStream(bytes), "image/png", ownerId);
+  }
+
+  private String read(String id) throws Exception {
+    try (InputStream content = store.open(id)) {
+      return new String(content.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  @Test
+  void put_SameContent_ShouldShareOneBlob() throws Exception {
+    StoredBlob first = put("pixels", "alice");
+    StoredBlob second = put("pixels", "bob");
+
+    assertThat(second.getId()).isEqualTo(first.getId()).endsWith(".png");
+    assertThat(read(first.getId())).isEqualTo("pixels");
+    assertThat(store.find(first.getId()).orElseThrow().getContentType()).isEqualTo("image/png");
+  }
+
+  @Test
+  void delete_SharedBlob_ShouldKeepItForOtherUploaders() throws Exception {
+    String id = put("pixels", "alice").getId();
+    put("pixels", "bob");
+
+    assertThat(store.delete(id, "alice")).isTrue();
+
+    assertThat(store.find(id)).isPresent();
+    assertThat(read(id)).isEqualTo("pixels");
+  }
+
+  @Test
+  void delete_LastReference_ShouldUnlinkBlob() throws Exception {
+    String id = put("pixels", "alice").getId();
+    put("pixels", "bob");
+    Path file = store.localFile(id).orElseThrow();
+
+    store.delete(id, "alice");
+    assertThat(store.delete(id, "bob")).isTrue();
+
+    assertThat(store.find(id)).isEmpty();
+    assertThat(file).doesNotExist();
+    assertThat(file.getParent()).isEmptyDirectory();
+  }
+
+  @Test
+  void delete_NotAnUploader_ShouldLeaveBlob() throws Exception {
+    String id = put("pixels", "alice").getId();
+
+    assertThat(store.delete(id, "mallory")).isFalse();
+
+    assertThat(read(id)).isEqualTo("pixels");
+  }
+
+  @Test
+  void delete_Twice_ShouldOnlyDropOwnReferenceOnce() throws Exception {
+    String id = put("pixels", "alice").getId();
+    put("pixels", "alice");
+    put("pixels", "bob");
+
+    assertThat(store.delete(id, "alice")).isTrue();
+    assertThat(store.delete(id, "alice")).isFalse();
+
+    assertThat(read(id)).isEqualTo("pixels");
+  }
+
+  @Test
+  void put_AfterLastDelete_ShouldStoreAgain() throws Exception {
+    String id = put("pixels", "alice").getId();
+    store.delete(id, "alice");
+
+    assertThat(put("pixels", "bob").getId()).isEqualTo(id);
+
+    assertThat(read(id)).isEqualTo("pixels");
+    assertThat(store.delete(id, "alice")).isFalse();
+  }
+
+  @Test
+  void delete_LegacyFile_ShouldRefuse() throws Exception {
+    Files.writeString(directory.resolve("legacy.png"), "old");
+
+    assertThat(store.delete("legacy.png", "alice")).isFalse();
+
+    assertThat(read("legacy.png")).isEqualTo("old");
+  }
+}
@@ -21,6 +21,9 @@ CREATE TABLE IF NOT EXISTS chat_rooms (
     description TEXT,
     owner_id VARCHAR(36) NOT NULL,
     is_private BOOLEAN DEFAULT FALSE,
+    broadcast_batch_ms INTEGER,
+    last_seq BIGINT DEFAULT 0,
+    reserved_seq BIGINT DEFAULT 0,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (owner_id) REFERENCES users(id) ON DELETE CASCADE
@@ -35,6 +38,7 @@ CREATE TABLE IF NOT EXISTS messages (
     message_type VARCHAR(20) DEFAULT 'TEXT' CHECK (message_type IN ('TEXT', 'IMAGE', 'EMOJI')),
     image_url VARCHAR(500),
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    seq BIGINT,
     FOREIGN KEY (room_id) REFERENCES chat_rooms(id) ON DELETE CASCADE,
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
 );
@@ -44,6 +48,7 @@ CREATE TABLE IF NOT EXISTS room_members (
     room_id VARCHAR(36),
     user_id VARCHAR(36),
     joined_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    last_read_seq BIGINT DEFAULT 0,
     PRIMARY KEY (room_id, user_id),
     FOREIGN KEY (room_id) REFERENCES chat_rooms(id) ON DELETE CASCADE,
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
@@ -51,6 +56,7 @@ CREATE TABLE IF NOT EXISTS room_members (
 
 -- Create indexes for performance optimization
 CREATE INDEX IF NOT EXISTS idx_messages_room_created ON messages(room_id, created_at DESC);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_messages_room_seq ON messages(room_id, seq);
 CREATE INDEX IF NOT EXISTS idx_messages_user ON messages(user_id);
 CREATE INDEX IF NOT EXISTS idx_room_members_user ON room_members(user_id);
 CREATE INDEX IF NOT EXISTS idx_chat_rooms_owner ON chat_rooms(owner_id);
@@ -72,8 +78,9 @@ CREATE TRIGGER update_users_updated_at
     FOR EACH ROW 
     EXECUTE FUNCTION update_updated_at_column();
 
+-- Not on last_seq / reserved_seq, which advance with every message
 CREATE TRIGGER update_chat_rooms_updated_at 
-    BEFORE UPDATE ON chat_rooms 
+    BEFORE UPDATE OF name, description, owner_id, is_private, broadcast_batch_ms ON chat_rooms 
     FOR EACH ROW 
     EXECUTE FUNCTION update_updated_at_column();
 
@@ -83,14 +90,14 @@ INSERT INTO users (id, email, name, password_hash, picture) VALUES
     ('user-1', 'test@example.com', 'テストユーザー', '$2b$12$LQv3c1yqBWVHxkd0LHAkCOYz6TtxMQJqhN8/LeweBuoL5LN/7x.QK', NULL)
 ON CONFLICT (email) DO NOTHING;
 
-INSERT INTO chat_rooms (id, name, description, owner_id, is_private) VALUES 
-    ('room-1', '全体チャット', 'みんなでチャットしましょう', 'user-1', FALSE)
+INSERT INTO chat_rooms (id, name, description, owner_id, is_private, last_seq, reserved_seq) VALUES 
+    ('room-1', '全体チャット', 'みんなでチャットしましょう', 'user-1', FALSE, 1, 1)
 ON CONFLICT (id) DO NOTHING;
 
-INSERT INTO room_members (room_id, user_id) VALUES 
-    ('room-1', 'user-1')
+INSERT INTO room_members (room_id, user_id, last_read_seq) VALUES 
+    ('room-1', 'user-1', 1)
 ON CONFLICT (room_id, user_id) DO NOTHING;
 
-INSERT INTO messages (id, room_id, user_id, content, message_type) VALUES 
-    ('msg-1', 'room-1', 'user-1', 'チャットアプリケーションへようこそ！', 'TEXT')
+INSERT INTO messages (id, room_id, user_id, content, message_type, seq) VALUES 
+    ('msg-1', 'room-1', 'user-1', 'チャットアプリケーションへようこそ！', 'TEXT', 1)
 ON CONFLICT (id) DO NOTHING;
\ No newline at end of file
@@ -0,0 +1,72 @@
+-- Per-room message sequences and read cursors for databases created before they existed.
+-- init.sql already contains all of this for new databases. Safe to run more than once:
+--   psql -v ON_ERROR_STOP=1 -U chatuser -d chatapp -f database/migrations/001_message_sequences.sql
+-- Stop the backend first; messages must not be inserted while they are numbered.
+
+BEGIN;
+
+ALTER TABLE chat_rooms ADD COLUMN IF NOT EXISTS last_seq BIGINT DEFAULT 0;
+ALTER TABLE chat_rooms ADD COLUMN IF NOT EXISTS reserved_seq BIGINT DEFAULT 0;
+ALTER TABLE messages ADD COLUMN IF NOT EXISTS seq BIGINT;
+ALTER TABLE room_members ADD COLUMN IF NOT EXISTS last_read_seq BIGINT DEFAULT 0;
+
+-- Holds off writers until commit, in case a backend is still running
+LOCK TABLE chat_rooms, messages, room_members IN SHARE ROW EXCLUSIVE MODE;
+
+-- Rooms whose history has never been numbered; their members start with it read
+CREATE TEMP TABLE unnumbered_rooms ON COMMIT DROP AS
+SELECT room_id
+FROM messages
+GROUP BY room_id
+HAVING COUNT(seq) = 0;
+
+-- Number messages without a seq oldest first, after the highest seq already in the room.
+-- Existing seqs are never changed, since clients may hold them as read cursors.
+WITH base AS (
+    SELECT room_id, COALESCE(MAX(seq), 0) AS max_seq
+    FROM messages
+    GROUP BY room_id
+),
+numbered AS (
+    SELECT m.id,
+           b.max_seq + ROW_NUMBER() OVER (PARTITION BY m.room_id ORDER BY m.created_at, m.id) AS seq
+    FROM messages m
+    JOIN base b ON b.room_id = m.room_id
+    WHERE m.seq IS NULL
+)
+UPDATE messages m
+SET seq = n.seq
+FROM numbered n
+WHERE m.id = n.id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_messages_room_seq ON messages(room_id, seq);
+
+-- last_seq is the newest persisted seq; reserved_seq never trails it
+UPDATE chat_rooms SET last_seq = 0 WHERE last_seq IS NULL;
+UPDATE chat_rooms SET reserved_seq = 0 WHERE reserved_seq IS NULL;
+
+UPDATE chat_rooms r
+SET last_seq = s.max_seq
+FROM (SELECT room_id, MAX(seq) AS max_seq FROM messages GROUP BY room_id) s
+WHERE s.room_id = r.id
+  AND r.last_seq < s.max_seq;
+
+UPDATE chat_rooms SET reserved_seq = last_seq WHERE reserved_seq < last_seq;
+
+UPDATE room_members SET last_read_seq = 0 WHERE last_read_seq IS NULL;
+
+UPDATE room_members rm
+SET last_read_seq = r.last_seq
+FROM chat_rooms r
+JOIN unnumbered_rooms u ON u.room_id = r.id
+WHERE rm.room_id = r.id
+  AND rm.last_read_seq = 0;
+
+-- Not on last_seq / reserved_seq, which advance with every message
+DROP TRIGGER IF EXISTS update_chat_rooms_updated_at ON chat_rooms;
+CREATE TRIGGER update_chat_rooms_updated_at
+    BEFORE UPDATE OF name, description, owner_id, is_private, broadcast_batch_ms ON chat_rooms
+    FOR EACH ROW
+    EXECUTE FUNCTION update_updated_at_column();
+
+COMMIT;
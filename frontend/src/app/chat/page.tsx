@@ -7,7 +7,7 @@ import Layout from '@/components/layout/Layout'
 import ChatRoom from '@/components/chat/ChatRoom'
 import CreateRoomModal from '@/components/room/CreateRoomModal'
 import RoomInfoPanel from '@/components/room/RoomInfoPanel'
-import { ChatRoom as ChatRoomType, User, CreateRoomForm } from '@/types'
+import { ChatRoom as ChatRoomType, User, CreateRoomForm, RoomActivityData } from '@/types'
 import { authAPI, roomAPI } from '@/lib/api'
 import { getWebSocketClient } from '@/lib/websocket'
 
@@ -55,6 +55,24 @@ export default function ChatPage() {
     }
   }
 
+  // 参加中の全ルームを購読し、表示中以外のルームの新着を未読件数に反映
+  useEffect(() => {
+    const wsClient = getWebSocketClient()
+    const roomIds = rooms.map(r => r.id)
+    wsClient.subscribeRooms(roomIds)
+
+    const handleActivity = (data: RoomActivityData) => {
+      setRooms(prev => prev.map(r =>
+        r.id === data.roomId ? { ...r, unreadCount: (r.unreadCount ?? 0) + data.count } : r
+      ))
+    }
+    wsClient.on('room_activity', handleActivity)
+    return () => {
+      wsClient.off('room_activity', handleActivity)
+      wsClient.unsubscribeRooms(roomIds.filter(id => id !== wsClient.currentRoom))
+    }
+  }, [rooms.map(r => r.id).join(',')])
+
   const loadMyRooms = async () => {
     try {
       const response = await roomAPI.getMyRooms()
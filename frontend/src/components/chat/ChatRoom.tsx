@@ -2,7 +2,7 @@ import React, { useState, useEffect, useCallback } from 'react'
 import { Users, Settings, Search } from 'lucide-react'
 import MessageList from './MessageList'
 import MessageInput from './MessageInput'
-import { ChatRoom as ChatRoomType, Message, User, SendMessageData, TypingNotificationData } from '@/types'
+import { ChatRoom as ChatRoomType, Message, MessageData, User, SendMessageData, TypingNotificationData } from '@/types'
 import { getWebSocketClient } from '@/lib/websocket'
 import { messageAPI } from '@/lib/api'
 
@@ -64,25 +64,53 @@ const ChatRoom: React.FC<ChatRoomProps> = ({ room, currentUser, onShowRoomInfo }
         wsClient.joinRoom(room.id)
 
         // イベントリスナーの設定
+        const toMessage = (data: MessageData): Message => ({
+          id: data.id,
+          room: room,
+          user: {
+            id: data.userId,
+            name: data.userName,
+            email: '',
+            picture: data.userPicture,
+            createdAt: '',
+            updatedAt: '',
+          },
+          content: data.content,
+          messageType: data.type,
+          imageUrl: data.imageUrl,
+          createdAt: data.timestamp,
+          seq: data.seq,
+        })
+
+        // 再接続時の再送とライブ配信は重複し得るため id で除外
+        const appendMessages = (incoming: Message[]) =>
+          setMessages(prev => {
+            const known = new Set(prev.map(message => message.id))
+            const fresh = incoming.filter(message => !known.has(message.id))
+            return fresh.length > 0 ? [...prev, ...fresh] : prev
+          })
+
         wsClient.on('new_message', (data) => {
-          const newMessage: Message = {
-            id: data.id,
-            room: room,
-            user: {
-              id: data.userId,
-              name: data.userName,
-              email: '',
-              picture: data.userPicture,
-              createdAt: '',
-              updatedAt: '',
-            },
-            content: data.content,
-            messageType: data.type,
-            imageUrl: data.imageUrl,
-            createdAt: data.timestamp,
+          appendMessages([toMessage(data)])
+        })
+
+        // バッチ配信が有効なルームではまとめて届く
+        wsClient.on('new_messages', (data) => {
+          if (data.roomId !== room.id) return
+          appendMessages(data.messages.map(toMessage))
+        })
+
+        // サーバーのイベントログで遡れなかった欠落分は REST で補完
+        wsClient.on('joined_room', async (data) => {
+          if (data.roomId !== room.id || data.resumed !== false) return
+          const lastSeq = wsClient.getLastSeq(room.id)
+          if (lastSeq === undefined) return
+          try {
+            const response = await messageAPI.getMessagesBySeqRange(room.id, lastSeq)
+            appendMessages(response.data.content)
+          } catch (error) {
+            console.error('Failed to fetch missed messages:', error)
           }
-          
-          setMessages(prev => [...prev, newMessage])
         })
 
         wsClient.on('user_typing', (data) => {
@@ -97,6 +125,19 @@ const ChatRoom: React.FC<ChatRoomProps> = ({ room, currentUser, onShowRoomInfo }
           })
         })
 
+        // サーバー側でまとめられた入力状態の変化
+        wsClient.on('users_typing', (data) => {
+          if (data.roomId !== room.id) return
+
+          setTypingUsers(prev => {
+            const changed = new Set([...data.stopped, ...data.started.map(user => user.userId)])
+            const started = data.started
+              .filter(user => user.userId !== currentUser.id)
+              .map(user => ({ ...user, typing: true }))
+            return [...prev.filter(user => !changed.has(user.userId)), ...started]
+          })
+        })
+
         wsClient.on('user_joined', (data) => {
           console.log('User joined:', data)
         })
@@ -73,8 +73,9 @@ export const userAPI = {
     apiClient.put(`/api/users/${id}`, data),
   
   // ユーザー検索
-  searchUsers: (query: string) => 
-    apiClient.get(`/api/users/search?q=${encodeURIComponent(query)}`),
+  searchUsers: (query: string, limit = 20, roomId?: string) =>
+    apiClient.get(`/api/users/search?q=${encodeURIComponent(query)}&limit=${limit}` +
+      (roomId ? `&roomId=${encodeURIComponent(roomId)}` : '')),
   
   // ルームのユーザー一覧
   getRoomUsers: (roomId: string) => 
@@ -109,10 +110,21 @@ export const roomAPI = {
   
   // ルームメンバー一覧
   getRoomMembers: (id: string) => apiClient.get(`/api/rooms/${id}/members`),
+
+  // 接続中のメンバーのユーザーID一覧
+  getOnlineMembers: (id: string) => apiClient.get(`/api/rooms/${id}/online`),
+  
+  // 既読位置の更新（seq 省略時は最新メッセージまで）
+  markRead: (id: string, seq?: number) =>
+    apiClient.put(`/api/rooms/${id}/read`, seq === undefined ? {} : { seq }),
   
   // ルーム検索
   searchRooms: (query: string, page = 0, size = 20) =>
     apiClient.get(`/api/rooms/search?q=${encodeURIComponent(query)}&page=${page}&size=${size}`),
+
+  // ルーム名の前方一致候補
+  autocompleteRooms: (prefix: string, limit = 10) =>
+    apiClient.get(`/api/rooms/autocomplete?q=${encodeURIComponent(prefix)}&limit=${limit}`),
   
   // ルーム削除
   deleteRoom: (id: string) => apiClient.delete(`/api/rooms/${id}`),
@@ -128,6 +140,13 @@ export const messageAPI = {
   getRecentMessages: (roomId: string, since: string) =>
     apiClient.get(`/api/messages/room/${roomId}/recent?since=${since}`),
   
+  // seq 範囲のメッセージ取得（欠番の補完用）
+  getMessagesBySeqRange: (roomId: string, afterSeq: number, toSeq?: number) =>
+    apiClient.get(
+      `/api/messages/room/${roomId}/range?afterSeq=${afterSeq}` +
+        (toSeq === undefined ? '' : `&toSeq=${toSeq}`)
+    ),
+  
   // メッセージ検索
   searchMessages: (roomId: string, query: string, page = 0, size = 20) =>
     apiClient.get(`/api/messages/room/${roomId}/search?q=${encodeURIComponent(query)}&page=${page}&size=${size}`),
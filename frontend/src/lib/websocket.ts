@@ -1,21 +1,29 @@
 import { io, Socket } from 'socket.io-client'
-import { SendMessageData, MessageData, UserJoinedData, TypingNotificationData } from '@/types'
+import { SendMessageData, MessageData, MessageBatchData, UserJoinedData, TypingNotificationData, TypingChangeData, RoomActivityData, RoomSubscriptionData } from '@/types'
 
 interface ServerToClientEvents {
   connected: (data: { userId: string }) => void
-  joined_room: (data: { roomId: string }) => void
+  joined_room: (data: { roomId: string; resumed?: boolean; replayed?: number }) => void
   new_message: (data: MessageData) => void
+  new_messages: (data: MessageBatchData) => void
   user_joined: (data: UserJoinedData) => void
   user_left: (data: { userId: string }) => void
   user_typing: (data: TypingNotificationData) => void
+  users_typing: (data: TypingChangeData) => void
+  room_activity: (data: RoomActivityData) => void
+  subscribed: (data: RoomSubscriptionData) => void
+  unsubscribed: (data: RoomSubscriptionData) => void
   error: (data: { message: string }) => void
 }
 
 interface ClientToServerEvents {
-  join_room: (data: { roomId: string }) => void
+  join_room: (data: { roomId: string; lastSeq?: number }) => void
   leave_room: (data: { roomId: string }) => void
+  subscribe_rooms: (data: { roomIds: string[] }) => void
+  unsubscribe_rooms: (data: { roomIds: string[] }) => void
   send_message: (data: SendMessageData) => void
-  typing: (data: { typing: boolean }) => void
+  typing: (data: { roomId?: string; typing: boolean }) => void
+  mark_read: (data: { roomId: string; seq?: number }) => void
 }
 
 export class WebSocketClient {
@@ -25,6 +33,10 @@ export class WebSocketClient {
   private reconnectAttempts = 0
   private maxReconnectAttempts = 5
   private reconnectDelay = 1000
+  // ルームごとの最後に受信したメッセージの seq（再接続時の再開位置）
+  private lastSeqs: Record<string, number> = {}
+  // room_activity を受け取る購読中のルーム（フォーカス中のルーム以外）
+  private subscribedRoomIds = new Set<string>()
 
   // イベントハンドラー
   private eventHandlers: {
@@ -59,6 +71,14 @@ export class WebSocketClient {
       this.socket.on('connect', () => {
         console.log('WebSocket connected')
         this.reconnectAttempts = 0
+        if (this.subscribedRoomIds.size > 0) {
+          this.socket?.emit('subscribe_rooms', { roomIds: Array.from(this.subscribedRoomIds) })
+        }
+        if (this.currentRoomId) {
+          // 再接続: 切断中のイベントをサーバーから再送してもらう
+          const roomId = this.currentRoomId
+          this.socket?.emit('join_room', { roomId, lastSeq: this.lastSeqs[roomId] })
+        }
         resolve()
       })
 
@@ -88,6 +108,7 @@ export class WebSocketClient {
       this.socket = null
     }
     this.currentRoomId = null
+    this.subscribedRoomIds.clear()
   }
 
   // 再接続処理
@@ -113,13 +134,45 @@ export class WebSocketClient {
 
     this.socket.on('connected', (data) => this.emit('connected', data))
     this.socket.on('joined_room', (data) => this.emit('joined_room', data))
-    this.socket.on('new_message', (data) => this.emit('new_message', data))
+    this.socket.on('new_message', (data) => {
+      this.trackSeq(data.roomId, data.seq)
+      this.emit('new_message', data)
+    })
+    this.socket.on('new_messages', (data) => {
+      data.messages.forEach((message) => this.trackSeq(data.roomId, message.seq))
+      this.emit('new_messages', data)
+    })
     this.socket.on('user_joined', (data) => this.emit('user_joined', data))
     this.socket.on('user_left', (data) => this.emit('user_left', data))
     this.socket.on('user_typing', (data) => this.emit('user_typing', data))
+    this.socket.on('users_typing', (data) => this.emit('users_typing', data))
+    this.socket.on('room_activity', (data) => this.emit('room_activity', data))
+    this.socket.on('subscribed', (data) => {
+      data.rejected?.forEach((roomId) => this.subscribedRoomIds.delete(roomId))
+      this.emit('subscribed', data)
+    })
+    this.socket.on('unsubscribed', (data) => {
+      data.roomIds.forEach((roomId) => {
+        this.subscribedRoomIds.delete(roomId)
+        if (this.currentRoomId === roomId) {
+          this.currentRoomId = null
+        }
+      })
+      this.emit('unsubscribed', data)
+    })
     this.socket.on('error', (data) => this.emit('error', data))
   }
 
+  private trackSeq(roomId: string, seq: number): void {
+    if (seq > (this.lastSeqs[roomId] ?? 0)) {
+      this.lastSeqs[roomId] = seq
+    }
+  }
+
+  getLastSeq(roomId: string): number | undefined {
+    return this.lastSeqs[roomId]
+  }
+
   // ルームに参加
   joinRoom(roomId: string): void {
     if (!this.socket?.connected) {
@@ -127,8 +180,12 @@ export class WebSocketClient {
       return
     }
 
-    if (this.currentRoomId && this.currentRoomId !== roomId) {
-      // 現在のルームから退出
+    if (
+      this.currentRoomId &&
+      this.currentRoomId !== roomId &&
+      !this.subscribedRoomIds.has(this.currentRoomId)
+    ) {
+      // 購読していない現在のルームから退出（購読中ならサーバー側で room_activity のみに切り替わる）
       this.leaveRoom(this.currentRoomId)
     }
 
@@ -144,11 +201,27 @@ export class WebSocketClient {
     }
 
     this.socket.emit('leave_room', { roomId })
+    this.subscribedRoomIds.delete(roomId)
     if (this.currentRoomId === roomId) {
       this.currentRoomId = null
     }
   }
 
+  // サイドバーのルームを購読（フォーカスは変えずに room_activity を受信）
+  subscribeRooms(roomIds: string[]): void {
+    roomIds.forEach((roomId) => this.subscribedRoomIds.add(roomId))
+    if (this.socket?.connected && roomIds.length > 0) {
+      this.socket.emit('subscribe_rooms', { roomIds })
+    }
+  }
+
+  unsubscribeRooms(roomIds: string[]): void {
+    roomIds.forEach((roomId) => this.subscribedRoomIds.delete(roomId))
+    if (this.socket?.connected && roomIds.length > 0) {
+      this.socket.emit('unsubscribe_rooms', { roomIds })
+    }
+  }
+
   // メッセージ送信
   sendMessage(data: SendMessageData): void {
     if (!this.socket?.connected) {
@@ -173,6 +246,15 @@ export class WebSocketClient {
     this.socket.emit('typing', { typing })
   }
 
+  // 既読位置の送信（seq 省略時は最新メッセージまで既読）
+  markRead(roomId: string, seq?: number): void {
+    if (!this.socket?.connected) {
+      return
+    }
+
+    this.socket.emit('mark_read', seq === undefined ? { roomId } : { roomId, seq })
+  }
+
   // イベントハンドラーの登録
   on<K extends keyof ServerToClientEvents>(
     event: K,
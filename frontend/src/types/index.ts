@@ -15,6 +15,11 @@ export interface ChatRoom {
   description?: string
   owner: User
   isPrivate: boolean
+  broadcastBatchMs?: number | null
+  lastSeq?: number
+  // /api/rooms/my のみ
+  lastReadSeq?: number
+  unreadCount?: number
   createdAt: string
   updatedAt: string
   memberCount?: number
@@ -30,6 +35,13 @@ export interface Message {
   messageType: 'TEXT' | 'IMAGE' | 'EMOJI'
   imageUrl?: string
   createdAt: string
+  seq?: number
+}
+
+// メッセージ検索結果（highlights は content 内の一致範囲）
+export interface MessageSearchHit extends Message {
+  score: number
+  highlights: { start: number; end: number }[]
 }
 
 // ルームメンバー関連の型定義
@@ -45,6 +57,7 @@ export interface RoomMember {
 
 // WebSocket関連の型定義
 export interface SendMessageData {
+  roomId?: string // 省略時はフォーカス中のルーム
   content: string
   type: 'TEXT' | 'IMAGE' | 'EMOJI'
   imageUrl?: string
@@ -60,6 +73,12 @@ export interface MessageData {
   type: 'TEXT' | 'IMAGE' | 'EMOJI'
   imageUrl?: string
   timestamp: string
+  seq: number
+}
+
+export interface MessageBatchData {
+  roomId: string
+  messages: MessageData[]
 }
 
 export interface UserJoinedData {
@@ -74,6 +93,25 @@ export interface TypingNotificationData {
   typing: boolean
 }
 
+export interface TypingChangeData {
+  roomId: string
+  started: { userId: string; userName: string }[]
+  stopped: string[]
+}
+
+export interface RoomActivityData {
+  roomId: string
+  count: number
+  lastSeq: number
+  lastUserId: string | null
+  lastTimestamp: string | null
+}
+
+export interface RoomSubscriptionData {
+  roomIds: string[]
+  rejected?: string[]
+}
+
 // API レスポンス関連の型定義
 export interface ApiResponse<T> {
   data: T